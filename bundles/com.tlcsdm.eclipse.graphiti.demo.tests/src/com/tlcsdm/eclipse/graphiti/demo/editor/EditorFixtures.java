@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.editor;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.ide.IDE;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglXmlSerializer;
+
+/**
+ * Screen files and editors shared by the editor tests.
+ */
+final class EditorFixtures {
+
+	private EditorFixtures() {
+	}
+
+	/**
+	 * Creates a project with a screen file of labels laid out in a grid.
+	 */
+	static IFile createFile(String projectName, int widgetCount) throws Exception {
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
+		if (!project.exists()) {
+			project.create(null);
+		}
+		project.open(null);
+		LvglScreen screen = new LvglScreen("main");
+		for (int i = 0; i < widgetCount; i++) {
+			LvglWidget widget = new LvglWidget("label_" + i, WidgetType.LABEL);
+			widget.setX(i % 40 * 12);
+			widget.setY(i / 40 * 6);
+			widget.setText("Label " + i);
+			screen.addWidget(widget);
+		}
+		byte[] content = new LvglXmlSerializer().saveToString(screen).getBytes(StandardCharsets.UTF_8);
+		IFile file = project.getFile(projectName + ".graphxml");
+		file.create(new ByteArrayInputStream(content), true, null);
+		return file;
+	}
+
+	static void deleteProject(IFile file) throws CoreException {
+		file.getProject().delete(true, true, null);
+	}
+
+	static IWorkbenchPage getPage() {
+		return PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage();
+	}
+
+	/**
+	 * Opens a file in the multi-page editor and runs the work it posted.
+	 */
+	static LvglMultiPageEditor open(IWorkbenchPage page, IFile file) throws PartInitException {
+		LvglMultiPageEditor editor = (LvglMultiPageEditor) IDE.openEditor(page, file, LvglMultiPageEditor.ID);
+		drainEvents();
+		return editor;
+	}
+
+	static void drainEvents() {
+		Display display = Display.getCurrent();
+		while (display.readAndDispatch()) {
+			// Runs the pending paints and async runnables
+		}
+	}
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.editor;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.ui.IWorkbenchPage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Measures the time to open a screen with the Source page created lazily,
+ * as now, and eagerly, as before: an eager open is a lazy open followed by
+ * creating the Source page. The medians of several runs are printed, not
+ * checked.
+ * <p>
+ * Not part of the default build; run with {@code mvn verify -Pbenchmark}.
+ * </p>
+ */
+public class LvglMultiPageEditorBenchmark {
+
+	private static final int WIDGET_COUNT = 2000;
+	private static final int RUNS = 5;
+
+	private IFile file;
+
+	@Before
+	public void createFile() throws Exception {
+		file = EditorFixtures.createFile("open-time", WIDGET_COUNT);
+	}
+
+	@After
+	public void deleteFile() throws Exception {
+		EditorFixtures.deleteProject(file);
+	}
+
+	@Test
+	public void measureOpenTime() throws Exception {
+		IWorkbenchPage page = EditorFixtures.getPage();
+		// The first open also loads classes, it is not counted
+		LvglMultiPageEditor editor = EditorFixtures.open(page, file);
+		editor.createXMLPage();
+		page.closeEditor(editor, false);
+		long[] lazyTimes = new long[RUNS];
+		long[] eagerTimes = new long[RUNS];
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			editor = EditorFixtures.open(page, file);
+			lazyTimes[i] = System.nanoTime() - start;
+			editor.createXMLPage();
+			EditorFixtures.drainEvents();
+			eagerTimes[i] = System.nanoTime() - start;
+			page.closeEditor(editor, false);
+		}
+		System.out.printf("Opening %d widgets (median of %d runs): %d ms with the Source page created lazily, "
+				+ "%d ms eagerly%n", WIDGET_COUNT, RUNS, median(lazyTimes), median(eagerTimes));
+	}
+
+	private static long median(long[] nanos) {
+		long[] sorted = nanos.clone();
+		Arrays.sort(sorted);
+		return TimeUnit.NANOSECONDS.toMillis(sorted[sorted.length / 2]);
+	}
+}
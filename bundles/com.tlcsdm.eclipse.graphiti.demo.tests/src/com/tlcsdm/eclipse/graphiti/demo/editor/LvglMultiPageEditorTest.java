@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.editor;
+
+import static org.junit.Assert.assertEquals;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.ui.IWorkbenchPage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the Source page text editor is only created when the page is
+ * first shown.
+ */
+public class LvglMultiPageEditorTest {
+
+	private IFile file;
+
+	@Before
+	public void createFile() throws Exception {
+		file = EditorFixtures.createFile("source-page", 20);
+	}
+
+	@After
+	public void deleteFile() throws Exception {
+		EditorFixtures.deleteProject(file);
+	}
+
+	@Test
+	public void sourcePageIsCreatedOnFirstActivation() throws Exception {
+		IWorkbenchPage page = EditorFixtures.getPage();
+		LvglMultiPageEditor editor = EditorFixtures.open(page, file);
+		try {
+			// The text editor is the only nested editor on the file input
+			assertEquals(0, editor.findEditors(editor.getEditorInput()).length);
+			editor.createXMLPage();
+			EditorFixtures.drainEvents();
+			assertEquals(1, editor.findEditors(editor.getEditorInput()).length);
+		} finally {
+			page.closeEditor(editor, false);
+		}
+	}
+}
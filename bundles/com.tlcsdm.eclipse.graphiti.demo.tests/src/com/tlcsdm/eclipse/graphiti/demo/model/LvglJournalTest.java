@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+
+/**
+ * Checks that replaying a journal gives the journaled screen, and that a
+ * journal is only used on the content it was made on.
+ */
+public class LvglJournalTest {
+
+	@Test
+	public void replayGivesTheJournaledScreen() throws Exception {
+		for (int seed = 0; seed < 100; seed++) {
+			Random random = new Random(seed);
+			String saved = ModelFixtures.save(ModelFixtures.createScreen(random, 1 + random.nextInt(20)));
+			LvglScreen screen = ModelFixtures.load(saved);
+			LvglJournal journal = new LvglJournal(null);
+			journal.attach(screen);
+			ModelFixtures.edit(screen, random, 1 + random.nextInt(30));
+			journal.detach();
+
+			LvglScreen replayed = LvglJournal.replay(ModelFixtures.load(saved), journal.drain());
+			assertEquals("seed " + seed, ModelFixtures.save(screen), ModelFixtures.save(replayed));
+		}
+	}
+
+	@Test
+	public void replayOfBatchesGivesTheJournaledScreen() throws Exception {
+		for (int seed = 0; seed < 100; seed++) {
+			Random random = new Random(seed);
+			String saved = ModelFixtures.save(ModelFixtures.createScreen(random, 1 + random.nextInt(20)));
+			LvglScreen screen = ModelFixtures.load(saved);
+			LvglJournal journal = new LvglJournal(null);
+			journal.attach(screen);
+			for (int batch = 0; batch < 5; batch++) {
+				screen.beginBatch();
+				try {
+					ModelFixtures.edit(screen, random, 1 + random.nextInt(10));
+				} finally {
+					screen.endBatch();
+				}
+			}
+			journal.detach();
+
+			LvglScreen replayed = LvglJournal.replay(ModelFixtures.load(saved), journal.drain());
+			assertEquals("seed " + seed, ModelFixtures.save(screen), ModelFixtures.save(replayed));
+		}
+	}
+
+	@Test
+	public void moveRecordsOnlyTheIndexes() {
+		LvglScreen screen = new LvglScreen("main");
+		LvglWidget container = new LvglWidget("container", WidgetType.CONTAINER);
+		screen.addWidget(container);
+		screen.addWidget(new LvglWidget("label", WidgetType.LABEL));
+		for (int i = 0; i < 100; i++) {
+			container.addChild(new LvglWidget("child" + i, WidgetType.BUTTON));
+		}
+		LvglJournal journal = new LvglJournal(null);
+		journal.attach(screen);
+		container.bringToFront();
+		screen.beginBatch();
+		try {
+			container.sendToBack();
+		} finally {
+			screen.endBatch();
+		}
+		assertEquals("m " + container.getId() + " 0 1\nm " + container.getId() + " 1 0\n", journal.drain());
+	}
+
+	@Test
+	public void movesInAWidgetAddedInTheSameBatchAreNotReplayed() throws Exception {
+		LvglScreen screen = new LvglScreen("main");
+		String saved = ModelFixtures.save(screen);
+		LvglJournal journal = new LvglJournal(null);
+		journal.attach(screen);
+		screen.beginBatch();
+		try {
+			LvglWidget container = new LvglWidget("container", WidgetType.CONTAINER);
+			screen.addWidget(container);
+			LvglWidget first = new LvglWidget("a", WidgetType.LABEL);
+			LvglWidget third = new LvglWidget("c", WidgetType.LABEL);
+			container.addChild(first);
+			container.addChild(new LvglWidget("b", WidgetType.LABEL));
+			container.addChild(third);
+			container.moveChild(first, 1);
+			container.moveChild(third, 0);
+		} finally {
+			screen.endBatch();
+		}
+		journal.detach();
+
+		// The container is recorded with its children in their final order
+		LvglScreen replayed = LvglJournal.replay(ModelFixtures.load(saved), journal.drain());
+		assertEquals(ModelFixtures.save(screen), ModelFixtures.save(replayed));
+	}
+
+	@Test
+	public void recordsAreReadOnTheJournaledContentOnly() {
+		byte[] content = "<screen name=\"main\"/>".getBytes(StandardCharsets.UTF_8);
+		byte[] other = "<screen name=\"other\"/>".getBytes(StandardCharsets.UTF_8);
+		String records = "p 1 X =10\np 1 Y =20\n";
+		String text = LvglJournal.header(content) + records;
+
+		assertEquals(records, LvglJournal.getRecords(text, content));
+		assertNull(LvglJournal.getRecords(text, other));
+		assertNull(LvglJournal.getRecords(LvglJournal.header(content), content));
+	}
+
+	@Test
+	public void recordCutOffByACrashIsDropped() {
+		byte[] content = "<screen name=\"main\"/>".getBytes(StandardCharsets.UTF_8);
+		String text = LvglJournal.header(content) + "p 1 X =10\np 1 Y =";
+		assertEquals("p 1 X =10\n", LvglJournal.getRecords(text, content));
+	}
+}
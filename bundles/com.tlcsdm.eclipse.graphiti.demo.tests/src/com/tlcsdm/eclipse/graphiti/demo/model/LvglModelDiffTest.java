@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Checks that applying {@code diff(a, b)} to {@code a} gives {@code b}.
+ */
+public class LvglModelDiffTest {
+
+	@Test
+	public void applyingTheDiffGivesTheNewScreen() throws Exception {
+		for (int seed = 0; seed < 200; seed++) {
+			Random random = new Random(seed);
+			LvglScreen oldScreen = ModelFixtures.createScreen(random, 1 + random.nextInt(30));
+			LvglScreen newScreen = ModelFixtures.load(ModelFixtures.save(oldScreen));
+			ModelFixtures.edit(newScreen, random, random.nextInt(20));
+			String expected = ModelFixtures.save(newScreen);
+
+			LvglModelDiff.compute(oldScreen, newScreen).apply(oldScreen);
+			assertEquals("seed " + seed, expected, ModelFixtures.save(oldScreen));
+		}
+	}
+
+	@Test
+	public void changedTopLevelWidgetsCoverEveryChangedSubtree() throws Exception {
+		for (int seed = 0; seed < 200; seed++) {
+			Random random = new Random(seed);
+			LvglScreen oldScreen = ModelFixtures.createScreen(random, 1 + random.nextInt(30));
+			LvglScreen newScreen = ModelFixtures.load(ModelFixtures.save(oldScreen));
+			ModelFixtures.edit(newScreen, random, random.nextInt(5));
+
+			Set<Long> changed = LvglModelDiff.compute(oldScreen, newScreen).getChangedTopLevelIds();
+			Map<Long, Long> oldHashes = new HashMap<>();
+			for (LvglWidgetSnapshot widget : oldScreen.snapshot().getWidgets()) {
+				oldHashes.put(widget.getId(), widget.getSubtreeHash());
+			}
+			for (LvglWidgetSnapshot widget : newScreen.snapshot().getWidgets()) {
+				Long oldHash = oldHashes.get(widget.getId());
+				if (oldHash == null || oldHash != widget.getSubtreeHash()) {
+					assertTrue("seed " + seed + ": " + widget.getName(), changed.contains(widget.getId()));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void nestedChangeOnlyChangesItsTopLevelWidget() throws Exception {
+		LvglScreen oldScreen = ModelFixtures.createScreen(new Random(43), 30);
+		LvglScreen newScreen = ModelFixtures.load(ModelFixtures.save(oldScreen));
+		for (LvglWidget topLevel : newScreen.getWidgets()) {
+			if (!topLevel.getChildren().isEmpty()) {
+				topLevel.getChildren().get(0).setX(topLevel.getChildren().get(0).getX() + 1);
+				assertEquals(Set.of(topLevel.getId()),
+						LvglModelDiff.compute(oldScreen, newScreen).getChangedTopLevelIds());
+				return;
+			}
+		}
+		throw new AssertionError("No container with children");
+	}
+
+	@Test
+	public void equalScreensHaveAnEmptyDiff() throws Exception {
+		LvglScreen screen = ModelFixtures.createScreen(new Random(1), 25);
+		LvglScreen copy = ModelFixtures.load(ModelFixtures.save(screen));
+		assertTrue(LvglModelDiff.compute(screen, copy).isEmpty());
+	}
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+
+/**
+ * Checks that snapshots taken after edits match snapshots built from scratch
+ * and share the unchanged subtrees.
+ */
+public class LvglScreenSnapshotTest {
+
+	@Test
+	public void snapshotsAfterRandomEditsMatchFreshSnapshots() {
+		Random random = new Random(28);
+		LvglScreen screen = ModelFixtures.createScreen(random, 40);
+		for (int round = 0; round < 200; round++) {
+			ModelFixtures.edit(screen, random, 1 + random.nextInt(3));
+			List<LvglWidgetSnapshot> snapshots = screen.snapshot().getWidgets();
+			// Building without previous snapshots copies every widget
+			assertSameTree(LvglWidget.snapshot(screen.getWidgets(), List.of()), snapshots);
+		}
+	}
+
+	@Test
+	public void unchangedSubtreesAreShared() {
+		LvglScreen screen = new LvglScreen("main");
+		LvglWidget first = new LvglWidget("first", WidgetType.CONTAINER);
+		LvglWidget second = new LvglWidget("second", WidgetType.CONTAINER);
+		LvglWidget child = new LvglWidget("child", WidgetType.BUTTON);
+		screen.addWidget(first);
+		screen.addWidget(second);
+		second.addChild(child);
+		LvglScreenSnapshot before = screen.snapshot();
+		assertSame(before, screen.snapshot());
+
+		child.setX(10);
+		LvglScreenSnapshot after = screen.snapshot();
+		assertSame(before.getWidgets().get(0), after.getWidgets().get(0));
+		assertNotSame(before.getWidgets().get(1), after.getWidgets().get(1));
+		assertEquals(10, after.getWidgets().get(1).getChildren().get(0).getX());
+		assertSame(after.getWidgets().get(1).getChildren().get(0), child.snapshot());
+
+		screen.moveWidget(second, 0);
+		LvglScreenSnapshot moved = screen.snapshot();
+		assertSame(after.getWidgets().get(1), moved.getWidgets().get(0));
+		assertSame(after.getWidgets().get(0), moved.getWidgets().get(1));
+	}
+
+	@Test
+	public void widgetsFromAnotherScreenAreNotMatchedById() {
+		LvglScreen screen = new LvglScreen("main");
+		LvglWidget widget = new LvglWidget("widget", WidgetType.LABEL);
+		screen.addWidget(widget);
+		LvglScreen other = new LvglScreen("other");
+		LvglWidget stranger = new LvglWidget("stranger", WidgetType.BUTTON);
+		other.addWidget(stranger);
+		other.snapshot();
+		assertEquals(widget.getId(), stranger.getId());
+		screen.snapshot();
+
+		screen.removeWidget(widget);
+		other.removeWidget(stranger);
+		screen.addWidget(stranger);
+		assertEquals("stranger", screen.snapshot().getWidgets().get(0).getName());
+	}
+
+	private static void assertSameTree(List<LvglWidgetSnapshot> expected, List<LvglWidgetSnapshot> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getId(), actual.get(i).getId());
+			assertEquals(expected.get(i).getSubtreeHash(), actual.get(i).getSubtreeHash());
+			assertSameTree(expected.get(i).getChildren(), actual.get(i).getChildren());
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that the collapsed widgets of an {@link LvglScreenSummary} expand to
+ * the widgets of the file.
+ */
+public class LvglScreenSummaryTest {
+
+	@Test
+	public void expandingAllWidgetsGivesTheFullScreen() throws Exception {
+		for (int seed = 0; seed < 20; seed++) {
+			Random random = new Random(seed);
+			String xml = ModelFixtures.save(ModelFixtures.createScreen(random, 10 + random.nextInt(30)));
+			assertEquals("seed " + seed, xml, ModelFixtures.save(expandAll(xml)));
+		}
+	}
+
+	@Test
+	public void expandsFilesWithoutIdentifiers() throws Exception {
+		String xml = """
+				<?xml version="1.0" encoding="UTF-8"?>
+				<screen name="main" width="480" height="320">
+				    <widget name="a" type="CONTAINER">
+				        <children>
+				            <widget name="a1" type="BUTTON"/>
+				            <widget name="a2" type="LABEL"/>
+				        </children>
+				    </widget>
+				    <widget name="b" type="CONTAINER">
+				        <children>
+				            <widget name="b1" type="BUTTON"/>
+				        </children>
+				    </widget>
+				</screen>
+				""";
+		LvglScreen screen = expandAll(xml);
+		assertEquals(2, screen.getWidgets().get(0).getChildren().size());
+		assertEquals("b1", screen.getWidgets().get(1).getChildren().get(0).getName());
+	}
+
+	private static LvglScreen expandAll(String xml) throws Exception {
+		LvglScreenSummary summary = new LvglXmlSerializer().loadSummary(xml.getBytes(StandardCharsets.UTF_8));
+		LvglScreen screen = summary.getScreen();
+		for (LvglWidget widget : screen.getWidgets()) {
+			if (summary.isCollapsed(widget)) {
+				assertTrue(summary.expand(widget));
+				assertFalse(summary.isCollapsed(widget));
+			}
+		}
+		return screen;
+	}
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+
+/**
+ * Checks the widget indexes of {@link LvglScreen} against a tree walk.
+ */
+public class LvglScreenTest {
+
+	@Test
+	public void indexesFollowRandomEdits() {
+		Random random = new Random(36);
+		LvglScreen screen = ModelFixtures.createScreen(random, 30);
+		for (int round = 0; round < 100; round++) {
+			ModelFixtures.edit(screen, random, 1 + random.nextInt(3));
+			if (round == 50) {
+				// Moves a widget to another partition
+				LvglWidget widget = ModelFixtures.allWidgets(screen).get(0);
+				widget.setWidgetType(widget.getWidgetType() == WidgetType.LABEL ? WidgetType.BUTTON
+						: WidgetType.LABEL);
+			}
+			for (LvglWidget widget : ModelFixtures.allWidgets(screen)) {
+				assertSame(widget, screen.findWidgetById(widget.getId()));
+			}
+			// The partition is built on the first query, in round 30
+			if (round >= 30) {
+				for (WidgetType type : WidgetType.values()) {
+					assertEquals(new HashSet<>(screen.where(widget -> widget.getWidgetType() == type)),
+							new HashSet<>(screen.widgetsOfType(type)));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+
+/**
+ * Checks the undo order and the memory limit of {@link LvglUndoHistory}.
+ */
+public class LvglUndoHistoryTest {
+
+	@Test
+	public void undoAndRedoRestoreEveryStep() throws Exception {
+		Random random = new Random(7);
+		LvglScreen screen = ModelFixtures.createScreen(random, 15);
+		LvglUndoHistory history = screen.getUndoHistory();
+		List<String> states = new ArrayList<>();
+		states.add(ModelFixtures.save(screen));
+		for (int i = 0; i < 20; i++) {
+			LvglUndoHistory.Step step = history.beginStep("Edit " + i);
+			ModelFixtures.edit(screen, random, 1 + random.nextInt(5));
+			// Steps without changes are not recorded
+			screen.setName("step " + i);
+			step.close();
+			states.add(ModelFixtures.save(screen));
+		}
+		for (int i = states.size() - 2; i >= 0; i--) {
+			assertTrue(history.undo());
+			assertEquals(states.get(i), ModelFixtures.save(screen));
+		}
+		assertFalse(history.undo());
+		for (int i = 1; i < states.size(); i++) {
+			assertTrue(history.redo());
+			assertEquals(states.get(i), ModelFixtures.save(screen));
+		}
+		assertFalse(history.redo());
+	}
+
+	@Test
+	public void onlyTheMostRecentStepIsUndone() {
+		LvglScreen screen = new LvglScreen("main");
+		LvglWidget widget = new LvglWidget("w", WidgetType.BUTTON);
+		screen.addWidget(widget);
+		LvglUndoHistory history = screen.getUndoHistory();
+		LvglUndoHistory.Step first = history.beginStep("First");
+		widget.setX(10);
+		first.close();
+		LvglUndoHistory.Step second = history.beginStep("Second");
+		widget.setX(20);
+		second.close();
+
+		assertFalse(history.canUndo(first));
+		assertFalse(history.undo(first));
+		assertEquals(20, widget.getX());
+		assertTrue(history.canUndo(second));
+		assertTrue(history.undo(second));
+		assertFalse(history.canRedo(first));
+		assertFalse(history.redo(first));
+		assertTrue(history.undo(first));
+		assertEquals(0, widget.getX());
+		assertFalse(history.redo(second));
+		assertTrue(history.redo(first));
+		assertEquals(10, widget.getX());
+	}
+
+	@Test
+	public void memoryLimitDropsTheOldestSteps() {
+		LvglScreen screen = new LvglScreen("main");
+		LvglWidget widget = new LvglWidget("w", WidgetType.BUTTON);
+		screen.addWidget(widget);
+		LvglUndoHistory history = screen.getUndoHistory();
+		for (int i = 1; i <= 100; i++) {
+			LvglUndoHistory.Step step = history.beginStep("Move");
+			widget.setX(i);
+			widget.setY(i);
+			step.close();
+		}
+		long full = history.getMemoryUsage();
+		history.setMemoryLimit(full / 10);
+		assertTrue(history.getMemoryUsage() <= full / 10);
+
+		int undone = 0;
+		while (history.undo()) {
+			undone++;
+		}
+		assertTrue(undone > 0 && undone < 100);
+		assertEquals(100 - undone, widget.getX());
+
+		while (history.redo()) {
+			undone--;
+		}
+		assertEquals(0, undone);
+		assertEquals(100, widget.getX());
+
+		// The most recent step is kept whatever the limit
+		history.setMemoryLimit(0);
+		assertTrue(history.undo());
+		assertFalse(history.canUndo());
+		assertEquals(99, widget.getX());
+	}
+
+	@Test
+	public void droppedStepsCanNoLongerBeUndone() {
+		LvglScreen screen = new LvglScreen("main");
+		LvglWidget widget = new LvglWidget("w", WidgetType.BUTTON);
+		screen.addWidget(widget);
+		LvglUndoHistory history = screen.getUndoHistory();
+		List<LvglUndoHistory.Step> steps = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			LvglUndoHistory.Step step = history.beginStep("Move");
+			widget.setX(i);
+			step.close();
+			steps.add(step);
+		}
+		history.setMemoryLimit(0);
+		assertTrue(history.canUndo(steps.get(9)));
+		assertTrue(history.undo(steps.get(9)));
+		assertFalse(history.canUndo(steps.get(8)));
+		assertFalse(history.undo(steps.get(8)));
+		assertEquals(9, widget.getX());
+
+		history.clear();
+		assertFalse(history.canRedo(steps.get(9)));
+		assertFalse(history.redo(steps.get(9)));
+	}
+
+	@Test
+	public void moveCostsTheSameForAnySubtree() {
+		LvglScreen screen = new LvglScreen("main");
+		LvglWidget small = new LvglWidget("small", WidgetType.BUTTON);
+		LvglWidget large = new LvglWidget("large", WidgetType.CONTAINER);
+		screen.addWidget(small);
+		screen.addWidget(large);
+		for (int i = 0; i < 1000; i++) {
+			large.addChild(new LvglWidget("child" + i, WidgetType.LABEL));
+		}
+		LvglUndoHistory history = screen.getUndoHistory();
+		LvglUndoHistory.Step step = history.beginStep("Bring to front");
+		small.bringToFront();
+		step.close();
+		long smallMove = history.getMemoryUsage();
+		step = history.beginStep("Bring to front");
+		large.bringToFront();
+		step.close();
+		assertEquals(2 * smallMove, history.getMemoryUsage());
+
+		assertTrue(history.undo());
+		assertSame(large, screen.getWidgets().get(0));
+		assertTrue(history.undo());
+		assertSame(small, screen.getWidgets().get(0));
+		assertTrue(history.redo());
+		assertSame(large, screen.getWidgets().get(0));
+		assertSame(small, screen.getWidgets().get(1));
+	}
+
+	@Test
+	public void stepWithoutChangesIsNotRecorded() {
+		LvglScreen screen = new LvglScreen("main");
+		LvglUndoHistory history = screen.getUndoHistory();
+		LvglUndoHistory.Step step = history.beginStep("Nothing");
+		step.close();
+		assertFalse(history.canUndo());
+		// Undoing it changes nothing, so it never blocks the command stack
+		assertTrue(history.canUndo(step));
+		assertTrue(history.canRedo(step));
+	}
+
+	@Test
+	public void applyingADiffClearsTheHistory() throws Exception {
+		LvglScreen screen = ModelFixtures.createScreen(new Random(3), 10);
+		LvglUndoHistory history = screen.getUndoHistory();
+		LvglUndoHistory.Step step = history.beginStep("Edit");
+		ModelFixtures.edit(screen, new Random(4), 5);
+		screen.setName("edited");
+		step.close();
+
+		LvglScreen newScreen = ModelFixtures.load(ModelFixtures.save(screen));
+		ModelFixtures.edit(newScreen, new Random(5), 5);
+		LvglModelDiff.compute(screen, newScreen).apply(screen);
+		assertFalse(history.canUndo(step));
+		assertFalse(history.undo());
+	}
+}
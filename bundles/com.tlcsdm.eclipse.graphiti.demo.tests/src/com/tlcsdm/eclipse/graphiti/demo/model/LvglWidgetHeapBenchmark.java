@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+
+/**
+ * Measures the heap retained by a synthetic screen of 100k widgets in 1k
+ * containers, loaded from XML like a file, and by its first snapshot, which
+ * every editor takes on open. The widgets cycle through all types with the
+ * attribute values the editor writes by default.
+ * <p>
+ * Not part of the default build; run with {@code mvn verify -Pbenchmark}.
+ * The sizes depend on the JVM, so only the loaded screen is checked, against
+ * the size before widget properties were stored compactly.
+ * </p>
+ */
+public class LvglWidgetHeapBenchmark {
+
+	private static final int CONTAINER_COUNT = 1000;
+	private static final int CHILD_COUNT = 100;
+	private static final int WIDGET_COUNT = CONTAINER_COUNT * (CHILD_COUNT + 1);
+
+	/** Bytes per widget of the loaded screen before the compact property storage */
+	private static final long BASELINE_BYTES_PER_WIDGET = 261;
+
+	@Test
+	public void measureHeapOfLoadedScreen() throws Exception {
+		byte[] xml = createXml();
+		long before = usedHeap();
+		LvglScreen screen = new LvglXmlSerializer().load(new ByteArrayInputStream(xml));
+		long loaded = usedHeap();
+		LvglScreenSnapshot snapshot = screen.snapshot();
+		long snapshotted = usedHeap();
+		print("Heap of %d widgets", before, loaded);
+		print("Heap of %d widgets with a snapshot", before, snapshotted);
+		// Keeps the screen and snapshot reachable until they were measured
+		assertEquals(CONTAINER_COUNT, screen.getWidgets().size());
+		assertEquals(CONTAINER_COUNT, snapshot.getWidgets().size());
+		long bytesPerWidget = (loaded - before) / WIDGET_COUNT;
+		assertTrue("Loaded screen takes " + bytesPerWidget + " bytes per widget",
+				bytesPerWidget < BASELINE_BYTES_PER_WIDGET);
+	}
+
+	private static void print(String label, long before, long after) {
+		System.out.printf(label + ": %.1f MB, %d bytes per widget%n", WIDGET_COUNT,
+				(after - before) / (1024.0 * 1024.0), (after - before) / WIDGET_COUNT);
+	}
+
+	private static byte[] createXml() throws Exception {
+		WidgetType[] types = WidgetType.values();
+		LvglScreen screen = new LvglScreen("heap");
+		for (int c = 0; c < CONTAINER_COUNT; c++) {
+			LvglWidget container = new LvglWidget("container_" + c, WidgetType.CONTAINER);
+			screen.addWidget(container);
+			for (int i = 0; i < CHILD_COUNT; i++) {
+				int n = c * CHILD_COUNT + i;
+				LvglWidget widget = new LvglWidget("widget_" + n, types[n % types.length]);
+				widget.setX(n % 480);
+				widget.setY(n % 320);
+				container.addChild(widget);
+			}
+		}
+		return new LvglXmlSerializer().saveToString(screen).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+		// Collect until the used heap no longer shrinks
+		for (int i = 0; i < 10; i++) {
+			System.gc();
+			Thread.sleep(50);
+			long current = runtime.totalMemory() - runtime.freeMemory();
+			if (current >= used) {
+				break;
+			}
+			used = current;
+		}
+		return used;
+	}
+}
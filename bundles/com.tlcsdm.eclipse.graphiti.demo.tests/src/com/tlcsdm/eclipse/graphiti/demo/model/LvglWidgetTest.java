@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+
+/**
+ * Checks the child list operations of {@link LvglWidget}.
+ */
+public class LvglWidgetTest {
+
+	@Test
+	public void removingAWidgetThatIsNoChildChangesNothing() {
+		LvglScreen screen = new LvglScreen("main");
+		LvglWidget container = new LvglWidget("container", WidgetType.CONTAINER);
+		LvglWidget other = new LvglWidget("other", WidgetType.CONTAINER);
+		LvglWidget child = new LvglWidget("child", WidgetType.BUTTON);
+		screen.addWidget(container);
+		screen.addWidget(other);
+		other.addChild(child);
+		long id = child.getId();
+		List<ModelProperty> events = new ArrayList<>();
+		screen.addTreeChangeListener((source, property, oldValue, newValue) -> events.add(property));
+
+		container.removeChild(child);
+		assertSame(other, child.getParent());
+		assertSame(child, screen.findWidgetById(id));
+		assertEquals(List.of(), events);
+	}
+}
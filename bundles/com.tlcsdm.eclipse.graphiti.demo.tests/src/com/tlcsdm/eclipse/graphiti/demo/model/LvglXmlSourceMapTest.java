@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+
+/**
+ * Checks that {@link LvglXmlSourceMap} finds the widget element containing
+ * the edits of the text.
+ */
+public class LvglXmlSourceMapTest {
+
+	@Test
+	public void findsTheInnermostEditedWidget() throws Exception {
+		String text = ModelFixtures.save(createScreen());
+		LvglXmlSourceMap map = LvglXmlSourceMap.scan(text);
+		assertFalse(map.isEdited());
+		assertNull(map.findEditedWidget());
+
+		// Rename "inner" to "renamed"
+		int offset = text.indexOf("\"inner\"") + 1;
+		String edited = replace(text, offset, 5, "renamed");
+		map.recordEdit(offset, 5, 7);
+		assertTrue(map.isEdited());
+
+		LvglXmlSourceMap.WidgetRegion region = map.findEditedWidget();
+		assertNotNull(region);
+		assertArrayEquals(new int[] { 0, 1 }, region.getPath());
+		String element = edited.substring(region.getOffset(), region.getOffset() + region.getLength());
+		assertTrue(element, element.startsWith("<widget") && element.endsWith("/>"));
+		assertTrue(element, element.contains("name=\"renamed\""));
+	}
+
+	@Test
+	public void combinesSeveralEditsInOneWidget() throws Exception {
+		String text = ModelFixtures.save(createScreen());
+		LvglXmlSourceMap map = LvglXmlSourceMap.scan(text);
+		int first = text.indexOf("\"first\"") + 1;
+		int inner = text.indexOf("\"inner\"") + 1;
+		// Edits later in the text first, so the earlier offset stays valid
+		String edited = replace(text, inner, 5, "x");
+		map.recordEdit(inner, 5, 1);
+		edited = replace(edited, first, 5, "y");
+		map.recordEdit(first, 5, 1);
+
+		LvglXmlSourceMap.WidgetRegion region = map.findEditedWidget();
+		assertNotNull(region);
+		assertArrayEquals(new int[] { 0 }, region.getPath());
+		String element = edited.substring(region.getOffset(), region.getOffset() + region.getLength());
+		assertTrue(element, element.startsWith("<widget") && element.endsWith("</widget>"));
+	}
+
+	@Test
+	public void editsAcrossWidgetsAreNotWithinOne() throws Exception {
+		String text = ModelFixtures.save(createScreen());
+		LvglXmlSourceMap map = LvglXmlSourceMap.scan(text);
+		int start = text.indexOf("\"inner\"");
+		int end = text.indexOf("\"last\"");
+		map.recordEdit(start, end - start, 0);
+		assertNull(map.findEditedWidget());
+	}
+
+	private static LvglScreen createScreen() {
+		LvglScreen screen = new LvglScreen("main");
+		LvglWidget container = new LvglWidget("first", WidgetType.CONTAINER);
+		screen.addWidget(container);
+		container.addChild(new LvglWidget("button", WidgetType.BUTTON));
+		container.addChild(new LvglWidget("inner", WidgetType.LABEL));
+		screen.addWidget(new LvglWidget("last", WidgetType.SLIDER));
+		return screen;
+	}
+
+	private static String replace(String text, int offset, int length, String replacement) {
+		return text.substring(0, offset) + replacement + text.substring(offset + length);
+	}
+}
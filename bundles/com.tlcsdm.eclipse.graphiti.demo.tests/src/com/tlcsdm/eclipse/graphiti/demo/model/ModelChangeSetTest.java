@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+
+/**
+ * Checks the coalescing of {@link ModelChangeSet}.
+ */
+public class ModelChangeSetTest {
+
+	@Test
+	public void keepsFirstOldAndLastNewValue() {
+		LvglWidget widget = new LvglWidget("w", WidgetType.BUTTON);
+		ModelChangeSet changes = new ModelChangeSet();
+		changes.record(widget, ModelProperty.X, 1, 2);
+		changes.record(widget, ModelProperty.X, 2, 3);
+		List<ModelChangeSet.Change> list = changes.getChanges();
+		assertEquals(1, list.size());
+		assertEquals(1, list.get(0).getOldValue());
+		assertEquals(3, list.get(0).getNewValue());
+	}
+
+	@Test
+	public void dropsChangesBackToTheOriginalValue() {
+		LvglWidget widget = new LvglWidget("w", WidgetType.BUTTON);
+		ModelChangeSet changes = new ModelChangeSet();
+		changes.record(widget, ModelProperty.X, 1, 2);
+		changes.record(widget, ModelProperty.X, 2, 1);
+		changes.record(widget, ModelProperty.TEXT, "a", "a");
+		assertTrue(changes.isEmpty());
+	}
+
+	@Test
+	public void listsPropertyChangesBeforeStructuralChangesInOrder() {
+		LvglScreen screen = new LvglScreen("main");
+		LvglWidget first = new LvglWidget("a", WidgetType.BUTTON);
+		LvglWidget second = new LvglWidget("b", WidgetType.BUTTON);
+		ModelChangeSet changes = new ModelChangeSet();
+		changes.recordStructural(screen, ModelProperty.ADD, first, 0);
+		changes.record(first, ModelProperty.Y, 0, 5);
+		changes.recordStructural(screen, ModelProperty.REMOVE, second, 1);
+		List<ModelChangeSet.Change> list = changes.getChanges();
+		assertEquals(3, list.size());
+		assertSame(ModelProperty.Y, list.get(0).getProperty());
+		assertSame(first, list.get(1).getChild());
+		assertEquals(0, list.get(1).getIndex());
+		assertSame(second, list.get(2).getChild());
+		assertEquals(1, list.get(2).getIndex());
+	}
+
+	@Test
+	public void recordsMovesWithBothIndexes() {
+		LvglScreen screen = new LvglScreen("main");
+		LvglWidget first = new LvglWidget("a", WidgetType.BUTTON);
+		LvglWidget second = new LvglWidget("b", WidgetType.BUTTON);
+		screen.addWidget(first);
+		screen.addWidget(second);
+		ModelChangeSet[] result = new ModelChangeSet[1];
+		screen.addModelChangeListener((source, property, oldValue, newValue) -> {
+			if (newValue instanceof ModelChangeSet changes) {
+				result[0] = changes;
+			}
+		});
+		screen.beginBatch();
+		try {
+			first.bringToFront();
+		} finally {
+			screen.endBatch();
+		}
+		List<ModelChangeSet.Change> list = result[0].getChanges();
+		assertEquals(1, list.size());
+		assertSame(ModelProperty.MOVE, list.get(0).getProperty());
+		assertSame(first, list.get(0).getChild());
+		assertEquals(0, list.get(0).getOldIndex());
+		assertEquals(1, list.get(0).getIndex());
+	}
+}
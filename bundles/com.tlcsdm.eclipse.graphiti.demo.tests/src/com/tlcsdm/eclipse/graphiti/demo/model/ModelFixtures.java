@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+
+/**
+ * Screens and random edits shared by the model tests.
+ */
+final class ModelFixtures {
+
+	private static final WidgetType[] TYPES = { WidgetType.BUTTON, WidgetType.LABEL, WidgetType.SLIDER,
+			WidgetType.CONTAINER };
+
+	private static int nameCounter;
+
+	private ModelFixtures() {
+	}
+
+	/**
+	 * Creates a screen of random widgets, some of them nested in containers.
+	 */
+	static LvglScreen createScreen(Random random, int widgetCount) {
+		LvglScreen screen = new LvglScreen("main");
+		for (int i = 0; i < widgetCount; i++) {
+			addWidget(screen, random);
+		}
+		return screen;
+	}
+
+	/**
+	 * Applies random property changes, insertions, removals and moves.
+	 */
+	static void edit(LvglScreen screen, Random random, int editCount) {
+		for (int i = 0; i < editCount; i++) {
+			List<LvglWidget> widgets = allWidgets(screen);
+			int kind = widgets.isEmpty() ? 0 : random.nextInt(6);
+			if (kind == 0) {
+				addWidget(screen, random);
+				continue;
+			}
+			LvglWidget widget = widgets.get(random.nextInt(widgets.size()));
+			switch (kind) {
+				case 1 -> widget.setX(random.nextInt(400));
+				case 2 -> widget.setY(random.nextInt(300));
+				case 3 -> widget.setText("text " + random.nextInt(100));
+				case 4 -> remove(widget);
+				default -> move(widget, random);
+			}
+		}
+	}
+
+	static List<LvglWidget> allWidgets(LvglScreen screen) {
+		List<LvglWidget> result = new ArrayList<>();
+		collect(screen.getWidgets(), result);
+		return result;
+	}
+
+	static String save(LvglScreen screen) throws IOException {
+		return new LvglXmlSerializer().saveToString(screen);
+	}
+
+	static LvglScreen load(String xml) throws IOException {
+		return new LvglXmlSerializer().load(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static void addWidget(LvglScreen screen, Random random) {
+		LvglWidget widget = new LvglWidget("w" + ++nameCounter, TYPES[random.nextInt(TYPES.length)]);
+		widget.setX(random.nextInt(400));
+		List<LvglWidget> containers = new ArrayList<>();
+		for (LvglWidget candidate : allWidgets(screen)) {
+			if (candidate.getWidgetType() == WidgetType.CONTAINER) {
+				containers.add(candidate);
+			}
+		}
+		if (containers.isEmpty() || random.nextBoolean()) {
+			screen.insertWidget(random.nextInt(screen.getWidgets().size() + 1), widget);
+		} else {
+			LvglWidget parent = containers.get(random.nextInt(containers.size()));
+			parent.insertChild(random.nextInt(parent.getChildren().size() + 1), widget);
+		}
+	}
+
+	private static void remove(LvglWidget widget) {
+		if (widget.getParent() != null) {
+			widget.getParent().removeChild(widget);
+		} else {
+			widget.getScreen().removeWidget(widget);
+		}
+	}
+
+	private static void move(LvglWidget widget, Random random) {
+		if (widget.getParent() != null) {
+			LvglWidget parent = widget.getParent();
+			parent.moveChild(widget, random.nextInt(parent.getChildren().size()));
+		} else {
+			LvglScreen screen = widget.getScreen();
+			screen.moveWidget(widget, random.nextInt(screen.getWidgets().size()));
+		}
+	}
+
+	private static void collect(List<LvglWidget> widgets, List<LvglWidget> result) {
+		for (LvglWidget widget : widgets) {
+			result.add(widget);
+			collect(widget.getChildren(), result);
+		}
+	}
+}
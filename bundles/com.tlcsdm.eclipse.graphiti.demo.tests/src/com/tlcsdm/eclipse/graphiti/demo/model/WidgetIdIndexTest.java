@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+
+/**
+ * Checks {@link WidgetIdIndex} against a {@link HashMap}.
+ */
+public class WidgetIdIndexTest {
+
+	@Test
+	public void randomPutsAndRemovesMatchHashMap() {
+		Random random = new Random(33);
+		WidgetIdIndex index = new WidgetIdIndex(0);
+		Map<Long, LvglWidget> expected = new HashMap<>();
+		List<LvglWidget> widgets = new ArrayList<>();
+		for (int i = 0; i < 20000; i++) {
+			if (widgets.isEmpty() || random.nextInt(3) > 0) {
+				// Few distinct identifiers, so probe runs collide and wrap
+				LvglWidget widget = new LvglWidget("w" + i, WidgetType.LABEL);
+				widget.setId(1 + random.nextInt(3000));
+				LvglWidget replaced = expected.put(widget.getId(), widget);
+				if (replaced != null) {
+					widgets.remove(replaced);
+				}
+				widgets.add(widget);
+				index.put(widget);
+			} else {
+				LvglWidget widget = widgets.remove(random.nextInt(widgets.size()));
+				expected.remove(widget.getId());
+				index.remove(widget);
+			}
+			if (i % 101 == 0) {
+				assertContent(expected, index);
+			}
+		}
+		assertContent(expected, index);
+	}
+
+	@Test
+	public void removeIgnoresAnotherWidgetWithTheSameId() {
+		WidgetIdIndex index = new WidgetIdIndex(0);
+		LvglWidget widget = new LvglWidget("widget", WidgetType.LABEL);
+		LvglWidget other = new LvglWidget("other", WidgetType.LABEL);
+		widget.setId(7);
+		other.setId(7);
+		index.put(widget);
+		index.remove(other);
+		assertSame(widget, index.get(7));
+		index.remove(widget);
+		assertNull(index.get(7));
+		assertEquals(0, index.size());
+	}
+
+	private static void assertContent(Map<Long, LvglWidget> expected, WidgetIdIndex index) {
+		assertEquals(expected.size(), index.size());
+		for (long id = 0; id <= 3001; id++) {
+			assertSame(expected.get(id), index.get(id));
+		}
+	}
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+
+/**
+ * Checks the indexing of {@link WidgetList} against an {@link ArrayList}.
+ */
+public class WidgetListTest {
+
+	@Test
+	public void randomInsertsAndRemovesMatchArrayList() {
+		Random random = new Random(42);
+		WidgetList list = new WidgetList();
+		List<LvglWidget> expected = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			if (expected.isEmpty() || random.nextInt(3) > 0) {
+				// Favor the ends and the slot just freed, like undo does
+				int index = switch (random.nextInt(3)) {
+					case 0 -> 0;
+					case 1 -> expected.size();
+					default -> random.nextInt(expected.size() + 1);
+				};
+				LvglWidget widget = new LvglWidget("w" + i, WidgetType.LABEL);
+				list.insert(index, widget);
+				expected.add(index, widget);
+			} else {
+				LvglWidget widget = expected.get(random.nextInt(expected.size()));
+				assertEquals(expected.indexOf(widget), list.removeWidget(widget));
+				expected.remove(widget);
+			}
+			if (i % 97 == 0) {
+				assertContent(expected, list);
+			}
+		}
+		assertContent(expected, list);
+	}
+
+	@Test
+	public void removedWidgetReturnsToItsSlot() {
+		WidgetList list = new WidgetList();
+		List<LvglWidget> widgets = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			LvglWidget widget = new LvglWidget("w" + i, WidgetType.LABEL);
+			widgets.add(widget);
+			list.insert(i, widget);
+		}
+		LvglWidget removed = widgets.remove(7);
+		assertEquals(7, list.removeWidget(removed));
+		assertFalse(list.contains(removed));
+		assertEquals(-1, list.removeWidget(removed));
+		list.insert(7, removed);
+		widgets.add(7, removed);
+		assertContent(widgets, list);
+	}
+
+	private static void assertContent(List<LvglWidget> expected, WidgetList list) {
+		assertEquals(expected.size(), list.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertSame(expected.get(i), list.get(i));
+			assertEquals(i, list.indexOf(expected.get(i)));
+		}
+	}
+}
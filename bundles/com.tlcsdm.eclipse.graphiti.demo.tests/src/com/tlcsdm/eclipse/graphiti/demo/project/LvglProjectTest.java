@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreenSnapshot;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglXmlSerializer;
+
+/**
+ * Checks the discovery, loading and resource change handling of
+ * {@link LvglProject} on a workspace project.
+ */
+public class LvglProjectTest {
+
+	private IProject eclipseProject;
+	private IFile home;
+	private IFile settings;
+
+	@Before
+	public void createProject() throws Exception {
+		eclipseProject = ResourcesPlugin.getWorkspace().getRoot().getProject("lvgl-project");
+		eclipseProject.create(null);
+		eclipseProject.open(null);
+		IFolder folder = eclipseProject.getFolder("screens");
+		folder.create(true, true, null);
+		home = eclipseProject.getFile("home.graphxml");
+		create(home, "home", 3);
+		settings = folder.getFile("settings.graphxml");
+		create(settings, "settings", 5);
+		create(eclipseProject.getFile("notes.txt"), "notes", 1);
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		// Deleting the project also disposes its LVGL project
+		eclipseProject.delete(true, true, null);
+	}
+
+	@Test
+	public void headersAreReadWithoutLoadingScreens() throws Exception {
+		LvglProject project = LvglProject.get(eclipseProject);
+		assertSame(project, LvglProject.get(eclipseProject));
+		assertEquals(List.of(home, settings), project.getScreenFiles());
+		assertEquals("home", project.getHeader(home).getName());
+		assertEquals("settings", project.getHeader(settings).getName());
+		assertNull(project.getHeader(eclipseProject.getFile("notes.txt")));
+		assertFalse(project.isLoaded(home));
+		assertFalse(project.isLoaded(settings));
+	}
+
+	@Test
+	public void screensAreLoadedOnDemand() throws Exception {
+		LvglProject project = LvglProject.get(eclipseProject);
+		LvglScreenSnapshot screen = project.getScreen(settings);
+		assertEquals(5, screen.getWidgets().size());
+		assertTrue(project.isLoaded(settings));
+		assertFalse(project.isLoaded(home));
+		assertSame(screen, project.getScreen(settings));
+		assertNull(project.getScreen(eclipseProject.getFile("notes.txt")));
+	}
+
+	@Test
+	public void unreadableScreenHasNoHeader() throws Exception {
+		IFile broken = eclipseProject.getFile("broken.graphxml");
+		broken.create(new ByteArrayInputStream("<widget/>".getBytes(StandardCharsets.UTF_8)), true, null);
+		LvglProject project = LvglProject.get(eclipseProject);
+		assertTrue(project.getScreenFiles().contains(broken));
+		assertNull(project.getHeader(broken));
+	}
+
+	@Test
+	public void addedScreenIsDiscovered() throws Exception {
+		LvglProject project = LvglProject.get(eclipseProject);
+		assertEquals(2, project.getScreenFiles().size());
+		IFile about = eclipseProject.getFolder("screens").getFile("about.graphxml");
+		create(about, "about", 2);
+		assertEquals(List.of(home, about, settings), project.getScreenFiles());
+		assertEquals("about", project.getHeader(about).getName());
+		assertFalse(project.isLoaded(about));
+	}
+
+	@Test
+	public void removedScreenIsDropped() throws Exception {
+		LvglProject project = LvglProject.get(eclipseProject);
+		project.getScreen(home);
+		home.delete(true, null);
+		assertEquals(List.of(settings), project.getScreenFiles());
+		assertNull(project.getHeader(home));
+		assertFalse(project.isLoaded(home));
+		assertNull(project.getScreen(home));
+	}
+
+	@Test
+	public void changedScreenIsReloaded() throws Exception {
+		LvglProject project = LvglProject.get(eclipseProject);
+		LvglScreenSnapshot before = project.getScreen(home);
+		home.setContents(new ByteArrayInputStream(content("start", 4)), true, false, null);
+		assertEquals("start", project.getHeader(home).getName());
+		assertFalse(project.isLoaded(home));
+		LvglScreenSnapshot after = project.getScreen(home);
+		assertNotSame(before, after);
+		assertEquals(4, after.getWidgets().size());
+	}
+
+	private static void create(IFile file, String name, int widgetCount) throws Exception {
+		file.create(new ByteArrayInputStream(content(name, widgetCount)), true, null);
+	}
+
+	private static byte[] content(String name, int widgetCount) throws Exception {
+		LvglScreen screen = new LvglScreen(name);
+		for (int i = 0; i < widgetCount; i++) {
+			screen.addWidget(new LvglWidget("label_" + i, WidgetType.LABEL));
+		}
+		return new LvglXmlSerializer().saveToString(screen).getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.diagram;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.IRemoveFeature;
+import org.eclipse.graphiti.features.context.impl.AddContext;
+import org.eclipse.graphiti.features.context.impl.RemoveContext;
+import org.eclipse.graphiti.features.context.impl.UpdateContext;
+import org.eclipse.graphiti.mm.algorithms.GraphicsAlgorithm;
+import org.eclipse.graphiti.mm.algorithms.Text;
+import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.mm.pictograms.Diagram;
+import org.eclipse.graphiti.mm.pictograms.PictogramElement;
+import org.eclipse.graphiti.mm.pictograms.Shape;
+import org.eclipse.graphiti.services.Graphiti;
+import org.eclipse.graphiti.services.IGaService;
+
+import com.tlcsdm.eclipse.graphiti.demo.feature.AddLvglWidgetFeature;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
+
+/**
+ * Brings the shapes of a diagram in line with its screen. Only the shapes of
+ * added, removed or changed widgets are touched, through the add, remove and
+ * update features.
+ * <p>
+ * Without further information every kept shape is checked for an update,
+ * which takes time in the number of top-level widgets. A caller that knows
+ * which widgets changed, such as after applying a diff, passes them so only
+ * their shapes are checked; the work then follows the size of the change,
+ * apart from matching the shapes to their widgets.
+ * </p>
+ * <p>
+ * Shapes are linked to widgets by identifier (see
+ * {@link LvglIndependenceSolver}), so when the screen is replaced, the shapes
+ * of widgets that keep their identifier are kept and updated.
+ * </p>
+ * <p>
+ * For screens too large to draw at once, the shapes can be limited to the
+ * widgets in an area around the viewport; the other widgets stay in the model
+ * only. An invisible shape then keeps the diagram as large as the screen, so
+ * the canvas still scrolls over all widgets.
+ * </p>
+ * <p>
+ * Shapes drawn at another level of detail than the feature provider's (see
+ * {@link LvglFeatureProvider#setLowDetail(boolean)}) are added again.
+ * </p>
+ */
+public final class LvglDiagramSynchronizer {
+
+	/** Shape property marking the invisible shape spanning the screen */
+	private static final String PROPERTY_EXTENT = "screenExtent";
+
+	private LvglDiagramSynchronizer() {
+	}
+
+	/**
+	 * Synchronizes the shapes of all top-level widgets of a screen.
+	 *
+	 * @see #synchronize(IFeatureProvider, Diagram, LvglScreen, Rectangle)
+	 */
+	public static boolean synchronize(IFeatureProvider featureProvider, Diagram diagram, LvglScreen screen) {
+		return synchronize(featureProvider, diagram, screen, null, null);
+	}
+
+	/**
+	 * Synchronizes the shapes of the top-level widgets of a screen in an area,
+	 * checking every kept shape for an update.
+	 *
+	 * @see #synchronize(IFeatureProvider, Diagram, LvglScreen, Rectangle, Set)
+	 */
+	public static boolean synchronize(IFeatureProvider featureProvider, Diagram diagram, LvglScreen screen,
+			Rectangle area) {
+		return synchronize(featureProvider, diagram, screen, area, null);
+	}
+
+	/**
+	 * Synchronizes the shapes of the top-level widgets of a screen, the only
+	 * widgets the add feature draws. Must be called in a write transaction on
+	 * the diagram, with the feature provider resolving against the screen.
+	 *
+	 * @param featureProvider the feature provider of the diagram
+	 * @param diagram the diagram
+	 * @param screen the screen
+	 * @param area the area, in diagram coordinates, whose widgets get shapes,
+	 *        or null for all widgets
+	 * @param changedWidgets the top-level widgets whose subtrees changed since
+	 *        the last synchronization, or null if unknown; the shapes of other
+	 *        widgets are kept as they are
+	 * @return true if the diagram was changed
+	 */
+	public static boolean synchronize(IFeatureProvider featureProvider, Diagram diagram, LvglScreen screen,
+			Rectangle area, Set<LvglWidget> changedWidgets) {
+		boolean changed = false;
+
+		// Keep the shapes still showing a top-level widget in the area, remove the others
+		Map<LvglWidget, Shape> shapes = new IdentityHashMap<>();
+		Shape extentShape = null;
+		for (Shape shape : new ArrayList<>(diagram.getChildren())) {
+			if (Graphiti.getPeService().getPropertyValue(shape, PROPERTY_EXTENT) != null) {
+				if (area != null && extentShape == null) {
+					extentShape = shape;
+				} else {
+					Graphiti.getPeService().deletePictogramElement(shape);
+					changed = true;
+				}
+				continue;
+			}
+			Object bo = featureProvider.getBusinessObjectForPictogramElement(shape);
+			if (bo instanceof LvglWidget widget && widget.getParent() == null && widget.getScreen() == screen
+					&& !shapes.containsKey(widget) && isInArea(widget, area)
+					&& ((changedWidgets != null && !changedWidgets.contains(widget))
+							|| isReusable(featureProvider, shape, widget))) {
+				shapes.put(widget, shape);
+			} else {
+				changed |= remove(featureProvider, shape);
+			}
+		}
+
+		// Add the missing shapes and update the kept ones where needed
+		List<LvglWidget> widgets = screen.getWidgets();
+		int right = screen.getWidth();
+		int bottom = screen.getHeight();
+		for (LvglWidget widget : widgets) {
+			right = Math.max(right, widget.getX() + widget.getWidth());
+			bottom = Math.max(bottom, widget.getY() + widget.getHeight());
+			if (!isInArea(widget, area)) {
+				continue;
+			}
+			Shape shape = shapes.get(widget);
+			if (shape == null) {
+				AddContext context = new AddContext();
+				context.setNewObject(widget);
+				context.setTargetContainer(diagram);
+				context.setLocation(widget.getX(), widget.getY());
+				PictogramElement added = featureProvider.addIfPossible(context);
+				if (added instanceof Shape addedShape) {
+					shapes.put(widget, addedShape);
+					changed = true;
+				}
+			} else if (changedWidgets == null || changedWidgets.contains(widget)) {
+				changed |= featureProvider.updateIfPossibleAndNeeded(new UpdateContext(shape)).toBoolean();
+			}
+		}
+
+		// Follow the z-order of the widgets, moving only shapes out of place
+		EList<Shape> children = diagram.getChildren();
+		int index = 0;
+		for (LvglWidget widget : widgets) {
+			Shape shape = shapes.get(widget);
+			if (shape == null) {
+				continue;
+			}
+			if (index >= children.size() || children.get(index) != shape) {
+				children.move(index, shape);
+				changed = true;
+			}
+			index++;
+		}
+
+		if (area != null) {
+			changed |= updateExtent(diagram, extentShape, right, bottom);
+		}
+		return changed;
+	}
+
+	private static boolean isInArea(LvglWidget widget, Rectangle area) {
+		return area == null || area.intersects(new Rectangle(widget.getX(), widget.getY(),
+				Math.max(widget.getWidth(), 1), Math.max(widget.getHeight(), 1)));
+	}
+
+	/**
+	 * Places the invisible shape reaching to the bottom right corner of the
+	 * screen, creating it if needed.
+	 */
+	private static boolean updateExtent(Diagram diagram, Shape extentShape, int right, int bottom) {
+		IGaService gaService = Graphiti.getGaService();
+		if (extentShape == null) {
+			extentShape = Graphiti.getPeCreateService().createShape(diagram, false);
+			Graphiti.getPeService().setPropertyValue(extentShape, PROPERTY_EXTENT, Boolean.TRUE.toString());
+			GraphicsAlgorithm ga = gaService.createInvisibleRectangle(extentShape);
+			gaService.setLocationAndSize(ga, right - 1, bottom - 1, 1, 1);
+			return true;
+		}
+		GraphicsAlgorithm ga = extentShape.getGraphicsAlgorithm();
+		if (ga.getX() == right - 1 && ga.getY() == bottom - 1) {
+			return false;
+		}
+		gaService.setLocation(ga, right - 1, bottom - 1);
+		return true;
+	}
+
+	private static boolean isLowDetail(IFeatureProvider featureProvider) {
+		return featureProvider instanceof LvglFeatureProvider lvglFeatureProvider && lvglFeatureProvider.isLowDetail();
+	}
+
+	/**
+	 * Checks whether a shape can be updated to show a widget. The update
+	 * feature changes the text, position and size; a different widget type
+	 * or level of detail, an expanded placeholder, or text appearing or
+	 * disappearing, needs a new shape.
+	 */
+	private static boolean isReusable(IFeatureProvider featureProvider, Shape shape, LvglWidget widget) {
+		if (!(shape instanceof ContainerShape containerShape)) {
+			return false;
+		}
+		String type = Graphiti.getPeService().getPropertyValue(shape, AddLvglWidgetFeature.PROPERTY_WIDGET_TYPE);
+		if (!widget.getWidgetType().name().equals(type)) {
+			return false;
+		}
+		boolean lowDetail = isLowDetail(featureProvider);
+		boolean lowDetailShape = Graphiti.getPeService().getPropertyValue(shape,
+				AddLvglWidgetFeature.PROPERTY_LOW_DETAIL) != null;
+		if (lowDetailShape != lowDetail) {
+			return false;
+		}
+		if (lowDetail) {
+			// Plain rectangles have no text
+			return true;
+		}
+		boolean collapsedShape = Graphiti.getPeService().getPropertyValue(shape,
+				AddLvglWidgetFeature.PROPERTY_COLLAPSED) != null;
+		if (collapsedShape != AddLvglWidgetFeature.isCollapsed(featureProvider, widget)) {
+			return false;
+		}
+		boolean hasTextShape = false;
+		for (Shape child : containerShape.getChildren()) {
+			if (child.getGraphicsAlgorithm() instanceof Text) {
+				hasTextShape = true;
+				break;
+			}
+		}
+		String text = AddLvglWidgetFeature.getShapeText(featureProvider, widget);
+		boolean hasText = text != null && !text.isEmpty();
+		return hasTextShape == hasText;
+	}
+
+	private static boolean remove(IFeatureProvider featureProvider, Shape shape) {
+		// The remove feature only drops the shape; the delete feature would
+		// also remove the widget, which is already gone from the screen
+		RemoveContext context = new RemoveContext(shape);
+		IRemoveFeature feature = featureProvider.getRemoveFeature(context);
+		if (feature != null && feature.canRemove(context)) {
+			feature.remove(context);
+			return true;
+		}
+		return false;
+	}
+}
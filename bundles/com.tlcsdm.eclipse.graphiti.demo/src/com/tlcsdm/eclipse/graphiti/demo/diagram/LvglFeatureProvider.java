@@ -23,6 +23,7 @@ import org.eclipse.graphiti.features.context.IMoveShapeContext;
 import org.eclipse.graphiti.features.context.IResizeShapeContext;
 import org.eclipse.graphiti.features.context.IUpdateContext;
 import org.eclipse.graphiti.mm.pictograms.ContainerShape;
+import org.eclipse.graphiti.mm.pictograms.Diagram;
 import org.eclipse.graphiti.mm.pictograms.PictogramElement;
 import org.eclipse.graphiti.mm.pictograms.Shape;
 import org.eclipse.graphiti.ui.features.DefaultFeatureProvider;
@@ -35,6 +36,8 @@ import com.tlcsdm.eclipse.graphiti.demo.feature.LayoutLvglWidgetFeature;
 import com.tlcsdm.eclipse.graphiti.demo.feature.MoveLvglWidgetFeature;
 import com.tlcsdm.eclipse.graphiti.demo.feature.ResizeLvglWidgetFeature;
 import com.tlcsdm.eclipse.graphiti.demo.feature.UpdateLvglWidgetFeature;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreenSummary;
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
 
@@ -44,12 +47,76 @@ import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
  */
 public class LvglFeatureProvider extends DefaultFeatureProvider {
 
+	private final LvglIndependenceSolver independenceSolver = new LvglIndependenceSolver();
+
+	/** True if new shapes are drawn as plain rectangles, for low zoom levels */
+	private boolean lowDetail;
+
+	/** Summary of a screen opened read-only, null if the screen can be edited */
+	private LvglScreenSummary summary;
+
 	public LvglFeatureProvider(IDiagramTypeProvider dtp) {
 		super(dtp);
+		setIndependenceSolver(independenceSolver);
+	}
+
+	/**
+	 * Sets the screen that pictograms are linked to.
+	 *
+	 * @param screen the screen model of the editor
+	 */
+	public void setScreen(LvglScreen screen) {
+		independenceSolver.setScreen(screen);
+	}
+
+	public LvglScreen getScreen() {
+		return independenceSolver.getScreen();
+	}
+
+	public boolean isLowDetail() {
+		return lowDetail;
+	}
+
+	/**
+	 * Sets whether widgets added from now on are drawn as plain rectangles,
+	 * without text, rounded corners or widget colors. Existing shapes keep
+	 * their detail until they are added again.
+	 *
+	 * @param lowDetail true for plain rectangles
+	 */
+	public void setLowDetail(boolean lowDetail) {
+		this.lowDetail = lowDetail;
+	}
+
+	public LvglScreenSummary getSummary() {
+		return summary;
+	}
+
+	/**
+	 * Sets the summary of a screen opened read-only. With a summary, the
+	 * features that change the screen are not offered, and collapsed widgets
+	 * are drawn as placeholders.
+	 *
+	 * @param summary the summary, or null if the screen can be edited
+	 */
+	public void setSummary(LvglScreenSummary summary) {
+		this.summary = summary;
+	}
+
+	@Override
+	public Object getBusinessObjectForPictogramElement(PictogramElement pictogramElement) {
+		// The in-memory diagram always represents the editor's screen
+		if (pictogramElement instanceof Diagram && getScreen() != null) {
+			return getScreen();
+		}
+		return super.getBusinessObjectForPictogramElement(pictogramElement);
 	}
 
 	@Override
 	public ICreateFeature[] getCreateFeatures() {
+		if (summary != null) {
+			return new ICreateFeature[0];
+		}
 		// Create features for commonly used widgets
 		return new ICreateFeature[] {
 			new CreateLvglWidgetFeature(this, WidgetType.BUTTON),
@@ -111,6 +178,9 @@ public class LvglFeatureProvider extends DefaultFeatureProvider {
 
 	@Override
 	public IMoveShapeFeature getMoveShapeFeature(IMoveShapeContext context) {
+		if (summary != null) {
+			return null;
+		}
 		Shape shape = context.getShape();
 		Object bo = getBusinessObjectForPictogramElement(shape);
 		if (bo instanceof LvglWidget) {
@@ -121,6 +191,9 @@ public class LvglFeatureProvider extends DefaultFeatureProvider {
 
 	@Override
 	public IResizeShapeFeature getResizeShapeFeature(IResizeShapeContext context) {
+		if (summary != null) {
+			return null;
+		}
 		Shape shape = context.getShape();
 		Object bo = getBusinessObjectForPictogramElement(shape);
 		if (bo instanceof LvglWidget) {
@@ -131,6 +204,9 @@ public class LvglFeatureProvider extends DefaultFeatureProvider {
 
 	@Override
 	public IDeleteFeature getDeleteFeature(IDeleteContext context) {
+		if (summary != null) {
+			return null;
+		}
 		PictogramElement pe = context.getPictogramElement();
 		Object bo = getBusinessObjectForPictogramElement(pe);
 		if (bo instanceof LvglWidget) {
@@ -141,6 +217,9 @@ public class LvglFeatureProvider extends DefaultFeatureProvider {
 
 	@Override
 	public IDirectEditingFeature getDirectEditingFeature(IDirectEditingContext context) {
+		if (summary != null) {
+			return null;
+		}
 		PictogramElement pe = context.getPictogramElement();
 		Object bo = getBusinessObjectForPictogramElement(pe);
 		if (bo instanceof LvglWidget) {
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.diagram;
+
+import org.eclipse.graphiti.features.impl.IIndependenceSolver;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
+
+/**
+ * Links pictograms to the LVGL model through string keys. Widgets are keyed
+ * by their stable identifier and resolved through the screen's identifier
+ * map, so lookups do not depend on widget names and do not scan the tree.
+ */
+public class LvglIndependenceSolver implements IIndependenceSolver {
+
+	private static final String SCREEN_KEY = "screen";
+	private static final String WIDGET_KEY_PREFIX = "widget:";
+
+	private LvglScreen screen;
+
+	public LvglScreen getScreen() {
+		return screen;
+	}
+
+	public void setScreen(LvglScreen screen) {
+		this.screen = screen;
+	}
+
+	@Override
+	public String getKeyForBusinessObject(Object bo) {
+		if (bo instanceof LvglWidget widget) {
+			return WIDGET_KEY_PREFIX + widget.getId();
+		}
+		if (bo instanceof LvglScreen) {
+			return SCREEN_KEY;
+		}
+		return null;
+	}
+
+	@Override
+	public Object getBusinessObjectForKey(String key) {
+		if (key == null || screen == null) {
+			return null;
+		}
+		if (key.startsWith(WIDGET_KEY_PREFIX)) {
+			try {
+				return screen.findWidgetById(Long.parseLong(key.substring(WIDGET_KEY_PREFIX.length())));
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+		if (SCREEN_KEY.equals(key)) {
+			return screen;
+		}
+		return null;
+	}
+}
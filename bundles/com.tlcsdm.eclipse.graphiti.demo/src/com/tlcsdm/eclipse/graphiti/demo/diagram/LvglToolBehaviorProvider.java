@@ -9,13 +9,16 @@ package com.tlcsdm.eclipse.graphiti.demo.diagram;
 import org.eclipse.graphiti.dt.IDiagramTypeProvider;
 import org.eclipse.graphiti.features.IFeatureProvider;
 import org.eclipse.graphiti.features.context.ICustomContext;
+import org.eclipse.graphiti.features.context.IDoubleClickContext;
 import org.eclipse.graphiti.features.context.IPictogramElementContext;
+import org.eclipse.graphiti.features.custom.ICustomFeature;
 import org.eclipse.graphiti.mm.pictograms.PictogramElement;
 import org.eclipse.graphiti.tb.ContextMenuEntry;
 import org.eclipse.graphiti.tb.DefaultToolBehaviorProvider;
 import org.eclipse.graphiti.tb.IContextButtonPadData;
 import org.eclipse.graphiti.tb.IContextMenuEntry;
 
+import com.tlcsdm.eclipse.graphiti.demo.editor.ExpandLvglWidgetFeature;
 import com.tlcsdm.eclipse.graphiti.demo.editor.GenerateLvglCodeFeature;
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
 
@@ -45,10 +48,28 @@ public class LvglToolBehaviorProvider extends DefaultToolBehaviorProvider {
 		generateCodeEntry.setText("Generate LVGL Code");
 		generateCodeEntry.setDescription("Generate LVGL C Code from Diagram");
 
+		ExpandLvglWidgetFeature expandFeature = new ExpandLvglWidgetFeature(getFeatureProvider());
+		if (expandFeature.canExecute(context)) {
+			ContextMenuEntry expandEntry = new ContextMenuEntry(expandFeature, context);
+			expandEntry.setText(expandFeature.getName());
+			expandEntry.setDescription(expandFeature.getDescription());
+			return new IContextMenuEntry[] { expandEntry, generateCodeEntry };
+		}
+
 		// Return the context menu entries
 		return new IContextMenuEntry[] { generateCodeEntry };
 	}
 
+	@Override
+	public ICustomFeature getDoubleClickFeature(IDoubleClickContext context) {
+		// Double-clicking a collapsed container of a summary loads its widgets
+		ExpandLvglWidgetFeature expandFeature = new ExpandLvglWidgetFeature(getFeatureProvider());
+		if (expandFeature.canExecute(context)) {
+			return expandFeature;
+		}
+		return super.getDoubleClickFeature(context);
+	}
+
 	@Override
 	public Object getToolTip(org.eclipse.graphiti.mm.algorithms.GraphicsAlgorithm ga) {
 		PictogramElement pe = ga.getPictogramElement();
@@ -63,6 +84,11 @@ public class LvglToolBehaviorProvider extends DefaultToolBehaviorProvider {
 			if (widget.getText() != null && !widget.getText().isEmpty()) {
 				sb.append("\nText: ").append(widget.getText());
 			}
+			if (fp instanceof LvglFeatureProvider lvglFeatureProvider && lvglFeatureProvider.getSummary() != null
+					&& lvglFeatureProvider.getSummary().isCollapsed(widget)) {
+				sb.append("\nCollapsed: ").append(lvglFeatureProvider.getSummary().getCollapsedCount(widget))
+						.append(" widgets, double-click to load");
+			}
 			return sb.toString();
 		}
 		return super.getToolTip(ga);
@@ -70,8 +96,9 @@ public class LvglToolBehaviorProvider extends DefaultToolBehaviorProvider {
 
 	@Override
 	public boolean equalsBusinessObjects(Object o1, Object o2) {
-		if (o1 instanceof LvglWidget && o2 instanceof LvglWidget) {
-			return ((LvglWidget) o1).getName().equals(((LvglWidget) o2).getName());
+		if (o1 instanceof LvglWidget w1 && o2 instanceof LvglWidget w2) {
+			// Names may be duplicated or changed; identifiers are stable
+			return w1 == w2 || (w1.getId() != 0 && w1.getId() == w2.getId());
 		}
 		return super.equalsBusinessObjects(o1, o2);
 	}
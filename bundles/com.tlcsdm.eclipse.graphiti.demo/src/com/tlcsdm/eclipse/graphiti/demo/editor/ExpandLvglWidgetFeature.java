@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.editor;
+
+import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.context.IContext;
+import org.eclipse.graphiti.features.context.ICustomContext;
+import org.eclipse.graphiti.features.custom.AbstractCustomFeature;
+import org.eclipse.graphiti.mm.pictograms.PictogramElement;
+
+import com.tlcsdm.eclipse.graphiti.demo.feature.AddLvglWidgetFeature;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
+
+/**
+ * Custom feature loading the widgets of a collapsed container, for screens
+ * opened read-only in summary mode. Invoked by double-click or from the
+ * context menu.
+ */
+public class ExpandLvglWidgetFeature extends AbstractCustomFeature {
+
+	public ExpandLvglWidgetFeature(IFeatureProvider fp) {
+		super(fp);
+	}
+
+	@Override
+	public String getName() {
+		return "Expand Container";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Load the widgets of the collapsed container";
+	}
+
+	@Override
+	public boolean canExecute(ICustomContext context) {
+		return getCollapsedWidget(context) != null;
+	}
+
+	@Override
+	public void execute(ICustomContext context) {
+		LvglWidget widget = getCollapsedWidget(context);
+		if (widget != null && getDiagramBehavior().getDiagramContainer() instanceof LvglDiagramEditor editor) {
+			editor.expandWidget(widget);
+		}
+	}
+
+	@Override
+	public boolean canUndo(IContext context) {
+		// Loading widgets from the file is not an edit
+		return false;
+	}
+
+	private LvglWidget getCollapsedWidget(ICustomContext context) {
+		PictogramElement[] pes = context.getPictogramElements();
+		if (pes == null || pes.length != 1) {
+			return null;
+		}
+		Object bo = getBusinessObjectForPictogramElement(pes[0]);
+		if (bo instanceof LvglWidget widget && AddLvglWidgetFeature.isCollapsed(getFeatureProvider(), widget)) {
+			return widget;
+		}
+		return null;
+	}
+}
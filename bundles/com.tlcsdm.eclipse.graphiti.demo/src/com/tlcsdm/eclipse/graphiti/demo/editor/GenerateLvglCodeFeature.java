@@ -6,14 +6,7 @@
  ******************************************************************************/
 package com.tlcsdm.eclipse.graphiti.demo.editor;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-
-import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.runtime.NullProgressMonitor;
-import org.eclipse.core.runtime.Path;
 import org.eclipse.graphiti.features.IFeatureProvider;
 import org.eclipse.graphiti.features.context.ICustomContext;
 import org.eclipse.graphiti.features.custom.AbstractCustomFeature;
@@ -21,10 +14,8 @@ import org.eclipse.graphiti.ui.editor.DiagramEditor;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.PlatformUI;
 
-import com.tlcsdm.eclipse.graphiti.demo.Activator;
-import com.tlcsdm.eclipse.graphiti.demo.generator.LvglCodeGenerator;
+import com.tlcsdm.eclipse.graphiti.demo.handler.GenerateCodeJob;
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
-import com.tlcsdm.eclipse.graphiti.demo.preferences.LvglPreferenceConstants;
 import com.tlcsdm.eclipse.graphiti.demo.util.ConsoleUtil;
 
 /**
@@ -69,6 +60,11 @@ public class GenerateLvglCodeFeature extends AbstractCustomFeature {
 			LvglMultiPageEditor multiPageEditor = (LvglMultiPageEditor) activeEditor;
 			screen = multiPageEditor.getScreen();
 			graphxmlFile = multiPageEditor.getDiagramFile();
+			if (multiPageEditor.isSummary()) {
+				// Only the top-level widgets are loaded, the file has them all
+				new GenerateCodeJob(graphxmlFile).schedule();
+				return;
+			}
 		} else if (activeEditor instanceof DiagramEditor) {
 			// Try to get from LvglDiagramEditor
 			DiagramEditor diagramEditor = (DiagramEditor) activeEditor;
@@ -89,55 +85,13 @@ public class GenerateLvglCodeFeature extends AbstractCustomFeature {
 			return;
 		}
 
-		try {
-			if (graphxmlFile == null) {
-				ConsoleUtil.printError("Could not determine the .graphxml file location.");
-				return;
-			}
-
-			IContainer parentFolder = graphxmlFile.getParent();
-			String baseName = graphxmlFile.getName();
-			if (baseName.endsWith(".graphxml")) {
-				baseName = baseName.substring(0, baseName.length() - 9);
-			}
-
-			// Get license header from preferences
-			String licenseHeader = Activator.getDefault().getPreferenceStore()
-					.getString(LvglPreferenceConstants.PREF_LICENSE_HEADER);
-
-			// Generate code
-			LvglCodeGenerator generator = new LvglCodeGenerator(screen, licenseHeader);
-			String headerCode = generator.generateHeader();
-			String sourceCode = generator.generateSource();
-
-			// Write header file
-			IFile headerFile = parentFolder.getFile(new Path(baseName + ".h"));
-			writeFile(headerFile, headerCode);
-
-			// Write source file
-			IFile sourceFile = parentFolder.getFile(new Path(baseName + ".c"));
-			writeFile(sourceFile, sourceCode);
-
-			// Refresh parent folder
-			parentFolder.refreshLocal(1, new NullProgressMonitor());
-
-			// Log to console (no dialog as per requirements)
-			ConsoleUtil.println("Generated LVGL C code:");
-			ConsoleUtil.println("  - " + headerFile.getFullPath().toString());
-			ConsoleUtil.println("  - " + sourceFile.getFullPath().toString());
-
-		} catch (Exception e) {
-			ConsoleUtil.printError("Failed to generate code: " + e.getMessage());
+		if (graphxmlFile == null) {
+			ConsoleUtil.printError("Could not determine the .graphxml file location.");
+			return;
 		}
-	}
 
-	private void writeFile(IFile file, String content) throws Exception {
-		InputStream source = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
-		if (file.exists()) {
-			file.setContents(source, true, true, new NullProgressMonitor());
-		} else {
-			file.create(source, true, new NullProgressMonitor());
-		}
+		// Snapshot on the UI thread, generate and write in the background
+		new GenerateCodeJob(screen.snapshot(), graphxmlFile).schedule();
 	}
 
 	@Override
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.editor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl;
+import org.eclipse.graphiti.mm.pictograms.Diagram;
+
+import com.tlcsdm.eclipse.graphiti.demo.Activator;
+import com.tlcsdm.eclipse.graphiti.demo.util.ConsoleUtil;
+
+/**
+ * Cache of the diagrams of .graphxml files in the plug-in state location, so
+ * reopening an unchanged screen does not create its shapes again. A diagram
+ * is stored in EMF's binary format under the hash of the file content and of
+ * the plug-in version, which changes with the way shapes are drawn; each file
+ * keeps only its latest diagram.
+ * <p>
+ * A loaded diagram is only a starting point: the editor still synchronizes it
+ * with the screen, which adds, removes and updates the shapes that differ.
+ * </p>
+ */
+public final class LvglDiagramCache {
+
+	private static final String EXTENSION = ".diagram";
+
+	private LvglDiagramCache() {
+	}
+
+	/**
+	 * Computes the key of the diagram of a file content.
+	 *
+	 * @param content the content of the .graphxml file
+	 * @return the key
+	 */
+	public static String getKey(byte[] content) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			String version = Activator.getDefault().getBundle().getVersion().toString();
+			digest.update(version.getBytes(StandardCharsets.UTF_8));
+			digest.update(content);
+			return HexFormat.of().formatHex(digest.digest(), 0, 16);
+		} catch (NoSuchAlgorithmException e) {
+			// Every Java platform implements SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Loads the cached diagram of a file.
+	 *
+	 * @param file the .graphxml file
+	 * @param key the key of the current content of the file
+	 * @return the diagram, not contained in a resource, or null if none is
+	 *         cached for the content
+	 */
+	public static Diagram load(IFile file, String key) {
+		Path path = getDirectory().resolve(getPrefix(file) + key + EXTENSION);
+		BinaryResourceImpl resource = new BinaryResourceImpl();
+		try (InputStream in = Files.newInputStream(path)) {
+			resource.load(in, null);
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException | RuntimeException e) {
+			ConsoleUtil.printError("Failed to read cached diagram: " + e.getMessage());
+			return null;
+		}
+		if (resource.getContents().isEmpty() || !(resource.getContents().get(0) instanceof Diagram diagram)) {
+			return null;
+		}
+		resource.getContents().remove(diagram);
+		return diagram;
+	}
+
+	/**
+	 * Stores the diagram of a file in the background, replacing the one
+	 * cached before.
+	 *
+	 * @param file the .graphxml file
+	 * @param key the key of the content the diagram shows
+	 * @param diagram a copy of the diagram, not used by the editor
+	 */
+	public static void save(IFile file, String key, Diagram diagram) {
+		Job job = Job.create("Cache LVGL Diagram", monitor -> {
+			try {
+				write(getPrefix(file), key, diagram);
+			} catch (IOException | RuntimeException e) {
+				ConsoleUtil.printError("Failed to cache diagram: " + e.getMessage());
+			}
+			return Status.OK_STATUS;
+		});
+		job.setSystem(true);
+		job.schedule();
+	}
+
+	private static void write(String prefix, String key, Diagram diagram) throws IOException {
+		Path directory = getDirectory();
+		Files.createDirectories(directory);
+		Path path = directory.resolve(prefix + key + EXTENSION);
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		BinaryResourceImpl resource = new BinaryResourceImpl();
+		resource.getContents().add(diagram);
+		try (OutputStream out = Files.newOutputStream(temp)) {
+			resource.save(out, null);
+		}
+		try {
+			Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+		// Older contents of the file are not opened again. File names may hold
+		// glob characters, so the prefix is compared as plain text.
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+			for (Path other : stream) {
+				String name = other.getFileName().toString();
+				if (name.startsWith(prefix) && name.endsWith(EXTENSION) && !other.equals(path)) {
+					Files.deleteIfExists(other);
+				}
+			}
+		}
+	}
+
+	private static Path getDirectory() {
+		return Activator.getDefault().getStateLocation().append("diagram-cache").toFile().toPath();
+	}
+
+	private static String getPrefix(IFile file) {
+		String path = file.getFullPath().toPortableString();
+		return file.getName() + "-" + Integer.toHexString(path.hashCode()) + "-";
+	}
+}
@@ -7,15 +7,32 @@
 package com.tlcsdm.eclipse.graphiti.demo.editor;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.draw2d.FigureCanvas;
+import org.eclipse.draw2d.Viewport;
+import org.eclipse.emf.common.command.BasicCommandStack;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.transaction.RecordingCommand;
+import org.eclipse.emf.transaction.RollbackException;
+import org.eclipse.emf.transaction.Transaction;
+import org.eclipse.emf.transaction.TransactionalEditingDomain;
+import org.eclipse.emf.transaction.impl.InternalTransactionalEditingDomain;
+import org.eclipse.gef.GraphicalViewer;
+import org.eclipse.gef.editparts.ZoomManager;
 import org.eclipse.graphiti.mm.algorithms.Rectangle;
 import org.eclipse.graphiti.mm.pictograms.Diagram;
 import org.eclipse.graphiti.mm.pictograms.PictogramsFactory;
@@ -24,14 +41,28 @@ import org.eclipse.graphiti.services.IGaService;
 import org.eclipse.graphiti.ui.editor.DiagramEditor;
 import org.eclipse.graphiti.ui.editor.DiagramEditorInput;
 import org.eclipse.graphiti.util.IColorConstant;
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.swt.events.ControlListener;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorSite;
 import org.eclipse.ui.IFileEditorInput;
 import org.eclipse.ui.PartInitException;
 
+import com.tlcsdm.eclipse.graphiti.demo.Activator;
+import com.tlcsdm.eclipse.graphiti.demo.diagram.LvglDiagramSynchronizer;
 import com.tlcsdm.eclipse.graphiti.demo.diagram.LvglDiagramTypeProvider;
+import com.tlcsdm.eclipse.graphiti.demo.diagram.LvglFeatureProvider;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglJournal;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglModelDiff;
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreenSnapshot;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreenSummary;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglXmlSerializer;
+import com.tlcsdm.eclipse.graphiti.demo.model.ModelChangeListener;
+import com.tlcsdm.eclipse.graphiti.demo.preferences.LvglPreferenceConstants;
 import com.tlcsdm.eclipse.graphiti.demo.util.ConsoleUtil;
 
 /**
@@ -41,57 +72,326 @@ import com.tlcsdm.eclipse.graphiti.demo.util.ConsoleUtil;
  */
 public class LvglDiagramEditor extends DiagramEditor {
 
+	/** Screens with at least this many top-level widgets only get shapes near the viewport */
+	private static final int CULLING_THRESHOLD = 300;
+
+	/** Delay in milliseconds before the shapes follow a scrolled or zoomed viewport */
+	private static final int CULLING_DELAY = 50;
+
+	/** Below this zoom level widgets are drawn as plain rectangles */
+	private static final double LOW_DETAIL_ZOOM = 0.5;
+
 	/** The LVGL screen model */
 	private LvglScreen screen;
 
 	/** The .graphxml file (the only file used) */
 	private IFile graphxmlFile;
 
+	/**
+	 * The screen with the jobs saving and journaling it, shared with the
+	 * other editors of the file; null without a file and in summary mode
+	 */
+	private LvglModelManager.SharedScreen shared;
+
+	/** Follows the edits made to a shared screen in other editors */
+	private final ModelChangeListener sharedScreenListener = (source, property, oldValue, newValue) -> {
+		cacheKey = null;
+		if (shared != null && shared.isShared()) {
+			scheduleSharedSync();
+		}
+	};
+
+	/** True while a diagram synchronization for other editors' edits is scheduled */
+	private boolean sharedSyncScheduled;
+
+	/** True while the editor changes the screen outside of its commands */
+	private boolean changingScreen;
+
+	/** Updates the cache key when the file is saved, null until the first save */
+	private LvglSaveJob.Listener saveListener;
+
+	/**
+	 * Set if the file was too large to load at once: the screen then holds
+	 * the top-level widgets only, and the editor is read-only
+	 */
+	private LvglScreenSummary summary;
+
+	/** Area whose widgets have shapes, null if all widgets have shapes */
+	private org.eclipse.draw2d.geometry.Rectangle shapedArea;
+
+	private final Runnable culler = this::cullDiagram;
+
+	/** Times the opening of the editor, until the first paint */
+	private LvglOpenTrace openTrace;
+
+	/**
+	 * Key in the diagram cache of the file content, set while the screen is
+	 * known to match the file when the editor is not dirty
+	 */
+	private String cacheKey;
+
 	public LvglDiagramEditor() {
 		super();
 	}
 
 	@Override
 	public void init(IEditorSite site, IEditorInput input) throws PartInitException {
+		if (openTrace == null) {
+			openTrace = new LvglOpenTrace(input.getName());
+		}
+
 		// Handle IFileEditorInput by converting to DiagramEditorInput
 		if (input instanceof IFileEditorInput) {
 			IFileEditorInput fileInput = (IFileEditorInput) input;
 			this.graphxmlFile = fileInput.getFile();
 
 			// Load the screen model from the .graphxml file
-			loadScreen();
+			LvglOpenTrace.Stage stage = openTrace.begin("load screen");
+			try {
+				loadScreen();
+				openTrace.setWidgetCount(summary != null ? summary.getWidgetCount() : screen.getFlatTree().size());
+			} finally {
+				stage.close();
+			}
 
 			// Create an in-memory DiagramEditorInput (no .diagram file needed)
-			input = createInMemoryDiagramEditorInput(fileInput);
+			stage = openTrace.begin("diagram input");
+			try {
+				input = createInMemoryDiagramEditorInput(fileInput);
+			} finally {
+				stage.close();
+			}
 		}
 
 		super.init(site, input);
 		setPartName(input.getName());
+		updateFeatureProvider();
+		updateValidation();
+		synchronizeDiagram();
 
 		// Register the context menu provider
 		registerContextMenu();
 	}
 
+	@Override
+	public void createPartControl(Composite parent) {
+		super.createPartControl(parent);
+
+		// Shapes of large screens follow the viewport
+		GraphicalViewer viewer = getGraphicalViewer();
+		if (viewer != null && viewer.getControl() instanceof FigureCanvas canvas) {
+			Viewport viewport = canvas.getViewport();
+			viewport.getHorizontalRangeModel().addPropertyChangeListener(event -> scheduleCulling());
+			viewport.getVerticalRangeModel().addPropertyChangeListener(event -> scheduleCulling());
+			canvas.addControlListener(ControlListener.controlResizedAdapter(event -> scheduleCulling()));
+			if (viewer.getProperty(ZoomManager.class.toString()) instanceof ZoomManager zoomManager) {
+				zoomManager.addZoomListener(zoom -> {
+					updateDetail(zoom);
+					scheduleCulling();
+				});
+			}
+			scheduleCulling();
+		}
+		openTrace.finishOnFirstPaint(viewer != null ? viewer.getControl() : null);
+	}
+
+	/**
+	 * Sets the trace timing the opening of the editor, for an editor created
+	 * as a page of another one. Must be called before the editor is
+	 * initialized.
+	 */
+	void setOpenTrace(LvglOpenTrace openTrace) {
+		this.openTrace = openTrace;
+	}
+
 	/**
 	 * Loads the screen model from the .graphxml file.
 	 */
 	private void loadScreen() {
-		if (graphxmlFile == null || !graphxmlFile.exists()) {
+		if (graphxmlFile == null) {
+			screen = LvglXmlSerializer.createDefaultScreen();
+			return;
+		}
+		shared = LvglModelManager.acquire(graphxmlFile, this);
+		if (shared != null) {
+			// Another editor has the file open, with its unsaved edits
+			screen = shared.getScreen();
+			attachSharedScreen();
+			return;
+		}
+		if (!graphxmlFile.exists()) {
 			screen = LvglXmlSerializer.createDefaultScreen();
+			shareScreen();
 			return;
 		}
 
+		byte[] content;
 		try (InputStream is = graphxmlFile.getContents()) {
-			if (is.available() > 0) {
+			content = is.readAllBytes();
+			if (isSummaryNeeded(content)) {
+				summary = new LvglXmlSerializer().loadSummary(content);
+				screen = summary.getScreen();
+				ConsoleUtil.println("Opened " + graphxmlFile.getName() + " (" + summary.getWidgetCount()
+						+ " widgets) read-only in summary mode; double-click a container to load its widgets");
+				// Nothing is edited, so there is nothing to journal
+				return;
+			}
+			if (content.length > 0) {
 				LvglXmlSerializer serializer = new LvglXmlSerializer();
-				screen = serializer.load(is);
+				screen = serializer.load(new ByteArrayInputStream(content));
 			} else {
 				screen = LvglXmlSerializer.createDefaultScreen();
 			}
+			if (isDiagramCacheEnabled()) {
+				cacheKey = LvglDiagramCache.getKey(content);
+			}
 		} catch (Exception e) {
 			ConsoleUtil.printError("Failed to load screen: " + e.getMessage());
 			screen = LvglXmlSerializer.createDefaultScreen();
+			shareScreen();
+			return;
+		}
+		startJournal(content);
+	}
+
+	/**
+	 * Shares the screen this editor loaded with the editors opening the
+	 * file later.
+	 */
+	private void shareScreen() {
+		shared = LvglModelManager.register(graphxmlFile, this, screen);
+		attachSharedScreen();
+	}
+
+	private void attachSharedScreen() {
+		screen.addTreeChangeListener(sharedScreenListener);
+	}
+
+	private void detachSharedScreen() {
+		screen.removeTreeChangeListener(sharedScreenListener);
+	}
+
+	/**
+	 * Checks whether a file is too large to load and draw at once, by the
+	 * limits set in the preferences.
+	 */
+	private static boolean isSummaryNeeded(byte[] content) {
+		IPreferenceStore store = Activator.getDefault().getPreferenceStore();
+		int fileSize = store.getInt(LvglPreferenceConstants.PREF_SUMMARY_FILE_SIZE);
+		int widgetCount = store.getInt(LvglPreferenceConstants.PREF_SUMMARY_WIDGET_COUNT);
+		return (fileSize > 0 && content.length >= fileSize * 1024L)
+				|| (widgetCount > 0 && LvglXmlSerializer.countWidgetElements(content) >= widgetCount);
+	}
+
+	private static boolean isDiagramCacheEnabled() {
+		return Activator.getDefault().getPreferenceStore().getBoolean(LvglPreferenceConstants.PREF_DIAGRAM_CACHE);
+	}
+
+	/**
+	 * Replays the edits a previous session journaled but did not save, and
+	 * starts journaling the edits of this session.
+	 *
+	 * @param content the content of the .graphxml file
+	 */
+	private void startJournal(byte[] content) {
+		String records = LvglJournalJob.readRecords(graphxmlFile, content);
+		boolean recovered = false;
+		if (records != null) {
+			try {
+				screen = LvglJournal.replay(screen, records);
+				recovered = true;
+				cacheKey = null;
+				ConsoleUtil.println("Recovered unsaved edits of " + graphxmlFile.getName() + " from the edit journal");
+			} catch (IOException e) {
+				ConsoleUtil.printError("Failed to recover unsaved edits: " + e.getMessage());
+				records = null;
+			}
 		}
+		shareScreen();
+		shared.startJournal(content, records);
+		shared.setUnsaved(recovered);
+	}
+
+	/**
+	 * Gets the job writing the .graphxml file, creating it on first use. The
+	 * job is shared by the editors of the file.
+	 *
+	 * @return the save job, or null without a file or in summary mode
+	 */
+	public LvglSaveJob getSaveJob() {
+		if (shared == null) {
+			return null;
+		}
+		LvglSaveJob saveJob = shared.getSaveJob();
+		if (saveListener == null) {
+			saveListener = new LvglSaveJob.Listener() {
+				@Override
+				public void saved(LvglScreenSnapshot savedScreen, String content) {
+					String key = isDiagramCacheEnabled()
+							? LvglDiagramCache.getKey(content.getBytes(StandardCharsets.UTF_8))
+							: null;
+					Display.getDefault().asyncExec(() -> {
+						// A later save or edit makes the key stale
+						if (key != null && !isDirty() && screen.snapshot() == savedScreen) {
+							cacheKey = key;
+						}
+					});
+				}
+
+				@Override
+				public void saveFailed(LvglScreenSnapshot savedScreen, Exception exception) {
+					// The editor stays dirty
+				}
+			};
+			saveJob.addListener(saveListener);
+		}
+		return saveJob;
+	}
+
+	/**
+	 * Checks whether the command stack of this editor has edits that were
+	 * not saved.
+	 */
+	boolean hasUnsavedCommands() {
+		return super.isDirty();
+	}
+
+	/**
+	 * Shows the dirty state of the shared screen, changed by another editor.
+	 */
+	void fireDirtyChanged() {
+		firePropertyChange(PROP_DIRTY);
+	}
+
+	@Override
+	public void updateDirtyState() {
+		super.updateDirtyState();
+		// The other editors of the file show the dirty state of the screen
+		if (shared != null && shared.isShared()) {
+			shared.dirtyChanged(this);
+		}
+	}
+
+	/**
+	 * Schedules updating the shapes for edits made to the shared screen in
+	 * another editor. Edits made by the commands of this editor already
+	 * update its shapes.
+	 */
+	private void scheduleSharedSync() {
+		// Not initialized yet, the shapes are created from the screen later
+		if (!(getEditingDomain() instanceof InternalTransactionalEditingDomain editingDomain)) {
+			return;
+		}
+		if (sharedSyncScheduled || changingScreen || editingDomain.getActiveTransaction() != null) {
+			return;
+		}
+		sharedSyncScheduled = true;
+		Display.getDefault().asyncExec(() -> {
+			sharedSyncScheduled = false;
+			if (shared != null) {
+				synchronizeDiagram();
+			}
+		});
 	}
 
 	/**
@@ -110,6 +410,22 @@ public class LvglDiagramEditor extends DiagramEditor {
 
 		// Create a new in-memory diagram resource
 		Resource resource = resourceSet.createResource(diagramUri);
+
+		// The diagram cached for unchanged content already has its shapes;
+		// synchronizing still fixes any that differ
+		Diagram diagram = cacheKey != null ? LvglDiagramCache.load(file, cacheKey) : null;
+		if (diagram == null) {
+			diagram = createDiagram(file);
+		}
+
+		// Add to resource
+		resource.getContents().add(diagram);
+
+		// Create the editor input with correct signature (Diagram, String providerId)
+		return DiagramEditorInput.createEditorInput(diagram, LvglDiagramTypeProvider.PROVIDER_ID);
+	}
+
+	private static Diagram createDiagram(IFile file) {
 		Diagram diagram = PictogramsFactory.eINSTANCE.createDiagram();
 		diagram.setDiagramTypeId(LvglDiagramTypeProvider.DIAGRAM_TYPE_ID);
 		diagram.setName(file.getName());
@@ -122,12 +438,185 @@ public class LvglDiagramEditor extends DiagramEditor {
 		Rectangle rect = gaService.createRectangle(diagram);
 		rect.setForeground(gaService.manageColor(diagram, IColorConstant.BLACK));
 		rect.setBackground(gaService.manageColor(diagram, IColorConstant.WHITE));
+		return diagram;
+	}
 
-		// Add to resource
-		resource.getContents().add(diagram);
+	/**
+	 * Makes the feature provider resolve pictograms against the current screen.
+	 */
+	private void updateFeatureProvider() {
+		if (getDiagramTypeProvider() != null
+				&& getDiagramTypeProvider().getFeatureProvider() instanceof LvglFeatureProvider featureProvider) {
+			featureProvider.setScreen(screen);
+			featureProvider.setSummary(summary);
+		}
+	}
 
-		// Create the editor input with correct signature (Diagram, String providerId)
-		return DiagramEditorInput.createEditorInput(diagram, LvglDiagramTypeProvider.PROVIDER_ID);
+	/**
+	 * Adds, removes and updates the shapes that differ from the current
+	 * screen, in one command. Following the screen is not an edit of the
+	 * diagram, so the command cannot be undone and leaves the dirty state as
+	 * it was.
+	 */
+	private void synchronizeDiagram() {
+		synchronizeDiagram(null);
+	}
+
+	/**
+	 * Synchronizes the diagram, checking only the shapes of the given
+	 * top-level widgets for updates.
+	 *
+	 * @param changedWidgets the changed top-level widgets, or null to check
+	 *        all shapes
+	 */
+	private void synchronizeDiagram(Set<LvglWidget> changedWidgets) {
+		if (getDiagramTypeProvider() == null || screen == null) {
+			return;
+		}
+		TransactionalEditingDomain editingDomain = getEditingDomain();
+		BasicCommandStack commandStack = (BasicCommandStack) editingDomain.getCommandStack();
+		boolean saveNeeded = commandStack.isSaveNeeded();
+		Diagram diagram = getDiagramTypeProvider().getDiagram();
+		LvglScreen syncedScreen = screen;
+		org.eclipse.draw2d.geometry.Rectangle area = getCullingArea();
+		commandStack.execute(new RecordingCommand(editingDomain, "Synchronize Diagram") {
+			@Override
+			protected void doExecute() {
+				LvglDiagramSynchronizer.synchronize(getDiagramTypeProvider().getFeatureProvider(), diagram,
+						syncedScreen, area, changedWidgets);
+			}
+
+			@Override
+			public boolean canUndo() {
+				return false;
+			}
+		});
+		if (!saveNeeded) {
+			commandStack.saveIsDone();
+		}
+		shapedArea = area;
+	}
+
+	private void scheduleCulling() {
+		Display.getDefault().timerExec(CULLING_DELAY, culler);
+	}
+
+	/**
+	 * Adds the shapes of widgets scrolled into view and removes those far out
+	 * of view. Nothing is done while the viewport stays inside the area that
+	 * already has shapes.
+	 */
+	private void cullDiagram() {
+		if (getDiagramTypeProvider() == null || screen == null || getGraphicalViewer() == null
+				|| getGraphicalViewer().getControl().isDisposed()) {
+			return;
+		}
+		org.eclipse.draw2d.geometry.Rectangle visible = getVisibleArea();
+		if (visible != null && shapedArea != null && shapedArea.contains(visible)) {
+			return;
+		}
+		org.eclipse.draw2d.geometry.Rectangle area = getCullingArea();
+		if (Objects.equals(area, shapedArea)) {
+			return;
+		}
+		synchronizeUnrecorded(area);
+	}
+
+	/**
+	 * Switches between full and low detail shapes when the zoom level
+	 * crosses {@link #LOW_DETAIL_ZOOM}, drawing all shapes again.
+	 */
+	private void updateDetail(double zoom) {
+		if (screen == null || getDiagramTypeProvider() == null
+				|| !(getDiagramTypeProvider().getFeatureProvider() instanceof LvglFeatureProvider featureProvider)) {
+			return;
+		}
+		boolean lowDetail = zoom < LOW_DETAIL_ZOOM;
+		if (featureProvider.isLowDetail() != lowDetail) {
+			featureProvider.setLowDetail(lowDetail);
+			synchronizeUnrecorded(getCullingArea());
+		}
+	}
+
+	/**
+	 * Synchronizes the shapes for a change of the view rather than of the
+	 * screen. Such changes are not edits: they run in a transaction that
+	 * records no undo and leaves the command stack alone.
+	 */
+	private void synchronizeUnrecorded(org.eclipse.draw2d.geometry.Rectangle area) {
+		InternalTransactionalEditingDomain editingDomain = (InternalTransactionalEditingDomain) getEditingDomain();
+		Diagram diagram = getDiagramTypeProvider().getDiagram();
+		try {
+			Transaction transaction = editingDomain.startTransaction(false,
+					Map.of(Transaction.OPTION_NO_UNDO, Boolean.TRUE));
+			try {
+				LvglDiagramSynchronizer.synchronize(getDiagramTypeProvider().getFeatureProvider(), diagram, screen,
+						area);
+			} catch (RuntimeException e) {
+				transaction.rollback();
+				throw e;
+			}
+			transaction.commit();
+			shapedArea = area;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (RollbackException e) {
+			ConsoleUtil.printError("Failed to update visible widgets: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Gets the area whose widgets get shapes: the viewport with a margin of
+	 * half its size on each side, so short scrolls find the shapes in place.
+	 *
+	 * @return the area in diagram coordinates, empty before the viewer is
+	 *         shown, or null if the screen is small enough to draw at once
+	 */
+	private org.eclipse.draw2d.geometry.Rectangle getCullingArea() {
+		if (screen.getWidgets().size() < CULLING_THRESHOLD) {
+			return null;
+		}
+		org.eclipse.draw2d.geometry.Rectangle visible = getVisibleArea();
+		if (visible == null) {
+			return new org.eclipse.draw2d.geometry.Rectangle();
+		}
+		return visible.getCopy().expand(visible.width / 2, visible.height / 2);
+	}
+
+	/**
+	 * Gets the part of the diagram shown in the viewport.
+	 *
+	 * @return the area in diagram coordinates, or null if the screen is small
+	 *         enough to draw at once or the viewer is not shown
+	 */
+	private org.eclipse.draw2d.geometry.Rectangle getVisibleArea() {
+		GraphicalViewer viewer = getGraphicalViewer();
+		if (screen.getWidgets().size() < CULLING_THRESHOLD || viewer == null
+				|| !(viewer.getControl() instanceof FigureCanvas canvas)) {
+			return null;
+		}
+		Viewport viewport = canvas.getViewport();
+		org.eclipse.draw2d.geometry.Rectangle visible = new org.eclipse.draw2d.geometry.Rectangle(
+				viewport.getViewLocation(), viewport.getClientArea().getSize());
+		if (visible.isEmpty()) {
+			return null;
+		}
+		if (viewer.getProperty(ZoomManager.class.toString()) instanceof ZoomManager zoomManager) {
+			visible.scale(1 / zoomManager.getZoom());
+		}
+		return visible;
+	}
+
+	/**
+	 * Starts validating the current screen, replacing a previously validated
+	 * one.
+	 */
+	private void updateValidation() {
+		// The widgets of collapsed containers are missing from a summary,
+		// which is not shared
+		if (shared != null) {
+			shared.startValidation();
+		}
 	}
 
 	/**
@@ -143,34 +632,38 @@ public class LvglDiagramEditor extends DiagramEditor {
 		// Only save the .graphxml file - no .diagram file
 		// Skip parent's doSave as it tries to save the diagram resource to disk
 
-		if (screen == null || graphxmlFile == null) {
+		// Without a file or in summary mode there is nothing to save
+		if (screen == null || shared == null) {
 			return;
 		}
 
-		try {
-			// Serialize the screen to XML
-			LvglXmlSerializer serializer = new LvglXmlSerializer();
-			ByteArrayOutputStream baos = new ByteArrayOutputStream();
-			serializer.save(screen, baos);
-
-			// Write to .graphxml file
-			ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-			if (graphxmlFile.exists()) {
-				graphxmlFile.setContents(bais, true, true, monitor);
-			} else {
-				graphxmlFile.create(bais, true, monitor);
-			}
+		// Only the snapshot is taken here; serializing and writing the file
+		// happen in the save job, which reports a failure back as dirty state
+		LvglScreenSnapshot snapshot = screen.snapshot();
+		if (shared.getJournalJob() != null) {
+			shared.getJournalJob().checkpoint(snapshot);
+		}
+		cacheKey = null;
+		getSaveJob().submit(snapshot);
 
-			// Mark the command stack as saved to clear the dirty flag
-			// This properly resets the editing domain's dirty state
-			getEditingDomain().getCommandStack().flush();
+		// Mark the command stacks of all editors of the file as saved to
+		// clear the dirty flag; this properly resets their editing domains'
+		// dirty state
+		shared.saved();
 
-			// Fire property change to notify listeners (multi-page editor) that save
-			// completed
-			firePropertyChange(PROP_DIRTY);
-		} catch (Exception e) {
-			ConsoleUtil.printError("Failed to save diagram: " + e.getMessage());
+		// Fire property change to notify listeners (multi-page editor) that save
+		// completed
+		firePropertyChange(PROP_DIRTY);
+	}
+
+	@Override
+	public boolean isDirty() {
+		// Expanding a summary does not change the file; the edits of the
+		// other editors of the file are not saved either
+		if (summary != null) {
+			return false;
 		}
+		return shared != null ? shared.isDirty() : super.isDirty();
 	}
 
 	@Override
@@ -191,14 +684,150 @@ public class LvglDiagramEditor extends DiagramEditor {
 	}
 
 	/**
-	 * Sets the screen model and refreshes the diagram. Used when XML content
-	 * changes in the source tab.
+	 * Gets the summary of a file opened read-only because it is too large to
+	 * load at once.
+	 *
+	 * @return the summary, or null if the whole screen is loaded
+	 */
+	public LvglScreenSummary getSummary() {
+		return summary;
+	}
+
+	/**
+	 * Rebases the journal on text saved from the Source page, once the screen
+	 * shows that text, so a later recovery accepts it.
+	 *
+	 * @param content the text written to the file
+	 */
+	void sourceSaved(String content) {
+		if (screen == null || shared == null || shared.getJournalJob() == null) {
+			return;
+		}
+		LvglScreenSnapshot snapshot = screen.snapshot();
+		shared.getJournalJob().checkpoint(snapshot);
+		shared.getJournalJob().saved(snapshot, content);
+	}
+
+	/**
+	 * Gets the screen shared with the other editors of the file.
+	 *
+	 * @return the shared screen, or null without a file and in summary mode
+	 */
+	LvglModelManager.SharedScreen getSharedScreen() {
+		return shared;
+	}
+
+	/**
+	 * Loads the widgets of a collapsed container of the summary and draws
+	 * it again. Must be called in a write transaction on the diagram, such
+	 * as from a feature.
+	 *
+	 * @param widget a collapsed top-level widget
+	 */
+	public void expandWidget(LvglWidget widget) {
+		if (summary == null) {
+			return;
+		}
+		try {
+			if (summary.expand(widget)) {
+				LvglDiagramSynchronizer.synchronize(getDiagramTypeProvider().getFeatureProvider(),
+						getDiagramTypeProvider().getDiagram(), screen, shapedArea);
+			}
+		} catch (IOException e) {
+			ConsoleUtil.printError("Failed to load the widgets of " + widget.getName() + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Sets the screen model and updates the shapes that differ. Used when XML
+	 * content changes in the source tab.
 	 */
 	public void setScreen(LvglScreen newScreen) {
+		if (shared != null) {
+			// The other editors of the file get the screen too
+			shared.setScreen(newScreen);
+		} else {
+			screenReplaced(newScreen);
+		}
+	}
+
+	/**
+	 * Shows a screen replacing the current one.
+	 */
+	void screenReplaced(LvglScreen newScreen) {
+		if (shared != null) {
+			detachSharedScreen();
+		}
+		// Commands on the stack can no longer undo the changes of the old screen
+		if (screen != null) {
+			screen.getUndoHistory().clear();
+		}
 		this.screen = newScreen;
+		cacheKey = null;
+		updateFeatureProvider();
+		if (shared != null) {
+			attachSharedScreen();
+		}
+
+		// Shapes of widgets that keep their identifier are kept
+		synchronizeDiagram();
+	}
+
+	/**
+	 * Applies a diff computed against the current screen, changing only the
+	 * widgets and properties that differ, and updates their shapes.
+	 *
+	 * @param diff the diff from the current screen to the new content
+	 */
+	public void applyDiff(LvglModelDiff diff) {
+		if (diff.isEmpty()) {
+			return;
+		}
+		changingScreen = true;
+		try {
+			diff.apply(screen);
+		} finally {
+			changingScreen = false;
+		}
+		cacheKey = null;
+		// Only the shapes of the top-level widgets the diff changed can need an update
+		Set<LvglWidget> changedWidgets = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (long id : diff.getChangedTopLevelIds()) {
+			LvglWidget widget = screen.findWidgetById(id);
+			if (widget != null && widget.getParent() == null) {
+				changedWidgets.add(widget);
+			}
+		}
+		synchronizeDiagram(changedWidgets);
+	}
+
+	@Override
+	public void dispose() {
+		Display.getDefault().timerExec(-1, culler);
+		cacheDiagram();
+		if (shared != null) {
+			detachSharedScreen();
+			if (saveListener != null) {
+				shared.getSaveJob().removeListener(saveListener);
+			}
+			LvglModelManager.release(shared, this);
+			shared = null;
+		}
+		super.dispose();
+	}
 
-		// Refresh the diagram
-		getDiagramBehavior().refresh();
+	/**
+	 * Stores a copy of the diagram in the cache if it shows the content of
+	 * the file.
+	 */
+	private void cacheDiagram() {
+		if (cacheKey == null || summary != null || isDirty() || getDiagramTypeProvider() == null) {
+			return;
+		}
+		Diagram diagram = getDiagramTypeProvider().getDiagram();
+		if (diagram != null) {
+			LvglDiagramCache.save(graphxmlFile, cacheKey, EcoreUtil.copy(diagram));
+		}
 	}
 
 	/**
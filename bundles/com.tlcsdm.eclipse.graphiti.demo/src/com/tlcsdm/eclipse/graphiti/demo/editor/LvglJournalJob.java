@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.editor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import com.tlcsdm.eclipse.graphiti.demo.Activator;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglJournal;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreenSnapshot;
+import com.tlcsdm.eclipse.graphiti.demo.util.ConsoleUtil;
+
+/**
+ * Background job that keeps the {@link LvglJournal} of an editor's screen in
+ * the plug-in state location, so edits not yet saved survive a crash. Records
+ * are appended and synced to disk in batches, at most a second after the
+ * change. The journal starts with the checksum of the .graphxml content it
+ * applies to; after a save it is rewritten to hold only the edits made since
+ * the saved snapshot was taken.
+ */
+public class LvglJournalJob extends Job {
+
+	/** Delay in milliseconds between a change and the sync of its record */
+	private static final long SYNC_DELAY = 1000;
+
+	private final Path path;
+	private final LvglJournal journal = new LvglJournal(this::recorded);
+
+	// Journal file, guarded by this; null if not open
+	private FileChannel channel;
+	private long baseRecordCount;
+	private long writtenRecordCount;
+	private final Map<LvglScreenSnapshot, Long> checkpoints = new IdentityHashMap<>();
+	/** True once the editor closed while saves were pending */
+	private boolean closing;
+
+	/**
+	 * Creates a journal job for a file.
+	 *
+	 * @param file the .graphxml file whose edits are journaled
+	 */
+	public LvglJournalJob(IFile file) {
+		super("Journal LVGL Screen Edits");
+		this.path = getJournalPath(file);
+		setSystem(true);
+	}
+
+	private static Path getJournalPath(IFile file) {
+		String key = file.getFullPath().toPortableString();
+		String name = file.getName() + "-" + Integer.toHexString(key.hashCode()) + ".journal";
+		return Activator.getDefault().getStateLocation().append("journal").toFile().toPath().resolve(name);
+	}
+
+	/**
+	 * Reads the records a previous session left for a file, such as after a
+	 * crash. Records are only returned if the file still has the content they
+	 * were made on.
+	 *
+	 * @param file the .graphxml file
+	 * @param content the current content of the file
+	 * @return the records to replay with {@link LvglJournal#replay}, or null
+	 *         if there are none
+	 */
+	public static String readRecords(IFile file, byte[] content) {
+		try {
+			String text = Files.readString(getJournalPath(file), StandardCharsets.UTF_8);
+			return LvglJournal.getRecords(text, content);
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			ConsoleUtil.printError("Failed to read edit journal: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Starts journaling the edits of a screen.
+	 *
+	 * @param screen the screen
+	 * @param content the content of the .graphxml file the screen was loaded
+	 *        from
+	 * @param records recovered records already replayed on the screen, kept
+	 *        until the next save, or null
+	 */
+	public synchronized void start(LvglScreen screen, byte[] content, String records) {
+		try {
+			Files.createDirectories(path.getParent());
+			String text = LvglJournal.header(content) + (records != null ? records : "");
+			replace(text.getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			ConsoleUtil.printError("Failed to create edit journal: " + e.getMessage());
+		}
+		journal.attach(screen);
+		// Count the recovered records as made before the first one of this session
+		writtenRecordCount = journal.getRecordCount();
+		baseRecordCount = writtenRecordCount - (records != null ? records.chars().filter(c -> c == '\n').count() : 0);
+	}
+
+	/**
+	 * Continues journaling with a screen replacing the current one.
+	 *
+	 * @param screen the new screen
+	 */
+	public void attach(LvglScreen screen) {
+		journal.attach(screen);
+	}
+
+	/**
+	 * Marks the point a snapshot for saving was taken. Once it is saved, the
+	 * edits before it are dropped from the journal.
+	 *
+	 * @param screen the snapshot being saved
+	 */
+	public synchronized void checkpoint(LvglScreenSnapshot screen) {
+		checkpoints.put(screen, journal.getRecordCount());
+	}
+
+	/**
+	 * Called after a snapshot was saved. Rewrites the journal on the saved
+	 * content, keeping the edits made after the snapshot was taken.
+	 *
+	 * @param screen the saved snapshot
+	 * @param content the text written to the .graphxml file
+	 */
+	public synchronized void saved(LvglScreenSnapshot screen, String content) {
+		Long count = checkpoints.remove(screen);
+		if (count == null || channel == null) {
+			return;
+		}
+		// Merged saves never report older snapshots
+		checkpoints.values().removeIf(c -> c < count);
+		try {
+			flush();
+			String text = Files.readString(path, StandardCharsets.UTF_8);
+			int start = text.indexOf('\n') + 1;
+			for (long i = baseRecordCount; i < count && start > 0; i++) {
+				start = text.indexOf('\n', start) + 1;
+			}
+			String kept = start > 0 ? text.substring(start) : "";
+			String header = LvglJournal.header(content.getBytes(StandardCharsets.UTF_8));
+			replace((header + kept).getBytes(StandardCharsets.UTF_8));
+			baseRecordCount = count;
+		} catch (IOException e) {
+			ConsoleUtil.printError("Failed to update edit journal: " + e.getMessage());
+		}
+		if (closing && checkpoints.isEmpty()) {
+			dispose();
+		}
+	}
+
+	/**
+	 * Called if a snapshot could not be saved. The journal keeps its records.
+	 *
+	 * @param screen the snapshot
+	 */
+	public synchronized void saveFailed(LvglScreenSnapshot screen) {
+		Long count = checkpoints.remove(screen);
+		if (count == null) {
+			return;
+		}
+		checkpoints.values().removeIf(c -> c < count);
+		if (closing && checkpoints.isEmpty()) {
+			// Left for recovery when the file is opened again
+			try {
+				flush();
+				closeChannel();
+			} catch (IOException e) {
+				ConsoleUtil.printError("Failed to write edit journal: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Stops journaling when the editor closes, and deletes the journal once
+	 * the saves submitted before have written their snapshots. Until then the
+	 * journal still holds the edits of those snapshots; if a save fails, it is
+	 * kept so they are recovered when the file is opened again.
+	 */
+	public void close() {
+		journal.detach();
+		synchronized (this) {
+			if (!checkpoints.isEmpty()) {
+				closing = true;
+				return;
+			}
+		}
+		dispose();
+	}
+
+	/**
+	 * Stops journaling and deletes the journal at once.
+	 *
+	 * @see #close()
+	 */
+	public void dispose() {
+		cancel();
+		journal.detach();
+		synchronized (this) {
+			try {
+				closeChannel();
+				Files.deleteIfExists(path);
+			} catch (IOException e) {
+				ConsoleUtil.printError("Failed to delete edit journal: " + e.getMessage());
+			}
+		}
+	}
+
+	private void recorded() {
+		// A waiting job is not rescheduled, so steady editing still syncs every second
+		if (getState() == NONE) {
+			schedule(SYNC_DELAY);
+		}
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		synchronized (this) {
+			try {
+				flush();
+			} catch (IOException e) {
+				ConsoleUtil.printError("Failed to write edit journal: " + e.getMessage());
+			}
+			if (journal.getRecordCount() > writtenRecordCount) {
+				// Recorded while this job was running
+				schedule(SYNC_DELAY);
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
+	/**
+	 * Appends the pending records and syncs them to disk.
+	 */
+	private void flush() throws IOException {
+		writtenRecordCount = journal.getRecordCount();
+		String records = journal.drain();
+		if (records.isEmpty() || channel == null) {
+			return;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(records.getBytes(StandardCharsets.UTF_8));
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		channel.force(false);
+	}
+
+	/**
+	 * Replaces the journal with the given content, so a crash leaves either
+	 * the old or the new journal, and opens it for appending.
+	 */
+	private void replace(byte[] bytes) throws IOException {
+		closeChannel();
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			while (buffer.hasRemaining()) {
+				out.write(buffer);
+			}
+			out.force(true);
+		}
+		try {
+			Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+		channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+	}
+
+	private void closeChannel() throws IOException {
+		if (channel != null) {
+			channel.close();
+			channel = null;
+		}
+	}
+}
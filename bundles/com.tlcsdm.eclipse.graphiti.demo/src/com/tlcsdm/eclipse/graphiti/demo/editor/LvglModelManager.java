@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.editor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.swt.widgets.Display;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreenSnapshot;
+import com.tlcsdm.eclipse.graphiti.demo.validation.LvglValidationJob;
+import com.tlcsdm.eclipse.graphiti.demo.validation.LvglValidationTracker;
+
+/**
+ * Screens of the .graphxml files open in editors, one per file. Editors on
+ * the same file share its screen together with the jobs saving, journaling
+ * and validating it; the screen is released when the last of them closes.
+ * Code generation takes the screen of an open file from here, so unsaved
+ * edits are included and the file is not read again.
+ * <p>
+ * Used on the UI thread only.
+ * </p>
+ */
+public final class LvglModelManager {
+
+	private static final Map<IFile, SharedScreen> SCREENS = new HashMap<>();
+
+	/**
+	 * The screen of a file with the editors using it.
+	 */
+	static final class SharedScreen {
+
+		private final IFile file;
+		private final List<LvglDiagramEditor> editors = new ArrayList<>();
+		private LvglScreen screen;
+		private LvglJournalJob journalJob;
+		private LvglSaveJob saveJob;
+		private LvglValidationJob validationJob;
+		private LvglValidationTracker validationTracker;
+
+		/**
+		 * True while the screen has changes no command stack knows of: the
+		 * last save failed, edits were recovered from the journal, or an
+		 * editor closed with edits that were not saved
+		 */
+		private boolean unsaved;
+
+		private SharedScreen(IFile file, LvglScreen screen) {
+			this.file = file;
+			this.screen = screen;
+		}
+
+		LvglScreen getScreen() {
+			return screen;
+		}
+
+		/**
+		 * Replaces the screen in all editors, such as with the content of the
+		 * Source page.
+		 */
+		void setScreen(LvglScreen newScreen) {
+			screen = newScreen;
+			if (journalJob != null) {
+				journalJob.attach(newScreen);
+			}
+			if (validationTracker != null) {
+				validationTracker.attach(newScreen);
+			}
+			for (LvglDiagramEditor editor : List.copyOf(editors)) {
+				editor.screenReplaced(newScreen);
+			}
+		}
+
+		/**
+		 * Checks whether the screen is edited by more than one editor, so
+		 * each must follow the edits of the others.
+		 */
+		boolean isShared() {
+			return editors.size() > 1;
+		}
+
+		LvglJournalJob getJournalJob() {
+			return journalJob;
+		}
+
+		/**
+		 * Starts journaling the edits of the screen.
+		 *
+		 * @param content the content of the file
+		 * @param records the records recovered from the journal, or null
+		 */
+		void startJournal(byte[] content, String records) {
+			journalJob = new LvglJournalJob(file);
+			journalJob.start(screen, content, records);
+		}
+
+		/**
+		 * Starts validating the screen in the background, once for all
+		 * editors.
+		 */
+		void startValidation() {
+			if (validationTracker == null) {
+				validationJob = new LvglValidationJob(file);
+				validationTracker = new LvglValidationTracker(validationJob);
+				validationTracker.attach(screen);
+			}
+		}
+
+		/**
+		 * Gets the job writing the file, creating it on first use.
+		 */
+		LvglSaveJob getSaveJob() {
+			if (saveJob == null) {
+				saveJob = new LvglSaveJob(file);
+				saveJob.addListener(new LvglSaveJob.Listener() {
+					@Override
+					public void saved(LvglScreenSnapshot savedScreen, String content) {
+						if (journalJob != null) {
+							journalJob.saved(savedScreen, content);
+						}
+						Display.getDefault().asyncExec(() -> setUnsaved(false));
+					}
+
+					@Override
+					public void saveFailed(LvglScreenSnapshot savedScreen, Exception exception) {
+						if (journalJob != null) {
+							journalJob.saveFailed(savedScreen);
+						}
+						Display.getDefault().asyncExec(() -> setUnsaved(true));
+					}
+				});
+			}
+			return saveJob;
+		}
+
+		/**
+		 * Checks whether the screen differs from the file, by the command
+		 * stacks of all editors.
+		 */
+		boolean isDirty() {
+			if (unsaved) {
+				return true;
+			}
+			for (LvglDiagramEditor editor : editors) {
+				if (editor.hasUnsavedCommands()) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void setUnsaved(boolean value) {
+			if (unsaved != value) {
+				unsaved = value;
+				dirtyChanged(null);
+			}
+		}
+
+		/**
+		 * Marks the screen as saved in all editors.
+		 */
+		void saved() {
+			for (LvglDiagramEditor editor : editors) {
+				editor.getEditingDomain().getCommandStack().flush();
+			}
+			// No command is left to undo the recorded steps
+			screen.getUndoHistory().clear();
+			dirtyChanged(null);
+		}
+
+		/**
+		 * Updates the dirty state shown by the editors.
+		 *
+		 * @param source the editor whose dirty state changed and which
+		 *        already shows it, or null
+		 */
+		void dirtyChanged(LvglDiagramEditor source) {
+			for (LvglDiagramEditor editor : List.copyOf(editors)) {
+				if (editor != source) {
+					editor.fireDirtyChanged();
+				}
+			}
+		}
+	}
+
+	private LvglModelManager() {
+	}
+
+	/**
+	 * Gets the screen of a file open in an editor.
+	 *
+	 * @param file the .graphxml file
+	 * @return the screen with the unsaved edits of the editors, or null if the
+	 *         file is not open
+	 */
+	public static LvglScreen getScreen(IFile file) {
+		SharedScreen shared = SCREENS.get(file);
+		return shared != null ? shared.screen : null;
+	}
+
+	/**
+	 * Joins the editors of a file if it is open.
+	 *
+	 * @param file the .graphxml file
+	 * @param editor the editor opening the file
+	 * @return the shared screen, or null if no editor has the file open
+	 */
+	static SharedScreen acquire(IFile file, LvglDiagramEditor editor) {
+		SharedScreen shared = SCREENS.get(file);
+		if (shared != null) {
+			shared.editors.add(editor);
+		}
+		return shared;
+	}
+
+	/**
+	 * Shares the screen loaded by the first editor of a file.
+	 *
+	 * @param file the .graphxml file
+	 * @param editor the editor that loaded the screen
+	 * @param screen the screen
+	 * @return the shared screen
+	 */
+	static SharedScreen register(IFile file, LvglDiagramEditor editor, LvglScreen screen) {
+		SharedScreen shared = new SharedScreen(file, screen);
+		shared.editors.add(editor);
+		SCREENS.put(file, shared);
+		return shared;
+	}
+
+	/**
+	 * Leaves the editors of a file, releasing the screen after the last one.
+	 * The editors share one saveable, so the workbench only asks to save when
+	 * the last editor closes, and unsaved edits are discarded only then.
+	 * Edits of an editor closed before stay in the screen, and the remaining
+	 * editors show them as unsaved; they can no longer be undone, as the
+	 * commands that made them are gone. After the last editor, the validation
+	 * markers are brought in line with the file.
+	 *
+	 * @param shared the shared screen
+	 * @param editor the closing editor
+	 */
+	static void release(SharedScreen shared, LvglDiagramEditor editor) {
+		boolean dirty = editor.hasUnsavedCommands();
+		if (!shared.editors.remove(editor)) {
+			return;
+		}
+		if (!shared.editors.isEmpty()) {
+			if (dirty) {
+				shared.setUnsaved(true);
+			}
+			return;
+		}
+		SCREENS.remove(shared.file, shared);
+		if (shared.validationTracker != null) {
+			shared.validationTracker.detach();
+			// The markers persist across restarts, so they must describe the
+			// file: either the screen was saved, or its edits are discarded
+			if (dirty || shared.unsaved) {
+				shared.validationJob.submitFileContent();
+			} else {
+				shared.validationJob.submit(shared.screen.snapshot(), null);
+			}
+		}
+		if (shared.journalJob != null) {
+			// Deleted once a save still in progress has written the edits
+			shared.journalJob.close();
+		}
+	}
+}
@@ -8,43 +8,70 @@ package com.tlcsdm.eclipse.graphiti.demo.editor;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.ITextFileBuffer;
+import org.eclipse.core.filebuffers.LocationKind;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.dialogs.ErrorDialog;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IEditorSite;
 import org.eclipse.ui.IFileEditorInput;
+import org.eclipse.ui.ISaveablesSource;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.Saveable;
 import org.eclipse.ui.editors.text.TextEditor;
 import org.eclipse.ui.part.MultiPageEditorPart;
+import org.eclipse.ui.texteditor.IElementStateListener;
 
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglModelDiff;
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreenSnapshot;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglXmlProblem;
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglXmlSerializer;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglXmlSourceMap;
 import com.tlcsdm.eclipse.graphiti.demo.util.ConsoleUtil;
+import com.tlcsdm.eclipse.graphiti.demo.validation.LvglSourceParseJob;
 
 /**
  * Multi-page editor for LVGL UI design.
  * <p>
  * Page 0: UI Drag-and-drop editor (Graphiti graphical editor)
- * Page 1: XML text editor
+ * Page 1: XML text editor, created when the page is first activated
  * </p>
  * <p>
  * When the XML text is edited and user switches to the UI page,
- * the UI view is refreshed to reflect the XML changes.
+ * the UI view is refreshed to reflect the XML changes. The XML text is
+ * parsed in the background shortly after each edit, which shows its
+ * problems as markers and usually has the new screen ready by then.
+ * </p>
+ * <p>
+ * Editors of the same file share one {@link Saveable}, so the workbench only
+ * asks to save the file when the last of them is closed; until then the
+ * edits made in a closed editor stay in the screen of the others.
  * </p>
  */
-public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourceChangeListener {
+public class LvglMultiPageEditor extends MultiPageEditorPart
+		implements IResourceChangeListener, ISaveablesSource {
 
 	/** Editor ID matching the id attribute in plugin.xml. */
 	public static final String ID = "com.tlcsdm.eclipse.graphiti.demo.editor.multi";
@@ -54,6 +81,9 @@ public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourc
 	/** Index of the XML source page */
 	private static final int XML_PAGE_INDEX = 1;
 
+	/** Delay after the last XML edit before the XML is parsed */
+	private static final int PARSE_DELAY = 300;
+
 	/** The graphical editor for UI design */
 	private LvglDiagramEditor graphicalEditor;
 
@@ -66,6 +96,40 @@ public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourc
 	/** Document listener to track XML changes */
 	private IDocumentListener documentListener;
 
+	/** Removes the XML problem markers when the text is reverted */
+	private IElementStateListener elementStateListener;
+
+	/** Widget offsets of the XML as last synchronized, and the edits since */
+	private LvglXmlSourceMap sourceMap;
+
+	/** Snapshot of the screen the XML matched when last synchronized */
+	private LvglScreenSnapshot syncedSnapshot;
+
+	/** Background parser of the XML text */
+	private LvglSourceParseJob sourceParseJob;
+
+	/** Submits the XML text to the parser once edits pause */
+	private final Runnable sourceParser = this::parseSource;
+
+	/** Times the opening of the editor and its pages */
+	private LvglOpenTrace openTrace;
+
+	/** Modification stamp of the XML text when the Design page was last saved */
+	private long saveStamp = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+
+	/** Shows the text written by saves from the Design page */
+	private final LvglSaveJob.Listener saveListener = new LvglSaveJob.Listener() {
+		@Override
+		public void saved(LvglScreenSnapshot screen, String content) {
+			Display.getDefault().asyncExec(() -> showSavedText(screen, content));
+		}
+
+		@Override
+		public void saveFailed(LvglScreenSnapshot screen, Exception exception) {
+			// The Design page stays dirty, the XML page keeps its text
+		}
+	};
+
 	/**
 	 * Creates a multi-page editor.
 	 */
@@ -79,8 +143,10 @@ public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourc
 	 * which is the UI drag-and-drop editor.
 	 */
 	void createUIPage() {
+		LvglOpenTrace.Stage stage = openTrace.begin("Design page");
 		try {
 			graphicalEditor = new LvglDiagramEditor();
+			graphicalEditor.setOpenTrace(openTrace);
 			int index = addPage(graphicalEditor, getEditorInput());
 			setPageText(index, "Design");
 		} catch (PartInitException e) {
@@ -89,18 +155,34 @@ public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourc
 					"Error creating UI editor",
 					null,
 					e.getStatus());
+		} finally {
+			stage.close();
 		}
 	}
 
+	/**
+	 * Creates a placeholder for page 1 of the multi-page editor. The XML text
+	 * editor loads the file a second time, so it is only created when the
+	 * page is first activated.
+	 */
+	void createXMLPlaceholder() {
+		Composite placeholder = new Composite(getContainer(), SWT.NONE);
+		int index = addPage(placeholder);
+		setPageText(index, "Source");
+	}
+
 	/**
 	 * Creates page 1 of the multi-page editor,
-	 * which is the XML text editor.
+	 * which is the XML text editor, replacing the placeholder.
 	 */
 	void createXMLPage() {
+		LvglOpenTrace.Stage stage = openTrace.begin("Source page");
 		try {
-			textEditor = new TextEditor();
-			int index = addPage(textEditor, getEditorInput());
+			TextEditor editor = new TextEditor();
+			removePage(XML_PAGE_INDEX);
+			int index = addPage(XML_PAGE_INDEX, editor, getEditorInput());
 			setPageText(index, "Source");
+			textEditor = editor;
 
 			// Add document listener to track changes
 			if (textEditor.getDocumentProvider() != null) {
@@ -110,22 +192,67 @@ public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourc
 						@Override
 						public void documentChanged(DocumentEvent event) {
 							xmlModified = true;
+							int textLength = event.getText() != null ? event.getText().length() : 0;
+							sourceMap.recordEdit(event.getOffset(), event.getLength(), textLength);
+							scheduleSourceParse();
 						}
 
 						@Override
 						public void documentAboutToBeChanged(DocumentEvent event) {
-							// Not needed
+							// Locate the widgets before the first edit since the last synchronization
+							if (sourceMap == null) {
+								sourceMap = LvglXmlSourceMap.scan(event.getDocument().get());
+							}
 						}
 					};
 					document.addDocumentListener(documentListener);
+					markSynchronized();
+					sourceParseJob = new LvglSourceParseJob(getDiagramFile());
+					parseSource();
+					elementStateListener = new IElementStateListener() {
+						@Override
+						public void elementContentReplaced(Object element) {
+							// Reverted: the markers of the discarded text go at once,
+							// the parse of the new text shows its own problems
+							if (element == getEditorInput()) {
+								sourceParseJob.clear();
+								scheduleSourceParse();
+							}
+						}
+
+						@Override
+						public void elementContentAboutToBeReplaced(Object element) {
+							// Nothing to do before the text is replaced
+						}
+
+						@Override
+						public void elementDirtyStateChanged(Object element, boolean isDirty) {
+							// Edits are tracked by the document listener
+						}
+
+						@Override
+						public void elementDeleted(Object element) {
+							// The markers are deleted with the file
+						}
+
+						@Override
+						public void elementMoved(Object originalElement, Object movedElement) {
+							// The markers move with the file
+						}
+					};
+					textEditor.getDocumentProvider().addElementStateListener(elementStateListener);
 				}
 			}
+			// Runs pageChange again, now with the text editor
+			setActivePage(index);
 		} catch (PartInitException e) {
 			ErrorDialog.openError(
 					getSite().getShell(),
 					"Error creating XML editor",
 					null,
 					e.getStatus());
+		} finally {
+			stage.close();
 		}
 	}
 
@@ -135,7 +262,14 @@ public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourc
 	@Override
 	protected void createPages() {
 		createUIPage();
-		createXMLPage();
+		// A file opened in summary mode is read-only and too large for the
+		// text editor
+		if (graphicalEditor == null || graphicalEditor.getSummary() == null) {
+			createXMLPlaceholder();
+		}
+		if (graphicalEditor != null && graphicalEditor.getSaveJob() != null) {
+			graphicalEditor.getSaveJob().addListener(saveListener);
+		}
 	}
 
 	/**
@@ -151,6 +285,18 @@ public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourc
 				document.removeDocumentListener(documentListener);
 			}
 		}
+		if (textEditor != null && elementStateListener != null) {
+			textEditor.getDocumentProvider().removeElementStateListener(elementStateListener);
+		}
+		if (sourceParseJob != null) {
+			Display.getDefault().timerExec(-1, sourceParser);
+			// The problems of text that was not saved are discarded with it
+			sourceParseJob.clear();
+		}
+		if (graphicalEditor != null && graphicalEditor.getSaveJob() != null) {
+			// A running save still completes, only its result is no longer shown
+			graphicalEditor.getSaveJob().removeListener(saveListener);
+		}
 		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
 		super.dispose();
 	}
@@ -163,18 +309,26 @@ public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourc
 	@Override
 	public void doSave(IProgressMonitor monitor) {
 		// Save from the currently active page
-		if (getActivePage() == XML_PAGE_INDEX) {
+		if (getActivePage() == XML_PAGE_INDEX && textEditor != null) {
 			// Save XML changes first
 			textEditor.doSave(monitor);
 			// Refresh UI editor with new content
-			refreshGraphicalEditor();
+			if (refreshGraphicalEditor() && !textEditor.isDirty()) {
+				// Journal only the edits made after the saved text
+				IDocument document = textEditor.getDocumentProvider().getDocument(getEditorInput());
+				graphicalEditor.sourceSaved(document.get());
+			}
 			// Reset the xmlModified flag since we've synchronized
 			xmlModified = false;
 		} else {
-			// Save from graphical editor - serialize and save
+			// Save from graphical editor - serialized and written in the
+			// background, the text editor is updated from saveListener
+			IDocument document = textEditor != null && textEditor.getDocumentProvider() != null
+					? textEditor.getDocumentProvider().getDocument(getEditorInput())
+					: null;
+			saveStamp = document != null ? getModificationStamp(document)
+					: IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
 			graphicalEditor.doSave(monitor);
-			// Update the text editor content and sync its dirty state
-			refreshTextEditorAndSave(monitor);
 		}
 		// Fire property change to update the dirty state indicator
 		firePropertyChange(PROP_DIRTY);
@@ -197,6 +351,7 @@ public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourc
 		if (!(editorInput instanceof IFileEditorInput)) {
 			throw new PartInitException("Invalid Input: Must be IFileEditorInput");
 		}
+		openTrace = new LvglOpenTrace(editorInput.getName());
 		super.init(site, editorInput);
 		setPartName(editorInput.getName());
 	}
@@ -225,6 +380,17 @@ public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourc
 	@Override
 	protected void pageChange(int newPageIndex) {
 		super.pageChange(newPageIndex);
+		if (newPageIndex == XML_PAGE_INDEX && textEditor == null) {
+			// First activation - replace the placeholder once the tab
+			// folder has finished handling the selection
+			Display.getDefault().asyncExec(() -> {
+				if (textEditor == null && getContainer() != null && !getContainer().isDisposed()
+						&& getActivePage() == XML_PAGE_INDEX) {
+					createXMLPage();
+				}
+			});
+			return;
+		}
 		if (newPageIndex == UI_PAGE_INDEX && xmlModified) {
 			// Switching to UI page after XML was modified - refresh UI
 			refreshGraphicalEditor();
@@ -237,24 +403,128 @@ public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourc
 
 	/**
 	 * Refresh the graphical editor with content from XML text.
+	 *
+	 * @return true if the screen now matches the text
 	 */
-	private void refreshGraphicalEditor() {
+	private boolean refreshGraphicalEditor() {
 		try {
 			IDocument document = textEditor.getDocumentProvider().getDocument(getEditorInput());
 			if (document != null) {
+				// Parse only the widget element that was edited, if possible
+				LvglModelDiff sourceDiff = computeSourceDiff(document);
+				if (sourceDiff != null) {
+					graphicalEditor.applyDiff(sourceDiff);
+					markSynchronized();
+					return true;
+				}
+
+				// Use the background parser's result if it parsed the current text
+				long stamp = getModificationStamp(document);
+				if (sourceParseJob != null && stamp != IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
+					List<LvglXmlProblem> errors = sourceParseJob.getErrors(stamp);
+					if (errors != null && !errors.isEmpty()) {
+						LvglXmlProblem error = errors.get(0);
+						String location = error.getLine() > 0 ? "line " + error.getLine() + ": " : "";
+						ConsoleUtil.printError(
+								"Failed to refresh UI editor from XML: " + location + error.getMessage());
+						return false;
+					}
+					LvglScreen parsedScreen = sourceParseJob.takeScreen(stamp);
+					if (parsedScreen != null) {
+						updateScreen(parsedScreen);
+						return true;
+					}
+				}
+
 				String xmlContent = document.get();
 				if (xmlContent != null && !xmlContent.trim().isEmpty()) {
 					LvglXmlSerializer serializer = new LvglXmlSerializer();
 					ByteArrayInputStream bais = new ByteArrayInputStream(xmlContent.getBytes(StandardCharsets.UTF_8));
-					LvglScreen newScreen = serializer.load(bais);
-
-					// Update the graphical editor's model
-					graphicalEditor.setScreen(newScreen);
+					updateScreen(serializer.load(bais));
+					return true;
 				}
 			}
 		} catch (Exception e) {
 			ConsoleUtil.printError("Failed to refresh UI editor from XML: " + e.getMessage());
 		}
+		return false;
+	}
+
+	/**
+	 * Updates the graphical editor's model to a screen loaded from the XML,
+	 * applying only the actual changes when there is a model already.
+	 */
+	private void updateScreen(LvglScreen newScreen) {
+		LvglScreen currentScreen = graphicalEditor.getScreen();
+		if (currentScreen != null) {
+			graphicalEditor.applyDiff(LvglModelDiff.compute(currentScreen, newScreen));
+		} else {
+			graphicalEditor.setScreen(newScreen);
+		}
+		markSynchronized();
+	}
+
+	/**
+	 * Computes the changes of the screen from the XML edits since the last
+	 * synchronization by parsing only the widget element containing them.
+	 *
+	 * @return the diff, or null if the whole XML has to be parsed
+	 */
+	private LvglModelDiff computeSourceDiff(IDocument document) {
+		LvglScreen currentScreen = graphicalEditor.getScreen();
+		if (sourceMap == null || currentScreen == null || currentScreen.snapshot() != syncedSnapshot) {
+			return null;
+		}
+		LvglXmlSourceMap.WidgetRegion region = sourceMap.findEditedWidget();
+		if (region == null) {
+			return null;
+		}
+		try {
+			LvglXmlSerializer serializer = new LvglXmlSerializer();
+			LvglWidget widget = serializer.loadWidget(document.get(region.getOffset(), region.getLength()));
+			LvglScreenSnapshot newSnapshot = syncedSnapshot.withWidget(region.getPath(), widget.snapshot());
+			return LvglModelDiff.compute(syncedSnapshot, newSnapshot);
+		} catch (IOException | BadLocationException | IndexOutOfBoundsException e) {
+			// The full parse reports the error, or copes with a changed structure
+			return null;
+		}
+	}
+
+	/**
+	 * Records that the XML and the screen match, so later XML edits are
+	 * located relative to this state.
+	 */
+	private void markSynchronized() {
+		sourceMap = null;
+		LvglScreen screen = graphicalEditor != null ? graphicalEditor.getScreen() : null;
+		syncedSnapshot = screen != null ? screen.snapshot() : null;
+	}
+
+	/**
+	 * Parses the XML text once edits pause; every call restarts the delay.
+	 */
+	private void scheduleSourceParse() {
+		if (sourceParseJob != null) {
+			Display.getDefault().timerExec(PARSE_DELAY, sourceParser);
+		}
+	}
+
+	/**
+	 * Submits the current XML text to the background parser.
+	 */
+	private void parseSource() {
+		if (sourceParseJob == null || textEditor.getDocumentProvider() == null) {
+			return;
+		}
+		IDocument document = textEditor.getDocumentProvider().getDocument(getEditorInput());
+		if (document != null) {
+			sourceParseJob.submit(document.get(), getModificationStamp(document));
+		}
+	}
+
+	private static long getModificationStamp(IDocument document) {
+		return document instanceof IDocumentExtension4 extension ? extension.getModificationStamp()
+				: IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
 	}
 
 	/**
@@ -278,6 +548,8 @@ public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourc
 					if (documentListener != null) {
 						document.addDocumentListener(documentListener);
 					}
+					markSynchronized();
+					scheduleSourceParse();
 				}
 			}
 		} catch (Exception e) {
@@ -286,41 +558,42 @@ public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourc
 	}
 
 	/**
-	 * Refresh the text editor with content from the graphical model and save it.
-	 * This ensures the text editor is synchronized and not marked dirty after save.
+	 * Shows the text written by a save from the Design page on the XML page,
+	 * so the text editor matches the file without reading it back.
 	 */
-	private void refreshTextEditorAndSave(IProgressMonitor monitor) {
-		try {
-			if (textEditor == null || textEditor.getDocumentProvider() == null) {
+	private void showSavedText(LvglScreenSnapshot savedScreen, String content) {
+		if (textEditor == null || textEditor.getDocumentProvider() == null) {
+			return;
+		}
+		IDocument document = textEditor.getDocumentProvider().getDocument(getEditorInput());
+		if (document == null) {
+			return;
+		}
+		if (!content.equals(document.get())) {
+			if (getModificationStamp(document) != saveStamp) {
+				// Edited on the XML page since the save, keep those edits
 				return;
 			}
-			LvglScreen screen = graphicalEditor.getScreen();
-			if (screen != null) {
-				LvglXmlSerializer serializer = new LvglXmlSerializer();
-				ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				serializer.save(screen, baos);
-
-				IDocument document = textEditor.getDocumentProvider().getDocument(getEditorInput());
-				if (document != null) {
-					// Temporarily remove listener to avoid triggering xmlModified
-					if (documentListener != null) {
-						document.removeDocumentListener(documentListener);
-					}
-					document.set(baos.toString(StandardCharsets.UTF_8));
-					if (documentListener != null) {
-						document.addDocumentListener(documentListener);
-					}
-					// Reset the document provider by reloading content from the file.
-					// Since graphicalEditor.doSave() has already saved the XML to file,
-					// this reloads the saved content and clears the text editor's dirty state.
-					textEditor.getDocumentProvider().resetDocument(getEditorInput());
-					// Reset xmlModified since content is now synchronized
-					xmlModified = false;
-				}
+			// Temporarily remove listener to avoid triggering xmlModified
+			if (documentListener != null) {
+				document.removeDocumentListener(documentListener);
 			}
-		} catch (Exception e) {
-			ConsoleUtil.printError("Failed to refresh and save XML editor from UI: " + e.getMessage());
+			document.set(content);
+			if (documentListener != null) {
+				document.addDocumentListener(documentListener);
+			}
+		}
+		// The document holds what the file holds now, so it is no longer dirty
+		ITextFileBuffer buffer = FileBuffers.getTextFileBufferManager()
+				.getTextFileBuffer(getDiagramFile().getFullPath(), LocationKind.IFILE);
+		if (buffer != null && buffer.isDirty()) {
+			buffer.setDirty(false);
 		}
+		xmlModified = false;
+		sourceMap = null;
+		syncedSnapshot = savedScreen;
+		scheduleSourceParse();
+		firePropertyChange(PROP_DIRTY);
 	}
 
 	/**
@@ -354,6 +627,14 @@ public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourc
 		return null;
 	}
 
+	/**
+	 * Checks whether the file was opened read-only in summary mode, with
+	 * only the top-level widgets loaded.
+	 */
+	public boolean isSummary() {
+		return graphicalEditor != null && graphicalEditor.getSummary() != null;
+	}
+
 	/**
 	 * Get the diagram file.
 	 */
@@ -371,4 +652,65 @@ public class LvglMultiPageEditor extends MultiPageEditorPart implements IResourc
 	public LvglDiagramEditor getGraphicalEditor() {
 		return graphicalEditor;
 	}
+
+	@Override
+	public Saveable[] getSaveables() {
+		// Editors in summary mode do not share the screen and never save
+		Object screen = graphicalEditor != null && graphicalEditor.getSharedScreen() != null
+				? graphicalEditor.getSharedScreen()
+				: this;
+		return new Saveable[] { new ScreenSaveable(screen) };
+	}
+
+	@Override
+	public Saveable[] getActiveSaveables() {
+		return getSaveables();
+	}
+
+	/**
+	 * The screen of the file, equal for all editors sharing it.
+	 */
+	private final class ScreenSaveable extends Saveable {
+
+		private final Object screen;
+
+		private ScreenSaveable(Object screen) {
+			this.screen = screen;
+		}
+
+		@Override
+		public String getName() {
+			return getEditorInput().getName();
+		}
+
+		@Override
+		public String getToolTipText() {
+			return getEditorInput().getToolTipText();
+		}
+
+		@Override
+		public ImageDescriptor getImageDescriptor() {
+			return getEditorInput().getImageDescriptor();
+		}
+
+		@Override
+		public void doSave(IProgressMonitor monitor) {
+			LvglMultiPageEditor.this.doSave(monitor);
+		}
+
+		@Override
+		public boolean isDirty() {
+			return LvglMultiPageEditor.this.isDirty();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof ScreenSaveable other && other.screen == screen;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(screen);
+		}
+	}
 }
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.editor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event for a stage of opening a .graphxml file in the
+ * LVGL editor. Recorded by {@link LvglOpenTrace}; enable
+ * {@code com.tlcsdm.lvgl.EditorOpenStage} in a recording to see where the
+ * time of opening an editor goes.
+ */
+@Name("com.tlcsdm.lvgl.EditorOpenStage")
+@Label("LVGL Editor Open Stage")
+@Category({ "LVGL", "Editor" })
+@Description("A stage of opening a .graphxml file in the LVGL editor")
+@StackTrace(false)
+public class LvglOpenStageEvent extends jdk.jfr.Event {
+
+	@Label("File")
+	String file;
+
+	@Label("Stage")
+	String stage;
+
+	@Label("Widgets")
+	@Description("Number of widgets in the file, or -1 if not loaded yet")
+	int widgetCount;
+}
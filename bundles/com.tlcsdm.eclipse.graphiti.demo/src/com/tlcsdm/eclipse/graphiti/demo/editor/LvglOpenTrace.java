@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.editor;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.swt.events.PaintEvent;
+import org.eclipse.swt.events.PaintListener;
+import org.eclipse.swt.widgets.Control;
+
+import com.tlcsdm.eclipse.graphiti.demo.util.ConsoleUtil;
+
+/**
+ * Times the stages of opening a .graphxml file in the editor. Each stage is
+ * committed as a {@link LvglOpenStageEvent}, and the stages up to the first
+ * paint of the diagram are summarized in one console line, so the stage that
+ * dominates the open time of a file can be told. Stages may nest; the time of
+ * an outer stage includes that of the inner ones. Used on the UI thread only.
+ */
+final class LvglOpenTrace {
+
+	/**
+	 * A running stage, ended by closing it.
+	 */
+	final class Stage implements AutoCloseable {
+
+		private final String name;
+		private final long start = System.nanoTime();
+		private final LvglOpenStageEvent event = new LvglOpenStageEvent();
+		private boolean closed;
+
+		private Stage(String name) {
+			this.name = name;
+			event.begin();
+		}
+
+		@Override
+		public void close() {
+			if (!closed) {
+				closed = true;
+				end(this);
+			}
+		}
+	}
+
+	private final String fileName;
+	private final long start = System.nanoTime();
+	private final StringJoiner stages = new StringJoiner(", ");
+	private int widgetCount = -1;
+	private boolean finished;
+
+	/**
+	 * Starts timing the opening of a file.
+	 *
+	 * @param fileName the name of the .graphxml file
+	 */
+	LvglOpenTrace(String fileName) {
+		this.fileName = fileName;
+	}
+
+	/**
+	 * Begins a stage.
+	 *
+	 * @param name the name of the stage, as shown in the console
+	 * @return the stage, to close when it ends
+	 */
+	Stage begin(String name) {
+		return new Stage(name);
+	}
+
+	/**
+	 * Sets the number of widgets of the file, once it is loaded.
+	 */
+	void setWidgetCount(int widgetCount) {
+		this.widgetCount = widgetCount;
+	}
+
+	/**
+	 * Times the first paint of a control as the last stage, then prints the
+	 * summary.
+	 *
+	 * @param control the control showing the diagram, or null to print the
+	 *        summary right away
+	 */
+	void finishOnFirstPaint(Control control) {
+		if (control == null || control.isDisposed()) {
+			finish();
+			return;
+		}
+		Stage stage = begin("first paint");
+		control.addPaintListener(new PaintListener() {
+			@Override
+			public void paintControl(PaintEvent event) {
+				control.removePaintListener(this);
+				stage.close();
+				finish();
+			}
+		});
+	}
+
+	private void end(Stage stage) {
+		LvglOpenStageEvent event = stage.event;
+		event.end();
+		if (event.shouldCommit()) {
+			event.file = fileName;
+			event.stage = stage.name;
+			event.widgetCount = widgetCount;
+			event.commit();
+		}
+		long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stage.start);
+		if (finished) {
+			// Such as the Source page, created when first shown
+			ConsoleUtil.println("Opened " + stage.name + " of " + fileName + " in " + millis + " ms");
+		} else {
+			stages.add(stage.name + " " + millis + " ms");
+		}
+	}
+
+	private void finish() {
+		if (finished) {
+			return;
+		}
+		finished = true;
+		long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		String widgets = widgetCount >= 0 ? " (" + widgetCount + " widgets)" : "";
+		ConsoleUtil.println("Opened " + fileName + widgets + " in " + millis + " ms: " + stages);
+	}
+}
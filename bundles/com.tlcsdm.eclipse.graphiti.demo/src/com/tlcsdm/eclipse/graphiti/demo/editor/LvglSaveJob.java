@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.editor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceRuleFactory;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.MultiRule;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreenSnapshot;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglXmlSerializer;
+import com.tlcsdm.eclipse.graphiti.demo.util.ConsoleUtil;
+
+/**
+ * Background job that writes screen snapshots to a .graphxml file. Each
+ * snapshot is serialized once; the text is written to a temporary file that
+ * then replaces the .graphxml file, and is handed to the listeners so an
+ * editor can show it without reading the file back. Submissions made while
+ * the job is waiting or running are merged, so only the latest snapshot is
+ * written.
+ * <p>
+ * The job holds the workspace rule for changing the file, so builders and
+ * refresh jobs do not see the file while it is replaced behind the
+ * workspace's back.
+ * </p>
+ */
+public class LvglSaveJob extends Job {
+
+	/**
+	 * Notified on the job's thread when a snapshot was written or could not
+	 * be written.
+	 */
+	public interface Listener {
+
+		/**
+		 * Called after a snapshot was written.
+		 *
+		 * @param screen the snapshot
+		 * @param content the text written to the file
+		 */
+		void saved(LvglScreenSnapshot screen, String content);
+
+		/**
+		 * Called if a snapshot could not be written. The file is unchanged.
+		 *
+		 * @param screen the snapshot
+		 * @param exception the cause
+		 */
+		void saveFailed(LvglScreenSnapshot screen, Exception exception);
+	}
+
+	private final IFile file;
+	private final LvglXmlSerializer serializer = new LvglXmlSerializer();
+	private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+	// Pending work, guarded by this
+	private LvglScreenSnapshot pendingScreen;
+
+	/**
+	 * Creates a save job for a file.
+	 *
+	 * @param file the .graphxml file to write
+	 */
+	public LvglSaveJob(IFile file) {
+		super("Save LVGL Screen");
+		this.file = file;
+		setSystem(true);
+		// Creating or refreshing a file also needs the rule of its folder
+		IResourceRuleFactory ruleFactory = ResourcesPlugin.getWorkspace().getRuleFactory();
+		setRule(MultiRule.combine(new ISchedulingRule[] { ruleFactory.modifyRule(file), ruleFactory.createRule(file),
+				ruleFactory.refreshRule(file) }));
+	}
+
+	public void addListener(Listener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(Listener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Submits a snapshot for writing.
+	 *
+	 * @param screen the screen snapshot
+	 */
+	public void submit(LvglScreenSnapshot screen) {
+		synchronized (this) {
+			pendingScreen = screen;
+		}
+		schedule();
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		LvglScreenSnapshot screen;
+		synchronized (this) {
+			screen = pendingScreen;
+			pendingScreen = null;
+		}
+		if (screen == null) {
+			return Status.OK_STATUS;
+		}
+		// A started save is not canceled, the editor already counts it as done
+		try {
+			ByteArrayOutputStream baos = new ByteArrayOutputStream();
+			serializer.save(screen, baos);
+			byte[] bytes = baos.toByteArray();
+			write(bytes, monitor);
+			String content = new String(bytes, StandardCharsets.UTF_8);
+			for (Listener listener : listeners) {
+				listener.saved(screen, content);
+			}
+		} catch (IOException | CoreException e) {
+			ConsoleUtil.printError("Failed to save diagram: " + e.getMessage());
+			for (Listener listener : listeners) {
+				listener.saveFailed(screen, e);
+			}
+		}
+		return Status.OK_STATUS;
+	}
+
+	private void write(byte[] bytes, IProgressMonitor monitor) throws IOException, CoreException {
+		IPath location = file.getLocation();
+		if (location == null || !file.exists()) {
+			// Not in the local file system, or new: write through the workspace
+			ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
+			if (file.exists()) {
+				file.setContents(bais, true, true, monitor);
+			} else {
+				file.create(bais, true, monitor);
+			}
+			return;
+		}
+		Path target = location.toFile().toPath();
+		Path temp = target.resolveSibling("." + target.getFileName() + ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer buffer = ByteBuffer.wrap(bytes);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+				// The content must be on disk before the rename makes it visible
+				channel.force(true);
+			}
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+		// The file was replaced outside the workspace, which has to catch up
+		file.refreshLocal(IResource.DEPTH_ZERO, monitor);
+	}
+}
@@ -13,6 +13,7 @@ import org.eclipse.graphiti.mm.algorithms.GraphicsAlgorithm;
 import org.eclipse.graphiti.mm.algorithms.Rectangle;
 import org.eclipse.graphiti.mm.algorithms.RoundedRectangle;
 import org.eclipse.graphiti.mm.algorithms.Text;
+import org.eclipse.graphiti.mm.algorithms.styles.LineStyle;
 import org.eclipse.graphiti.mm.algorithms.styles.Orientation;
 import org.eclipse.graphiti.mm.pictograms.ContainerShape;
 import org.eclipse.graphiti.mm.pictograms.Diagram;
@@ -23,6 +24,7 @@ import org.eclipse.graphiti.services.IGaService;
 import org.eclipse.graphiti.services.IPeCreateService;
 import org.eclipse.graphiti.util.IColorConstant;
 
+import com.tlcsdm.eclipse.graphiti.demo.diagram.LvglFeatureProvider;
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
 
 /**
@@ -37,6 +39,16 @@ public class AddLvglWidgetFeature extends AbstractAddFeature {
 	private static final IColorConstant CONTAINER_BG = IColorConstant.WHITE;
 	private static final IColorConstant TEXT_COLOR = IColorConstant.BLACK;
 	private static final IColorConstant BORDER_COLOR = IColorConstant.DARK_GRAY;
+	private static final IColorConstant LOW_DETAIL_BG = IColorConstant.LIGHT_GRAY;
+
+	/** Shape property holding the widget type the shape was drawn for */
+	public static final String PROPERTY_WIDGET_TYPE = "widgetType";
+
+	/** Shape property set on shapes drawn as plain rectangles */
+	public static final String PROPERTY_LOW_DETAIL = "lowDetail";
+
+	/** Shape property set on placeholders of collapsed widgets */
+	public static final String PROPERTY_COLLAPSED = "collapsed";
 
 	public AddLvglWidgetFeature(IFeatureProvider fp) {
 		super(fp);
@@ -69,16 +81,34 @@ public class AddLvglWidgetFeature extends AbstractAddFeature {
 		int x = context.getX();
 		int y = context.getY();
 
-		// Create main graphics algorithm based on widget type
-		GraphicsAlgorithm mainGa = createWidgetGraphics(gaService, containerShape, widget, x, y, width, height);
+		// Create main graphics algorithm based on widget type, or a plain
+		// rectangle when zoomed out too far for the details to be seen
+		boolean lowDetail = getFeatureProvider() instanceof LvglFeatureProvider lvglFeatureProvider
+				&& lvglFeatureProvider.isLowDetail();
+		GraphicsAlgorithm mainGa;
+		if (lowDetail) {
+			Rectangle plainRect = gaService.createRectangle(containerShape);
+			plainRect.setBackground(manageColor(LOW_DETAIL_BG));
+			plainRect.setLineVisible(false);
+			mainGa = plainRect;
+			Graphiti.getPeService().setPropertyValue(containerShape, PROPERTY_LOW_DETAIL, Boolean.TRUE.toString());
+		} else {
+			mainGa = createWidgetGraphics(gaService, containerShape, widget, x, y, width, height);
+			if (isCollapsed(getFeatureProvider(), widget)) {
+				// A placeholder for the widgets not loaded yet
+				mainGa.setLineStyle(LineStyle.DASH);
+				Graphiti.getPeService().setPropertyValue(containerShape, PROPERTY_COLLAPSED, Boolean.TRUE.toString());
+			}
+		}
 		if (mainGa != null) {
 			gaService.setLocationAndSize(mainGa, x, y, width, height);
 		}
 
 		// Add text if widget has text content
-		if (widget.getText() != null && !widget.getText().isEmpty()) {
+		String shapeText = getShapeText(getFeatureProvider(), widget);
+		if (!lowDetail && shapeText != null && !shapeText.isEmpty()) {
 			Shape textShape = peCreateService.createShape(containerShape, false);
-			Text text = gaService.createText(textShape, widget.getText());
+			Text text = gaService.createText(textShape, shapeText);
 			text.setForeground(manageColor(TEXT_COLOR));
 			text.setHorizontalAlignment(Orientation.ALIGNMENT_CENTER);
 			text.setVerticalAlignment(Orientation.ALIGNMENT_CENTER);
@@ -87,6 +117,7 @@ public class AddLvglWidgetFeature extends AbstractAddFeature {
 
 		// Create the link between the pictogram element and the business object
 		link(containerShape, widget);
+		Graphiti.getPeService().setPropertyValue(containerShape, PROPERTY_WIDGET_TYPE, widget.getWidgetType().name());
 
 		// Add anchors for connections
 		peCreateService.createChopboxAnchor(containerShape);
@@ -94,6 +125,27 @@ public class AddLvglWidgetFeature extends AbstractAddFeature {
 		return containerShape;
 	}
 
+	/**
+	 * Checks whether a widget is a collapsed widget of a screen opened in
+	 * summary mode.
+	 */
+	public static boolean isCollapsed(IFeatureProvider fp, LvglWidget widget) {
+		return fp instanceof LvglFeatureProvider lvglFeatureProvider && lvglFeatureProvider.getSummary() != null
+				&& lvglFeatureProvider.getSummary().isCollapsed(widget);
+	}
+
+	/**
+	 * Gets the text shown in the shape of a widget. Collapsed widgets show
+	 * their name and the number of widgets in them instead of their text.
+	 */
+	public static String getShapeText(IFeatureProvider fp, LvglWidget widget) {
+		if (isCollapsed(fp, widget)) {
+			int count = ((LvglFeatureProvider) fp).getSummary().getCollapsedCount(widget);
+			return widget.getName() + " (" + count + " widgets)";
+		}
+		return widget.getText();
+	}
+
 	private GraphicsAlgorithm createWidgetGraphics(IGaService gaService, ContainerShape containerShape,
 			LvglWidget widget, int x, int y, int width, int height) {
 
@@ -7,6 +7,7 @@
 package com.tlcsdm.eclipse.graphiti.demo.feature;
 
 import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.context.IContext;
 import org.eclipse.graphiti.features.context.ICreateContext;
 import org.eclipse.graphiti.features.impl.AbstractCreateFeature;
 import org.eclipse.graphiti.mm.pictograms.Diagram;
@@ -18,10 +19,9 @@ import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
 /**
  * Feature to create a new LVGL widget in the diagram.
  */
-public class CreateLvglWidgetFeature extends AbstractCreateFeature {
+public class CreateLvglWidgetFeature extends AbstractCreateFeature implements ModelUndoFeature {
 
 	private final WidgetType widgetType;
-	private static int widgetCounter = 0;
 
 	public CreateLvglWidgetFeature(IFeatureProvider fp, WidgetType widgetType) {
 		super(fp, widgetType.getDisplayName(), "Create a new " + widgetType.getDisplayName() + " widget");
@@ -35,12 +35,12 @@ public class CreateLvglWidgetFeature extends AbstractCreateFeature {
 
 	@Override
 	public Object[] create(ICreateContext context) {
-		// Create a unique name for the widget
-		String baseName = widgetType.getLvglType().replace("lv_", "");
-		String name = baseName + "_" + (++widgetCounter);
+		Diagram diagram = (Diagram) context.getTargetContainer();
+		Object bo = getBusinessObjectForPictogramElement(diagram);
+		LvglScreen screen = bo instanceof LvglScreen s ? s : null;
 
 		// Create the widget model
-		LvglWidget widget = new LvglWidget(name, widgetType);
+		LvglWidget widget = new LvglWidget(createUniqueName(screen), widgetType);
 
 		// Set position from the create context
 		widget.setX(context.getX());
@@ -50,10 +50,8 @@ public class CreateLvglWidgetFeature extends AbstractCreateFeature {
 		setDefaultSize(widget);
 
 		// Add to the screen model
-		Diagram diagram = (Diagram) context.getTargetContainer();
-		Object bo = getBusinessObjectForPictogramElement(diagram);
-		if (bo instanceof LvglScreen screen) {
-			screen.addWidget(widget);
+		if (screen != null) {
+			ModelUndoSupport.record(context, screen, getName(), () -> screen.addWidget(widget));
 		}
 
 		// Add the graphical representation
@@ -62,6 +60,22 @@ public class CreateLvglWidgetFeature extends AbstractCreateFeature {
 		return new Object[] { widget };
 	}
 
+	/**
+	 * Creates a name not used in the screen, numbered after the widgets of the
+	 * same type already in it.
+	 */
+	private String createUniqueName(LvglScreen screen) {
+		String baseName = widgetType.getLvglType().replace("lv_", "");
+		if (screen == null) {
+			return baseName + "_1";
+		}
+		int number = screen.countOfType(widgetType) + 1;
+		while (screen.findWidgetByName(baseName + "_" + number) != null) {
+			number++;
+		}
+		return baseName + "_" + number;
+	}
+
 	private void setDefaultSize(LvglWidget widget) {
 		switch (widgetType) {
 			case BUTTON:
@@ -164,4 +178,9 @@ public class CreateLvglWidgetFeature extends AbstractCreateFeature {
 				break;
 		}
 	}
+
+	@Override
+	public boolean canUndo(IContext context) {
+		return ModelUndoFeature.super.canUndo(context);
+	}
 }
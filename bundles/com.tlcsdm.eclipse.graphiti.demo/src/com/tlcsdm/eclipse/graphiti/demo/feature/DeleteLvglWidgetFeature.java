@@ -7,6 +7,7 @@
 package com.tlcsdm.eclipse.graphiti.demo.feature;
 
 import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.context.IContext;
 import org.eclipse.graphiti.features.context.IDeleteContext;
 import org.eclipse.graphiti.mm.pictograms.PictogramElement;
 import org.eclipse.graphiti.ui.features.DefaultDeleteFeature;
@@ -17,7 +18,7 @@ import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
 /**
  * Feature to delete an LVGL widget from the diagram.
  */
-public class DeleteLvglWidgetFeature extends DefaultDeleteFeature {
+public class DeleteLvglWidgetFeature extends DefaultDeleteFeature implements ModelUndoFeature {
 
 	public DeleteLvglWidgetFeature(IFeatureProvider fp) {
 		super(fp);
@@ -30,6 +31,13 @@ public class DeleteLvglWidgetFeature extends DefaultDeleteFeature {
 		return bo instanceof LvglWidget;
 	}
 
+	@Override
+	public void delete(IDeleteContext context) {
+		Object bo = getBusinessObjectForPictogramElement(context.getPictogramElement());
+		LvglScreen screen = bo instanceof LvglWidget widget ? widget.getScreen() : null;
+		ModelUndoSupport.record(context, screen, getName(), () -> super.delete(context));
+	}
+
 	@Override
 	public void preDelete(IDeleteContext context) {
 		super.preDelete(context);
@@ -39,19 +47,18 @@ public class DeleteLvglWidgetFeature extends DefaultDeleteFeature {
 
 		if (bo instanceof LvglWidget widget) {
 			// Remove from parent widget or screen
+			LvglScreen screen = widget.getScreen();
 			LvglWidget parent = widget.getParent();
 			if (parent != null) {
 				parent.removeChild(widget);
-			}
-
-			// Also try to remove from screen
-			PictogramElement diagram = pe.eContainer() instanceof PictogramElement ? (PictogramElement) pe.eContainer() : null;
-			if (diagram != null) {
-				Object screenBo = getBusinessObjectForPictogramElement(diagram);
-				if (screenBo instanceof LvglScreen screen) {
-					screen.removeWidget(widget);
-				}
+			} else if (screen != null) {
+				screen.removeWidget(widget);
 			}
 		}
 	}
+
+	@Override
+	public boolean canUndo(IContext context) {
+		return ModelUndoFeature.super.canUndo(context);
+	}
 }
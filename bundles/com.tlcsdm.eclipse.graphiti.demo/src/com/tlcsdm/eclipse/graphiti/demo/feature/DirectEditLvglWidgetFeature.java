@@ -7,6 +7,7 @@
 package com.tlcsdm.eclipse.graphiti.demo.feature;
 
 import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.context.IContext;
 import org.eclipse.graphiti.features.context.IDirectEditingContext;
 import org.eclipse.graphiti.features.impl.AbstractDirectEditingFeature;
 import org.eclipse.graphiti.mm.algorithms.GraphicsAlgorithm;
@@ -19,7 +20,7 @@ import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
 /**
  * Feature to enable direct editing of widget text.
  */
-public class DirectEditLvglWidgetFeature extends AbstractDirectEditingFeature {
+public class DirectEditLvglWidgetFeature extends AbstractDirectEditingFeature implements ModelUndoFeature {
 
 	public DirectEditLvglWidgetFeature(IFeatureProvider fp) {
 		super(fp);
@@ -68,7 +69,7 @@ public class DirectEditLvglWidgetFeature extends AbstractDirectEditingFeature {
 		Object bo = getBusinessObjectForPictogramElement(pe);
 
 		if (bo instanceof LvglWidget widget) {
-			widget.setText(value);
+			ModelUndoSupport.record(context, widget.getScreen(), getName(), () -> widget.setText(value));
 		}
 
 		// Update the graphics algorithm text
@@ -80,4 +81,9 @@ public class DirectEditLvglWidgetFeature extends AbstractDirectEditingFeature {
 		// Trigger an update to refresh the shape
 		updatePictogramElement(((Shape) pe).getContainer());
 	}
+
+	@Override
+	public boolean canUndo(IContext context) {
+		return ModelUndoFeature.super.canUndo(context);
+	}
 }
@@ -57,8 +57,13 @@ public class LayoutLvglWidgetFeature extends AbstractLayoutFeature {
 				}
 
 				// Update the model
-				widget.setWidth(width);
-				widget.setHeight(height);
+				widget.beginBatch();
+				try {
+					widget.setWidth(width);
+					widget.setHeight(height);
+				} finally {
+					widget.endBatch();
+				}
 
 				return true;
 			}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.feature;
+
+import org.eclipse.graphiti.features.ICustomUndoRedoFeature;
+import org.eclipse.graphiti.features.context.IContext;
+
+/**
+ * A feature whose model changes are recorded with
+ * {@link ModelUndoSupport#record} and undone and redone after the diagram.
+ * <p>
+ * {@code AbstractFeature} implements {@code canUndo}, and a class method wins
+ * over an interface default, so features must override it with
+ * {@code ModelUndoFeature.super.canUndo(context)}.
+ * </p>
+ */
+interface ModelUndoFeature extends ICustomUndoRedoFeature {
+
+	@Override
+	default boolean canUndo(IContext context) {
+		return ModelUndoSupport.canUndo(context);
+	}
+
+	@Override
+	default void preUndo(IContext context) {
+		// Nothing to do before the diagram is restored
+	}
+
+	@Override
+	default void postUndo(IContext context) {
+		ModelUndoSupport.undo(context);
+	}
+
+	@Override
+	default boolean canRedo(IContext context) {
+		return ModelUndoSupport.canRedo(context);
+	}
+
+	@Override
+	default void preRedo(IContext context) {
+		// Nothing to do before the diagram is restored
+	}
+
+	@Override
+	default void postRedo(IContext context) {
+		ModelUndoSupport.redo(context);
+	}
+}
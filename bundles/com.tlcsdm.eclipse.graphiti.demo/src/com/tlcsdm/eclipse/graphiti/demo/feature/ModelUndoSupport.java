@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.feature;
+
+import org.eclipse.graphiti.features.context.IContext;
+
+import com.tlcsdm.eclipse.graphiti.demo.Activator;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglUndoHistory;
+import com.tlcsdm.eclipse.graphiti.demo.preferences.LvglPreferenceConstants;
+
+/**
+ * Connects the features to the {@link LvglUndoHistory} of the screen.
+ * <p>
+ * The diagram changes of a feature are undone by the Graphiti command stack;
+ * the model changes are recorded as a history step, which is stored in the
+ * feature context and undone or redone from the feature's undo callbacks.
+ * A command may only be undone or redone while its step is next in the
+ * history; otherwise the model would no longer match the restored diagram.
+ * This stops undo at steps dropped by the memory limit or by a change of the
+ * whole screen, and at steps of another editor sharing the screen.
+ * </p>
+ */
+final class ModelUndoSupport {
+
+	private static final String STEP_KEY = "com.tlcsdm.eclipse.graphiti.demo.undoStep";
+
+	private ModelUndoSupport() {
+		// Prevent instantiation
+	}
+
+	/**
+	 * Makes the model changes of a feature execution, recording them as one
+	 * step.
+	 *
+	 * @param context the feature context
+	 * @param screen the screen being changed, may be null
+	 * @param label the step label
+	 * @param change makes the changes
+	 */
+	static void record(IContext context, LvglScreen screen, String label, Runnable change) {
+		LvglUndoHistory.Step step = beginStep(context, screen, label);
+		try {
+			change.run();
+		} finally {
+			if (step != null) {
+				step.close();
+			}
+		}
+	}
+
+	/**
+	 * Starts recording the model changes of a feature execution.
+	 *
+	 * @param context the feature context
+	 * @param screen the screen being changed, may be null
+	 * @param label the step label
+	 * @return the step handle to close when done, or null if there is no screen
+	 */
+	private static LvglUndoHistory.Step beginStep(IContext context, LvglScreen screen, String label) {
+		if (screen == null) {
+			return null;
+		}
+		LvglUndoHistory history = screen.getUndoHistory();
+		int limit = Activator.getDefault().getPreferenceStore()
+				.getInt(LvglPreferenceConstants.PREF_UNDO_MEMORY_LIMIT);
+		if (limit > 0) {
+			history.setMemoryLimit(limit * 1024L * 1024L);
+		}
+		LvglUndoHistory.Step step = history.beginStep(label);
+		context.putProperty(STEP_KEY, step);
+		return step;
+	}
+
+	/**
+	 * Checks whether the model changes recorded for the context can be undone.
+	 *
+	 * @param context the feature context
+	 * @return true if there is no step or it is the most recent one
+	 */
+	static boolean canUndo(IContext context) {
+		return !(context.getProperty(STEP_KEY) instanceof LvglUndoHistory.Step step)
+				|| step.getHistory().canUndo(step);
+	}
+
+	/**
+	 * Checks whether the model changes recorded for the context can be redone.
+	 *
+	 * @param context the feature context
+	 * @return true if there is no step or it is the most recently undone one
+	 */
+	static boolean canRedo(IContext context) {
+		return !(context.getProperty(STEP_KEY) instanceof LvglUndoHistory.Step step)
+				|| step.getHistory().canRedo(step);
+	}
+
+	/**
+	 * Undoes the model changes recorded for the context.
+	 *
+	 * @param context the feature context
+	 */
+	static void undo(IContext context) {
+		if (context.getProperty(STEP_KEY) instanceof LvglUndoHistory.Step step) {
+			step.getHistory().undo(step);
+		}
+	}
+
+	/**
+	 * Redoes the model changes recorded for the context.
+	 *
+	 * @param context the feature context
+	 */
+	static void redo(IContext context) {
+		if (context.getProperty(STEP_KEY) instanceof LvglUndoHistory.Step step) {
+			step.getHistory().redo(step);
+		}
+	}
+}
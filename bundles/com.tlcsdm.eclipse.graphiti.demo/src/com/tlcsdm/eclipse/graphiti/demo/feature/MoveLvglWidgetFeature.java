@@ -7,16 +7,18 @@
 package com.tlcsdm.eclipse.graphiti.demo.feature;
 
 import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.context.IContext;
 import org.eclipse.graphiti.features.context.IMoveShapeContext;
 import org.eclipse.graphiti.features.impl.DefaultMoveShapeFeature;
 import org.eclipse.graphiti.mm.pictograms.Shape;
 
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
 
 /**
  * Feature to move an LVGL widget within the diagram.
  */
-public class MoveLvglWidgetFeature extends DefaultMoveShapeFeature {
+public class MoveLvglWidgetFeature extends DefaultMoveShapeFeature implements ModelUndoFeature {
 
 	public MoveLvglWidgetFeature(IFeatureProvider fp) {
 		super(fp);
@@ -29,6 +31,13 @@ public class MoveLvglWidgetFeature extends DefaultMoveShapeFeature {
 		return bo instanceof LvglWidget;
 	}
 
+	@Override
+	public void moveShape(IMoveShapeContext context) {
+		Object bo = getBusinessObjectForPictogramElement(context.getShape());
+		LvglScreen screen = bo instanceof LvglWidget widget ? widget.getScreen() : null;
+		ModelUndoSupport.record(context, screen, getName(), () -> super.moveShape(context));
+	}
+
 	@Override
 	protected void postMoveShape(IMoveShapeContext context) {
 		super.postMoveShape(context);
@@ -38,8 +47,18 @@ public class MoveLvglWidgetFeature extends DefaultMoveShapeFeature {
 		Object bo = getBusinessObjectForPictogramElement(shape);
 
 		if (bo instanceof LvglWidget widget) {
-			widget.setX(context.getX());
-			widget.setY(context.getY());
+			widget.beginBatch();
+			try {
+				widget.setX(context.getX());
+				widget.setY(context.getY());
+			} finally {
+				widget.endBatch();
+			}
 		}
 	}
+
+	@Override
+	public boolean canUndo(IContext context) {
+		return ModelUndoFeature.super.canUndo(context);
+	}
 }
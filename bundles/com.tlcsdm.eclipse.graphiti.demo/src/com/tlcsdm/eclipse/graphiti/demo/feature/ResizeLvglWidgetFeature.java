@@ -7,16 +7,18 @@
 package com.tlcsdm.eclipse.graphiti.demo.feature;
 
 import org.eclipse.graphiti.features.IFeatureProvider;
+import org.eclipse.graphiti.features.context.IContext;
 import org.eclipse.graphiti.features.context.IResizeShapeContext;
 import org.eclipse.graphiti.features.impl.DefaultResizeShapeFeature;
 import org.eclipse.graphiti.mm.pictograms.Shape;
 
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
 
 /**
  * Feature to resize an LVGL widget.
  */
-public class ResizeLvglWidgetFeature extends DefaultResizeShapeFeature {
+public class ResizeLvglWidgetFeature extends DefaultResizeShapeFeature implements ModelUndoFeature {
 
 	public ResizeLvglWidgetFeature(IFeatureProvider fp) {
 		super(fp);
@@ -31,17 +33,32 @@ public class ResizeLvglWidgetFeature extends DefaultResizeShapeFeature {
 
 	@Override
 	public void resizeShape(IResizeShapeContext context) {
-		super.resizeShape(context);
-
-		// Update the model with the new size
 		Shape shape = context.getShape();
 		Object bo = getBusinessObjectForPictogramElement(shape);
+		LvglScreen screen = bo instanceof LvglWidget widget ? widget.getScreen() : null;
+
+		// Record the resize and any resulting layout changes as one undo step
+		ModelUndoSupport.record(context, screen, getName(), () -> {
+			super.resizeShape(context);
 
-		if (bo instanceof LvglWidget widget) {
-			widget.setX(context.getX());
-			widget.setY(context.getY());
-			widget.setWidth(context.getWidth());
-			widget.setHeight(context.getHeight());
-		}
+			// Update the model with the new size
+			if (bo instanceof LvglWidget widget) {
+				// Fire a single change event for the new bounds
+				widget.beginBatch();
+				try {
+					widget.setX(context.getX());
+					widget.setY(context.getY());
+					widget.setWidth(context.getWidth());
+					widget.setHeight(context.getHeight());
+				} finally {
+					widget.endBatch();
+				}
+			}
+		});
+	}
+
+	@Override
+	public boolean canUndo(IContext context) {
+		return ModelUndoFeature.super.canUndo(context);
 	}
 }
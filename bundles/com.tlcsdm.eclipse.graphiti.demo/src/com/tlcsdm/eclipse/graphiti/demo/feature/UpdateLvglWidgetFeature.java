@@ -42,7 +42,7 @@ public class UpdateLvglWidgetFeature extends AbstractUpdateFeature {
 		if (bo instanceof LvglWidget widget && pe instanceof ContainerShape containerShape) {
 			// Check if text needs update
 			String currentText = getCurrentText(containerShape);
-			String modelText = widget.getText();
+			String modelText = AddLvglWidgetFeature.getShapeText(getFeatureProvider(), widget);
 			if (currentText != null && !currentText.equals(modelText)) {
 				return Reason.createTrueReason("Text is out of date");
 			}
@@ -69,10 +69,11 @@ public class UpdateLvglWidgetFeature extends AbstractUpdateFeature {
 
 		if (bo instanceof LvglWidget widget && pe instanceof ContainerShape containerShape) {
 			// Update text
+			String shapeText = AddLvglWidgetFeature.getShapeText(getFeatureProvider(), widget);
 			for (Shape shape : containerShape.getChildren()) {
 				GraphicsAlgorithm ga = shape.getGraphicsAlgorithm();
 				if (ga instanceof Text text) {
-					text.setValue(widget.getText());
+					text.setValue(shapeText);
 				}
 			}
 
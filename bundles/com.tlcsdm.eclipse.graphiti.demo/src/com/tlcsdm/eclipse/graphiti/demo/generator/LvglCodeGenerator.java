@@ -6,21 +6,26 @@
  ******************************************************************************/
 package com.tlcsdm.eclipse.graphiti.demo.generator;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
-import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreenSnapshot;
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.LayoutType;
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidgetSnapshot;
+import com.tlcsdm.eclipse.graphiti.demo.model.TreeTraversal;
 
 /**
  * Generates LVGL C code from screen and widget models.
  * Produces both header (.h) and source (.c) files.
+ * <p>
+ * The generator works on an immutable {@link LvglScreenSnapshot}, so it can
+ * run on a background thread while the screen is being edited.
+ * </p>
  */
 public class LvglCodeGenerator {
 
-	private final LvglScreen screen;
+	private final LvglScreenSnapshot screen;
 	private final String licenseHeader;
 
 	public LvglCodeGenerator(LvglScreen screen) {
@@ -28,6 +33,10 @@ public class LvglCodeGenerator {
 	}
 
 	public LvglCodeGenerator(LvglScreen screen, String licenseHeader) {
+		this(screen.snapshot(), licenseHeader);
+	}
+
+	public LvglCodeGenerator(LvglScreenSnapshot screen, String licenseHeader) {
 		this.screen = screen;
 		this.licenseHeader = licenseHeader;
 	}
@@ -68,10 +77,10 @@ public class LvglCodeGenerator {
 		sb.append("extern lv_obj_t *").append(screenName).append(";\n\n");
 
 		// Widget declarations
-		List<LvglWidget> allWidgets = getAllWidgets();
+		List<LvglWidgetSnapshot> allWidgets = getAllWidgets();
 		if (!allWidgets.isEmpty()) {
 			sb.append("/* Widget objects */\n");
-			for (LvglWidget widget : allWidgets) {
+			for (LvglWidgetSnapshot widget : allWidgets) {
 				sb.append("extern lv_obj_t *").append(widget.getVariableName()).append(";\n");
 			}
 			sb.append("\n");
@@ -119,10 +128,10 @@ public class LvglCodeGenerator {
 		sb.append("lv_obj_t *").append(screenName).append(" = NULL;\n\n");
 
 		// Widget definitions
-		List<LvglWidget> allWidgets = getAllWidgets();
+		List<LvglWidgetSnapshot> allWidgets = getAllWidgets();
 		if (!allWidgets.isEmpty()) {
 			sb.append("/* Widget objects */\n");
-			for (LvglWidget widget : allWidgets) {
+			for (LvglWidgetSnapshot widget : allWidgets) {
 				sb.append("lv_obj_t *").append(widget.getVariableName()).append(" = NULL;\n");
 			}
 			sb.append("\n");
@@ -146,9 +155,10 @@ public class LvglCodeGenerator {
 		sb.append("LV_PART_MAIN);\n\n");
 
 		// Create widgets
-		for (LvglWidget widget : screen.getWidgets()) {
-			generateWidgetCode(sb, widget, screenName, "    ");
-		}
+		TreeTraversal.walk(screen.getWidgets(), LvglWidgetSnapshot::getChildren, (widget, parent, index, depth) -> {
+			generateWidgetCode(sb, widget, parent != null ? parent.getVariableName() : screenName, "    ");
+			return true;
+		});
 
 		sb.append("}\n\n");
 
@@ -162,7 +172,7 @@ public class LvglCodeGenerator {
 		sb.append("        ").append(screenName).append(" = NULL;\n");
 		
 		// Reset all widget pointers
-		for (LvglWidget widget : allWidgets) {
+		for (LvglWidgetSnapshot widget : allWidgets) {
 			sb.append("        ").append(widget.getVariableName()).append(" = NULL;\n");
 		}
 		
@@ -172,7 +182,7 @@ public class LvglCodeGenerator {
 		return sb.toString();
 	}
 
-	private void generateWidgetCode(StringBuilder sb, LvglWidget widget, String parentVar, String indent) {
+	private void generateWidgetCode(StringBuilder sb, LvglWidgetSnapshot widget, String parentVar, String indent) {
 		String varName = widget.getVariableName();
 		WidgetType type = widget.getWidgetType();
 
@@ -203,11 +213,6 @@ public class LvglCodeGenerator {
 		}
 
 		sb.append("\n");
-
-		// Generate child widgets
-		for (LvglWidget child : widget.getChildren()) {
-			generateWidgetCode(sb, child, varName, indent);
-		}
 	}
 
 	private String getCreateFunction(WidgetType type) {
@@ -283,7 +288,7 @@ public class LvglCodeGenerator {
 		}
 	}
 
-	private void generateTypeSpecificCode(StringBuilder sb, LvglWidget widget, String varName, String indent) {
+	private void generateTypeSpecificCode(StringBuilder sb, LvglWidgetSnapshot widget, String varName, String indent) {
 		WidgetType type = widget.getWidgetType();
 		String text = widget.getText();
 
@@ -381,7 +386,7 @@ public class LvglCodeGenerator {
 		}
 	}
 
-	private void generateStyleCode(StringBuilder sb, LvglWidget widget, String varName, String indent) {
+	private void generateStyleCode(StringBuilder sb, LvglWidgetSnapshot widget, String varName, String indent) {
 		// Background color
 		if (widget.getBgColor() != 0xFFFFFF) {
 			sb.append(indent).append("lv_obj_set_style_bg_color(").append(varName).append(", ");
@@ -412,7 +417,7 @@ public class LvglCodeGenerator {
 		}
 	}
 
-	private void generateLayoutCode(StringBuilder sb, LvglWidget widget, String varName, String indent) {
+	private void generateLayoutCode(StringBuilder sb, LvglWidgetSnapshot widget, String varName, String indent) {
 		LayoutType layout = widget.getLayoutType();
 
 		if (layout == LayoutType.FLEX) {
@@ -437,19 +442,8 @@ public class LvglCodeGenerator {
 		}
 	}
 
-	private List<LvglWidget> getAllWidgets() {
-		List<LvglWidget> result = new ArrayList<>();
-		for (LvglWidget widget : screen.getWidgets()) {
-			collectWidgets(widget, result);
-		}
-		return result;
-	}
-
-	private void collectWidgets(LvglWidget widget, List<LvglWidget> result) {
-		result.add(widget);
-		for (LvglWidget child : widget.getChildren()) {
-			collectWidgets(child, result);
-		}
+	private List<LvglWidgetSnapshot> getAllWidgets() {
+		return screen.getFlatTree().asList();
 	}
 
 	private String escapeString(String str) {
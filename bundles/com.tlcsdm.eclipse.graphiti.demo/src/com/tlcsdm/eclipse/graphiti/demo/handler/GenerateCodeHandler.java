@@ -6,28 +6,18 @@
  ******************************************************************************/
 package com.tlcsdm.eclipse.graphiti.demo.handler;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-
 import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.ExecutionException;
-import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.runtime.NullProgressMonitor;
-import org.eclipse.core.runtime.Path;
 import org.eclipse.graphiti.mm.pictograms.Diagram;
 import org.eclipse.graphiti.ui.editor.DiagramEditor;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.handlers.HandlerUtil;
 
-import com.tlcsdm.eclipse.graphiti.demo.Activator;
 import com.tlcsdm.eclipse.graphiti.demo.editor.LvglDiagramEditor;
 import com.tlcsdm.eclipse.graphiti.demo.editor.LvglMultiPageEditor;
-import com.tlcsdm.eclipse.graphiti.demo.generator.LvglCodeGenerator;
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
-import com.tlcsdm.eclipse.graphiti.demo.preferences.LvglPreferenceConstants;
 import com.tlcsdm.eclipse.graphiti.demo.util.ConsoleUtil;
 
 /**
@@ -47,6 +37,12 @@ public class GenerateCodeHandler extends AbstractHandler {
 			LvglScreen screen = multiPageEditor.getScreen();
 			IFile diagramFile = multiPageEditor.getDiagramFile();
 
+			if (multiPageEditor.isSummary()) {
+				// Only the top-level widgets are loaded, the file has them all
+				new GenerateCodeJob(diagramFile).schedule();
+				return null;
+			}
+
 			if (screen == null) {
 				ConsoleUtil.printError("Could not find LVGL screen data in the diagram.");
 				return null;
@@ -106,59 +102,12 @@ public class GenerateCodeHandler extends AbstractHandler {
 	}
 
 	private void generateCode(LvglScreen screen, IFile diagramFile) {
-		try {
-			if (diagramFile == null) {
-				ConsoleUtil.printError("Could not determine the diagram file location.");
-				return;
-			}
-
-			// Get license header from preferences
-			String licenseHeader = Activator.getDefault().getPreferenceStore()
-					.getString(LvglPreferenceConstants.PREF_LICENSE_HEADER);
-
-			// Generate code
-			LvglCodeGenerator generator = new LvglCodeGenerator(screen, licenseHeader);
-			String headerContent = generator.generateHeader();
-			String sourceContent = generator.generateSource();
-
-			// Determine output file names
-			String baseName = diagramFile.getName();
-			if (baseName.contains(".")) {
-				baseName = baseName.substring(0, baseName.lastIndexOf('.'));
-			}
-			String headerFileName = baseName + ".h";
-			String sourceFileName = baseName + ".c";
-
-			// Get parent folder
-			IContainer parentFolder = diagramFile.getParent();
-
-			// Write header file
-			IFile headerFile = parentFolder.getFile(new Path(headerFileName));
-			writeFile(headerFile, headerContent);
-
-			// Write source file
-			IFile sourceFile = parentFolder.getFile(new Path(sourceFileName));
-			writeFile(sourceFile, sourceContent);
-
-			// Refresh the parent folder
-			parentFolder.refreshLocal(1, new NullProgressMonitor());
-
-			// Log to console only (no dialog as per requirements)
-			ConsoleUtil.println("Generated LVGL C code:");
-			ConsoleUtil.println("  - " + headerFile.getFullPath().toString());
-			ConsoleUtil.println("  - " + sourceFile.getFullPath().toString());
-
-		} catch (Exception e) {
-			ConsoleUtil.printError("Failed to generate code: " + e.getMessage());
+		if (diagramFile == null) {
+			ConsoleUtil.printError("Could not determine the diagram file location.");
+			return;
 		}
-	}
 
-	private void writeFile(IFile file, String content) throws Exception {
-		InputStream source = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
-		if (file.exists()) {
-			file.setContents(source, true, true, new NullProgressMonitor());
-		} else {
-			file.create(source, true, new NullProgressMonitor());
-		}
+		// Snapshot on the UI thread, generate and write in the background
+		new GenerateCodeJob(screen.snapshot(), diagramFile).schedule();
 	}
 }
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.handler;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResourceRuleFactory;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.MultiRule;
+
+import com.tlcsdm.eclipse.graphiti.demo.Activator;
+import com.tlcsdm.eclipse.graphiti.demo.generator.LvglCodeGenerator;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreenSnapshot;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglXmlSerializer;
+import com.tlcsdm.eclipse.graphiti.demo.preferences.LvglPreferenceConstants;
+import com.tlcsdm.eclipse.graphiti.demo.util.ConsoleUtil;
+
+/**
+ * Background job that generates the LVGL C code (.h and .c) next to a
+ * .graphxml file. Works on an immutable screen snapshot, so the user can keep
+ * editing while the code is generated and written.
+ * Output is shown in the Eclipse RCP console, not in a dialog.
+ * <p>
+ * The job holds the workspace rule for writing both files, so two
+ * generations for the same file run one after the other and never mix their
+ * .h and .c files.
+ * </p>
+ */
+public class GenerateCodeJob extends Job {
+
+	private final IFile graphxmlFile;
+	private final IFile headerFile;
+	private final IFile sourceFile;
+	private final String licenseHeader;
+	private LvglScreenSnapshot screen;
+
+	/**
+	 * Creates a job generating code from a screen snapshot.
+	 *
+	 * @param screen the screen snapshot
+	 * @param graphxmlFile the .graphxml file the code is generated for
+	 */
+	public GenerateCodeJob(LvglScreenSnapshot screen, IFile graphxmlFile) {
+		super("Generate LVGL C Code");
+		this.screen = screen;
+		this.graphxmlFile = graphxmlFile;
+
+		// Determine output file names
+		String baseName = graphxmlFile.getName();
+		if (baseName.contains(".")) {
+			baseName = baseName.substring(0, baseName.lastIndexOf('.'));
+		}
+		IContainer parentFolder = graphxmlFile.getParent();
+		this.headerFile = parentFolder.getFile(new Path(baseName + ".h"));
+		this.sourceFile = parentFolder.getFile(new Path(baseName + ".c"));
+		IResourceRuleFactory ruleFactory = ResourcesPlugin.getWorkspace().getRuleFactory();
+		setRule(MultiRule.combine(new ISchedulingRule[] { ruleFactory.modifyRule(headerFile),
+				ruleFactory.createRule(headerFile), ruleFactory.modifyRule(sourceFile),
+				ruleFactory.createRule(sourceFile) }));
+
+		// Get license header from preferences
+		this.licenseHeader = Activator.getDefault().getPreferenceStore()
+				.getString(LvglPreferenceConstants.PREF_LICENSE_HEADER);
+	}
+
+	/**
+	 * Creates a job generating code from the saved content of a .graphxml file.
+	 *
+	 * @param graphxmlFile the .graphxml file
+	 */
+	public GenerateCodeJob(IFile graphxmlFile) {
+		this(null, graphxmlFile);
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		try {
+			if (screen == null) {
+				// Load the screen from the file
+				LvglXmlSerializer serializer = new LvglXmlSerializer();
+				try (InputStream inputStream = graphxmlFile.getContents()) {
+					screen = serializer.load(inputStream).snapshot();
+				}
+			}
+
+			// Generate code
+			LvglCodeGenerator generator = new LvglCodeGenerator(screen, licenseHeader);
+			String headerContent = generator.generateHeader();
+			String sourceContent = generator.generateSource();
+
+			// Write header and source file, through the workspace so no refresh is needed
+			writeFile(headerFile, headerContent);
+			writeFile(sourceFile, sourceContent);
+
+			// Log to console only (no dialog as per requirements)
+			ConsoleUtil.println("Generated LVGL C code:");
+			ConsoleUtil.println("  - " + headerFile.getFullPath().toString());
+			ConsoleUtil.println("  - " + sourceFile.getFullPath().toString());
+
+		} catch (Exception e) {
+			ConsoleUtil.printError("Failed to generate code: " + e.getMessage());
+		}
+		return Status.OK_STATUS;
+	}
+
+	private void writeFile(IFile file, String content) throws Exception {
+		InputStream source = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+		if (file.exists()) {
+			file.setContents(source, true, true, new NullProgressMonitor());
+		} else {
+			file.create(source, true, new NullProgressMonitor());
+		}
+	}
+}
@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Widget tree flattened into arrays in pre-order, with the parent index,
+ * depth and subtree end of every widget. Lets tools visit all widgets with a
+ * plain array scan instead of a tree walk.
+ * <p>
+ * The subtree of the widget at index {@code i} occupies the indexes from
+ * {@code i} to {@code getSubtreeEnd(i) - 1}.
+ * </p>
+ *
+ * @param <W> the widget type, {@link LvglWidget} or {@link LvglWidgetSnapshot}
+ */
+public final class FlatWidgetTree<W> {
+
+	private final Object[] widgets;
+	private final int[] parents;
+	private final int[] depths;
+	private final int[] subtreeEnds;
+	private final int modCount;
+	private final List<W> list;
+
+	@SuppressWarnings("unchecked")
+	private FlatWidgetTree(Object[] widgets, int[] parents, int[] depths, int[] subtreeEnds, int modCount) {
+		this.widgets = widgets;
+		this.parents = parents;
+		this.depths = depths;
+		this.subtreeEnds = subtreeEnds;
+		this.modCount = modCount;
+		this.list = Collections.unmodifiableList(Arrays.asList((W[]) widgets));
+	}
+
+	/**
+	 * Flattens a widget tree.
+	 *
+	 * @param roots the top-level widgets
+	 * @param children gets the children of a widget
+	 * @param modCount the modification count of the source the tree was built from
+	 * @return the flattened tree
+	 */
+	static <W> FlatWidgetTree<W> build(List<W> roots, Function<W, List<W>> children, int modCount) {
+		Flattener<W> flattener = new Flattener<>();
+		TreeTraversal.walk(roots, children, flattener);
+		int size = flattener.order.size();
+		return new FlatWidgetTree<>(flattener.order.toArray(), Arrays.copyOf(flattener.parents, size),
+				Arrays.copyOf(flattener.depths, size), Arrays.copyOf(flattener.subtreeEnds, size), modCount);
+	}
+
+	/**
+	 * Records the pre-order position of every widget while the tree is walked.
+	 */
+	private static final class Flattener<W> implements TreeTraversal.Visitor<W> {
+
+		final List<Object> order = new ArrayList<>();
+		int[] parents = new int[16];
+		int[] depths = new int[16];
+		int[] subtreeEnds = new int[16];
+		/** Flat index of the entered widget at each depth */
+		int[] open = new int[16];
+
+		@Override
+		public boolean enter(W widget, W parent, int index, int depth) {
+			int flatIndex = order.size();
+			if (flatIndex == parents.length) {
+				parents = Arrays.copyOf(parents, flatIndex * 2);
+				depths = Arrays.copyOf(depths, flatIndex * 2);
+				subtreeEnds = Arrays.copyOf(subtreeEnds, flatIndex * 2);
+			}
+			if (depth == open.length) {
+				open = Arrays.copyOf(open, depth * 2);
+			}
+			order.add(widget);
+			parents[flatIndex] = depth == 0 ? -1 : open[depth - 1];
+			depths[flatIndex] = depth;
+			open[depth] = flatIndex;
+			return true;
+		}
+
+		@Override
+		public void leave(W widget, W parent, int index, int depth) {
+			subtreeEnds[open[depth]] = order.size();
+		}
+	}
+
+	/**
+	 * Gets the number of widgets.
+	 *
+	 * @return the widget count
+	 */
+	public int size() {
+		return widgets.length;
+	}
+
+	/**
+	 * Gets the widget at a pre-order index.
+	 *
+	 * @param index the index
+	 * @return the widget
+	 */
+	@SuppressWarnings("unchecked")
+	public W get(int index) {
+		return (W) widgets[index];
+	}
+
+	/**
+	 * Gets the index of a widget's parent.
+	 *
+	 * @param index the widget index
+	 * @return the parent index, or -1 for top-level widgets
+	 */
+	public int getParentIndex(int index) {
+		return parents[index];
+	}
+
+	/**
+	 * Gets the depth of a widget.
+	 *
+	 * @param index the widget index
+	 * @return the depth, 0 for top-level widgets
+	 */
+	public int getDepth(int index) {
+		return depths[index];
+	}
+
+	/**
+	 * Gets the end of a widget's subtree.
+	 *
+	 * @param index the widget index
+	 * @return the index after the last descendant of the widget
+	 */
+	public int getSubtreeEnd(int index) {
+		return subtreeEnds[index];
+	}
+
+	/**
+	 * Finds the index of a widget.
+	 *
+	 * @param widget the widget
+	 * @return the index, or -1 if the widget is not in the tree
+	 */
+	public int indexOf(W widget) {
+		for (int i = 0; i < widgets.length; i++) {
+			if (widgets[i] == widget) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the modification count the tree was built at.
+	 *
+	 * @return the modification count
+	 */
+	public int getModCount() {
+		return modCount;
+	}
+
+	/**
+	 * Gets all widgets in pre-order.
+	 *
+	 * @return an unmodifiable list view of the widgets
+	 */
+	public List<W> asList() {
+		return list;
+	}
+}
@@ -0,0 +1,423 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Records the changes of a screen as a compact, line based journal that can be
+ * replayed on the screen as last saved. Each line is one record:
+ * <ul>
+ * <li>{@code p <target> <property> <value>} - a property changed</li>
+ * <li>{@code a <target> <index> <widget xml>} - a widget was added</li>
+ * <li>{@code r <target> <index> <widget id>} - a widget was removed</li>
+ * <li>{@code m <target> <from> <to>} - a widget was moved among its
+ * siblings</li>
+ * <li>{@code s <screen xml>} - the screen was replaced</li>
+ * </ul>
+ * The target is {@code s} for the screen or the id of a widget: the changed
+ * element, the container of an added or removed widget, or the moved widget.
+ * A move records only indexes, whatever the size of the moved subtree. Values
+ * start with {@code =}, or are {@code ~} for null; backslashes, line feeds
+ * and carriage returns are escaped so a record stays on one line.
+ * <p>
+ * Records are collected in memory until {@link #drain()} takes them, for the
+ * caller to write and sync them as it sees fit. Replaying tolerates records
+ * that no longer apply, such as changes of a widget added later in the same
+ * batch, and ignores a last record cut off without its line feed.
+ * </p>
+ * <p>
+ * A journal file starts with a {@link #header(byte[]) header} holding the
+ * checksum of the content the records apply to, so records are never
+ * replayed on a file changed outside the editor.
+ * </p>
+ */
+public class LvglJournal implements ModelChangeListener {
+
+	private static final String SCREEN_TARGET = "s";
+
+	private static final String HEADER_PREFIX = "lvgl-journal 1 ";
+
+	private final LvglXmlSerializer serializer = new LvglXmlSerializer();
+	private final Runnable recorded;
+	private LvglScreen screen;
+
+	// Records not yet drained, guarded by this
+	private final StringBuilder pending = new StringBuilder();
+	private long recordCount;
+
+	/**
+	 * Creates a journal.
+	 *
+	 * @param recorded called on the changing thread after records were added,
+	 *        may be null
+	 */
+	public LvglJournal(Runnable recorded) {
+		this.recorded = recorded;
+	}
+
+	/**
+	 * Starts recording the changes of a screen. If another screen was
+	 * recorded, the replacement is recorded with the complete new screen.
+	 *
+	 * @param newScreen the screen to record
+	 */
+	public void attach(LvglScreen newScreen) {
+		boolean replaced = screen != null;
+		detach();
+		screen = newScreen;
+		screen.addTreeChangeListener(this);
+		if (replaced) {
+			try {
+				append("s " + escape(serializer.saveToString(screen)));
+			} catch (IOException e) {
+				// Cannot happen for in-memory output
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	/**
+	 * Stops recording the current screen.
+	 */
+	public void detach() {
+		if (screen != null) {
+			screen.removeTreeChangeListener(this);
+			screen = null;
+		}
+	}
+
+	/**
+	 * Takes the records made since the last call.
+	 *
+	 * @return the records, one per line, or an empty string
+	 */
+	public synchronized String drain() {
+		String records = pending.toString();
+		pending.setLength(0);
+		return records;
+	}
+
+	/**
+	 * Gets the number of records made so far, drained or not.
+	 *
+	 * @return the record count
+	 */
+	public synchronized long getRecordCount() {
+		return recordCount;
+	}
+
+	@Override
+	public void propertyChanged(ModelElement source, ModelProperty property, Object oldValue, Object newValue) {
+		if (newValue instanceof ModelChangeSet changes) {
+			for (ModelChangeSet.Change change : changes.getChanges()) {
+				if (change.getProperty() == ModelProperty.MOVE) {
+					childMoved(change.getSource(), change.getChild(), change.getOldIndex(), change.getIndex());
+				} else if (change.isStructural()) {
+					structureChanged(change.getSource(), change.getProperty(), change.getChild(), change.getIndex());
+				} else {
+					recordProperty(change.getSource(), change.getProperty(), change.getNewValue());
+				}
+			}
+		} else {
+			recordProperty(source, property, newValue);
+		}
+	}
+
+	@Override
+	public void intPropertyChanged(ModelElement source, ModelProperty property, int oldValue, int newValue) {
+		recordProperty(source, property, Integer.toString(newValue));
+	}
+
+	@Override
+	public void booleanPropertyChanged(ModelElement source, ModelProperty property, boolean oldValue,
+			boolean newValue) {
+		recordProperty(source, property, Boolean.toString(newValue));
+	}
+
+	@Override
+	public void structureChanged(ModelElement source, ModelProperty property, ModelElement child, int index) {
+		if (!(child instanceof LvglWidget widget)) {
+			return;
+		}
+		if (property == ModelProperty.ADD) {
+			try {
+				append("a " + target(source) + " " + index + " "
+						+ escape(serializer.saveWidgetToString(widget.snapshot())));
+			} catch (IOException e) {
+				// Cannot happen for in-memory output
+				throw new IllegalStateException(e);
+			}
+		} else {
+			append("r " + target(source) + " " + index + " " + widget.getId());
+		}
+	}
+
+	@Override
+	public void childMoved(ModelElement source, ModelElement child, int oldIndex, int newIndex) {
+		if (child instanceof LvglWidget widget) {
+			append("m " + widget.getId() + " " + oldIndex + " " + newIndex);
+		}
+	}
+
+	private void recordProperty(ModelElement source, ModelProperty property, Object value) {
+		if (!isRecorded(property)) {
+			return;
+		}
+		String text;
+		if (value == null) {
+			text = "~";
+		} else if (value instanceof Enum<?> constant) {
+			text = "=" + constant.name();
+		} else {
+			text = "=" + escape(value.toString());
+		}
+		append("p " + target(source) + " " + property.name() + " " + text);
+	}
+
+	private static boolean isRecorded(ModelProperty property) {
+		// Layout and connection events only signal derived changes
+		return !property.isStructural() && property != ModelProperty.LAYOUT
+				&& property != ModelProperty.CONNECTION && property != ModelProperty.BATCH;
+	}
+
+	private static String target(ModelElement element) {
+		return element instanceof LvglWidget widget ? Long.toString(widget.getId()) : SCREEN_TARGET;
+	}
+
+	private void append(String record) {
+		synchronized (this) {
+			pending.append(record).append('\n');
+			recordCount++;
+		}
+		if (recorded != null) {
+			recorded.run();
+		}
+	}
+
+	/**
+	 * Creates the header line of a journal file on the given content.
+	 *
+	 * @param content the content of the .graphxml file
+	 * @return the header, ending with a line feed
+	 */
+	public static String header(byte[] content) {
+		CRC32 crc = new CRC32();
+		crc.update(content);
+		return HEADER_PREFIX + Long.toHexString(crc.getValue()) + " " + content.length + "\n";
+	}
+
+	/**
+	 * Gets the records of a journal file made on the given content. A record
+	 * cut off by a crash is dropped.
+	 *
+	 * @param journal the text of the journal file
+	 * @param content the current content of the .graphxml file
+	 * @return the records to replay, or null if there are none or the journal
+	 *         was made on other content
+	 */
+	public static String getRecords(String journal, byte[] content) {
+		String header = header(content);
+		int end = journal.lastIndexOf('\n') + 1;
+		if (!journal.startsWith(header) || end <= header.length()) {
+			return null;
+		}
+		return journal.substring(header.length(), end);
+	}
+
+	/**
+	 * Replays records on a screen.
+	 *
+	 * @param screen the screen as it was when the first record was made
+	 * @param records the records, one per line
+	 * @return the screen with the changes, which is a new screen if a record
+	 *         replaced it
+	 * @throws IOException if a complete record is malformed
+	 */
+	public static LvglScreen replay(LvglScreen screen, String records) throws IOException {
+		LvglXmlSerializer serializer = new LvglXmlSerializer();
+		int start = 0;
+		int end;
+		while ((end = records.indexOf('\n', start)) >= 0) {
+			String record = records.substring(start, end);
+			start = end + 1;
+			if (record.isEmpty()) {
+				continue;
+			}
+			try {
+				screen = replayRecord(serializer, screen, record);
+			} catch (RuntimeException e) {
+				throw new IOException("Malformed journal record: " + record, e);
+			}
+		}
+		return screen;
+	}
+
+	private static LvglScreen replayRecord(LvglXmlSerializer serializer, LvglScreen screen, String record)
+			throws IOException {
+		String[] fields = record.split(" ", 4);
+		switch (fields[0]) {
+			case "s" -> {
+				byte[] xml = unescape(record.substring(2)).getBytes(StandardCharsets.UTF_8);
+				return serializer.load(new ByteArrayInputStream(xml));
+			}
+			case "p" -> {
+				ModelElement element = find(screen, fields[1]);
+				if (element != null) {
+					ModelProperty property = ModelProperty.valueOf(fields[2]);
+					element.setPropertyValue(property, parseValue(element, property, fields[3]));
+				}
+			}
+			case "a" -> {
+				ModelElement parent = find(screen, fields[1]);
+				if (parent != null) {
+					add(screen, parent, Integer.parseInt(fields[2]), serializer.loadWidget(unescape(fields[3])));
+				}
+			}
+			case "r" -> {
+				ModelElement parent = find(screen, fields[1]);
+				LvglWidget widget = screen.findWidgetById(Long.parseLong(fields[3]));
+				if (parent instanceof LvglWidget parentWidget && widget != null && widget.getParent() == parentWidget) {
+					parentWidget.removeChild(widget);
+				} else if (parent == screen && widget != null && widget.getParent() == null) {
+					screen.removeWidget(widget);
+				}
+			}
+			case "m" -> {
+				LvglWidget widget = screen.findWidgetById(Long.parseLong(fields[1]));
+				if (widget != null) {
+					move(screen, widget, Integer.parseInt(fields[2]), Integer.parseInt(fields[3]));
+				}
+			}
+			default -> throw new IllegalArgumentException("Unknown record type");
+		}
+		return screen;
+	}
+
+	private static ModelElement find(LvglScreen screen, String target) {
+		return SCREEN_TARGET.equals(target) ? screen : screen.findWidgetById(Long.parseLong(target));
+	}
+
+	private static Object parseValue(ModelElement element, ModelProperty property, String text) {
+		if ("~".equals(text)) {
+			return null;
+		}
+		String value = unescape(text.substring(1));
+		return switch (property.getKind()) {
+			case INT -> Integer.valueOf(value);
+			case BOOLEAN -> Boolean.valueOf(value);
+			default -> {
+				// Enum valued properties are never null, so the current value gives the type
+				if (element.getPropertyValue(property) instanceof Enum<?> current) {
+					yield enumValue(current.getDeclaringClass(), value);
+				}
+				yield value;
+			}
+		};
+	}
+
+	private static <E extends Enum<E>> E enumValue(Class<E> type, String name) {
+		return Enum.valueOf(type, name);
+	}
+
+	/**
+	 * Adds a widget recorded with its children. A widget already in the screen
+	 * is not added again; a batch that added a widget also records the moves
+	 * into it, so descendants found elsewhere in the screen are left where
+	 * they are for those records to move.
+	 */
+	private static void add(LvglScreen screen, ModelElement parent, int index, LvglWidget widget) {
+		if (screen.findWidgetById(widget.getId()) != null) {
+			return;
+		}
+		List<LvglWidget> open = new ArrayList<>();
+		open.add(widget);
+		while (!open.isEmpty()) {
+			LvglWidget current = open.remove(open.size() - 1);
+			for (LvglWidget child : new ArrayList<>(current.getChildren())) {
+				if (screen.findWidgetById(child.getId()) != null) {
+					current.removeChild(child);
+				} else {
+					open.add(child);
+				}
+			}
+		}
+		if (parent instanceof LvglWidget parentWidget) {
+			parentWidget.insertChild(Math.min(index, parentWidget.getChildren().size()), widget);
+		} else {
+			screen.insertWidget(Math.min(index, screen.getWidgets().size()), widget);
+		}
+	}
+
+	/**
+	 * Moves a widget among its siblings if it is still at the recorded index.
+	 * A widget added later in the same batch was recorded in its final order,
+	 * so the moves within it no longer apply.
+	 */
+	private static void move(LvglScreen screen, LvglWidget widget, int from, int to) {
+		LvglWidget parent = widget.getParent();
+		List<LvglWidget> siblings = parent != null ? parent.getChildren() : screen.getWidgets();
+		if (from >= siblings.size() || siblings.get(from) != widget || to >= siblings.size()) {
+			return;
+		}
+		if (parent != null) {
+			parent.moveChild(widget, to);
+		} else {
+			screen.moveWidget(widget, to);
+		}
+	}
+
+	private static String escape(String text) {
+		StringBuilder sb = null;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			String replacement = switch (c) {
+				case '\\' -> "\\\\";
+				case '\n' -> "\\n";
+				case '\r' -> "\\r";
+				default -> null;
+			};
+			if (replacement != null && sb == null) {
+				sb = new StringBuilder(text.length() + 16).append(text, 0, i);
+			}
+			if (sb != null) {
+				if (replacement != null) {
+					sb.append(replacement);
+				} else {
+					sb.append(c);
+				}
+			}
+		}
+		return sb != null ? sb.toString() : text;
+	}
+
+	private static String unescape(String text) {
+		if (text.indexOf('\\') < 0) {
+			return text;
+		}
+		StringBuilder sb = new StringBuilder(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '\\' && i + 1 < text.length()) {
+				char next = text.charAt(++i);
+				sb.append(switch (next) {
+					case 'n' -> '\n';
+					case 'r' -> '\r';
+					default -> next;
+				});
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,704 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Edit script between two screens: the widgets added, removed and moved, and
+ * the properties changed.
+ * <p>
+ * Widgets are matched by identifier, or by name for widgets without one,
+ * first among the children of matched
+ * containers and then across the whole changed region, so a widget moved to
+ * another container is reported as moved rather than removed and added.
+ * Subtrees with equal {@link LvglWidgetSnapshot#getSubtreeHash() hashes} are
+ * skipped without being visited. Within a container, only widgets outside the
+ * longest run of children that kept their relative order are reported as
+ * moved.
+ * </p>
+ * <p>
+ * The diff is computed on snapshots and can be applied to the live screen the
+ * old snapshot was taken from with {@link #apply(LvglScreen)}.
+ * </p>
+ */
+public final class LvglModelDiff {
+
+	/**
+	 * Kind of an edit.
+	 */
+	public enum EditKind {
+		ADDED, REMOVED, MOVED, PROPERTY_CHANGED
+	}
+
+	/** Properties compared on widgets */
+	private static final Set<ModelProperty> WIDGET_PROPERTIES = EnumSet.range(ModelProperty.NAME,
+			ModelProperty.PAD_COLUMN);
+
+	/** Properties compared on the screen */
+	private static final Set<ModelProperty> SCREEN_PROPERTIES = EnumSet.of(ModelProperty.NAME, ModelProperty.WIDTH,
+			ModelProperty.HEIGHT, ModelProperty.BG_COLOR);
+
+	/**
+	 * A single edit of the script.
+	 */
+	public static final class Edit {
+
+		private final EditKind kind;
+		private final LvglWidgetSnapshot oldWidget;
+		private final LvglWidgetSnapshot newWidget;
+		private final LvglWidgetSnapshot newParent;
+		/** The old counterpart of the new parent, null for the screen or an added parent */
+		private final LvglWidgetSnapshot oldParent;
+		private final int index;
+		private final ModelProperty property;
+		private final Object oldValue;
+		private final Object newValue;
+
+		private Edit(EditKind kind, LvglWidgetSnapshot oldWidget, LvglWidgetSnapshot newWidget,
+				LvglWidgetSnapshot newParent, LvglWidgetSnapshot oldParent, int index, ModelProperty property,
+				Object oldValue, Object newValue) {
+			this.kind = kind;
+			this.oldWidget = oldWidget;
+			this.newWidget = newWidget;
+			this.newParent = newParent;
+			this.oldParent = oldParent;
+			this.index = index;
+			this.property = property;
+			this.oldValue = oldValue;
+			this.newValue = newValue;
+		}
+
+		public EditKind getKind() {
+			return kind;
+		}
+
+		/**
+		 * Gets the widget in the old screen.
+		 *
+		 * @return the old widget, or null for added widgets and screen changes
+		 */
+		public LvglWidgetSnapshot getOldWidget() {
+			return oldWidget;
+		}
+
+		/**
+		 * Gets the widget in the new screen.
+		 *
+		 * @return the new widget, or null for removed widgets and screen changes
+		 */
+		public LvglWidgetSnapshot getNewWidget() {
+			return newWidget;
+		}
+
+		/**
+		 * Gets the container an added or moved widget is placed in.
+		 *
+		 * @return the new parent, or null for the screen
+		 */
+		public LvglWidgetSnapshot getNewParent() {
+			return newParent;
+		}
+
+		/**
+		 * Gets the index of an added or moved widget in its new container.
+		 *
+		 * @return the index, or -1 for other edits
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		public ModelProperty getProperty() {
+			return property;
+		}
+
+		public Object getOldValue() {
+			return oldValue;
+		}
+
+		public Object getNewValue() {
+			return newValue;
+		}
+
+		/**
+		 * Checks if this edit changes a property of the screen itself.
+		 *
+		 * @return true for screen property changes
+		 */
+		public boolean isScreenChange() {
+			return kind == EditKind.PROPERTY_CHANGED && oldWidget == null;
+		}
+
+		@Override
+		public String toString() {
+			LvglWidgetSnapshot widget = newWidget != null ? newWidget : oldWidget;
+			String target = widget != null ? widget.getName() : "<screen>";
+			return switch (kind) {
+				case ADDED, MOVED -> kind + " " + target + " to "
+						+ (newParent != null ? newParent.getName() : "<screen>") + "[" + index + "]";
+				case REMOVED -> kind + " " + target;
+				case PROPERTY_CHANGED -> kind + " " + target + "." + property.getName() + ": " + oldValue + " -> "
+						+ newValue;
+			};
+		}
+	}
+
+	private final LvglScreenSnapshot oldScreen;
+	private final LvglScreenSnapshot newScreen;
+	private final List<Edit> edits;
+	/** Index path from the old screen to each old widget an edit refers to */
+	private final Map<LvglWidgetSnapshot, int[]> oldPaths;
+
+	private LvglModelDiff(LvglScreenSnapshot oldScreen, LvglScreenSnapshot newScreen, List<Edit> edits,
+			Map<LvglWidgetSnapshot, int[]> oldPaths) {
+		this.oldScreen = oldScreen;
+		this.newScreen = newScreen;
+		this.edits = Collections.unmodifiableList(edits);
+		this.oldPaths = oldPaths;
+	}
+
+	/**
+	 * Computes the edit script that turns the old screen into the new one.
+	 *
+	 * @param oldScreen the old screen
+	 * @param newScreen the new screen
+	 * @return the diff
+	 */
+	public static LvglModelDiff compute(LvglScreen oldScreen, LvglScreen newScreen) {
+		return compute(oldScreen.snapshot(), newScreen.snapshot());
+	}
+
+	/**
+	 * Computes the edit script that turns the old screen snapshot into the new
+	 * one.
+	 *
+	 * @param oldScreen the old screen snapshot
+	 * @param newScreen the new screen snapshot
+	 * @return the diff
+	 */
+	public static LvglModelDiff compute(LvglScreenSnapshot oldScreen, LvglScreenSnapshot newScreen) {
+		Differ differ = new Differ(oldScreen, newScreen);
+		differ.run();
+		return new LvglModelDiff(oldScreen, newScreen, differ.edits, differ.collectPaths());
+	}
+
+	public LvglScreenSnapshot getOldScreen() {
+		return oldScreen;
+	}
+
+	public LvglScreenSnapshot getNewScreen() {
+		return newScreen;
+	}
+
+	/**
+	 * Gets the edits: screen property changes, then removals, then additions,
+	 * moves and property changes in pre-order of the new screen.
+	 *
+	 * @return the unmodifiable list of edits
+	 */
+	public List<Edit> getEdits() {
+		return edits;
+	}
+
+	/**
+	 * Gets the identifiers of the top-level widgets whose subtrees the edits
+	 * change, in the old screen and in the new one. These are the widgets
+	 * whose shapes may need an update after the diff is applied.
+	 *
+	 * @return the identifiers, empty if only screen properties changed
+	 */
+	public Set<Long> getChangedTopLevelIds() {
+		Set<Long> ids = new HashSet<>();
+		// New top-level identifier of each added or moved widget, for the widgets placed in it
+		Map<LvglWidgetSnapshot, Long> placed = new IdentityHashMap<>();
+		for (Edit edit : edits) {
+			if (edit.oldWidget != null) {
+				ids.add(oldTopLevelId(edit.oldWidget));
+			}
+			if (edit.kind == EditKind.ADDED || edit.kind == EditKind.MOVED) {
+				Long topLevelId;
+				if (edit.newParent == null) {
+					topLevelId = edit.newWidget.getId();
+				} else if ((topLevelId = placed.get(edit.newParent)) == null) {
+					// A parent that stayed in place, or moved with an ancestor whose edit adds its top level
+					topLevelId = oldTopLevelId(edit.oldParent);
+				}
+				placed.put(edit.newWidget, topLevelId);
+				ids.add(topLevelId);
+			}
+		}
+		return ids;
+	}
+
+	private long oldTopLevelId(LvglWidgetSnapshot oldWidget) {
+		return oldScreen.getWidgets().get(oldPaths.get(oldWidget)[0]).getId();
+	}
+
+	/**
+	 * Checks if the screens are equal.
+	 *
+	 * @return true if there are no edits
+	 */
+	public boolean isEmpty() {
+		return edits.isEmpty();
+	}
+
+	/**
+	 * Applies the edit script to the screen the old snapshot was taken from.
+	 * All changes are made in one batch. The undo history of the screen is
+	 * cleared, as its steps refer to the tree before the changes.
+	 *
+	 * @param target the screen to change
+	 * @throws IllegalStateException if the screen changed since the diff was
+	 *         computed
+	 */
+	public void apply(LvglScreen target) {
+		if (edits.isEmpty()) {
+			return;
+		}
+		if (target.snapshot() != oldScreen) {
+			throw new IllegalStateException("The screen changed since the diff was computed");
+		}
+		// Resolve the live widgets before the tree is modified
+		Map<LvglWidgetSnapshot, LvglWidget> live = new IdentityHashMap<>();
+		for (Map.Entry<LvglWidgetSnapshot, int[]> entry : oldPaths.entrySet()) {
+			live.put(entry.getKey(), resolve(target, entry.getValue()));
+		}
+		target.beginBatch();
+		try {
+			// Detach removed and moved widgets, so the remaining children of each
+			// container are in their final relative order
+			for (Edit edit : edits) {
+				if (edit.kind == EditKind.REMOVED || edit.kind == EditKind.MOVED) {
+					detach(target, live.get(edit.oldWidget));
+				}
+			}
+			// Insert added and moved widgets. Edits are in pre-order of the new
+			// screen, so each container is filled in ascending index order.
+			Map<LvglWidgetSnapshot, LvglWidget> created = new IdentityHashMap<>();
+			for (Edit edit : edits) {
+				if (edit.kind != EditKind.ADDED && edit.kind != EditKind.MOVED) {
+					continue;
+				}
+				LvglWidget widget;
+				if (edit.kind == EditKind.ADDED) {
+					widget = createWidget(edit.newWidget);
+					created.put(edit.newWidget, widget);
+				} else {
+					widget = live.get(edit.oldWidget);
+				}
+				if (edit.newParent == null) {
+					target.insertWidget(edit.index, widget);
+				} else {
+					LvglWidget parent = edit.oldParent != null ? live.get(edit.oldParent) : created.get(edit.newParent);
+					parent.insertChild(edit.index, widget);
+				}
+			}
+			for (Edit edit : edits) {
+				if (edit.kind == EditKind.PROPERTY_CHANGED) {
+					ModelElement element = edit.oldWidget != null ? live.get(edit.oldWidget) : target;
+					element.setPropertyValue(edit.property, edit.newValue);
+				}
+			}
+		} finally {
+			target.endBatch();
+		}
+		target.getUndoHistory().clear();
+	}
+
+	private static LvglWidget resolve(LvglScreen screen, int[] path) {
+		List<LvglWidget> siblings = screen.getWidgets();
+		LvglWidget widget = null;
+		for (int index : path) {
+			widget = siblings.get(index);
+			siblings = widget.getChildren();
+		}
+		return widget;
+	}
+
+	private static void detach(LvglScreen screen, LvglWidget widget) {
+		LvglWidget parent = widget.getParent();
+		if (parent != null) {
+			parent.removeChild(widget);
+		} else {
+			screen.removeWidget(widget);
+		}
+	}
+
+	private static LvglWidget createWidget(LvglWidgetSnapshot snapshot) {
+		LvglWidget widget = new LvglWidget(snapshot.getName(), snapshot.getWidgetType());
+		widget.setId(snapshot.getId());
+		for (ModelProperty property : WIDGET_PROPERTIES) {
+			widget.setPropertyValue(property, snapshot.getPropertyValue(property));
+		}
+		return widget;
+	}
+
+	/**
+	 * Key widgets are matched by.
+	 */
+	private static Object key(LvglWidgetSnapshot widget) {
+		return widget.getId() != 0 ? (Object) widget.getId() : widget.getName();
+	}
+
+	/**
+	 * Position of an old widget: its parent (a widget snapshot or the old screen
+	 * snapshot) and its index path from the screen.
+	 */
+	private record Location(Object parent, int[] path) {
+
+		int index() {
+			return path[path.length - 1];
+		}
+	}
+
+	/**
+	 * Computes the edit script in two passes: matching, then emitting edits.
+	 */
+	private static final class Differ {
+
+		private final LvglScreenSnapshot oldScreen;
+		private final LvglScreenSnapshot newScreen;
+		private final Map<LvglWidgetSnapshot, LvglWidgetSnapshot> oldToNew = new IdentityHashMap<>();
+		private final Map<LvglWidgetSnapshot, LvglWidgetSnapshot> newToOld = new IdentityHashMap<>();
+		private final Map<LvglWidgetSnapshot, Location> oldLocations = new IdentityHashMap<>();
+		/** Unmatched old widgets and all their descendants */
+		private final List<LvglWidgetSnapshot> unmatchedOld = new ArrayList<>();
+		/** Unmatched new widgets and all their descendants, in pre-order */
+		private final List<LvglWidgetSnapshot> unmatchedNew = new ArrayList<>();
+		private final List<Edit> edits = new ArrayList<>();
+
+		Differ(LvglScreenSnapshot oldScreen, LvglScreenSnapshot newScreen) {
+			this.oldScreen = oldScreen;
+			this.newScreen = newScreen;
+		}
+
+		void run() {
+			if (oldScreen == newScreen || oldScreen.getSubtreeHash() == newScreen.getSubtreeHash()) {
+				return;
+			}
+			for (ModelProperty property : SCREEN_PROPERTIES) {
+				Object oldValue = oldScreen.getPropertyValue(property);
+				Object newValue = newScreen.getPropertyValue(property);
+				if (!Objects.equals(oldValue, newValue)) {
+					edits.add(new Edit(EditKind.PROPERTY_CHANGED, null, null, null, null, -1, property, oldValue,
+							newValue));
+				}
+			}
+			matchChildren();
+			matchAcrossContainers();
+			emitRemovals();
+			emitChildren();
+		}
+
+		// Matching
+
+		/**
+		 * Matches the children of paired containers by key, walking down the
+		 * new tree into the subtrees that changed.
+		 */
+		private void matchChildren() {
+			// Unmatched old children of the container entered at each depth
+			List<Map<Object, Deque<LvglWidgetSnapshot>>> candidatesByDepth = new ArrayList<>();
+			List<LvglWidgetSnapshot> ownerByDepth = new ArrayList<>();
+			candidatesByDepth.add(indexChildren(oldScreen, oldScreen.getWidgets(), new int[0]));
+			ownerByDepth.add(null);
+			TreeTraversal.walk(newScreen.getWidgets(), LvglWidgetSnapshot::getChildren,
+					new TreeTraversal.Visitor<LvglWidgetSnapshot>() {
+						@Override
+						public boolean enter(LvglWidgetSnapshot newChild, LvglWidgetSnapshot newParent, int index,
+								int depth) {
+							Deque<LvglWidgetSnapshot> candidates = candidatesByDepth.get(depth).get(key(newChild));
+							LvglWidgetSnapshot oldChild = candidates != null ? candidates.poll() : null;
+							if (oldChild == null) {
+								collectNew(newChild);
+								return false;
+							}
+							pair(oldChild, newChild);
+							if (oldChild.getSubtreeHash() == newChild.getSubtreeHash()) {
+								return false;
+							}
+							setAt(candidatesByDepth, depth + 1, indexChildren(oldChild, oldChild.getChildren(),
+									oldLocations.get(oldChild).path()));
+							setAt(ownerByDepth, depth + 1, newChild);
+							return true;
+						}
+
+						@Override
+						public void leave(LvglWidgetSnapshot newChild, LvglWidgetSnapshot newParent, int index,
+								int depth) {
+							if (depth + 1 < ownerByDepth.size() && ownerByDepth.get(depth + 1) == newChild) {
+								ownerByDepth.set(depth + 1, null);
+								collectRemaining(candidatesByDepth.get(depth + 1));
+							}
+						}
+					});
+			collectRemaining(candidatesByDepth.get(0));
+		}
+
+		/**
+		 * Records the locations of the old children of a container and groups
+		 * them by key.
+		 */
+		private Map<Object, Deque<LvglWidgetSnapshot>> indexChildren(Object oldParent,
+				List<LvglWidgetSnapshot> oldChildren, int[] parentPath) {
+			Map<Object, Deque<LvglWidgetSnapshot>> byKey = new HashMap<>();
+			for (int i = 0; i < oldChildren.size(); i++) {
+				LvglWidgetSnapshot oldChild = oldChildren.get(i);
+				oldLocations.put(oldChild, new Location(oldParent, childPath(parentPath, i)));
+				byKey.computeIfAbsent(key(oldChild), k -> new ArrayDeque<>()).add(oldChild);
+			}
+			return byKey;
+		}
+
+		private void collectRemaining(Map<Object, Deque<LvglWidgetSnapshot>> byKey) {
+			for (Deque<LvglWidgetSnapshot> remaining : byKey.values()) {
+				for (LvglWidgetSnapshot oldChild : remaining) {
+					collectOld(oldChild);
+				}
+			}
+		}
+
+		private void collectNew(LvglWidgetSnapshot widget) {
+			TreeTraversal.forEach(List.of(widget), LvglWidgetSnapshot::getChildren, unmatchedNew::add);
+		}
+
+		private void collectOld(LvglWidgetSnapshot widget) {
+			TreeTraversal.walk(List.of(widget), LvglWidgetSnapshot::getChildren, (oldWidget, parent, index, depth) -> {
+				unmatchedOld.add(oldWidget);
+				if (parent != null) {
+					int[] path = childPath(oldLocations.get(parent).path(), index);
+					oldLocations.put(oldWidget, new Location(parent, path));
+				}
+				return true;
+			});
+		}
+
+		/**
+		 * Matches widgets that left their container, such as a widget moved
+		 * into another container.
+		 */
+		private void matchAcrossContainers() {
+			if (unmatchedOld.isEmpty() || unmatchedNew.isEmpty()) {
+				return;
+			}
+			Map<Object, Deque<LvglWidgetSnapshot>> pool = new HashMap<>();
+			for (LvglWidgetSnapshot oldWidget : unmatchedOld) {
+				pool.computeIfAbsent(key(oldWidget), k -> new ArrayDeque<>()).add(oldWidget);
+			}
+			for (LvglWidgetSnapshot newWidget : unmatchedNew) {
+				if (newToOld.containsKey(newWidget)) {
+					// Already paired as part of an unchanged subtree
+					continue;
+				}
+				Deque<LvglWidgetSnapshot> candidates = pool.get(key(newWidget));
+				LvglWidgetSnapshot oldWidget = null;
+				while (candidates != null && !candidates.isEmpty() && oldWidget == null) {
+					LvglWidgetSnapshot candidate = candidates.poll();
+					if (!oldToNew.containsKey(candidate)) {
+						oldWidget = candidate;
+					}
+				}
+				if (oldWidget == null) {
+					continue;
+				}
+				pair(oldWidget, newWidget);
+				if (oldWidget.getSubtreeHash() == newWidget.getSubtreeHash()) {
+					pairSubtrees(oldWidget, newWidget);
+				}
+			}
+		}
+
+		/**
+		 * Pairs the descendants of two equal subtrees by position.
+		 */
+		private void pairSubtrees(LvglWidgetSnapshot oldWidget, LvglWidgetSnapshot newWidget) {
+			TreeTraversal.walk(List.of(newWidget), LvglWidgetSnapshot::getChildren,
+					(newChild, newParent, index, depth) -> {
+						if (newParent == null) {
+							return true;
+						}
+						LvglWidgetSnapshot oldChild = newToOld.get(newParent).getChildren().get(index);
+						if (oldToNew.containsKey(oldChild)) {
+							return false;
+						}
+						pair(oldChild, newChild);
+						return true;
+					});
+		}
+
+		private void pair(LvglWidgetSnapshot oldWidget, LvglWidgetSnapshot newWidget) {
+			oldToNew.put(oldWidget, newWidget);
+			newToOld.put(newWidget, oldWidget);
+		}
+
+		private static <T> void setAt(List<T> list, int depth, T value) {
+			if (depth == list.size()) {
+				list.add(value);
+			} else {
+				list.set(depth, value);
+			}
+		}
+
+		private static int[] childPath(int[] parentPath, int index) {
+			int[] path = Arrays.copyOf(parentPath, parentPath.length + 1);
+			path[parentPath.length] = index;
+			return path;
+		}
+
+		// Emitting
+
+		private void emitRemovals() {
+			for (LvglWidgetSnapshot oldWidget : unmatchedOld) {
+				if (oldToNew.containsKey(oldWidget)) {
+					continue;
+				}
+				// Only report the root of a removed subtree
+				Object parent = oldLocations.get(oldWidget).parent();
+				if (parent == oldScreen || oldToNew.containsKey(parent)) {
+					edits.add(new Edit(EditKind.REMOVED, oldWidget, null, null, null, -1, null, null, null));
+				}
+			}
+		}
+
+		/**
+		 * Emits additions, moves and property changes in new-tree pre-order,
+		 * walking down into the subtrees that changed.
+		 */
+		private void emitChildren() {
+			// Children that stay in place, for the container entered at each depth
+			List<boolean[]> stableByDepth = new ArrayList<>();
+			stableByDepth.add(findStableChildren(newScreen, newScreen.getWidgets()));
+			TreeTraversal.walk(newScreen.getWidgets(), LvglWidgetSnapshot::getChildren,
+					(newChild, parentWidget, index, depth) -> {
+						LvglWidgetSnapshot oldParent = parentWidget != null ? newToOld.get(parentWidget) : null;
+						LvglWidgetSnapshot oldChild = newToOld.get(newChild);
+						boolean descend;
+						if (oldChild == null) {
+							edits.add(new Edit(EditKind.ADDED, null, newChild, parentWidget, oldParent, index, null,
+									null, null));
+							descend = true;
+						} else {
+							if (!stableByDepth.get(depth)[index]) {
+								edits.add(new Edit(EditKind.MOVED, oldChild, newChild, parentWidget, oldParent, index,
+										null, null, null));
+							}
+							if (oldChild.getPropertyHash() != newChild.getPropertyHash()) {
+								emitPropertyChanges(oldChild, newChild);
+							}
+							descend = oldChild.getSubtreeHash() != newChild.getSubtreeHash();
+						}
+						if (descend) {
+							setAt(stableByDepth, depth + 1, findStableChildren(newChild, newChild.getChildren()));
+						}
+						return descend;
+					});
+		}
+
+		private void emitPropertyChanges(LvglWidgetSnapshot oldWidget, LvglWidgetSnapshot newWidget) {
+			for (ModelProperty property : WIDGET_PROPERTIES) {
+				Object oldValue = oldWidget.getPropertyValue(property);
+				Object newValue = newWidget.getPropertyValue(property);
+				if (!Objects.equals(oldValue, newValue)) {
+					edits.add(new Edit(EditKind.PROPERTY_CHANGED, oldWidget, newWidget, null, null, -1, property,
+							oldValue, newValue));
+				}
+			}
+		}
+
+		/**
+		 * Finds the children that can stay in place: those that were already
+		 * in the same container and form the longest subsequence whose old
+		 * order is preserved.
+		 */
+		private boolean[] findStableChildren(Object newParent, List<LvglWidgetSnapshot> newChildren) {
+			int size = newChildren.size();
+			boolean[] stable = new boolean[size];
+			int[] oldIndexes = new int[size];
+			int[] positions = new int[size];
+			int count = 0;
+			for (int i = 0; i < size; i++) {
+				LvglWidgetSnapshot oldChild = newToOld.get(newChildren.get(i));
+				if (oldChild != null) {
+					Location location = oldLocations.get(oldChild);
+					if (counterpart(location.parent()) == newParent) {
+						oldIndexes[count] = location.index();
+						positions[count] = i;
+						count++;
+					}
+				}
+			}
+			for (int position : longestIncreasingSubsequence(oldIndexes, count)) {
+				stable[positions[position]] = true;
+			}
+			return stable;
+		}
+
+		private Object counterpart(Object oldParent) {
+			return oldParent == oldScreen ? newScreen : oldToNew.get(oldParent);
+		}
+
+		private static int[] longestIncreasingSubsequence(int[] values, int count) {
+			int[] tails = new int[count];
+			int[] previous = new int[count];
+			int length = 0;
+			for (int i = 0; i < count; i++) {
+				int low = 0;
+				int high = length;
+				while (low < high) {
+					int mid = (low + high) >>> 1;
+					if (values[tails[mid]] < values[i]) {
+						low = mid + 1;
+					} else {
+						high = mid;
+					}
+				}
+				previous[i] = low > 0 ? tails[low - 1] : -1;
+				tails[low] = i;
+				if (low == length) {
+					length++;
+				}
+			}
+			int[] result = new int[length];
+			int k = length > 0 ? tails[length - 1] : -1;
+			for (int i = length - 1; i >= 0; i--) {
+				result[i] = k;
+				k = previous[k];
+			}
+			return result;
+		}
+
+		/**
+		 * Collects the index paths of the old widgets the edits refer to.
+		 */
+		Map<LvglWidgetSnapshot, int[]> collectPaths() {
+			Map<LvglWidgetSnapshot, int[]> paths = new IdentityHashMap<>();
+			for (Edit edit : edits) {
+				if (edit.oldWidget != null) {
+					paths.put(edit.oldWidget, oldLocations.get(edit.oldWidget).path());
+				}
+				if (edit.oldParent != null) {
+					paths.put(edit.oldParent, oldLocations.get(edit.oldParent).path());
+				}
+			}
+			return paths;
+		}
+	}
+}
@@ -7,11 +7,18 @@
 package com.tlcsdm.eclipse.graphiti.demo.model;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
 
 /**
  * Represents an LVGL screen containing UI widgets.
  * This is the root container for all widgets in the diagram.
+ * A batch opened on the screen also collects the changes of all its widgets.
  */
 public class LvglScreen extends ModelElement {
 
@@ -21,7 +28,23 @@ public class LvglScreen extends ModelElement {
 	private int width = 480;
 	private int height = 320;
 	private int bgColor = 0xFFFFFF;
-	private final List<LvglWidget> widgets = new ArrayList<>();
+	private final WidgetList widgets = new WidgetList();
+	/** Last snapshot taken, its unchanged widget subtrees are reused by the next one */
+	private transient LvglScreenSnapshot snapshot;
+	/** Set when the screen or its widget tree changed since the last snapshot */
+	private transient boolean changed = true;
+	/** Undo history, created on first use */
+	private transient LvglUndoHistory undoHistory;
+	/** Number of structural changes anywhere in the widget tree */
+	private transient int modCount;
+	/** Cached flattened widget tree, valid while its mod count matches */
+	private transient FlatWidgetTree<LvglWidget> flatTree;
+	/** Widgets by identifier, built on first use */
+	private transient WidgetIdIndex widgetsById;
+	/** Widgets by type, built on the first query by type */
+	private transient EnumMap<WidgetType, Set<LvglWidget>> widgetsByType;
+	/** Next identifier to assign */
+	private transient long nextId = 1;
 
 	public LvglScreen() {
 		// Default constructor
@@ -38,7 +61,7 @@ public class LvglScreen extends ModelElement {
 	public void setName(String name) {
 		String oldValue = this.name;
 		this.name = name;
-		firePropertyChange(PROPERTY_NAME, oldValue, name);
+		firePropertyChange(ModelProperty.NAME, oldValue, name);
 	}
 
 	public int getWidth() {
@@ -48,7 +71,7 @@ public class LvglScreen extends ModelElement {
 	public void setWidth(int width) {
 		int oldValue = this.width;
 		this.width = width;
-		firePropertyChange("width", oldValue, width);
+		fireIntPropertyChange(ModelProperty.WIDTH, oldValue, width);
 	}
 
 	public int getHeight() {
@@ -58,7 +81,7 @@ public class LvglScreen extends ModelElement {
 	public void setHeight(int height) {
 		int oldValue = this.height;
 		this.height = height;
-		firePropertyChange("height", oldValue, height);
+		fireIntPropertyChange(ModelProperty.HEIGHT, oldValue, height);
 	}
 
 	public int getBgColor() {
@@ -68,7 +91,7 @@ public class LvglScreen extends ModelElement {
 	public void setBgColor(int bgColor) {
 		int oldValue = this.bgColor;
 		this.bgColor = bgColor;
-		firePropertyChange("bgColor", oldValue, bgColor);
+		fireIntPropertyChange(ModelProperty.BG_COLOR, oldValue, bgColor);
 	}
 
 	public List<LvglWidget> getWidgets() {
@@ -76,48 +99,309 @@ public class LvglScreen extends ModelElement {
 	}
 
 	public void addWidget(LvglWidget widget) {
-		widgets.add(widget);
-		firePropertyChange(PROPERTY_ADD, null, widget);
+		insertWidget(widgets.size(), widget);
 	}
 
 	public void insertWidget(int index, LvglWidget widget) {
-		widgets.add(index, widget);
-		firePropertyChange(PROPERTY_ADD, null, widget);
+		widgets.insert(index, widget);
+		widget.setScreen(this);
+		widgetAttached(widget);
+		fireStructureChange(ModelProperty.ADD, widget, index);
 	}
 
 	public void removeWidget(LvglWidget widget) {
-		widgets.remove(widget);
-		firePropertyChange(PROPERTY_REMOVE, widget, null);
+		int index = widgets.removeWidget(widget);
+		if (index >= 0) {
+			widget.setScreen(null);
+			widgetDetached(widget);
+			fireStructureChange(ModelProperty.REMOVE, widget, index);
+		}
 	}
 
 	/**
-	 * Finds a widget by name.
+	 * Moves a top-level widget to another index, changing its z-order. See
+	 * {@link LvglWidget#moveChild(LvglWidget, int)}.
 	 *
-	 * @param name the widget name
-	 * @return the widget, or null if not found
+	 * @param widget the widget to move
+	 * @param index the index of the widget after the move
 	 */
-	public LvglWidget findWidgetByName(String name) {
-		for (LvglWidget widget : widgets) {
-			if (widget.getName().equals(name)) {
-				return widget;
+	public void moveWidget(LvglWidget widget, int index) {
+		int oldIndex = widgets.indexOf(widget);
+		if (oldIndex < 0) {
+			throw new IllegalArgumentException("Not a top-level widget: " + widget.getName());
+		}
+		if (index < 0 || index >= widgets.size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + widgets.size());
+		}
+		if (index == oldIndex) {
+			return;
+		}
+		widgets.removeWidget(widget);
+		widgets.insert(index, widget);
+		widgetMoved();
+		fireChildMoved(widget, oldIndex, index);
+	}
+
+	@Override
+	public Object getPropertyValue(ModelProperty property) {
+		return switch (property) {
+			case NAME -> getName();
+			case WIDTH -> getWidth();
+			case HEIGHT -> getHeight();
+			case BG_COLOR -> getBgColor();
+			default -> throw new IllegalArgumentException("Unsupported screen property: " + property);
+		};
+	}
+
+	@Override
+	public void setPropertyValue(ModelProperty property, Object value) {
+		switch (property) {
+			case NAME -> setName((String) value);
+			case WIDTH -> setWidth((Integer) value);
+			case HEIGHT -> setHeight((Integer) value);
+			case BG_COLOR -> setBgColor((Integer) value);
+			default -> throw new IllegalArgumentException("Unsupported screen property: " + property);
+		}
+	}
+
+	/**
+	 * Gets the undo history of this screen.
+	 *
+	 * @return the undo history, never null
+	 */
+	public LvglUndoHistory getUndoHistory() {
+		if (undoHistory == null) {
+			undoHistory = new LvglUndoHistory(this);
+		}
+		return undoHistory;
+	}
+
+	/**
+	 * Returns an immutable snapshot of the whole screen. Widget snapshots of
+	 * unchanged subtrees are shared with earlier snapshots, so this is cheap
+	 * to call after small edits. Code generation, saving and other read-only
+	 * work can run on the snapshot from a background thread.
+	 * <p>
+	 * Must be called on the thread that modifies the model.
+	 * </p>
+	 *
+	 * @return the snapshot
+	 */
+	public LvglScreenSnapshot snapshot() {
+		LvglScreenSnapshot result = snapshot;
+		if (result == null || changed) {
+			List<LvglWidgetSnapshot> previous = result != null ? result.getWidgets() : List.of();
+			result = new LvglScreenSnapshot(this, LvglWidget.snapshot(widgets, previous));
+			snapshot = result;
+			changed = false;
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the structural modification count. It changes whenever a widget is
+	 * added to or removed from the screen or any widget in it.
+	 *
+	 * @return the modification count
+	 */
+	public int getModCount() {
+		return modCount;
+	}
+
+	/**
+	 * Registers a widget subtree added to the tree, assigning identifiers to
+	 * widgets that have none or whose identifier is already taken.
+	 */
+	void widgetAttached(LvglWidget root) {
+		modCount++;
+		WidgetIdIndex index = getWidgetsById();
+		TreeTraversal.forEach(List.of(root), LvglWidget::getChildren, widget -> {
+			widget.markAttached();
+			register(index, widget);
+		});
+	}
+
+	/**
+	 * Unregisters a widget subtree removed from the tree. The widgets keep
+	 * their identifiers, so undo can add them back unchanged.
+	 */
+	void widgetDetached(LvglWidget root) {
+		modCount++;
+		if (widgetsById == null) {
+			return;
+		}
+		TreeTraversal.forEach(List.of(root), LvglWidget::getChildren, widget -> {
+			widgetsById.remove(widget);
+			if (widgetsByType != null) {
+				Set<LvglWidget> ofType = widgetsByType.get(widget.getWidgetType());
+				if (ofType != null) {
+					ofType.remove(widget);
+				}
+			}
+		});
+	}
+
+	private void register(WidgetIdIndex index, LvglWidget widget) {
+		long id = widget.getId();
+		LvglWidget existing = id != 0 ? index.get(id) : null;
+		if (id == 0 || (existing != null && existing != widget)) {
+			id = nextId++;
+			widget.setId(id);
+		} else if (id >= nextId) {
+			nextId = id + 1;
+		}
+		index.put(widget);
+		if (widgetsByType != null) {
+			widgetsByType.computeIfAbsent(widget.getWidgetType(), k -> new LinkedHashSet<>()).add(widget);
+		}
+	}
+
+	/**
+	 * Records a widget moved among its siblings.
+	 */
+	void widgetMoved() {
+		modCount++;
+	}
+
+	/**
+	 * Moves a widget to the partition of its new type.
+	 */
+	void widgetTypeChanged(LvglWidget widget, WidgetType oldType) {
+		if (widgetsByType == null) {
+			return;
+		}
+		Set<LvglWidget> ofType = widgetsByType.get(oldType);
+		if (ofType != null) {
+			ofType.remove(widget);
+		}
+		widgetsByType.computeIfAbsent(widget.getWidgetType(), k -> new LinkedHashSet<>()).add(widget);
+	}
+
+	private WidgetIdIndex getWidgetsById() {
+		if (widgetsById == null) {
+			widgetsById = new WidgetIdIndex(getFlatTree().size());
+			for (LvglWidget widget : getFlatTree().asList()) {
+				register(widgetsById, widget);
 			}
-			// Check nested children
-			LvglWidget found = findWidgetByNameRecursive(widget, name);
-			if (found != null) {
-				return found;
+		}
+		return widgetsById;
+	}
+
+	private Set<LvglWidget> getWidgetsByType(WidgetType type) {
+		if (widgetsByType == null) {
+			// Most sessions never query by type, so the partition is only
+			// built and maintained from the first query on
+			getWidgetsById();
+			widgetsByType = new EnumMap<>(WidgetType.class);
+			for (LvglWidget widget : getFlatTree().asList()) {
+				widgetsByType.computeIfAbsent(widget.getWidgetType(), k -> new LinkedHashSet<>()).add(widget);
 			}
 		}
-		return null;
+		Set<LvglWidget> result = widgetsByType.get(type);
+		return result != null ? result : Set.of();
+	}
+
+	/**
+	 * Finds a widget by its identifier.
+	 *
+	 * @param id the widget identifier
+	 * @return the widget, or null if there is no such widget in the screen
+	 */
+	public LvglWidget findWidgetById(long id) {
+		return getWidgetsById().get(id);
+	}
+
+	/**
+	 * Gets all widgets of a type, at any depth. Backed by an index built on
+	 * the first query by type and maintained as widgets are added and
+	 * removed, so later queries need no tree walk.
+	 *
+	 * @param type the widget type
+	 * @return the widgets present at the first query in pre-order, followed
+	 *         by those added since in the order they were added
+	 */
+	public List<LvglWidget> widgetsOfType(WidgetType type) {
+		return new ArrayList<>(getWidgetsByType(type));
+	}
+
+	/**
+	 * Counts the widgets of a type, at any depth.
+	 *
+	 * @param type the widget type
+	 * @return the number of widgets
+	 */
+	public int countOfType(WidgetType type) {
+		return getWidgetsByType(type).size();
+	}
+
+	/**
+	 * Gets the widgets of a type matching a filter.
+	 *
+	 * @param type the widget type
+	 * @param filter the filter
+	 * @return the matching widgets, in the order of {@link #widgetsOfType(WidgetType)}
+	 */
+	public List<LvglWidget> where(WidgetType type, Predicate<? super LvglWidget> filter) {
+		List<LvglWidget> result = new ArrayList<>();
+		for (LvglWidget widget : getWidgetsByType(type)) {
+			if (filter.test(widget)) {
+				result.add(widget);
+			}
+		}
+		return result;
 	}
 
-	private LvglWidget findWidgetByNameRecursive(LvglWidget parent, String name) {
-		for (LvglWidget child : parent.getChildren()) {
-			if (child.getName().equals(name)) {
-				return child;
+	/**
+	 * Gets all widgets matching a filter. Scans the cached flattened tree;
+	 * prefer {@link #where(WidgetType, Predicate)} when the type is known.
+	 *
+	 * @param filter the filter
+	 * @return the matching widgets, in pre-order
+	 */
+	public List<LvglWidget> where(Predicate<? super LvglWidget> filter) {
+		List<LvglWidget> result = new ArrayList<>();
+		for (LvglWidget widget : getFlatTree().asList()) {
+			if (filter.test(widget)) {
+				result.add(widget);
 			}
-			LvglWidget found = findWidgetByNameRecursive(child, name);
-			if (found != null) {
-				return found;
+		}
+		return result;
+	}
+
+	/**
+	 * Gets all widgets of the screen flattened in pre-order. The result is
+	 * cached until the structure of the widget tree changes.
+	 *
+	 * @return the flattened widget tree
+	 */
+	public FlatWidgetTree<LvglWidget> getFlatTree() {
+		FlatWidgetTree<LvglWidget> result = flatTree;
+		if (result == null || result.getModCount() != modCount) {
+			result = FlatWidgetTree.build(widgets, LvglWidget::getChildren, modCount);
+			flatTree = result;
+		}
+		return result;
+	}
+
+	void invalidateSnapshot() {
+		changed = true;
+	}
+
+	@Override
+	protected void modelChanged() {
+		changed = true;
+	}
+
+	/**
+	 * Finds a widget by name.
+	 *
+	 * @param name the widget name
+	 * @return the widget, or null if not found
+	 */
+	public LvglWidget findWidgetByName(String name) {
+		for (LvglWidget widget : getFlatTree().asList()) {
+			if (widget.getName().equals(name)) {
+				return widget;
 			}
 		}
 		return null;
@@ -129,13 +413,6 @@ public class LvglScreen extends ModelElement {
 	 * @return the variable name
 	 */
 	public String getVariableName() {
-		String varName = name.replaceAll("[^a-zA-Z0-9_]", "_");
-		if (!varName.isEmpty() && Character.isDigit(varName.charAt(0))) {
-			varName = "_" + varName;
-		}
-		if (varName.isEmpty()) {
-			varName = "_screen";
-		}
-		return varName;
+		return toVariableName(name, "_screen");
 	}
 }
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+/**
+ * The screen-level properties of a .graphxml file, read without parsing the
+ * widget tree.
+ *
+ * @see LvglXmlSerializer#loadHeader(java.io.InputStream)
+ */
+public final class LvglScreenHeader {
+
+	private final String name;
+	private final int width;
+	private final int height;
+	private final int bgColor;
+
+	public LvglScreenHeader(String name, int width, int height, int bgColor) {
+		this.name = name;
+		this.width = width;
+		this.height = height;
+		this.bgColor = bgColor;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getBgColor() {
+		return bgColor;
+	}
+
+	/**
+	 * Generates a variable name for this screen.
+	 *
+	 * @return the variable name
+	 * @see LvglScreen#getVariableName()
+	 */
+	public String getVariableName() {
+		return ModelElement.toVariableName(name, "_screen");
+	}
+
+	@Override
+	public String toString() {
+		return name + " (" + width + "x" + height + ")";
+	}
+}
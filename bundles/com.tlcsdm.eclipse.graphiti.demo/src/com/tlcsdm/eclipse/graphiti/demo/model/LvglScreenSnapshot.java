@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of an {@link LvglScreen} and its widget tree.
+ * Created by {@link LvglScreen#snapshot()}; safe to read from any thread.
+ */
+public final class LvglScreenSnapshot {
+
+	private final String name;
+	private final int width;
+	private final int height;
+	private final int bgColor;
+	private final List<LvglWidgetSnapshot> widgets;
+	/** Hash of the screen properties and all widget subtrees */
+	private final long subtreeHash;
+	/** Flattened widget tree, built on first use */
+	private volatile FlatWidgetTree<LvglWidgetSnapshot> flatTree;
+
+	LvglScreenSnapshot(LvglScreen screen, List<LvglWidgetSnapshot> widgets) {
+		this(screen.getName(), screen.getWidth(), screen.getHeight(), screen.getBgColor(), widgets);
+	}
+
+	private LvglScreenSnapshot(String name, int width, int height, int bgColor, List<LvglWidgetSnapshot> widgets) {
+		this.name = name;
+		this.width = width;
+		this.height = height;
+		this.bgColor = bgColor;
+		this.widgets = Collections.unmodifiableList(widgets);
+		long hash = LvglWidgetSnapshot.hash(name);
+		hash = LvglWidgetSnapshot.mix(hash, ((long) width << 32) | (height & 0xFFFFFFFFL));
+		hash = LvglWidgetSnapshot.mix(hash, bgColor);
+		for (LvglWidgetSnapshot widget : widgets) {
+			hash = LvglWidgetSnapshot.mix(hash, widget.getSubtreeHash());
+		}
+		this.subtreeHash = LvglWidgetSnapshot.mix(hash, widgets.size());
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getBgColor() {
+		return bgColor;
+	}
+
+	/**
+	 * Gets the snapshots of the top-level widgets.
+	 *
+	 * @return the unmodifiable list of widgets
+	 */
+	public List<LvglWidgetSnapshot> getWidgets() {
+		return widgets;
+	}
+
+	/**
+	 * Returns a copy of this snapshot with one widget subtree replaced. All
+	 * other subtrees are shared, so a diff against this snapshot only visits
+	 * the replaced subtree and its ancestors.
+	 *
+	 * @param path the index path from the screen to the widget to replace
+	 * @param widget the new widget subtree
+	 * @return the new snapshot
+	 * @throws IndexOutOfBoundsException if there is no widget at the path
+	 */
+	public LvglScreenSnapshot withWidget(int[] path, LvglWidgetSnapshot widget) {
+		if (path.length == 0) {
+			throw new IndexOutOfBoundsException("Empty widget path");
+		}
+		LvglWidgetSnapshot[] ancestors = new LvglWidgetSnapshot[path.length - 1];
+		List<LvglWidgetSnapshot> siblings = widgets;
+		for (int depth = 0; depth < ancestors.length; depth++) {
+			ancestors[depth] = siblings.get(path[depth]);
+			siblings = ancestors[depth].getChildren();
+		}
+		// Rebuild the ancestors bottom-up around the new subtree
+		LvglWidgetSnapshot replacement = widget;
+		for (int depth = ancestors.length - 1; depth >= 0; depth--) {
+			List<LvglWidgetSnapshot> children = new ArrayList<>(ancestors[depth].getChildren());
+			children.set(path[depth + 1], replacement);
+			replacement = new LvglWidgetSnapshot(ancestors[depth], children);
+		}
+		List<LvglWidgetSnapshot> newWidgets = new ArrayList<>(widgets);
+		newWidgets.set(path[0], replacement);
+		return new LvglScreenSnapshot(name, width, height, bgColor, newWidgets);
+	}
+
+	/**
+	 * Generates a variable name for this screen.
+	 *
+	 * @return the variable name
+	 * @see LvglScreen#getVariableName()
+	 */
+	public String getVariableName() {
+		return ModelElement.toVariableName(name, "_screen");
+	}
+
+	/**
+	 * Gets all widgets flattened in pre-order.
+	 *
+	 * @return the flattened widget tree
+	 */
+	public FlatWidgetTree<LvglWidgetSnapshot> getFlatTree() {
+		FlatWidgetTree<LvglWidgetSnapshot> result = flatTree;
+		if (result == null) {
+			result = FlatWidgetTree.build(widgets, LvglWidgetSnapshot::getChildren, 0);
+			flatTree = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the hash of the screen properties and all widget subtrees.
+	 *
+	 * @return the subtree hash
+	 */
+	public long getSubtreeHash() {
+		return subtreeHash;
+	}
+
+	/**
+	 * Gets the value of a screen property by its identifier.
+	 *
+	 * @param property the property
+	 * @return the value
+	 * @throws IllegalArgumentException if screens have no such property
+	 */
+	public Object getPropertyValue(ModelProperty property) {
+		return switch (property) {
+			case NAME -> name;
+			case WIDTH -> width;
+			case HEIGHT -> height;
+			case BG_COLOR -> bgColor;
+			default -> throw new IllegalArgumentException("Unsupported screen property: " + property);
+		};
+	}
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A screen too large to load at once, opened for reading only. The screen
+ * holds the top-level widgets; those with nested widgets start collapsed,
+ * without children, and get them from the file content when expanded.
+ * <p>
+ * Expanding finds a widget by its index among the top-level widgets, so the
+ * screen must not be edited.
+ * </p>
+ *
+ * @see LvglXmlSerializer#loadSummary(byte[])
+ */
+public final class LvglScreenSummary {
+
+	private final byte[] content;
+	private final LvglScreen screen;
+	private final Map<LvglWidget, Integer> collapsed;
+	private final int widgetCount;
+
+	LvglScreenSummary(byte[] content, LvglScreen screen, Map<LvglWidget, Integer> descendantCounts) {
+		this.content = content;
+		this.screen = screen;
+		this.collapsed = descendantCounts;
+		int count = screen.getWidgets().size();
+		for (int descendants : descendantCounts.values()) {
+			count += descendants;
+		}
+		this.widgetCount = count;
+	}
+
+	/**
+	 * Gets the screen, with the children of collapsed widgets missing.
+	 */
+	public LvglScreen getScreen() {
+		return screen;
+	}
+
+	/**
+	 * Gets the number of widgets in the file, loaded or not.
+	 */
+	public int getWidgetCount() {
+		return widgetCount;
+	}
+
+	public boolean isCollapsed(LvglWidget widget) {
+		return collapsed.containsKey(widget);
+	}
+
+	/**
+	 * Gets the number of widgets nested in a collapsed widget.
+	 *
+	 * @param widget a top-level widget
+	 * @return the number of nested widgets, or 0 if the widget is not
+	 *         collapsed
+	 */
+	public int getCollapsedCount(LvglWidget widget) {
+		return collapsed.getOrDefault(widget, 0);
+	}
+
+	/**
+	 * Loads the nested widgets of a collapsed widget from the file content
+	 * and adds them as its children, in one batch.
+	 *
+	 * @param widget a top-level widget
+	 * @return true if the widget was collapsed
+	 * @throws IOException if the widget cannot be read from the content
+	 */
+	public boolean expand(LvglWidget widget) throws IOException {
+		if (!collapsed.containsKey(widget)) {
+			return false;
+		}
+		int index = screen.getWidgets().indexOf(widget);
+		LvglWidget loaded = new LvglXmlSerializer().loadTopLevelWidget(new ByteArrayInputStream(content), index);
+		// Identifiers missing in the file were assigned when the screen was
+		// loaded, while the widget loaded again has none
+		boolean same = loaded.getId() != 0 ? loaded.getId() == widget.getId()
+				: Objects.equals(loaded.getName(), widget.getName());
+		if (!same) {
+			throw new IOException("Widget " + widget.getName() + " is no longer at index " + index);
+		}
+		collapsed.remove(widget);
+		screen.beginBatch();
+		try {
+			for (LvglWidget child : new ArrayList<>(loaded.getChildren())) {
+				loaded.removeChild(child);
+				widget.addChild(child);
+			}
+		} finally {
+			screen.endBatch();
+		}
+		return true;
+	}
+}
@@ -0,0 +1,381 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Undo/redo history of an {@link LvglScreen}.
+ * <p>
+ * Each step stores the {@link ModelChangeSet} collected by a screen batch:
+ * the old and new value of every changed property plus the ordered list of
+ * added, removed and moved widgets. Removed subtrees are kept by reference
+ * rather than copied, and a move keeps only its indexes, so the cost of a
+ * step, and of undoing or redoing it, is proportional to the number of
+ * changes, not to the size of the screen.
+ * </p>
+ * <p>
+ * The estimated memory of all steps is bounded by {@link #setMemoryLimit(long)};
+ * the oldest steps are dropped when the limit is exceeded. A dropped step
+ * releases its changes and can no longer be undone or redone, so callers
+ * holding a step, such as a command stack, check {@link #canUndo(Step)} and
+ * {@link #canRedo(Step)} before restoring their own state.
+ * </p>
+ */
+public class LvglUndoHistory implements ModelChangeListener {
+
+	/** Default memory limit in bytes */
+	public static final long DEFAULT_MEMORY_LIMIT = 16L * 1024 * 1024;
+
+	/** Estimated size of a recorded change */
+	private static final int CHANGE_SIZE = 48;
+	/** Estimated size of a widget kept alive by a structural change */
+	private static final int WIDGET_SIZE = 160;
+
+	private final LvglScreen screen;
+	private final Deque<Step> undoStack = new ArrayDeque<>();
+	private final Deque<Step> redoStack = new ArrayDeque<>();
+	private long memoryLimit = DEFAULT_MEMORY_LIMIT;
+	private long memoryUsage;
+	/** The outermost step being recorded, null if none */
+	private Step recording;
+	/** Nesting depth of {@link #beginStep(String)} calls */
+	private int recordingDepth;
+	/** True while an undo or redo is applied to the model */
+	private boolean applying;
+
+	/**
+	 * A recorded undoable step. Closing the handle returned by
+	 * {@link LvglUndoHistory#beginStep(String)} ends the recording.
+	 */
+	public final class Step implements AutoCloseable {
+
+		private final String label;
+		private final ModelElement.Batch batch;
+		private ModelChangeSet changes;
+		private long size;
+		private boolean closed;
+		/** True once the step was removed by a trim or clear */
+		private boolean dropped;
+
+		private Step(String label, ModelElement.Batch batch) {
+			this.label = label;
+			this.batch = batch;
+		}
+
+		public String getLabel() {
+			return label;
+		}
+
+		public LvglUndoHistory getHistory() {
+			return LvglUndoHistory.this;
+		}
+
+		@Override
+		public void close() {
+			if (!closed) {
+				closed = true;
+				endStep(this);
+			}
+		}
+	}
+
+	LvglUndoHistory(LvglScreen screen) {
+		this.screen = screen;
+		screen.addModelChangeListener(this);
+	}
+
+	/**
+	 * Starts recording a step. All changes of the screen and its widgets until
+	 * the returned handle is closed form one undoable step. A step started
+	 * while another one is recording joins it.
+	 *
+	 * @param label the step label
+	 * @return the step handle
+	 */
+	public Step beginStep(String label) {
+		if (recordingDepth++ > 0) {
+			return recording;
+		}
+		recording = new Step(label, screen.beginBatch());
+		return recording;
+	}
+
+	private void endStep(Step step) {
+		if (--recordingDepth > 0) {
+			return;
+		}
+		// Ending the batch delivers the collected changes to propertyChanged
+		step.batch.close();
+		recording = null;
+		if (step.changes != null) {
+			redoStack.clear();
+			push(undoStack, step);
+			trim();
+		}
+	}
+
+	@Override
+	public void propertyChanged(ModelElement source, ModelProperty property, Object oldValue, Object newValue) {
+		if (property == ModelProperty.BATCH && !applying && recording != null
+				&& newValue instanceof ModelChangeSet changes) {
+			recording.changes = changes;
+		}
+	}
+
+	/**
+	 * Checks whether the given step can be undone: it is the most recent step,
+	 * or it recorded no changes and was never part of the history.
+	 *
+	 * @param step the step
+	 * @return false if other steps must be undone first or the step was
+	 *         dropped
+	 */
+	public boolean canUndo(Step step) {
+		return isEmpty(step) || undoStack.peek() == step;
+	}
+
+	/**
+	 * Checks whether the given step can be redone: it is the most recently
+	 * undone step, or it recorded no changes and was never part of the history.
+	 *
+	 * @param step the step
+	 * @return false if other steps must be redone first or the step was
+	 *         dropped
+	 */
+	public boolean canRedo(Step step) {
+		return isEmpty(step) || redoStack.peek() == step;
+	}
+
+	private static boolean isEmpty(Step step) {
+		return step.changes == null && !step.dropped;
+	}
+
+	/**
+	 * Undoes the given step if it is the most recent one.
+	 *
+	 * @param step the step to undo
+	 * @return true if the step was undone
+	 */
+	public boolean undo(Step step) {
+		if (step == null || undoStack.peek() != step) {
+			return false;
+		}
+		pop(undoStack);
+		apply(step.changes, false);
+		push(redoStack, step);
+		return true;
+	}
+
+	/**
+	 * Redoes the given step if it is the most recently undone one.
+	 *
+	 * @param step the step to redo
+	 * @return true if the step was redone
+	 */
+	public boolean redo(Step step) {
+		if (step == null || redoStack.peek() != step) {
+			return false;
+		}
+		pop(redoStack);
+		apply(step.changes, true);
+		push(undoStack, step);
+		trim();
+		return true;
+	}
+
+	public boolean canUndo() {
+		return !undoStack.isEmpty();
+	}
+
+	public boolean canRedo() {
+		return !redoStack.isEmpty();
+	}
+
+	/**
+	 * Undoes the most recent step.
+	 *
+	 * @return true if a step was undone
+	 */
+	public boolean undo() {
+		return undo(undoStack.peek());
+	}
+
+	/**
+	 * Redoes the most recently undone step.
+	 *
+	 * @return true if a step was redone
+	 */
+	public boolean redo() {
+		return redo(redoStack.peek());
+	}
+
+	/**
+	 * Removes all steps, such as when the screen changed in a way the steps
+	 * do not know of.
+	 */
+	public void clear() {
+		while (!undoStack.isEmpty()) {
+			drop(undoStack.pop());
+		}
+		while (!redoStack.isEmpty()) {
+			drop(redoStack.pop());
+		}
+		memoryUsage = 0;
+	}
+
+	public long getMemoryLimit() {
+		return memoryLimit;
+	}
+
+	/**
+	 * Sets the memory limit. The oldest steps are dropped while the estimated
+	 * memory of the history exceeds the limit; the most recent step is always
+	 * kept.
+	 *
+	 * @param memoryLimit the limit in bytes
+	 */
+	public void setMemoryLimit(long memoryLimit) {
+		this.memoryLimit = memoryLimit;
+		trim();
+	}
+
+	/**
+	 * Gets the estimated memory retained by the history.
+	 *
+	 * @return the estimate in bytes
+	 */
+	public long getMemoryUsage() {
+		return memoryUsage;
+	}
+
+	private void apply(ModelChangeSet changes, boolean forward) {
+		List<ModelChangeSet.Change> list = changes.getChanges();
+		applying = true;
+		screen.beginBatch();
+		try {
+			// Property values do not depend on the tree structure, so they are
+			// restored first, while every element is still reachable
+			for (ModelChangeSet.Change change : list) {
+				if (!change.isStructural()) {
+					change.getSource().setPropertyValue(change.getProperty(),
+							forward ? change.getNewValue() : change.getOldValue());
+				}
+			}
+			// Structural changes are replayed in order, or reverted in reverse
+			// order, so the recorded indexes stay valid
+			int size = list.size();
+			for (int i = 0; i < size; i++) {
+				ModelChangeSet.Change change = list.get(forward ? i : size - 1 - i);
+				if (change.getProperty() == ModelProperty.MOVE && change.getChild() instanceof LvglWidget child) {
+					move(change.getSource(), child, forward ? change.getIndex() : change.getOldIndex());
+				} else if (change.isStructural() && change.getIndex() >= 0
+						&& change.getChild() instanceof LvglWidget child) {
+					boolean add = (change.getProperty() == ModelProperty.ADD) == forward;
+					if (add) {
+						insert(change.getSource(), change.getIndex(), child);
+					} else {
+						remove(change.getSource(), child);
+					}
+				}
+			}
+		} finally {
+			screen.endBatch();
+			applying = false;
+		}
+	}
+
+	private static void insert(ModelElement container, int index, LvglWidget child) {
+		if (container instanceof LvglScreen parentScreen) {
+			parentScreen.insertWidget(index, child);
+		} else if (container instanceof LvglWidget parent) {
+			parent.insertChild(index, child);
+		}
+	}
+
+	private static void remove(ModelElement container, LvglWidget child) {
+		if (container instanceof LvglScreen parentScreen) {
+			parentScreen.removeWidget(child);
+		} else if (container instanceof LvglWidget parent) {
+			parent.removeChild(child);
+		}
+	}
+
+	private static void move(ModelElement container, LvglWidget child, int index) {
+		if (container instanceof LvglScreen parentScreen) {
+			parentScreen.moveWidget(child, index);
+		} else if (container instanceof LvglWidget parent) {
+			parent.moveChild(child, index);
+		}
+	}
+
+	private void push(Deque<Step> stack, Step step) {
+		if (step.size == 0) {
+			step.size = estimateSize(step.changes);
+		}
+		stack.push(step);
+		memoryUsage += step.size;
+	}
+
+	private void pop(Deque<Step> stack) {
+		memoryUsage -= stack.pop().size;
+	}
+
+	private void trim() {
+		while (memoryUsage > memoryLimit && undoStack.size() > 1) {
+			memoryUsage -= drop(undoStack.removeLast());
+		}
+		while (memoryUsage > memoryLimit && !redoStack.isEmpty()) {
+			memoryUsage -= drop(redoStack.removeLast());
+		}
+	}
+
+	/**
+	 * Releases the changes of a removed step, which may still be referenced
+	 * by its owner.
+	 *
+	 * @return the estimated size of the step
+	 */
+	private static long drop(Step step) {
+		step.changes = null;
+		step.dropped = true;
+		return step.size;
+	}
+
+	private static long estimateSize(ModelChangeSet changes) {
+		long size = 0;
+		for (ModelChangeSet.Change change : changes.getChanges()) {
+			size += CHANGE_SIZE;
+			if (change.getProperty() == ModelProperty.MOVE) {
+				// A moved widget stays in the screen, only the indexes are kept
+				continue;
+			}
+			if (change.getChild() instanceof LvglWidget child) {
+				size += (long) WIDGET_SIZE * countWidgets(child);
+			} else {
+				size += estimateValueSize(change.getOldValue()) + estimateValueSize(change.getNewValue());
+			}
+		}
+		return size;
+	}
+
+	private static long estimateValueSize(Object value) {
+		if (value instanceof String string) {
+			return 40 + 2L * string.length();
+		}
+		// Boxed primitives and enum constants are small or shared
+		return 0;
+	}
+
+	private static int countWidgets(LvglWidget widget) {
+		int[] count = new int[1];
+		TreeTraversal.forEach(List.of(widget), LvglWidget::getChildren, w -> count[0]++);
+		return count[0];
+	}
+}
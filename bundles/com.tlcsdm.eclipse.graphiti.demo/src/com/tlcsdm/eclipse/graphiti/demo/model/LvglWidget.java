@@ -6,12 +6,23 @@
  ******************************************************************************/
 package com.tlcsdm.eclipse.graphiti.demo.model;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents an LVGL widget with various properties.
  * Supports all major LVGL widget types and layout configurations.
+ * <p>
+ * Geometry and style are kept in primitive fields. Type-specific properties
+ * (value range, table, layout, image source) live in small side objects that
+ * are only allocated once one of their values differs from the default, so a
+ * plain label carries none of them.
+ * </p>
  */
 public class LvglWidget extends ModelElement {
 
@@ -71,6 +82,20 @@ public class LvglWidget extends ModelElement {
 		public String getDisplayName() {
 			return displayName;
 		}
+
+		/**
+		 * Checks if widgets of this type can contain children.
+		 *
+		 * @return true for container types
+		 */
+		public boolean isContainer() {
+			return this == CONTAINER
+					|| this == TABVIEW
+					|| this == TILEVIEW
+					|| this == LIST
+					|| this == MENU
+					|| this == WIN;
+		}
 	}
 
 	/**
@@ -154,6 +179,48 @@ public class LvglWidget extends ModelElement {
 		}
 	}
 
+	// Default values of the type-specific properties
+	static final int DEFAULT_MAX_VALUE = 100;
+	static final int DEFAULT_ROW_COUNT = 3;
+	static final int DEFAULT_COLUMN_COUNT = 3;
+
+	/**
+	 * Value range state (Slider, Arc, Bar), allocated on first non-default value.
+	 */
+	private static final class ValueState implements Serializable {
+		private static final long serialVersionUID = 1L;
+		int value;
+		int minValue;
+		int maxValue = DEFAULT_MAX_VALUE;
+	}
+
+	/**
+	 * Table state, allocated on first non-default value.
+	 */
+	private static final class TableState implements Serializable {
+		private static final long serialVersionUID = 1L;
+		int rowCount = DEFAULT_ROW_COUNT;
+		int columnCount = DEFAULT_COLUMN_COUNT;
+		String tableData = "";
+	}
+
+	/**
+	 * Container layout state, allocated on first non-default value.
+	 */
+	private static final class LayoutState implements Serializable {
+		private static final long serialVersionUID = 1L;
+		LayoutType layoutType = LayoutType.NONE;
+		FlexFlow flexFlow = FlexFlow.ROW;
+		FlexAlign flexMainAlign = FlexAlign.START;
+		FlexAlign flexCrossAlign = FlexAlign.START;
+		FlexAlign flexTrackAlign = FlexAlign.START;
+		int padRow;
+		int padColumn;
+	}
+
+	/** Stable identifier, unique within the screen, 0 until assigned */
+	private long id;
+
 	// Basic properties
 	private String name = "widget";
 	private WidgetType widgetType = WidgetType.BUTTON;
@@ -162,8 +229,18 @@ public class LvglWidget extends ModelElement {
 	private int width = 100;
 	private int height = 40;
 	private String text = "";
-	private final List<LvglWidget> children = new ArrayList<>();
+	/** Child widgets, allocated on first add */
+	private WidgetList children;
 	private LvglWidget parent;
+	/** Slot in the child list of the parent or screen, see {@link WidgetList} */
+	transient int slot = -1;
+	/** The owning screen, set on top-level widgets only */
+	private transient LvglScreen screen;
+	/**
+	 * Set when this widget or a descendant changed since the last snapshot of
+	 * the screen, whose snapshot of this widget can be reused otherwise
+	 */
+	private transient boolean changed = true;
 
 	// Style properties
 	private int bgColor = 0xFFFFFF;
@@ -172,30 +249,14 @@ public class LvglWidget extends ModelElement {
 	private int borderColor = 0x000000;
 	private int radius = 0;
 
-	// Image-specific properties
-	private String imageSource = "";
-
 	// Checkbox/Switch state
 	private boolean checked = false;
 
-	// Value-based properties (for Slider, Arc, Bar)
-	private int value = 0;
-	private int minValue = 0;
-	private int maxValue = 100;
-
-	// Table properties
-	private int rowCount = 3;
-	private int columnCount = 3;
-	private String tableData = "";
-
-	// Layout properties (for containers)
-	private LayoutType layoutType = LayoutType.NONE;
-	private FlexFlow flexFlow = FlexFlow.ROW;
-	private FlexAlign flexMainAlign = FlexAlign.START;
-	private FlexAlign flexCrossAlign = FlexAlign.START;
-	private FlexAlign flexTrackAlign = FlexAlign.START;
-	private int padRow = 0;
-	private int padColumn = 0;
+	// Type-specific properties, null while all values are at their defaults
+	private String imageSource;
+	private ValueState valueState;
+	private TableState tableState;
+	private LayoutState layoutState;
 
 	public LvglWidget() {
 		// Default constructor
@@ -206,6 +267,25 @@ public class LvglWidget extends ModelElement {
 		this.widgetType = widgetType;
 	}
 
+	/**
+	 * Gets the stable identifier of this widget. Identifiers are assigned when
+	 * the widget is added to a screen, are unique within the screen and are
+	 * kept across renames, moves and saves.
+	 *
+	 * @return the identifier, or 0 if the widget was never added to a screen
+	 */
+	public long getId() {
+		return id;
+	}
+
+	void setId(long id) {
+		if (this.id != id) {
+			this.id = id;
+			// Snapshots carry the identifier
+			modelChanged();
+		}
+	}
+
 	// Basic properties getters and setters
 
 	public String getName() {
@@ -215,7 +295,7 @@ public class LvglWidget extends ModelElement {
 	public void setName(String name) {
 		String oldValue = this.name;
 		this.name = name;
-		firePropertyChange(PROPERTY_NAME, oldValue, name);
+		firePropertyChange(ModelProperty.NAME, oldValue, name);
 	}
 
 	public WidgetType getWidgetType() {
@@ -225,7 +305,11 @@ public class LvglWidget extends ModelElement {
 	public void setWidgetType(WidgetType widgetType) {
 		WidgetType oldValue = this.widgetType;
 		this.widgetType = widgetType;
-		firePropertyChange("widgetType", oldValue, widgetType);
+		LvglScreen owner = oldValue != widgetType ? getScreen() : null;
+		if (owner != null) {
+			owner.widgetTypeChanged(this, oldValue);
+		}
+		firePropertyChange(ModelProperty.WIDGET_TYPE, oldValue, widgetType);
 	}
 
 	public int getX() {
@@ -235,7 +319,7 @@ public class LvglWidget extends ModelElement {
 	public void setX(int x) {
 		int oldValue = this.x;
 		this.x = x;
-		firePropertyChange("x", oldValue, x);
+		fireIntPropertyChange(ModelProperty.X, oldValue, x);
 	}
 
 	public int getY() {
@@ -245,7 +329,7 @@ public class LvglWidget extends ModelElement {
 	public void setY(int y) {
 		int oldValue = this.y;
 		this.y = y;
-		firePropertyChange("y", oldValue, y);
+		fireIntPropertyChange(ModelProperty.Y, oldValue, y);
 	}
 
 	public int getWidth() {
@@ -255,7 +339,7 @@ public class LvglWidget extends ModelElement {
 	public void setWidth(int width) {
 		int oldValue = this.width;
 		this.width = width;
-		firePropertyChange("width", oldValue, width);
+		fireIntPropertyChange(ModelProperty.WIDTH, oldValue, width);
 	}
 
 	public int getHeight() {
@@ -265,7 +349,7 @@ public class LvglWidget extends ModelElement {
 	public void setHeight(int height) {
 		int oldValue = this.height;
 		this.height = height;
-		firePropertyChange("height", oldValue, height);
+		fireIntPropertyChange(ModelProperty.HEIGHT, oldValue, height);
 	}
 
 	public String getText() {
@@ -275,25 +359,93 @@ public class LvglWidget extends ModelElement {
 	public void setText(String text) {
 		String oldValue = this.text;
 		this.text = text;
-		firePropertyChange("text", oldValue, text);
+		firePropertyChange(ModelProperty.TEXT, oldValue, text);
 	}
 
 	// Children management
 
 	public List<LvglWidget> getChildren() {
-		return children;
+		return children != null ? children : Collections.emptyList();
 	}
 
 	public void addChild(LvglWidget child) {
-		children.add(child);
+		insertChild(getChildren().size(), child);
+	}
+
+	public void insertChild(int index, LvglWidget child) {
+		if (children == null) {
+			children = new WidgetList();
+		}
+		children.insert(index, child);
 		child.setParent(this);
-		firePropertyChange(PROPERTY_ADD, null, child);
+		LvglScreen owner = getScreen();
+		if (owner != null) {
+			owner.widgetAttached(child);
+		}
+		fireStructureChange(ModelProperty.ADD, child, index);
 	}
 
 	public void removeChild(LvglWidget child) {
-		children.remove(child);
+		int index = children != null ? children.removeWidget(child) : -1;
+		if (index < 0) {
+			return;
+		}
 		child.setParent(null);
-		firePropertyChange(PROPERTY_REMOVE, child, null);
+		LvglScreen owner = getScreen();
+		if (owner != null) {
+			owner.widgetDetached(child);
+		}
+		fireStructureChange(ModelProperty.REMOVE, child, index);
+	}
+
+	/**
+	 * Moves a child to another index. Later children are drawn on top of
+	 * earlier ones, so this changes the z-order. Listeners see a
+	 * {@link ModelProperty#MOVE}, and the child stays attached to the screen.
+	 *
+	 * @param child the child to move
+	 * @param index the index of the child after the move
+	 */
+	public void moveChild(LvglWidget child, int index) {
+		int oldIndex = getChildren().indexOf(child);
+		if (oldIndex < 0) {
+			throw new IllegalArgumentException("Not a child of " + getName() + ": " + child.getName());
+		}
+		if (index < 0 || index >= children.size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + children.size());
+		}
+		if (index == oldIndex) {
+			return;
+		}
+		children.removeWidget(child);
+		children.insert(index, child);
+		LvglScreen owner = getScreen();
+		if (owner != null) {
+			owner.widgetMoved();
+		}
+		fireChildMoved(child, oldIndex, index);
+	}
+
+	/**
+	 * Moves this widget in front of its siblings.
+	 */
+	public void bringToFront() {
+		if (parent != null) {
+			parent.moveChild(this, parent.getChildren().size() - 1);
+		} else if (screen != null) {
+			screen.moveWidget(this, screen.getWidgets().size() - 1);
+		}
+	}
+
+	/**
+	 * Moves this widget behind its siblings.
+	 */
+	public void sendToBack() {
+		if (parent != null) {
+			parent.moveChild(this, 0);
+		} else if (screen != null) {
+			screen.moveWidget(this, 0);
+		}
 	}
 
 	public LvglWidget getParent() {
@@ -304,6 +456,174 @@ public class LvglWidget extends ModelElement {
 		this.parent = parent;
 	}
 
+	/**
+	 * Gets the screen this widget belongs to, directly or through its parents.
+	 *
+	 * @return the screen, or null if the widget is not attached to a screen
+	 */
+	public LvglScreen getScreen() {
+		LvglWidget root = this;
+		while (root.parent != null) {
+			root = root.parent;
+		}
+		return root.screen;
+	}
+
+	void setScreen(LvglScreen screen) {
+		this.screen = screen;
+	}
+
+	@Override
+	protected ModelElement getBatchOwner() {
+		return getScreen();
+	}
+
+	/**
+	 * Returns an immutable snapshot of this widget and its subtree. For a
+	 * widget in a screen it is taken from {@link LvglScreen#snapshot()}, which
+	 * shares the snapshots of unchanged subtrees with the previous one.
+	 * <p>
+	 * Must be called on the thread that modifies the model; the returned
+	 * snapshot can then be read from any thread.
+	 * </p>
+	 *
+	 * @return the snapshot
+	 */
+	public LvglWidgetSnapshot snapshot() {
+		LvglWidget root = this;
+		int depth = 0;
+		while (root.parent != null) {
+			root = root.parent;
+			depth++;
+		}
+		if (root.screen == null) {
+			return snapshot(List.of(this), List.of()).get(0);
+		}
+		// Find the widget by its index path in the snapshot of the screen
+		int[] path = new int[depth + 1];
+		LvglWidget widget = this;
+		for (int i = depth; i > 0; i--) {
+			path[i] = widget.parent.getChildren().indexOf(widget);
+			widget = widget.parent;
+		}
+		path[0] = root.screen.getWidgets().indexOf(root);
+		LvglWidgetSnapshot result = root.screen.snapshot().getWidgets().get(path[0]);
+		for (int i = 1; i <= depth; i++) {
+			result = result.getChildren().get(path[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Creates the snapshots of widget subtrees, reusing the previous snapshot
+	 * of every unchanged widget. The previous snapshots are matched by
+	 * identifier among the previous children of the same parent.
+	 *
+	 * @param widgets the root widgets
+	 * @param previous the previous snapshots of the roots' siblings
+	 * @return the snapshots of the roots
+	 */
+	static List<LvglWidgetSnapshot> snapshot(List<LvglWidget> widgets, List<LvglWidgetSnapshot> previous) {
+		SnapshotBuilder builder = new SnapshotBuilder(widgets.size(), previous);
+		TreeTraversal.walk(widgets, LvglWidget::getChildren, builder);
+		return builder.results.get(0);
+	}
+
+	/**
+	 * Builds snapshots bottom-up, with one frame per depth for the snapshots
+	 * built so far and the previous snapshots of the siblings.
+	 */
+	private static final class SnapshotBuilder implements TreeTraversal.Visitor<LvglWidget> {
+
+		private final List<List<LvglWidgetSnapshot>> results = new ArrayList<>();
+		private final List<List<LvglWidgetSnapshot>> previous = new ArrayList<>();
+		/** Previous snapshots by identifier, built when the indexes do not match */
+		private final List<Map<Long, LvglWidgetSnapshot>> previousById = new ArrayList<>();
+		/** Whether the widget entered at each depth is rebuilt */
+		private boolean[] rebuilt = new boolean[16];
+
+		SnapshotBuilder(int size, List<LvglWidgetSnapshot> previousRoots) {
+			push(0, new ArrayList<>(size), previousRoots);
+		}
+
+		private void push(int depth, List<LvglWidgetSnapshot> result, List<LvglWidgetSnapshot> previousSiblings) {
+			if (depth == results.size()) {
+				results.add(result);
+				previous.add(previousSiblings);
+				previousById.add(null);
+			} else {
+				results.set(depth, result);
+				previous.set(depth, previousSiblings);
+				previousById.set(depth, null);
+			}
+		}
+
+		private LvglWidgetSnapshot findPrevious(int depth, long id, int index) {
+			List<LvglWidgetSnapshot> siblings = previous.get(depth);
+			if (index < siblings.size() && siblings.get(index).getId() == id) {
+				return siblings.get(index);
+			}
+			Map<Long, LvglWidgetSnapshot> byId = previousById.get(depth);
+			if (byId == null) {
+				byId = new HashMap<>();
+				for (LvglWidgetSnapshot sibling : siblings) {
+					byId.put(sibling.getId(), sibling);
+				}
+				previousById.set(depth, byId);
+			}
+			return byId.get(id);
+		}
+
+		@Override
+		public boolean enter(LvglWidget widget, LvglWidget parent, int index, int depth) {
+			LvglWidgetSnapshot old = findPrevious(depth, widget.id, index);
+			if (depth == rebuilt.length) {
+				rebuilt = Arrays.copyOf(rebuilt, depth * 2);
+			}
+			rebuilt[depth] = widget.changed || old == null;
+			if (!rebuilt[depth]) {
+				results.get(depth).add(old);
+				return false;
+			}
+			push(depth + 1, new ArrayList<>(widget.getChildren().size()),
+					old != null ? old.getChildren() : List.of());
+			return true;
+		}
+
+		@Override
+		public void leave(LvglWidget widget, LvglWidget parent, int index, int depth) {
+			if (rebuilt[depth]) {
+				results.get(depth).add(new LvglWidgetSnapshot(widget, results.get(depth + 1)));
+				widget.changed = false;
+			}
+		}
+	}
+
+	@Override
+	protected void modelChanged() {
+		// Ancestors of a changed widget are marked as well, so stop at the
+		// first one already marked
+		LvglWidget widget = this;
+		while (!widget.changed) {
+			widget.changed = true;
+			if (widget.parent == null) {
+				if (widget.screen != null) {
+					widget.screen.invalidateSnapshot();
+				}
+				return;
+			}
+			widget = widget.parent;
+		}
+	}
+
+	/**
+	 * Marks a widget added to the screen as changed, since the previous
+	 * snapshot of its parent does not contain it.
+	 */
+	void markAttached() {
+		changed = true;
+	}
+
 	// Style properties getters and setters
 
 	public int getBgColor() {
@@ -313,7 +633,7 @@ public class LvglWidget extends ModelElement {
 	public void setBgColor(int bgColor) {
 		int oldValue = this.bgColor;
 		this.bgColor = bgColor;
-		firePropertyChange("bgColor", oldValue, bgColor);
+		fireIntPropertyChange(ModelProperty.BG_COLOR, oldValue, bgColor);
 	}
 
 	public int getTextColor() {
@@ -323,7 +643,7 @@ public class LvglWidget extends ModelElement {
 	public void setTextColor(int textColor) {
 		int oldValue = this.textColor;
 		this.textColor = textColor;
-		firePropertyChange("textColor", oldValue, textColor);
+		fireIntPropertyChange(ModelProperty.TEXT_COLOR, oldValue, textColor);
 	}
 
 	public int getBorderWidth() {
@@ -333,7 +653,7 @@ public class LvglWidget extends ModelElement {
 	public void setBorderWidth(int borderWidth) {
 		int oldValue = this.borderWidth;
 		this.borderWidth = borderWidth;
-		firePropertyChange("borderWidth", oldValue, borderWidth);
+		fireIntPropertyChange(ModelProperty.BORDER_WIDTH, oldValue, borderWidth);
 	}
 
 	public int getBorderColor() {
@@ -343,7 +663,7 @@ public class LvglWidget extends ModelElement {
 	public void setBorderColor(int borderColor) {
 		int oldValue = this.borderColor;
 		this.borderColor = borderColor;
-		firePropertyChange("borderColor", oldValue, borderColor);
+		fireIntPropertyChange(ModelProperty.BORDER_COLOR, oldValue, borderColor);
 	}
 
 	public int getRadius() {
@@ -353,19 +673,20 @@ public class LvglWidget extends ModelElement {
 	public void setRadius(int radius) {
 		int oldValue = this.radius;
 		this.radius = radius;
-		firePropertyChange("radius", oldValue, radius);
+		fireIntPropertyChange(ModelProperty.RADIUS, oldValue, radius);
 	}
 
 	// Image properties
 
 	public String getImageSource() {
-		return imageSource;
+		return imageSource != null ? imageSource : "";
 	}
 
 	public void setImageSource(String imageSource) {
-		String oldValue = this.imageSource;
-		this.imageSource = imageSource != null ? imageSource : "";
-		firePropertyChange("imageSource", oldValue, this.imageSource);
+		String oldValue = getImageSource();
+		String newValue = imageSource != null ? imageSource : "";
+		this.imageSource = newValue.isEmpty() ? null : newValue;
+		firePropertyChange(ModelProperty.IMAGE_SOURCE, oldValue, newValue);
 	}
 
 	// Checkbox/Switch state
@@ -377,143 +698,295 @@ public class LvglWidget extends ModelElement {
 	public void setChecked(boolean checked) {
 		boolean oldValue = this.checked;
 		this.checked = checked;
-		firePropertyChange("checked", oldValue, checked);
+		fireBooleanPropertyChange(ModelProperty.CHECKED, oldValue, checked);
 	}
 
 	// Value-based properties
 
 	public int getValue() {
-		return value;
+		return valueState != null ? valueState.value : 0;
 	}
 
 	public void setValue(int value) {
-		int oldValue = this.value;
-		this.value = value;
-		firePropertyChange("value", oldValue, value);
+		int oldValue = getValue();
+		if (valueState == null) {
+			if (value == oldValue) {
+				return;
+			}
+			valueState = new ValueState();
+		}
+		valueState.value = value;
+		fireIntPropertyChange(ModelProperty.VALUE, oldValue, value);
 	}
 
 	public int getMinValue() {
-		return minValue;
+		return valueState != null ? valueState.minValue : 0;
 	}
 
 	public void setMinValue(int minValue) {
-		int oldValue = this.minValue;
-		this.minValue = minValue;
-		firePropertyChange("minValue", oldValue, minValue);
+		int oldValue = getMinValue();
+		if (valueState == null) {
+			if (minValue == oldValue) {
+				return;
+			}
+			valueState = new ValueState();
+		}
+		valueState.minValue = minValue;
+		fireIntPropertyChange(ModelProperty.MIN_VALUE, oldValue, minValue);
 	}
 
 	public int getMaxValue() {
-		return maxValue;
+		return valueState != null ? valueState.maxValue : DEFAULT_MAX_VALUE;
 	}
 
 	public void setMaxValue(int maxValue) {
-		int oldValue = this.maxValue;
-		this.maxValue = maxValue;
-		firePropertyChange("maxValue", oldValue, maxValue);
+		int oldValue = getMaxValue();
+		if (valueState == null) {
+			if (maxValue == oldValue) {
+				return;
+			}
+			valueState = new ValueState();
+		}
+		valueState.maxValue = maxValue;
+		fireIntPropertyChange(ModelProperty.MAX_VALUE, oldValue, maxValue);
 	}
 
 	// Table properties
 
 	public int getRowCount() {
-		return rowCount;
+		return tableState != null ? tableState.rowCount : DEFAULT_ROW_COUNT;
 	}
 
 	public void setRowCount(int rowCount) {
-		int oldValue = this.rowCount;
-		this.rowCount = rowCount;
-		firePropertyChange("rowCount", oldValue, rowCount);
+		int oldValue = getRowCount();
+		if (tableState == null) {
+			if (rowCount == oldValue) {
+				return;
+			}
+			tableState = new TableState();
+		}
+		tableState.rowCount = rowCount;
+		fireIntPropertyChange(ModelProperty.ROW_COUNT, oldValue, rowCount);
 	}
 
 	public int getColumnCount() {
-		return columnCount;
+		return tableState != null ? tableState.columnCount : DEFAULT_COLUMN_COUNT;
 	}
 
 	public void setColumnCount(int columnCount) {
-		int oldValue = this.columnCount;
-		this.columnCount = columnCount;
-		firePropertyChange("columnCount", oldValue, columnCount);
+		int oldValue = getColumnCount();
+		if (tableState == null) {
+			if (columnCount == oldValue) {
+				return;
+			}
+			tableState = new TableState();
+		}
+		tableState.columnCount = columnCount;
+		fireIntPropertyChange(ModelProperty.COLUMN_COUNT, oldValue, columnCount);
 	}
 
 	public String getTableData() {
-		return tableData;
+		return tableState != null ? tableState.tableData : "";
 	}
 
 	public void setTableData(String tableData) {
-		String oldValue = this.tableData;
-		this.tableData = tableData != null ? tableData : "";
-		firePropertyChange("tableData", oldValue, this.tableData);
+		String oldValue = getTableData();
+		String newValue = tableData != null ? tableData : "";
+		if (tableState == null) {
+			if (newValue.isEmpty()) {
+				return;
+			}
+			tableState = new TableState();
+		}
+		tableState.tableData = newValue;
+		firePropertyChange(ModelProperty.TABLE_DATA, oldValue, newValue);
 	}
 
 	// Layout properties
 
 	public LayoutType getLayoutType() {
-		return layoutType;
+		return layoutState != null ? layoutState.layoutType : LayoutType.NONE;
 	}
 
 	public void setLayoutType(LayoutType layoutType) {
-		LayoutType oldValue = this.layoutType;
-		this.layoutType = layoutType != null ? layoutType : LayoutType.NONE;
-		firePropertyChange("layoutType", oldValue, this.layoutType);
+		LayoutType oldValue = getLayoutType();
+		LayoutType newValue = layoutType != null ? layoutType : LayoutType.NONE;
+		if (layoutState == null) {
+			if (newValue == oldValue) {
+				return;
+			}
+			layoutState = new LayoutState();
+		}
+		layoutState.layoutType = newValue;
+		firePropertyChange(ModelProperty.LAYOUT_TYPE, oldValue, newValue);
 	}
 
 	public FlexFlow getFlexFlow() {
-		return flexFlow;
+		return layoutState != null ? layoutState.flexFlow : FlexFlow.ROW;
 	}
 
 	public void setFlexFlow(FlexFlow flexFlow) {
-		FlexFlow oldValue = this.flexFlow;
-		this.flexFlow = flexFlow != null ? flexFlow : FlexFlow.ROW;
-		firePropertyChange("flexFlow", oldValue, this.flexFlow);
+		FlexFlow oldValue = getFlexFlow();
+		FlexFlow newValue = flexFlow != null ? flexFlow : FlexFlow.ROW;
+		if (layoutState == null) {
+			if (newValue == oldValue) {
+				return;
+			}
+			layoutState = new LayoutState();
+		}
+		layoutState.flexFlow = newValue;
+		firePropertyChange(ModelProperty.FLEX_FLOW, oldValue, newValue);
 	}
 
 	public FlexAlign getFlexMainAlign() {
-		return flexMainAlign;
+		return layoutState != null ? layoutState.flexMainAlign : FlexAlign.START;
 	}
 
 	public void setFlexMainAlign(FlexAlign flexMainAlign) {
-		FlexAlign oldValue = this.flexMainAlign;
-		this.flexMainAlign = flexMainAlign != null ? flexMainAlign : FlexAlign.START;
-		firePropertyChange("flexMainAlign", oldValue, this.flexMainAlign);
+		FlexAlign oldValue = getFlexMainAlign();
+		FlexAlign newValue = flexMainAlign != null ? flexMainAlign : FlexAlign.START;
+		if (layoutState == null) {
+			if (newValue == oldValue) {
+				return;
+			}
+			layoutState = new LayoutState();
+		}
+		layoutState.flexMainAlign = newValue;
+		firePropertyChange(ModelProperty.FLEX_MAIN_ALIGN, oldValue, newValue);
 	}
 
 	public FlexAlign getFlexCrossAlign() {
-		return flexCrossAlign;
+		return layoutState != null ? layoutState.flexCrossAlign : FlexAlign.START;
 	}
 
 	public void setFlexCrossAlign(FlexAlign flexCrossAlign) {
-		FlexAlign oldValue = this.flexCrossAlign;
-		this.flexCrossAlign = flexCrossAlign != null ? flexCrossAlign : FlexAlign.START;
-		firePropertyChange("flexCrossAlign", oldValue, this.flexCrossAlign);
+		FlexAlign oldValue = getFlexCrossAlign();
+		FlexAlign newValue = flexCrossAlign != null ? flexCrossAlign : FlexAlign.START;
+		if (layoutState == null) {
+			if (newValue == oldValue) {
+				return;
+			}
+			layoutState = new LayoutState();
+		}
+		layoutState.flexCrossAlign = newValue;
+		firePropertyChange(ModelProperty.FLEX_CROSS_ALIGN, oldValue, newValue);
 	}
 
 	public FlexAlign getFlexTrackAlign() {
-		return flexTrackAlign;
+		return layoutState != null ? layoutState.flexTrackAlign : FlexAlign.START;
 	}
 
 	public void setFlexTrackAlign(FlexAlign flexTrackAlign) {
-		FlexAlign oldValue = this.flexTrackAlign;
-		this.flexTrackAlign = flexTrackAlign != null ? flexTrackAlign : FlexAlign.START;
-		firePropertyChange("flexTrackAlign", oldValue, this.flexTrackAlign);
+		FlexAlign oldValue = getFlexTrackAlign();
+		FlexAlign newValue = flexTrackAlign != null ? flexTrackAlign : FlexAlign.START;
+		if (layoutState == null) {
+			if (newValue == oldValue) {
+				return;
+			}
+			layoutState = new LayoutState();
+		}
+		layoutState.flexTrackAlign = newValue;
+		firePropertyChange(ModelProperty.FLEX_TRACK_ALIGN, oldValue, newValue);
 	}
 
 	public int getPadRow() {
-		return padRow;
+		return layoutState != null ? layoutState.padRow : 0;
 	}
 
 	public void setPadRow(int padRow) {
-		int oldValue = this.padRow;
-		this.padRow = padRow;
-		firePropertyChange("padRow", oldValue, padRow);
+		int oldValue = getPadRow();
+		if (layoutState == null) {
+			if (padRow == oldValue) {
+				return;
+			}
+			layoutState = new LayoutState();
+		}
+		layoutState.padRow = padRow;
+		fireIntPropertyChange(ModelProperty.PAD_ROW, oldValue, padRow);
 	}
 
 	public int getPadColumn() {
-		return padColumn;
+		return layoutState != null ? layoutState.padColumn : 0;
 	}
 
 	public void setPadColumn(int padColumn) {
-		int oldValue = this.padColumn;
-		this.padColumn = padColumn;
-		firePropertyChange("padColumn", oldValue, padColumn);
+		int oldValue = getPadColumn();
+		if (layoutState == null) {
+			if (padColumn == oldValue) {
+				return;
+			}
+			layoutState = new LayoutState();
+		}
+		layoutState.padColumn = padColumn;
+		fireIntPropertyChange(ModelProperty.PAD_COLUMN, oldValue, padColumn);
+	}
+
+	@Override
+	public Object getPropertyValue(ModelProperty property) {
+		return switch (property) {
+			case NAME -> getName();
+			case WIDGET_TYPE -> getWidgetType();
+			case X -> getX();
+			case Y -> getY();
+			case WIDTH -> getWidth();
+			case HEIGHT -> getHeight();
+			case TEXT -> getText();
+			case BG_COLOR -> getBgColor();
+			case TEXT_COLOR -> getTextColor();
+			case BORDER_WIDTH -> getBorderWidth();
+			case BORDER_COLOR -> getBorderColor();
+			case RADIUS -> getRadius();
+			case IMAGE_SOURCE -> getImageSource();
+			case CHECKED -> isChecked();
+			case VALUE -> getValue();
+			case MIN_VALUE -> getMinValue();
+			case MAX_VALUE -> getMaxValue();
+			case ROW_COUNT -> getRowCount();
+			case COLUMN_COUNT -> getColumnCount();
+			case TABLE_DATA -> getTableData();
+			case LAYOUT_TYPE -> getLayoutType();
+			case FLEX_FLOW -> getFlexFlow();
+			case FLEX_MAIN_ALIGN -> getFlexMainAlign();
+			case FLEX_CROSS_ALIGN -> getFlexCrossAlign();
+			case FLEX_TRACK_ALIGN -> getFlexTrackAlign();
+			case PAD_ROW -> getPadRow();
+			case PAD_COLUMN -> getPadColumn();
+			default -> throw new IllegalArgumentException("Unsupported widget property: " + property);
+		};
+	}
+
+	@Override
+	public void setPropertyValue(ModelProperty property, Object value) {
+		switch (property) {
+			case NAME -> setName((String) value);
+			case WIDGET_TYPE -> setWidgetType((WidgetType) value);
+			case X -> setX((Integer) value);
+			case Y -> setY((Integer) value);
+			case WIDTH -> setWidth((Integer) value);
+			case HEIGHT -> setHeight((Integer) value);
+			case TEXT -> setText((String) value);
+			case BG_COLOR -> setBgColor((Integer) value);
+			case TEXT_COLOR -> setTextColor((Integer) value);
+			case BORDER_WIDTH -> setBorderWidth((Integer) value);
+			case BORDER_COLOR -> setBorderColor((Integer) value);
+			case RADIUS -> setRadius((Integer) value);
+			case IMAGE_SOURCE -> setImageSource((String) value);
+			case CHECKED -> setChecked((Boolean) value);
+			case VALUE -> setValue((Integer) value);
+			case MIN_VALUE -> setMinValue((Integer) value);
+			case MAX_VALUE -> setMaxValue((Integer) value);
+			case ROW_COUNT -> setRowCount((Integer) value);
+			case COLUMN_COUNT -> setColumnCount((Integer) value);
+			case TABLE_DATA -> setTableData((String) value);
+			case LAYOUT_TYPE -> setLayoutType((LayoutType) value);
+			case FLEX_FLOW -> setFlexFlow((FlexFlow) value);
+			case FLEX_MAIN_ALIGN -> setFlexMainAlign((FlexAlign) value);
+			case FLEX_CROSS_ALIGN -> setFlexCrossAlign((FlexAlign) value);
+			case FLEX_TRACK_ALIGN -> setFlexTrackAlign((FlexAlign) value);
+			case PAD_ROW -> setPadRow((Integer) value);
+			case PAD_COLUMN -> setPadColumn((Integer) value);
+			default -> throw new IllegalArgumentException("Unsupported widget property: " + property);
+		}
 	}
 
 	/**
@@ -523,16 +996,7 @@ public class LvglWidget extends ModelElement {
 	 * @return the C variable name
 	 */
 	public String getVariableName() {
-		String varName = name.replaceAll("[^a-zA-Z0-9_]", "_");
-		// C identifiers cannot start with a digit
-		if (!varName.isEmpty() && Character.isDigit(varName.charAt(0))) {
-			varName = "_" + varName;
-		}
-		// Handle empty name
-		if (varName.isEmpty()) {
-			varName = "_widget";
-		}
-		return varName;
+		return toVariableName(name, "_widget");
 	}
 
 	/**
@@ -541,11 +1005,6 @@ public class LvglWidget extends ModelElement {
 	 * @return true if the widget can contain children
 	 */
 	public boolean isContainer() {
-		return widgetType == WidgetType.CONTAINER
-				|| widgetType == WidgetType.TABVIEW
-				|| widgetType == WidgetType.TILEVIEW
-				|| widgetType == WidgetType.LIST
-				|| widgetType == WidgetType.MENU
-				|| widgetType == WidgetType.WIN;
+		return widgetType.isContainer();
 	}
 }
@@ -0,0 +1,379 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.FlexAlign;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.FlexFlow;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.LayoutType;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+
+/**
+ * Immutable snapshot of an {@link LvglWidget} and its subtree.
+ * Created by {@link LvglWidget#snapshot()}; safe to read from any thread.
+ */
+public final class LvglWidgetSnapshot {
+
+	private record ValueRange(int value, int minValue, int maxValue) {
+	}
+
+	private record Table(int rowCount, int columnCount, String tableData) {
+	}
+
+	private record Layout(LayoutType layoutType, FlexFlow flexFlow, FlexAlign flexMainAlign,
+			FlexAlign flexCrossAlign, FlexAlign flexTrackAlign, int padRow, int padColumn) {
+	}
+
+	private static final ValueRange DEFAULT_VALUE_RANGE = new ValueRange(0, 0, LvglWidget.DEFAULT_MAX_VALUE);
+	private static final Table DEFAULT_TABLE = new Table(LvglWidget.DEFAULT_ROW_COUNT,
+			LvglWidget.DEFAULT_COLUMN_COUNT, "");
+	private static final Layout DEFAULT_LAYOUT = new Layout(LayoutType.NONE, FlexFlow.ROW, FlexAlign.START,
+			FlexAlign.START, FlexAlign.START, 0, 0);
+
+	private final long id;
+	private final String name;
+	private final WidgetType widgetType;
+	private final int x;
+	private final int y;
+	private final int width;
+	private final int height;
+	private final String text;
+	private final int bgColor;
+	private final int textColor;
+	private final int borderWidth;
+	private final int borderColor;
+	private final int radius;
+	private final String imageSource;
+	private final boolean checked;
+	// Type-specific properties, null while all values are at their defaults
+	private final ValueRange valueRange;
+	private final Table table;
+	private final Layout layout;
+	private final List<LvglWidgetSnapshot> children;
+	/** Hash of the widget's own properties */
+	private final long propertyHash;
+	/** Hash of the properties of the whole subtree, including child order */
+	private final long subtreeHash;
+
+	LvglWidgetSnapshot(LvglWidget widget, List<LvglWidgetSnapshot> children) {
+		this.id = widget.getId();
+		this.name = widget.getName();
+		this.widgetType = widget.getWidgetType();
+		this.x = widget.getX();
+		this.y = widget.getY();
+		this.width = widget.getWidth();
+		this.height = widget.getHeight();
+		this.text = widget.getText();
+		this.bgColor = widget.getBgColor();
+		this.textColor = widget.getTextColor();
+		this.borderWidth = widget.getBorderWidth();
+		this.borderColor = widget.getBorderColor();
+		this.radius = widget.getRadius();
+		this.imageSource = widget.getImageSource();
+		this.checked = widget.isChecked();
+		this.valueRange = nonDefault(new ValueRange(widget.getValue(), widget.getMinValue(), widget.getMaxValue()),
+				DEFAULT_VALUE_RANGE);
+		this.table = nonDefault(new Table(widget.getRowCount(), widget.getColumnCount(), widget.getTableData()),
+				DEFAULT_TABLE);
+		this.layout = nonDefault(new Layout(widget.getLayoutType(), widget.getFlexFlow(), widget.getFlexMainAlign(),
+				widget.getFlexCrossAlign(), widget.getFlexTrackAlign(), widget.getPadRow(), widget.getPadColumn()),
+				DEFAULT_LAYOUT);
+		this.children = children.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(children);
+		this.propertyHash = computePropertyHash();
+		long hash = propertyHash;
+		for (LvglWidgetSnapshot child : children) {
+			hash = mix(hash, child.subtreeHash);
+		}
+		this.subtreeHash = mix(hash, children.size());
+	}
+
+	/**
+	 * Creates a copy of a snapshot with other children.
+	 */
+	LvglWidgetSnapshot(LvglWidgetSnapshot source, List<LvglWidgetSnapshot> children) {
+		this.id = source.id;
+		this.name = source.name;
+		this.widgetType = source.widgetType;
+		this.x = source.x;
+		this.y = source.y;
+		this.width = source.width;
+		this.height = source.height;
+		this.text = source.text;
+		this.bgColor = source.bgColor;
+		this.textColor = source.textColor;
+		this.borderWidth = source.borderWidth;
+		this.borderColor = source.borderColor;
+		this.radius = source.radius;
+		this.imageSource = source.imageSource;
+		this.checked = source.checked;
+		this.valueRange = source.valueRange;
+		this.table = source.table;
+		this.layout = source.layout;
+		this.children = children.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(children);
+		this.propertyHash = source.propertyHash;
+		long hash = propertyHash;
+		for (LvglWidgetSnapshot child : children) {
+			hash = mix(hash, child.subtreeHash);
+		}
+		this.subtreeHash = mix(hash, children.size());
+	}
+
+	private static <T> T nonDefault(T state, T defaultState) {
+		return state.equals(defaultState) ? null : state;
+	}
+
+	private ValueRange valueRange() {
+		return valueRange != null ? valueRange : DEFAULT_VALUE_RANGE;
+	}
+
+	private Table table() {
+		return table != null ? table : DEFAULT_TABLE;
+	}
+
+	private Layout layout() {
+		return layout != null ? layout : DEFAULT_LAYOUT;
+	}
+
+	private long computePropertyHash() {
+		long hash = mix(id, hash(name));
+		hash = mix(hash, widgetType.ordinal());
+		hash = mix(hash, ((long) x << 32) | (y & 0xFFFFFFFFL));
+		hash = mix(hash, ((long) width << 32) | (height & 0xFFFFFFFFL));
+		hash = mix(hash, hash(text));
+		hash = mix(hash, ((long) bgColor << 32) | (textColor & 0xFFFFFFFFL));
+		hash = mix(hash, ((long) borderWidth << 32) | (borderColor & 0xFFFFFFFFL));
+		hash = mix(hash, ((long) radius << 32) | (checked ? 1 : 0));
+		hash = mix(hash, hash(imageSource));
+		hash = mix(hash, ((long) getValue() << 32) | (getMinValue() & 0xFFFFFFFFL));
+		hash = mix(hash, ((long) getMaxValue() << 32) | (getRowCount() & 0xFFFFFFFFL));
+		hash = mix(hash, getColumnCount());
+		hash = mix(hash, hash(getTableData()));
+		hash = mix(hash, (getLayoutType().ordinal() << 24) | (getFlexFlow().ordinal() << 16)
+				| (getFlexMainAlign().ordinal() << 8) | getFlexCrossAlign().ordinal());
+		hash = mix(hash, ((long) getFlexTrackAlign().ordinal() << 32) | (getPadRow() & 0xFFFFFFFFL));
+		return mix(hash, getPadColumn());
+	}
+
+	static long mix(long hash, long value) {
+		long h = (hash ^ value) * 0x9E3779B97F4A7C15L;
+		return h ^ (h >>> 29);
+	}
+
+	static long hash(String string) {
+		if (string == null) {
+			return 0;
+		}
+		long h = 0xCBF29CE484222325L;
+		for (int i = 0; i < string.length(); i++) {
+			h = (h ^ string.charAt(i)) * 0x100000001B3L;
+		}
+		return h;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public WidgetType getWidgetType() {
+		return widgetType;
+	}
+
+	public int getX() {
+		return x;
+	}
+
+	public int getY() {
+		return y;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public int getBgColor() {
+		return bgColor;
+	}
+
+	public int getTextColor() {
+		return textColor;
+	}
+
+	public int getBorderWidth() {
+		return borderWidth;
+	}
+
+	public int getBorderColor() {
+		return borderColor;
+	}
+
+	public int getRadius() {
+		return radius;
+	}
+
+	public String getImageSource() {
+		return imageSource;
+	}
+
+	public boolean isChecked() {
+		return checked;
+	}
+
+	public int getValue() {
+		return valueRange().value();
+	}
+
+	public int getMinValue() {
+		return valueRange().minValue();
+	}
+
+	public int getMaxValue() {
+		return valueRange().maxValue();
+	}
+
+	public int getRowCount() {
+		return table().rowCount();
+	}
+
+	public int getColumnCount() {
+		return table().columnCount();
+	}
+
+	public String getTableData() {
+		return table().tableData();
+	}
+
+	public LayoutType getLayoutType() {
+		return layout().layoutType();
+	}
+
+	public FlexFlow getFlexFlow() {
+		return layout().flexFlow();
+	}
+
+	public FlexAlign getFlexMainAlign() {
+		return layout().flexMainAlign();
+	}
+
+	public FlexAlign getFlexCrossAlign() {
+		return layout().flexCrossAlign();
+	}
+
+	public FlexAlign getFlexTrackAlign() {
+		return layout().flexTrackAlign();
+	}
+
+	public int getPadRow() {
+		return layout().padRow();
+	}
+
+	public int getPadColumn() {
+		return layout().padColumn();
+	}
+
+	/**
+	 * Gets the snapshots of the child widgets.
+	 *
+	 * @return the unmodifiable list of children
+	 */
+	public List<LvglWidgetSnapshot> getChildren() {
+		return children;
+	}
+
+	/**
+	 * Generate variable name for this widget in C code.
+	 *
+	 * @return the C variable name
+	 * @see LvglWidget#getVariableName()
+	 */
+	public String getVariableName() {
+		return ModelElement.toVariableName(name, "_widget");
+	}
+
+	/**
+	 * Checks if this widget type can contain children.
+	 *
+	 * @return true if the widget can contain children
+	 */
+	public boolean isContainer() {
+		return widgetType.isContainer();
+	}
+
+	/**
+	 * Gets the hash of the widget's own properties. Widgets with different
+	 * property hashes differ in at least one property.
+	 *
+	 * @return the property hash
+	 */
+	public long getPropertyHash() {
+		return propertyHash;
+	}
+
+	/**
+	 * Gets the hash of the whole subtree. Subtrees with equal hashes are
+	 * treated as unchanged by {@link LvglModelDiff}.
+	 *
+	 * @return the subtree hash
+	 */
+	public long getSubtreeHash() {
+		return subtreeHash;
+	}
+
+	/**
+	 * Gets the value of a property by its identifier. Primitive values are
+	 * returned boxed.
+	 *
+	 * @param property the property
+	 * @return the value
+	 * @throws IllegalArgumentException if widgets have no such property
+	 */
+	public Object getPropertyValue(ModelProperty property) {
+		return switch (property) {
+			case NAME -> name;
+			case WIDGET_TYPE -> widgetType;
+			case X -> x;
+			case Y -> y;
+			case WIDTH -> width;
+			case HEIGHT -> height;
+			case TEXT -> text;
+			case BG_COLOR -> bgColor;
+			case TEXT_COLOR -> textColor;
+			case BORDER_WIDTH -> borderWidth;
+			case BORDER_COLOR -> borderColor;
+			case RADIUS -> radius;
+			case IMAGE_SOURCE -> imageSource;
+			case CHECKED -> checked;
+			case VALUE -> getValue();
+			case MIN_VALUE -> getMinValue();
+			case MAX_VALUE -> getMaxValue();
+			case ROW_COUNT -> getRowCount();
+			case COLUMN_COUNT -> getColumnCount();
+			case TABLE_DATA -> getTableData();
+			case LAYOUT_TYPE -> getLayoutType();
+			case FLEX_FLOW -> getFlexFlow();
+			case FLEX_MAIN_ALIGN -> getFlexMainAlign();
+			case FLEX_CROSS_ALIGN -> getFlexCrossAlign();
+			case FLEX_TRACK_ALIGN -> getFlexTrackAlign();
+			case PAD_ROW -> getPadRow();
+			case PAD_COLUMN -> getPadColumn();
+			default -> throw new IllegalArgumentException("Unsupported widget property: " + property);
+		};
+	}
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import java.util.Objects;
+
+/**
+ * A problem found in the XML text of a screen by
+ * {@link LvglXmlSerializer#load(String, java.util.List)}.
+ */
+public final class LvglXmlProblem {
+
+	/**
+	 * Problem severity. Errors prevent the text from being loaded, warnings
+	 * mark values replaced by their defaults.
+	 */
+	public enum Severity {
+		WARNING, ERROR
+	}
+
+	private final Severity severity;
+	private final String message;
+	private final int line;
+	private final int column;
+
+	/**
+	 * Creates a problem.
+	 *
+	 * @param severity the severity
+	 * @param message the message
+	 * @param line the 1-based line, or -1 if unknown
+	 * @param column the 1-based column, or -1 if unknown
+	 */
+	public LvglXmlProblem(Severity severity, String message, int line, int column) {
+		this.severity = severity;
+		this.message = message;
+		this.line = line;
+		this.column = column;
+	}
+
+	public Severity getSeverity() {
+		return severity;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public int getLine() {
+		return line;
+	}
+
+	public int getColumn() {
+		return column;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof LvglXmlProblem other && other.severity == severity && other.line == line
+				&& other.column == column && Objects.equals(other.message, message);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(severity, message, line, column);
+	}
+
+	@Override
+	public String toString() {
+		return severity + " " + line + ":" + column + ": " + message;
+	}
+}
@@ -6,27 +6,42 @@
  ******************************************************************************/
 package com.tlcsdm.eclipse.graphiti.demo.model;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.function.Function;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
 
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.FlexAlign;
 import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.FlexFlow;
@@ -39,9 +54,10 @@ import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
  */
 public class LvglXmlSerializer {
 
-	private static final String ELEMENT_SCREEN = "screen";
-	private static final String ELEMENT_WIDGET = "widget";
-	private static final String ELEMENT_CHILDREN = "children";
+	static final String ELEMENT_SCREEN = "screen";
+	static final String ELEMENT_WIDGET = "widget";
+	static final String ELEMENT_CHILDREN = "children";
+	private static final String ATTR_ID = "id";
 	private static final String ATTR_NAME = "name";
 	private static final String ATTR_WIDTH = "width";
 	private static final String ATTR_HEIGHT = "height";
@@ -78,10 +94,22 @@ public class LvglXmlSerializer {
 	 * @throws IOException if an I/O error occurs
 	 */
 	public void save(LvglScreen screen, OutputStream outputStream) throws IOException {
+		save(screen.snapshot(), outputStream);
+	}
+
+	/**
+	 * Saves a screen snapshot to an output stream in XML format.
+	 * Can be called from any thread.
+	 *
+	 * @param screen the screen snapshot to save
+	 * @param outputStream the output stream to write to
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void save(LvglScreenSnapshot screen, OutputStream outputStream) throws IOException {
 		try {
 			Document doc = createDocument(screen);
-			writeDocument(doc, outputStream);
-		} catch (ParserConfigurationException | TransformerException e) {
+			writeDocument(doc, new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+		} catch (ParserConfigurationException e) {
 			throw new IOException("Failed to save screen to XML", e);
 		}
 	}
@@ -94,14 +122,48 @@ public class LvglXmlSerializer {
 	 * @throws IOException if an error occurs
 	 */
 	public String saveToString(LvglScreen screen) throws IOException {
+		return saveToString(screen.snapshot());
+	}
+
+	/**
+	 * Saves a screen snapshot to a string in XML format.
+	 * Can be called from any thread.
+	 *
+	 * @param screen the screen snapshot to save
+	 * @return the XML string
+	 * @throws IOException if an error occurs
+	 */
+	public String saveToString(LvglScreenSnapshot screen) throws IOException {
 		try {
 			Document doc = createDocument(screen);
-			return writeDocumentToString(doc);
-		} catch (ParserConfigurationException | TransformerException e) {
+			StringWriter writer = new StringWriter();
+			writeDocument(doc, writer);
+			return writer.toString();
+		} catch (ParserConfigurationException e) {
 			throw new IOException("Failed to save screen to XML string", e);
 		}
 	}
 
+	/**
+	 * Saves a single widget with its children to a string, in the form read
+	 * by {@link #loadWidget(String)}. Can be called from any thread.
+	 *
+	 * @param widget the widget snapshot to save
+	 * @return the XML string
+	 * @throws IOException if an error occurs
+	 */
+	public String saveWidgetToString(LvglWidgetSnapshot widget) throws IOException {
+		try {
+			Document doc = createDocumentBuilder().newDocument();
+			appendWidgetElements(doc, doc, List.of(widget));
+			StringWriter writer = new StringWriter();
+			writeDocument(doc, writer);
+			return writer.toString();
+		} catch (ParserConfigurationException e) {
+			throw new IOException("Failed to save widget to XML string", e);
+		}
+	}
+
 	/**
 	 * Loads an LvglScreen from an input stream.
 	 *
@@ -111,9 +173,7 @@ public class LvglXmlSerializer {
 	 */
 	public LvglScreen load(InputStream inputStream) throws IOException {
 		try {
-			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-			factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-			DocumentBuilder builder = factory.newDocumentBuilder();
+			DocumentBuilder builder = createDocumentBuilder();
 			Document doc = builder.parse(inputStream);
 			return parseDocument(doc);
 		} catch (ParserConfigurationException | SAXException e) {
@@ -121,7 +181,461 @@ public class LvglXmlSerializer {
 		}
 	}
 
-	private Document createDocument(LvglScreen screen) throws ParserConfigurationException {
+	/**
+	 * Loads a single widget element with its children, such as the text of
+	 * one widget cut out of a screen document.
+	 *
+	 * @param xml the XML text of the widget element
+	 * @return the detached widget
+	 * @throws IOException if the text is not well-formed or not a widget
+	 *         element
+	 */
+	public LvglWidget loadWidget(String xml) throws IOException {
+		try {
+			DocumentBuilder builder = createDocumentBuilder();
+			Document doc = builder.parse(new InputSource(new StringReader(xml)));
+			Element element = doc.getDocumentElement();
+			if (!ELEMENT_WIDGET.equals(element.getTagName())) {
+				throw new IOException("Root element must be '" + ELEMENT_WIDGET + "'");
+			}
+			return parseWidgets(List.of(element)).get(0);
+		} catch (ParserConfigurationException | SAXException e) {
+			throw new IOException("Failed to load widget from XML", e);
+		}
+	}
+
+	/**
+	 * Loads a screen from XML text, reporting problems instead of failing.
+	 * Malformed XML is reported as an error. Attribute values the loader
+	 * cannot read, and replaces by their defaults, are reported as warnings.
+	 *
+	 * @param xml the XML text of the screen
+	 * @param problems the list the problems are added to
+	 * @return the loaded screen, or null if the text has errors
+	 */
+	public LvglScreen load(String xml, List<LvglXmlProblem> problems) {
+		// The DOM keeps no element locations, so a streaming pass checks the
+		// text first
+		if (!check(xml, problems)) {
+			return null;
+		}
+		try {
+			DocumentBuilder builder = createDocumentBuilder();
+			return parseDocument(builder.parse(new InputSource(new StringReader(xml))));
+		} catch (SAXParseException e) {
+			problems.add(new LvglXmlProblem(LvglXmlProblem.Severity.ERROR, e.getMessage(), e.getLineNumber(),
+					e.getColumnNumber()));
+		} catch (ParserConfigurationException | SAXException | IOException e) {
+			problems.add(new LvglXmlProblem(LvglXmlProblem.Severity.ERROR, e.getMessage(), -1, -1));
+		}
+		return null;
+	}
+
+	/**
+	 * Reads only the screen properties from an input stream. Parsing stops at
+	 * the root element, so the cost does not depend on the number of widgets.
+	 *
+	 * @param inputStream the input stream to read from
+	 * @return the screen header
+	 * @throws IOException if an I/O error occurs or the root is not a screen
+	 */
+	public LvglScreenHeader loadHeader(InputStream inputStream) throws IOException {
+		XMLStreamReader reader = null;
+		try {
+			reader = createInputFactory().createXMLStreamReader(inputStream);
+			while (reader.hasNext()) {
+				if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+					if (!ELEMENT_SCREEN.equals(reader.getLocalName())) {
+						throw new IOException("Root element must be '" + ELEMENT_SCREEN + "'");
+					}
+					String name = reader.getAttributeValue(null, ATTR_NAME);
+					return new LvglScreenHeader(name != null ? name : "",
+							parseInt(reader.getAttributeValue(null, ATTR_WIDTH), 480),
+							parseInt(reader.getAttributeValue(null, ATTR_HEIGHT), 320),
+							parseInt(reader.getAttributeValue(null, ATTR_BG_COLOR), 0xFFFFFF));
+				}
+			}
+			throw new IOException("Missing root element '" + ELEMENT_SCREEN + "'");
+		} catch (XMLStreamException e) {
+			throw new IOException("Failed to read screen header from XML", e);
+		} finally {
+			close(reader);
+		}
+	}
+
+	/**
+	 * Loads a screen for reading only, with the widgets nested in its
+	 * top-level widgets left in the text until they are needed.
+	 *
+	 * @param content the content of a .graphxml file
+	 * @return the summary of the screen
+	 * @throws IOException if the content is not a well-formed screen document
+	 */
+	public LvglScreenSummary loadSummary(byte[] content) throws IOException {
+		Map<LvglWidget, Integer> descendantCounts = new IdentityHashMap<>();
+		LvglScreen screen = loadTopLevel(new ByteArrayInputStream(content), descendantCounts);
+		return new LvglScreenSummary(content, screen, descendantCounts);
+	}
+
+	/**
+	 * Estimates the number of widgets in a .graphxml file by counting the
+	 * widget start tags in its bytes, without parsing it. Widget tags in
+	 * comments or CDATA sections are counted too.
+	 *
+	 * @param content the content of a .graphxml file
+	 * @return the number of widget start tags
+	 */
+	public static int countWidgetElements(byte[] content) {
+		byte[] tag = ("<" + ELEMENT_WIDGET).getBytes(StandardCharsets.US_ASCII);
+		int count = 0;
+		int end = content.length - tag.length;
+		for (int i = 0; i < end; i++) {
+			if (content[i] != '<') {
+				continue;
+			}
+			int j = 1;
+			while (j < tag.length && content[i + j] == tag[j]) {
+				j++;
+			}
+			byte next = content[i + j];
+			if (j == tag.length && (next == '>' || next == '/' || next == ' ' || next == '\t' || next == '\n'
+					|| next == '\r')) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Reads the screen properties and the top-level widgets in one streaming
+	 * pass. The widgets nested in them are only counted, not built.
+	 *
+	 * @param inputStream the input stream to read from
+	 * @param descendantCounts receives the number of widgets nested in each
+	 *        top-level widget that has any
+	 * @return the screen with the top-level widgets, without their children
+	 */
+	LvglScreen loadTopLevel(InputStream inputStream, Map<LvglWidget, Integer> descendantCounts)
+			throws IOException {
+		XMLStreamReader reader = null;
+		try {
+			reader = createInputFactory().createXMLStreamReader(inputStream);
+			ElementNesting nesting = new ElementNesting();
+			Function<String, String> attributes = streamAttributes(reader);
+			LvglScreen screen = null;
+			LvglWidget topLevel = null;
+			int descendants = 0;
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					int depth = nesting.enter(reader.getLocalName());
+					if (screen == null) {
+						screen = new LvglScreen();
+						screen.setName(attributes.apply(ATTR_NAME));
+						screen.setWidth(parseIntAttribute(attributes, ATTR_WIDTH, 480));
+						screen.setHeight(parseIntAttribute(attributes, ATTR_HEIGHT, 320));
+						screen.setBgColor(parseIntAttribute(attributes, ATTR_BG_COLOR, 0xFFFFFF));
+					} else if (depth == 0) {
+						topLevel = parseWidget(attributes);
+						screen.addWidget(topLevel);
+						descendants = 0;
+					} else if (depth > 0) {
+						descendants++;
+					}
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+					if (nesting.leave() == 0 && descendants > 0) {
+						descendantCounts.put(topLevel, descendants);
+					}
+				}
+			}
+			if (screen == null) {
+				throw new IOException("Missing root element '" + ELEMENT_SCREEN + "'");
+			}
+			return screen;
+		} catch (XMLStreamException e) {
+			throw new IOException("Failed to load screen from XML", e);
+		} finally {
+			close(reader);
+		}
+	}
+
+	/**
+	 * Reads one top-level widget with its children in a streaming pass. The
+	 * widgets before it are skipped without being built, and reading stops at
+	 * its end.
+	 *
+	 * @param inputStream the input stream to read from
+	 * @param index the index of the top-level widget
+	 * @return the detached widget
+	 * @throws IOException if an I/O error occurs or there is no top-level
+	 *         widget at the index
+	 */
+	LvglWidget loadTopLevelWidget(InputStream inputStream, int index) throws IOException {
+		XMLStreamReader reader = null;
+		try {
+			reader = createInputFactory().createXMLStreamReader(inputStream);
+			ElementNesting nesting = new ElementNesting();
+			Function<String, String> attributes = streamAttributes(reader);
+			List<LvglWidget> open = new ArrayList<>();
+			int topLevelIndex = -1;
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					int depth = nesting.enter(reader.getLocalName());
+					if (depth == 0) {
+						topLevelIndex++;
+					}
+					if (depth >= 0 && topLevelIndex == index) {
+						setAt(open, depth, parseWidget(attributes));
+					}
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+					int depth = nesting.leave();
+					if (depth >= 0 && topLevelIndex == index) {
+						// Attached when left, like parseWidgets does
+						LvglWidget widget = open.get(depth);
+						if (depth == 0) {
+							return widget;
+						}
+						open.get(depth - 1).addChild(widget);
+					}
+				}
+			}
+			throw new IOException("No top-level widget at index " + index);
+		} catch (XMLStreamException e) {
+			throw new IOException("Failed to load widget from XML", e);
+		} finally {
+			close(reader);
+		}
+	}
+
+	private static Function<String, String> streamAttributes(XMLStreamReader reader) {
+		// Missing attributes read as empty strings, as in the DOM
+		return name -> Objects.requireNonNullElse(reader.getAttributeValue(null, name), "");
+	}
+
+	private static void close(XMLStreamReader reader) {
+		if (reader != null) {
+			try {
+				reader.close();
+			} catch (XMLStreamException e) {
+				// Ignore, the stream is owned by the caller
+			}
+		}
+	}
+
+	/**
+	 * Follows the element nesting of a streamed screen document, accepting
+	 * widget elements where the DOM loader finds them: below the screen, and
+	 * in the children element of a widget.
+	 */
+	private static final class ElementNesting {
+
+		private static final byte IGNORED = 0;
+		private static final byte SCREEN = 1;
+		private static final byte WIDGET = 2;
+		private static final byte CHILDREN = 3;
+
+		private byte[] kinds = new byte[16];
+		private int depth;
+		private int widgetDepth;
+
+		/**
+		 * Enters a start element.
+		 *
+		 * @return the depth of the widget below the top level, or -1 if the
+		 *         element is not a widget
+		 * @throws IOException if the root element is not a screen
+		 */
+		int enter(String name) throws IOException {
+			byte kind;
+			if (depth == 0) {
+				if (!ELEMENT_SCREEN.equals(name)) {
+					throw new IOException("Root element must be '" + ELEMENT_SCREEN + "'");
+				}
+				kind = SCREEN;
+			} else {
+				byte parent = kinds[depth - 1];
+				if (ELEMENT_WIDGET.equals(name) && (parent == SCREEN || parent == CHILDREN)) {
+					kind = WIDGET;
+				} else if (ELEMENT_CHILDREN.equals(name) && parent == WIDGET) {
+					kind = CHILDREN;
+				} else {
+					kind = IGNORED;
+				}
+			}
+			if (depth == kinds.length) {
+				kinds = Arrays.copyOf(kinds, depth * 2);
+			}
+			kinds[depth++] = kind;
+			return kind == WIDGET ? widgetDepth++ : -1;
+		}
+
+		/**
+		 * Leaves an end element.
+		 *
+		 * @return the depth of the widget left, or -1 if the element is not a
+		 *         widget
+		 */
+		int leave() {
+			return kinds[--depth] == WIDGET ? --widgetDepth : -1;
+		}
+	}
+
+	private static DocumentBuilder createDocumentBuilder() throws ParserConfigurationException {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+		return factory.newDocumentBuilder();
+	}
+
+	private static XMLInputFactory createInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory;
+	}
+
+	/**
+	 * Checks that the text is a well-formed screen document and that the
+	 * screen and widget attributes have values the loader can read.
+	 *
+	 * @return false if the text cannot be loaded
+	 */
+	private static boolean check(String xml, List<LvglXmlProblem> problems) {
+		XMLStreamReader reader = null;
+		try {
+			reader = createInputFactory().createXMLStreamReader(new StringReader(xml));
+			boolean rootSeen = false;
+			while (reader.hasNext()) {
+				int event = reader.next();
+				if (event == XMLStreamConstants.DTD) {
+					problems.add(error("Document type declarations are not allowed", reader.getLocation()));
+					return false;
+				}
+				if (event != XMLStreamConstants.START_ELEMENT) {
+					continue;
+				}
+				String name = reader.getLocalName();
+				if (!rootSeen && !ELEMENT_SCREEN.equals(name)) {
+					problems.add(error("Root element must be '" + ELEMENT_SCREEN + "'", reader.getLocation()));
+					return false;
+				}
+				if (!rootSeen || ELEMENT_WIDGET.equals(name)) {
+					checkAttributes(reader, !rootSeen, problems);
+				}
+				rootSeen = true;
+			}
+			if (!rootSeen) {
+				problems.add(new LvglXmlProblem(LvglXmlProblem.Severity.ERROR,
+						"Missing root element '" + ELEMENT_SCREEN + "'", -1, -1));
+			}
+			return rootSeen;
+		} catch (XMLStreamException e) {
+			// The message starts with the location, which the problem holds
+			String message = e.getMessage();
+			int index = message != null ? message.indexOf("Message: ") : -1;
+			problems.add(error(index >= 0 ? message.substring(index + 9) : message, e.getLocation()));
+			return false;
+		} finally {
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (XMLStreamException e) {
+					// Ignore, nothing to release for a string
+				}
+			}
+		}
+	}
+
+	private static LvglXmlProblem error(String message, Location location) {
+		return location != null
+				? new LvglXmlProblem(LvglXmlProblem.Severity.ERROR, message, location.getLineNumber(),
+						location.getColumnNumber())
+				: new LvglXmlProblem(LvglXmlProblem.Severity.ERROR, message, -1, -1);
+	}
+
+	private static void checkAttributes(XMLStreamReader reader, boolean screen, List<LvglXmlProblem> problems) {
+		for (int i = 0; i < reader.getAttributeCount(); i++) {
+			String name = reader.getAttributeLocalName(i);
+			String value = reader.getAttributeValue(i);
+			// Empty values are read as defaults, like missing attributes
+			String expected = value.isEmpty() ? null
+					: screen ? expectedScreenValue(name, value) : expectedWidgetValue(name, value);
+			if (expected != null) {
+				// The location of a start element is its end, the line is still
+				// the line of the element in generated files
+				problems.add(new LvglXmlProblem(LvglXmlProblem.Severity.WARNING,
+						"Invalid value '" + value + "' of attribute '" + name + "', expected " + expected,
+						reader.getLocation().getLineNumber(), -1));
+			}
+		}
+	}
+
+	/**
+	 * Gets the values expected for a screen attribute.
+	 *
+	 * @return a description of the expected values, or null if the value is
+	 *         valid
+	 */
+	private static String expectedScreenValue(String name, String value) {
+		return switch (name) {
+			case ATTR_WIDTH, ATTR_HEIGHT, ATTR_BG_COLOR -> expectedInt(value);
+			default -> null;
+		};
+	}
+
+	/**
+	 * Gets the values expected for a widget attribute.
+	 *
+	 * @return a description of the expected values, or null if the value is
+	 *         valid
+	 */
+	private static String expectedWidgetValue(String name, String value) {
+		return switch (name) {
+			case ATTR_ID -> expectedLong(value);
+			case ATTR_TYPE -> expectedConstant(WidgetType.class, value);
+			case ATTR_X, ATTR_Y, ATTR_WIDTH, ATTR_HEIGHT, ATTR_BG_COLOR, ATTR_TEXT_COLOR, ATTR_BORDER_WIDTH,
+					ATTR_BORDER_COLOR, ATTR_RADIUS, ATTR_VALUE, ATTR_MIN_VALUE, ATTR_MAX_VALUE, ATTR_ROW_COUNT,
+					ATTR_COLUMN_COUNT, ATTR_PAD_ROW, ATTR_PAD_COLUMN -> expectedInt(value);
+			case ATTR_CHECKED -> "true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value) ? null
+					: "true or false";
+			case ATTR_LAYOUT_TYPE -> expectedConstant(LayoutType.class, value);
+			case ATTR_FLEX_FLOW -> expectedConstant(FlexFlow.class, value);
+			case ATTR_FLEX_MAIN_ALIGN, ATTR_FLEX_CROSS_ALIGN, ATTR_FLEX_TRACK_ALIGN ->
+				expectedConstant(FlexAlign.class, value);
+			default -> null;
+		};
+	}
+
+	private static String expectedInt(String value) {
+		try {
+			Integer.parseInt(value);
+			return null;
+		} catch (NumberFormatException e) {
+			return "an integer";
+		}
+	}
+
+	private static String expectedLong(String value) {
+		try {
+			Long.parseLong(value);
+			return null;
+		} catch (NumberFormatException e) {
+			return "an integer";
+		}
+	}
+
+	private static <E extends Enum<E>> String expectedConstant(Class<E> type, String value) {
+		StringJoiner names = new StringJoiner(", ", "one of ", "");
+		for (E constant : type.getEnumConstants()) {
+			if (constant.name().equals(value)) {
+				return null;
+			}
+			names.add(constant.name());
+		}
+		return names.toString();
+	}
+
+	private Document createDocument(LvglScreenSnapshot screen) throws ParserConfigurationException {
 		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
 		DocumentBuilder builder = factory.newDocumentBuilder();
 		Document doc = builder.newDocument();
@@ -132,19 +646,36 @@ public class LvglXmlSerializer {
 		screenElement.setAttribute(ATTR_HEIGHT, Integer.toString(screen.getHeight()));
 		screenElement.setAttribute(ATTR_BG_COLOR, Integer.toString(screen.getBgColor()));
 		doc.appendChild(screenElement);
-
-		for (LvglWidget widget : screen.getWidgets()) {
-			Element widgetElement = createWidgetElement(doc, widget);
-			screenElement.appendChild(widgetElement);
-		}
-
+		appendWidgetElements(doc, screenElement, screen.getWidgets());
 		return doc;
 	}
 
-	private Element createWidgetElement(Document doc, LvglWidget widget) {
+	/**
+	 * Appends the elements of widgets with their children to a node.
+	 */
+	private void appendWidgetElements(Document doc, Node node, List<LvglWidgetSnapshot> widgets) {
+		// Node receiving the widgets at each depth
+		List<Node> containers = new ArrayList<>();
+		containers.add(node);
+		TreeTraversal.walk(widgets, LvglWidgetSnapshot::getChildren, (widget, parent, index, depth) -> {
+			Element element = createWidgetElement(doc, widget);
+			containers.get(depth).appendChild(element);
+			if (!widget.getChildren().isEmpty()) {
+				Element childrenElement = doc.createElement(ELEMENT_CHILDREN);
+				element.appendChild(childrenElement);
+				setAt(containers, depth + 1, childrenElement);
+			}
+			return true;
+		});
+	}
+
+	private Element createWidgetElement(Document doc, LvglWidgetSnapshot widget) {
 		Element element = doc.createElement(ELEMENT_WIDGET);
 
 		// Basic properties
+		if (widget.getId() != 0) {
+			element.setAttribute(ATTR_ID, Long.toString(widget.getId()));
+		}
 		element.setAttribute(ATTR_NAME, widget.getName());
 		element.setAttribute(ATTR_TYPE, widget.getWidgetType().name());
 		element.setAttribute(ATTR_X, Integer.toString(widget.getX()));
@@ -211,43 +742,88 @@ public class LvglXmlSerializer {
 			}
 		}
 
-		// Add children
-		if (!widget.getChildren().isEmpty()) {
-			Element childrenElement = doc.createElement(ELEMENT_CHILDREN);
-			for (LvglWidget child : widget.getChildren()) {
-				Element childElement = createWidgetElement(doc, child);
-				childrenElement.appendChild(childElement);
-			}
-			element.appendChild(childrenElement);
-		}
-
 		return element;
 	}
 
-	private void writeDocument(Document doc, OutputStream outputStream) throws TransformerException {
-		TransformerFactory transformerFactory = TransformerFactory.newInstance();
-		Transformer transformer = transformerFactory.newTransformer();
-		transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-		transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-		transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
+	/**
+	 * Writes a document indented by four spaces per level. Written without a
+	 * transformer, which recurses once per element and overflows the stack on
+	 * deeply nested screens.
+	 */
+	private void writeDocument(Document doc, Writer writer) throws IOException {
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
+		IOException[] failure = new IOException[1];
+		TreeTraversal.walk(List.of(doc.getDocumentElement()), LvglXmlSerializer::getChildElements,
+				new TreeTraversal.Visitor<Element>() {
+					@Override
+					public boolean enter(Element element, Element parent, int index, int depth) {
+						try {
+							writeIndent(writer, depth);
+							writer.write('<');
+							writer.write(element.getTagName());
+							NamedNodeMap attributes = element.getAttributes();
+							for (int i = 0; i < attributes.getLength(); i++) {
+								Node attribute = attributes.item(i);
+								writer.write(' ');
+								writer.write(attribute.getNodeName());
+								writer.write("=\"");
+								writeEscaped(writer, attribute.getNodeValue());
+								writer.write('"');
+							}
+							writer.write(hasChildElements(element) ? ">\n" : "/>\n");
+						} catch (IOException e) {
+							failure[0] = e;
+						}
+						return failure[0] == null;
+					}
 
-		DOMSource source = new DOMSource(doc);
-		StreamResult result = new StreamResult(outputStream);
-		transformer.transform(source, result);
+					@Override
+					public void leave(Element element, Element parent, int index, int depth) {
+						if (failure[0] != null || !hasChildElements(element)) {
+							return;
+						}
+						try {
+							writeIndent(writer, depth);
+							writer.write("</");
+							writer.write(element.getTagName());
+							writer.write(">\n");
+						} catch (IOException e) {
+							failure[0] = e;
+						}
+					}
+				});
+		if (failure[0] != null) {
+			throw failure[0];
+		}
+		writer.flush();
 	}
 
-	private String writeDocumentToString(Document doc) throws TransformerException {
-		TransformerFactory transformerFactory = TransformerFactory.newInstance();
-		Transformer transformer = transformerFactory.newTransformer();
-		transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-		transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-		transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
+	private static void writeIndent(Writer writer, int depth) throws IOException {
+		for (int i = 0; i < depth; i++) {
+			writer.write("    ");
+		}
+	}
 
-		Writer writer = new StringWriter();
-		DOMSource source = new DOMSource(doc);
-		StreamResult result = new StreamResult(writer);
-		transformer.transform(source, result);
-		return writer.toString();
+	private static void writeEscaped(Writer writer, String value) throws IOException {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (Character.isHighSurrogate(c) && i + 1 < value.length()
+					&& Character.isLowSurrogate(value.charAt(i + 1))) {
+				// Written as a character reference, like the transformer did
+				writer.write("&#" + Character.toCodePoint(c, value.charAt(++i)) + ";");
+				continue;
+			}
+			switch (c) {
+				case '&' -> writer.write("&amp;");
+				case '<' -> writer.write("&lt;");
+				case '>' -> writer.write("&gt;");
+				case '"' -> writer.write("&quot;");
+				case '\n' -> writer.write("&#10;");
+				case '\r' -> writer.write("&#13;");
+				case '\t' -> writer.write("&#9;");
+				default -> writer.write(c);
+			}
+		}
 	}
 
 	private LvglScreen parseDocument(Document doc) {
@@ -262,24 +838,59 @@ public class LvglXmlSerializer {
 		screen.setHeight(parseIntAttribute(screenElement, ATTR_HEIGHT, 320));
 		screen.setBgColor(parseIntAttribute(screenElement, ATTR_BG_COLOR, 0xFFFFFF));
 
-		NodeList widgetNodes = screenElement.getChildNodes();
-		for (int i = 0; i < widgetNodes.getLength(); i++) {
-			Node node = widgetNodes.item(i);
-			if (node instanceof Element element && ELEMENT_WIDGET.equals(element.getTagName())) {
-				LvglWidget widget = parseWidgetElement(element);
-				screen.addWidget(widget);
-			}
+		for (LvglWidget widget : parseWidgets(getWidgetElements(screenElement))) {
+			screen.addWidget(widget);
 		}
 
 		return screen;
 	}
 
+	/**
+	 * Parses widget elements with their children into detached widgets.
+	 */
+	private List<LvglWidget> parseWidgets(List<Element> elements) {
+		// Widgets are attached to their parent when left, so every parent is
+		// still detached and attaching does not walk up the tree
+		List<LvglWidget> roots = new ArrayList<>();
+		List<LvglWidget> open = new ArrayList<>();
+		TreeTraversal.walk(elements, LvglXmlSerializer::getChildWidgetElements,
+				new TreeTraversal.Visitor<Element>() {
+					@Override
+					public boolean enter(Element element, Element parent, int index, int depth) {
+						setAt(open, depth, parseWidgetElement(element));
+						return true;
+					}
+
+					@Override
+					public void leave(Element element, Element parent, int index, int depth) {
+						LvglWidget widget = open.get(depth);
+						if (depth == 0) {
+							roots.add(widget);
+						} else {
+							open.get(depth - 1).addChild(widget);
+						}
+					}
+				});
+		return roots;
+	}
+
 	private LvglWidget parseWidgetElement(Element element) {
+		return parseWidget(element::getAttribute);
+	}
+
+	/**
+	 * Creates a widget from the attributes of a widget element.
+	 *
+	 * @param attributes gets the value of an attribute by name, or an empty
+	 *        string if it is missing
+	 */
+	private LvglWidget parseWidget(Function<String, String> attributes) {
 		LvglWidget widget = new LvglWidget();
 
 		// Basic properties
-		widget.setName(element.getAttribute(ATTR_NAME));
-		String typeStr = element.getAttribute(ATTR_TYPE);
+		widget.setId(parseLongAttribute(attributes, ATTR_ID, 0));
+		widget.setName(attributes.apply(ATTR_NAME));
+		String typeStr = attributes.apply(ATTR_TYPE);
 		if (typeStr != null && !typeStr.isEmpty()) {
 			try {
 				widget.setWidgetType(WidgetType.valueOf(typeStr));
@@ -287,49 +898,49 @@ public class LvglXmlSerializer {
 				widget.setWidgetType(WidgetType.BUTTON);
 			}
 		}
-		widget.setX(parseIntAttribute(element, ATTR_X, 0));
-		widget.setY(parseIntAttribute(element, ATTR_Y, 0));
-		widget.setWidth(parseIntAttribute(element, ATTR_WIDTH, 100));
-		widget.setHeight(parseIntAttribute(element, ATTR_HEIGHT, 40));
+		widget.setX(parseIntAttribute(attributes, ATTR_X, 0));
+		widget.setY(parseIntAttribute(attributes, ATTR_Y, 0));
+		widget.setWidth(parseIntAttribute(attributes, ATTR_WIDTH, 100));
+		widget.setHeight(parseIntAttribute(attributes, ATTR_HEIGHT, 40));
 
 		// Text
-		String text = element.getAttribute(ATTR_TEXT);
+		String text = attributes.apply(ATTR_TEXT);
 		if (text != null) {
 			widget.setText(text);
 		}
 
 		// Style properties
-		widget.setBgColor(parseIntAttribute(element, ATTR_BG_COLOR, 0xFFFFFF));
-		widget.setTextColor(parseIntAttribute(element, ATTR_TEXT_COLOR, 0x000000));
-		widget.setBorderWidth(parseIntAttribute(element, ATTR_BORDER_WIDTH, 0));
-		widget.setBorderColor(parseIntAttribute(element, ATTR_BORDER_COLOR, 0x000000));
-		widget.setRadius(parseIntAttribute(element, ATTR_RADIUS, 0));
+		widget.setBgColor(parseIntAttribute(attributes, ATTR_BG_COLOR, 0xFFFFFF));
+		widget.setTextColor(parseIntAttribute(attributes, ATTR_TEXT_COLOR, 0x000000));
+		widget.setBorderWidth(parseIntAttribute(attributes, ATTR_BORDER_WIDTH, 0));
+		widget.setBorderColor(parseIntAttribute(attributes, ATTR_BORDER_COLOR, 0x000000));
+		widget.setRadius(parseIntAttribute(attributes, ATTR_RADIUS, 0));
 
 		// Image source
-		String imageSource = element.getAttribute(ATTR_IMAGE_SOURCE);
+		String imageSource = attributes.apply(ATTR_IMAGE_SOURCE);
 		if (imageSource != null && !imageSource.isEmpty()) {
 			widget.setImageSource(imageSource);
 		}
 
 		// Checkbox/Switch state
-		String checked = element.getAttribute(ATTR_CHECKED);
+		String checked = attributes.apply(ATTR_CHECKED);
 		widget.setChecked("true".equalsIgnoreCase(checked));
 
 		// Value-based properties
-		widget.setValue(parseIntAttribute(element, ATTR_VALUE, 0));
-		widget.setMinValue(parseIntAttribute(element, ATTR_MIN_VALUE, 0));
-		widget.setMaxValue(parseIntAttribute(element, ATTR_MAX_VALUE, 100));
+		widget.setValue(parseIntAttribute(attributes, ATTR_VALUE, 0));
+		widget.setMinValue(parseIntAttribute(attributes, ATTR_MIN_VALUE, 0));
+		widget.setMaxValue(parseIntAttribute(attributes, ATTR_MAX_VALUE, 100));
 
 		// Table properties
-		widget.setRowCount(parseIntAttribute(element, ATTR_ROW_COUNT, 3));
-		widget.setColumnCount(parseIntAttribute(element, ATTR_COLUMN_COUNT, 3));
-		String tableData = element.getAttribute(ATTR_TABLE_DATA);
+		widget.setRowCount(parseIntAttribute(attributes, ATTR_ROW_COUNT, 3));
+		widget.setColumnCount(parseIntAttribute(attributes, ATTR_COLUMN_COUNT, 3));
+		String tableData = attributes.apply(ATTR_TABLE_DATA);
 		if (tableData != null) {
 			widget.setTableData(tableData);
 		}
 
 		// Layout properties
-		String layoutTypeStr = element.getAttribute(ATTR_LAYOUT_TYPE);
+		String layoutTypeStr = attributes.apply(ATTR_LAYOUT_TYPE);
 		if (layoutTypeStr != null && !layoutTypeStr.isEmpty()) {
 			try {
 				widget.setLayoutType(LayoutType.valueOf(layoutTypeStr));
@@ -338,7 +949,7 @@ public class LvglXmlSerializer {
 			}
 		}
 
-		String flexFlowStr = element.getAttribute(ATTR_FLEX_FLOW);
+		String flexFlowStr = attributes.apply(ATTR_FLEX_FLOW);
 		if (flexFlowStr != null && !flexFlowStr.isEmpty()) {
 			try {
 				widget.setFlexFlow(FlexFlow.valueOf(flexFlowStr));
@@ -347,7 +958,7 @@ public class LvglXmlSerializer {
 			}
 		}
 
-		String flexMainAlignStr = element.getAttribute(ATTR_FLEX_MAIN_ALIGN);
+		String flexMainAlignStr = attributes.apply(ATTR_FLEX_MAIN_ALIGN);
 		if (flexMainAlignStr != null && !flexMainAlignStr.isEmpty()) {
 			try {
 				widget.setFlexMainAlign(FlexAlign.valueOf(flexMainAlignStr));
@@ -356,7 +967,7 @@ public class LvglXmlSerializer {
 			}
 		}
 
-		String flexCrossAlignStr = element.getAttribute(ATTR_FLEX_CROSS_ALIGN);
+		String flexCrossAlignStr = attributes.apply(ATTR_FLEX_CROSS_ALIGN);
 		if (flexCrossAlignStr != null && !flexCrossAlignStr.isEmpty()) {
 			try {
 				widget.setFlexCrossAlign(FlexAlign.valueOf(flexCrossAlignStr));
@@ -365,7 +976,7 @@ public class LvglXmlSerializer {
 			}
 		}
 
-		String flexTrackAlignStr = element.getAttribute(ATTR_FLEX_TRACK_ALIGN);
+		String flexTrackAlignStr = attributes.apply(ATTR_FLEX_TRACK_ALIGN);
 		if (flexTrackAlignStr != null && !flexTrackAlignStr.isEmpty()) {
 			try {
 				widget.setFlexTrackAlign(FlexAlign.valueOf(flexTrackAlignStr));
@@ -374,33 +985,81 @@ public class LvglXmlSerializer {
 			}
 		}
 
-		widget.setPadRow(parseIntAttribute(element, ATTR_PAD_ROW, 0));
-		widget.setPadColumn(parseIntAttribute(element, ATTR_PAD_COLUMN, 0));
+		widget.setPadRow(parseIntAttribute(attributes, ATTR_PAD_ROW, 0));
+		widget.setPadColumn(parseIntAttribute(attributes, ATTR_PAD_COLUMN, 0));
+
+		return widget;
+	}
 
-		// Parse children
+	/**
+	 * Gets the widget elements nested in the children elements of a widget
+	 * element.
+	 */
+	private static List<Element> getChildWidgetElements(Element element) {
+		List<Element> result = new ArrayList<>();
 		NodeList childNodes = element.getChildNodes();
 		for (int i = 0; i < childNodes.getLength(); i++) {
-			Node node = childNodes.item(i);
-			if (node instanceof Element childElement) {
-				if (ELEMENT_CHILDREN.equals(childElement.getTagName())) {
-					NodeList widgetNodes = childElement.getChildNodes();
-					for (int j = 0; j < widgetNodes.getLength(); j++) {
-						Node widgetNode = widgetNodes.item(j);
-						if (widgetNode instanceof Element widgetElement
-								&& ELEMENT_WIDGET.equals(widgetElement.getTagName())) {
-							LvglWidget childWidget = parseWidgetElement(widgetElement);
-							widget.addChild(childWidget);
-						}
-					}
-				}
+			if (childNodes.item(i) instanceof Element childElement
+					&& ELEMENT_CHILDREN.equals(childElement.getTagName())) {
+				result.addAll(getWidgetElements(childElement));
 			}
 		}
+		return result;
+	}
 
-		return widget;
+	/**
+	 * Gets the elements directly below an element.
+	 */
+	private static List<Element> getChildElements(Element element) {
+		List<Element> result = new ArrayList<>();
+		NodeList nodes = element.getChildNodes();
+		for (int i = 0; i < nodes.getLength(); i++) {
+			if (nodes.item(i) instanceof Element childElement) {
+				result.add(childElement);
+			}
+		}
+		return result;
+	}
+
+	private static boolean hasChildElements(Element element) {
+		for (Node node = element.getFirstChild(); node != null; node = node.getNextSibling()) {
+			if (node instanceof Element) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the widget elements directly below an element.
+	 */
+	private static List<Element> getWidgetElements(Element element) {
+		List<Element> result = new ArrayList<>();
+		NodeList nodes = element.getChildNodes();
+		for (int i = 0; i < nodes.getLength(); i++) {
+			if (nodes.item(i) instanceof Element widgetElement && ELEMENT_WIDGET.equals(widgetElement.getTagName())) {
+				result.add(widgetElement);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Sets the element at a depth, growing the list by one if needed.
+	 */
+	private static <T> void setAt(List<T> list, int depth, T value) {
+		if (depth == list.size()) {
+			list.add(value);
+		} else {
+			list.set(depth, value);
+		}
 	}
 
 	private int parseIntAttribute(Element element, String name, int defaultValue) {
-		String value = element.getAttribute(name);
+		return parseInt(element.getAttribute(name), defaultValue);
+	}
+
+	private static int parseInt(String value, int defaultValue) {
 		if (value == null || value.isEmpty()) {
 			return defaultValue;
 		}
@@ -411,6 +1070,22 @@ public class LvglXmlSerializer {
 		}
 	}
 
+	private int parseIntAttribute(Function<String, String> attributes, String name, int defaultValue) {
+		return parseInt(attributes.apply(name), defaultValue);
+	}
+
+	private long parseLongAttribute(Function<String, String> attributes, String name, long defaultValue) {
+		String value = attributes.apply(name);
+		if (value == null || value.isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
 	/**
 	 * Creates a default LvglScreen with sample widgets.
 	 *
@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import java.util.Arrays;
+
+/**
+ * Offsets of the widget elements in the XML text of a screen, and the range
+ * of the text edited since it was scanned. A text editor uses it to find the
+ * one widget element all edits fall into, so only that element has to be
+ * parsed again; see {@link LvglXmlSerializer#loadWidget(String)} and
+ * {@link LvglScreenSnapshot#withWidget(int[], LvglWidgetSnapshot)}.
+ * <p>
+ * Scanning only splits the text into tags, it does not check it. Whether the
+ * edited element is still a well-formed widget is left to the parser.
+ * </p>
+ */
+public final class LvglXmlSourceMap {
+
+	/**
+	 * A widget element in the edited text.
+	 */
+	public static final class WidgetRegion {
+
+		private final int offset;
+		private final int length;
+		private final int[] path;
+
+		private WidgetRegion(int offset, int length, int[] path) {
+			this.offset = offset;
+			this.length = length;
+			this.path = path;
+		}
+
+		/**
+		 * Gets the offset of the element's start tag.
+		 *
+		 * @return the offset in the edited text
+		 */
+		public int getOffset() {
+			return offset;
+		}
+
+		/**
+		 * Gets the length of the element, including its end tag.
+		 *
+		 * @return the length in the edited text
+		 */
+		public int getLength() {
+			return length;
+		}
+
+		/**
+		 * Gets the index path from the screen to the widget.
+		 *
+		 * @return the path
+		 */
+		public int[] getPath() {
+			return path.clone();
+		}
+	}
+
+	/** Widget elements in document order, as parallel arrays */
+	private int[] starts = new int[64];
+	private int[] ends = new int[64];
+	/** Enclosing widget element, -1 for top-level widgets */
+	private int[] parents = new int[64];
+	/** Index of the widget among its siblings */
+	private int[] indexes = new int[64];
+	private int[] childCounts = new int[64];
+	private int count;
+	/** False if the scanned text could not be split into balanced tags */
+	private boolean valid;
+
+	/** Edited range in the current text, editStart is -1 while unedited */
+	private int editStart = -1;
+	private int editEnd;
+	/** Length of the current text minus the length of the scanned text */
+	private int delta;
+
+	private LvglXmlSourceMap() {
+	}
+
+	/**
+	 * Scans the XML text of a screen.
+	 *
+	 * @param text the text, as it matches the screen model
+	 * @return the source map
+	 */
+	public static LvglXmlSourceMap scan(String text) {
+		LvglXmlSourceMap map = new LvglXmlSourceMap();
+		map.valid = map.scanTags(text);
+		return map;
+	}
+
+	private boolean scanTags(String text) {
+		// Open elements: their names and their widget element, or -1
+		String[] openNames = new String[16];
+		int[] openWidgets = new int[16];
+		int depth = 0;
+		int topLevelCount = 0;
+		boolean rootSeen = false;
+		int i = 0;
+		while ((i = text.indexOf('<', i)) >= 0) {
+			if (text.startsWith("<!--", i)) {
+				i = skipPast(text, "-->", i + 4);
+			} else if (text.startsWith("<![CDATA[", i)) {
+				i = skipPast(text, "]]>", i + 9);
+			} else if (text.startsWith("<?", i)) {
+				i = skipPast(text, "?>", i + 2);
+			} else if (text.startsWith("<!", i)) {
+				// Document type declarations are rejected by the parser
+				return false;
+			} else if (text.startsWith("</", i)) {
+				int nameEnd = nameEnd(text, i + 2);
+				int close = text.indexOf('>', nameEnd);
+				if (close < 0 || depth == 0 || !text.substring(i + 2, nameEnd).equals(openNames[depth - 1])) {
+					return false;
+				}
+				depth--;
+				if (openWidgets[depth] >= 0) {
+					ends[openWidgets[depth]] = close + 1;
+				}
+				i = close + 1;
+			} else {
+				int nameEnd = nameEnd(text, i + 1);
+				String name = text.substring(i + 1, nameEnd);
+				int close = tagEnd(text, nameEnd);
+				if (close < 0 || (depth == 0 && (rootSeen || !LvglXmlSerializer.ELEMENT_SCREEN.equals(name)))) {
+					return false;
+				}
+				rootSeen = true;
+				boolean empty = text.charAt(close - 1) == '/';
+				int widget = -1;
+				if (LvglXmlSerializer.ELEMENT_WIDGET.equals(name)) {
+					// Only widgets the serializer reads are tracked
+					if (depth == 1) {
+						widget = addWidget(i, -1, topLevelCount++);
+					} else if (depth >= 2 && LvglXmlSerializer.ELEMENT_CHILDREN.equals(openNames[depth - 1])
+							&& openWidgets[depth - 2] >= 0) {
+						int parent = openWidgets[depth - 2];
+						widget = addWidget(i, parent, childCounts[parent]++);
+					}
+					if (widget >= 0 && empty) {
+						ends[widget] = close + 1;
+					}
+				}
+				if (!empty) {
+					if (depth == openNames.length) {
+						openNames = Arrays.copyOf(openNames, depth * 2);
+						openWidgets = Arrays.copyOf(openWidgets, depth * 2);
+					}
+					openNames[depth] = name;
+					openWidgets[depth] = widget;
+					depth++;
+				}
+				i = close + 1;
+			}
+			if (i < 0) {
+				return false;
+			}
+		}
+		return rootSeen && depth == 0;
+	}
+
+	private int addWidget(int start, int parent, int index) {
+		if (count == starts.length) {
+			starts = Arrays.copyOf(starts, count * 2);
+			ends = Arrays.copyOf(ends, count * 2);
+			parents = Arrays.copyOf(parents, count * 2);
+			indexes = Arrays.copyOf(indexes, count * 2);
+			childCounts = Arrays.copyOf(childCounts, count * 2);
+		}
+		starts[count] = start;
+		parents[count] = parent;
+		indexes[count] = index;
+		return count++;
+	}
+
+	private static int skipPast(String text, String terminator, int from) {
+		int end = text.indexOf(terminator, from);
+		return end >= 0 ? end + terminator.length() : -1;
+	}
+
+	private static int nameEnd(String text, int from) {
+		int i = from;
+		while (i < text.length()) {
+			char c = text.charAt(i);
+			if (c == '>' || c == '/' || Character.isWhitespace(c)) {
+				break;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Finds the closing '>' of a start tag, skipping quoted attribute values.
+	 */
+	private static int tagEnd(String text, int from) {
+		char quote = 0;
+		for (int i = from; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (quote != 0) {
+				if (c == quote) {
+					quote = 0;
+				}
+			} else if (c == '"' || c == '\'') {
+				quote = c;
+			} else if (c == '>') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Records an edit of the text, as reported by a document event.
+	 *
+	 * @param offset the offset of the replaced text
+	 * @param length the length of the replaced text
+	 * @param textLength the length of the inserted text
+	 */
+	public void recordEdit(int offset, int length, int textLength) {
+		if (editStart < 0) {
+			editStart = offset;
+			editEnd = offset + textLength;
+		} else {
+			editStart = Math.min(editStart, offset);
+			editEnd = Math.max(editEnd, offset + length) + textLength - length;
+		}
+		delta += textLength - length;
+	}
+
+	/**
+	 * Checks if the text was edited since it was scanned.
+	 *
+	 * @return true if there are edits
+	 */
+	public boolean isEdited() {
+		return editStart >= 0;
+	}
+
+	/**
+	 * Finds the innermost widget element containing all edits. The start and
+	 * end tag delimiters of the element must be untouched.
+	 *
+	 * @return the element in the edited text, or null if there are no edits,
+	 *         they are not within a single widget or the scanned text was not
+	 *         balanced
+	 */
+	public WidgetRegion findEditedWidget() {
+		if (!valid || editStart < 0) {
+			return null;
+		}
+		// Offsets before the edits are unchanged, offsets after them shifted
+		int oldEditEnd = editEnd - delta;
+		// The innermost enclosing element, if any, is the last element that
+		// starts before the edits or one of its ancestors
+		int widget = lastStartingBefore(editStart);
+		while (widget >= 0 && ends[widget] <= oldEditEnd) {
+			widget = parents[widget];
+		}
+		if (widget < 0) {
+			return null;
+		}
+		int depth = 0;
+		for (int w = widget; w >= 0; w = parents[w]) {
+			depth++;
+		}
+		int[] path = new int[depth];
+		for (int w = widget; w >= 0; w = parents[w]) {
+			path[--depth] = indexes[w];
+		}
+		return new WidgetRegion(starts[widget], ends[widget] + delta - starts[widget], path);
+	}
+
+	private int lastStartingBefore(int offset) {
+		int low = 0;
+		int high = count - 1;
+		int result = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (starts[mid] < offset) {
+				result = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return result;
+	}
+}
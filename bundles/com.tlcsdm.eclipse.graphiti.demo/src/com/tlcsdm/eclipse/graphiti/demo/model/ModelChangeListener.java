@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+/**
+ * Listener for changes of {@link ModelElement}s.
+ * <p>
+ * Primitive properties are delivered through the specialized callbacks so no
+ * values are boxed. Their default implementations forward to
+ * {@link #propertyChanged(ModelElement, ModelProperty, Object, Object)}, so a
+ * listener only interested in the generic form just implements that method.
+ * </p>
+ */
+@FunctionalInterface
+public interface ModelChangeListener {
+
+	/**
+	 * Called when an object valued property changed, an element was added,
+	 * removed or moved, or a batch ended.
+	 *
+	 * @param source the changed element
+	 * @param property the property
+	 * @param oldValue the old value
+	 * @param newValue the new value
+	 */
+	void propertyChanged(ModelElement source, ModelProperty property, Object oldValue, Object newValue);
+
+	/**
+	 * Called when an int property changed.
+	 *
+	 * @param source the changed element
+	 * @param property the property
+	 * @param oldValue the old value
+	 * @param newValue the new value
+	 */
+	default void intPropertyChanged(ModelElement source, ModelProperty property, int oldValue, int newValue) {
+		propertyChanged(source, property, oldValue, newValue);
+	}
+
+	/**
+	 * Called when a boolean property changed.
+	 *
+	 * @param source the changed element
+	 * @param property the property
+	 * @param oldValue the old value
+	 * @param newValue the new value
+	 */
+	default void booleanPropertyChanged(ModelElement source, ModelProperty property, boolean oldValue,
+			boolean newValue) {
+		propertyChanged(source, property, oldValue, newValue);
+	}
+
+	/**
+	 * Called when a child was added to or removed from an element.
+	 *
+	 * @param source the changed container
+	 * @param property {@link ModelProperty#ADD} or {@link ModelProperty#REMOVE}
+	 * @param child the added or removed child
+	 * @param index the index the child was added at or removed from
+	 */
+	default void structureChanged(ModelElement source, ModelProperty property, ModelElement child, int index) {
+		if (property == ModelProperty.ADD) {
+			propertyChanged(source, property, null, child);
+		} else {
+			propertyChanged(source, property, child, null);
+		}
+	}
+
+	/**
+	 * Called when a child was moved to another index of the same element,
+	 * which changes its z-order. The default implementation reports the child
+	 * as removed from its old index and added at its new index.
+	 *
+	 * @param source the changed container
+	 * @param child the moved child
+	 * @param oldIndex the index the child was moved from
+	 * @param newIndex the index the child was moved to
+	 */
+	default void childMoved(ModelElement source, ModelElement child, int oldIndex, int newIndex) {
+		structureChanged(source, ModelProperty.REMOVE, child, oldIndex);
+		structureChanged(source, ModelProperty.ADD, child, newIndex);
+	}
+}
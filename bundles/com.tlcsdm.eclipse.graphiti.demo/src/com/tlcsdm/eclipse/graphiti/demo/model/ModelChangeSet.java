@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Coalesced set of model changes collected during a batch.
+ * <p>
+ * Property changes are merged per element and property: the first old value
+ * and the last new value are kept, and changes that end up with equal values
+ * are dropped. Structural changes (add/remove/move) are kept in order.
+ * </p>
+ */
+public class ModelChangeSet {
+
+	/**
+	 * A single (possibly coalesced) change.
+	 */
+	public static final class Change {
+
+		private final ModelElement source;
+		private final ModelProperty property;
+		private final Object oldValue;
+		private Object newValue;
+		private final int index;
+		private final int oldIndex;
+
+		Change(ModelElement source, ModelProperty property, Object oldValue, Object newValue, int index) {
+			this(source, property, oldValue, newValue, index, -1);
+		}
+
+		Change(ModelElement source, ModelProperty property, Object oldValue, Object newValue, int index,
+				int oldIndex) {
+			this.source = source;
+			this.property = property;
+			this.oldValue = oldValue;
+			this.newValue = newValue;
+			this.index = index;
+			this.oldIndex = oldIndex;
+		}
+
+		public ModelElement getSource() {
+			return source;
+		}
+
+		public ModelProperty getProperty() {
+			return property;
+		}
+
+		public Object getOldValue() {
+			return oldValue;
+		}
+
+		public Object getNewValue() {
+			return newValue;
+		}
+
+		/**
+		 * Gets the index a child was added at, removed from or moved to.
+		 *
+		 * @return the child index, or -1 for property changes
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * Gets the index a child was moved from.
+		 *
+		 * @return the old child index, or -1 if this is not a move
+		 */
+		public int getOldIndex() {
+			return oldIndex;
+		}
+
+		/**
+		 * Gets the added, removed or moved child of a structural change.
+		 *
+		 * @return the child, or null for property changes
+		 */
+		public ModelElement getChild() {
+			Object child = property == ModelProperty.ADD ? newValue : oldValue;
+			return child instanceof ModelElement element ? element : null;
+		}
+
+		/**
+		 * Checks if this is a structural (add/remove/move) change.
+		 *
+		 * @return true for add, remove and move changes
+		 */
+		public boolean isStructural() {
+			return property.isStructural();
+		}
+	}
+
+	private final Map<ModelElement, Map<ModelProperty, Change>> propertyChanges = new LinkedHashMap<>();
+	private final List<Change> structuralChanges = new ArrayList<>();
+
+	void record(ModelElement source, ModelProperty property, Object oldValue, Object newValue) {
+		if (property.isStructural()) {
+			structuralChanges.add(new Change(source, property, oldValue, newValue, -1));
+			return;
+		}
+		Map<ModelProperty, Change> changes = propertyChanges.computeIfAbsent(source,
+				k -> new EnumMap<>(ModelProperty.class));
+		Change change = changes.get(property);
+		if (change == null) {
+			if (!Objects.equals(oldValue, newValue)) {
+				changes.put(property, new Change(source, property, oldValue, newValue, -1));
+			}
+		} else if (Objects.equals(change.oldValue, newValue)) {
+			// Changed back to the original value
+			changes.remove(property);
+		} else {
+			change.newValue = newValue;
+		}
+		if (changes.isEmpty()) {
+			propertyChanges.remove(source);
+		}
+	}
+
+	void recordStructural(ModelElement source, ModelProperty property, ModelElement child, int index) {
+		if (property == ModelProperty.ADD) {
+			structuralChanges.add(new Change(source, property, null, child, index));
+		} else {
+			structuralChanges.add(new Change(source, property, child, null, index));
+		}
+	}
+
+	void recordMove(ModelElement source, ModelElement child, int oldIndex, int newIndex) {
+		structuralChanges.add(new Change(source, ModelProperty.MOVE, child, child, newIndex, oldIndex));
+	}
+
+	/**
+	 * Checks if the change set contains no changes.
+	 *
+	 * @return true if nothing changed
+	 */
+	public boolean isEmpty() {
+		return propertyChanges.isEmpty() && structuralChanges.isEmpty();
+	}
+
+	/**
+	 * Gets all changes, property changes first, then structural changes in the
+	 * order they happened.
+	 *
+	 * @return the changes
+	 */
+	public List<Change> getChanges() {
+		List<Change> result = new ArrayList<>();
+		for (Map<ModelProperty, Change> changes : propertyChanges.values()) {
+			result.addAll(changes.values());
+		}
+		result.addAll(structuralChanges);
+		return result;
+	}
+
+	/**
+	 * Gets the elements affected by this change set. For structural changes
+	 * both the container and the added, removed or moved element are
+	 * included.
+	 *
+	 * @return the affected elements, in first-change order
+	 */
+	public Set<ModelElement> getAffectedElements() {
+		Set<ModelElement> result = new LinkedHashSet<>(propertyChanges.keySet());
+		for (Change change : structuralChanges) {
+			result.add(change.getSource());
+			if (change.getOldValue() instanceof ModelElement element) {
+				result.add(element);
+			}
+			if (change.getNewValue() instanceof ModelElement element) {
+				result.add(element);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the properties changed on the given element.
+	 *
+	 * @param element the element
+	 * @return the changed properties, never null
+	 */
+	public Set<ModelProperty> getAffectedProperties(ModelElement element) {
+		Set<ModelProperty> result = EnumSet.noneOf(ModelProperty.class);
+		Map<ModelProperty, Change> changes = propertyChanges.get(element);
+		if (changes != null) {
+			result.addAll(changes.keySet());
+		}
+		for (Change change : structuralChanges) {
+			if (change.getSource() == element) {
+				result.add(change.getProperty());
+			}
+		}
+		return result.isEmpty() ? Collections.emptySet() : result;
+	}
+}
@@ -6,13 +6,21 @@
  ******************************************************************************/
 package com.tlcsdm.eclipse.graphiti.demo.model;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Abstract base class for all model elements.
  * Provides property change support for the MVC pattern.
+ * <p>
+ * Listeners are kept in a copy-on-write array that is updated lock-free and
+ * only allocated once a listener is registered. Firing a change reads the
+ * array once and does not box primitive values. Tree listeners registered on
+ * an owner (a screen) also receive the changes of everything it owns.
+ * </p>
  */
 public abstract class ModelElement implements Serializable {
 
@@ -24,23 +32,142 @@ public abstract class ModelElement implements Serializable {
 	public static final String PROPERTY_ADD = "add";
 	/** Property name for removing elements */
 	public static final String PROPERTY_REMOVE = "remove";
+	/** Property name for moving elements among their siblings */
+	public static final String PROPERTY_MOVE = "move";
 	/** Property name for name changes */
 	public static final String PROPERTY_NAME = "name";
 	/** Property name for connection changes */
 	public static final String PROPERTY_CONNECTION = "connection";
+	/** Property name for the coalesced change event fired when a batch ends */
+	public static final String PROPERTY_BATCH = "batch";
 
-	private transient PropertyChangeSupport pcsDelegate = new PropertyChangeSupport(this);
+	private static final AtomicReferenceFieldUpdater<ModelElement, ModelChangeListener[]> LISTENERS = AtomicReferenceFieldUpdater
+			.newUpdater(ModelElement.class, ModelChangeListener[].class, "listeners");
+
+	private static final AtomicReferenceFieldUpdater<ModelElement, ModelChangeListener[]> TREE_LISTENERS = AtomicReferenceFieldUpdater
+			.newUpdater(ModelElement.class, ModelChangeListener[].class, "treeListeners");
+
+	/** Registered listeners, null until the first listener is added */
+	private transient volatile ModelChangeListener[] listeners;
+
+	/** Listeners for changes of this element and the elements it owns */
+	private transient volatile ModelChangeListener[] treeListeners;
+
+	/** Nesting depth of open batches on this element */
+	private transient int batchDepth;
+
+	/** Changes collected while a batch is open */
+	private transient ModelChangeSet pendingChanges;
+
+	/**
+	 * Handle for an open batch, for use with try-with-resources.
+	 */
+	public final class Batch implements AutoCloseable {
+
+		private boolean closed;
+
+		private Batch() {
+		}
+
+		@Override
+		public void close() {
+			if (!closed) {
+				closed = true;
+				endBatch();
+			}
+		}
+	}
+
+	/**
+	 * Adds a model change listener.
+	 *
+	 * @param listener the listener to add
+	 */
+	public void addModelChangeListener(ModelChangeListener listener) {
+		add(LISTENERS, listener);
+	}
+
+	/**
+	 * Removes a model change listener.
+	 *
+	 * @param listener the listener to remove
+	 */
+	public void removeModelChangeListener(ModelChangeListener listener) {
+		remove(LISTENERS, listener);
+	}
+
+	/**
+	 * Adds a listener notified of changes of this element and of every element
+	 * it owns (for a screen, all its widgets). Changes are delivered after the
+	 * listeners of the changed element; batched changes arrive as the single
+	 * {@link ModelProperty#BATCH} event of the owner.
+	 *
+	 * @param listener the listener to add
+	 */
+	public void addTreeChangeListener(ModelChangeListener listener) {
+		add(TREE_LISTENERS, listener);
+	}
+
+	/**
+	 * Removes a tree change listener.
+	 *
+	 * @param listener the listener to remove
+	 */
+	public void removeTreeChangeListener(ModelChangeListener listener) {
+		remove(TREE_LISTENERS, listener);
+	}
+
+	private void add(AtomicReferenceFieldUpdater<ModelElement, ModelChangeListener[]> updater,
+			ModelChangeListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException("listener cannot be null");
+		}
+		ModelChangeListener[] current;
+		ModelChangeListener[] updated;
+		do {
+			current = updater.get(this);
+			if (current == null) {
+				updated = new ModelChangeListener[] { listener };
+			} else {
+				updated = Arrays.copyOf(current, current.length + 1);
+				updated[current.length] = listener;
+			}
+		} while (!updater.compareAndSet(this, current, updated));
+	}
+
+	private void remove(AtomicReferenceFieldUpdater<ModelElement, ModelChangeListener[]> updater,
+			ModelChangeListener listener) {
+		if (listener == null) {
+			return;
+		}
+		ModelChangeListener[] current;
+		ModelChangeListener[] updated;
+		do {
+			current = updater.get(this);
+			int index = indexOf(current, listener);
+			if (index < 0) {
+				return;
+			}
+			if (current.length == 1) {
+				updated = null;
+			} else {
+				updated = new ModelChangeListener[current.length - 1];
+				System.arraycopy(current, 0, updated, 0, index);
+				System.arraycopy(current, index + 1, updated, index, updated.length - index);
+			}
+		} while (!updater.compareAndSet(this, current, updated));
+	}
 
 	/**
 	 * Adds a property change listener.
 	 *
 	 * @param listener the listener to add
 	 */
-	public synchronized void addPropertyChangeListener(PropertyChangeListener listener) {
+	public void addPropertyChangeListener(PropertyChangeListener listener) {
 		if (listener == null) {
 			throw new IllegalArgumentException("listener cannot be null");
 		}
-		getPropertyChangeSupport().addPropertyChangeListener(listener);
+		addModelChangeListener(new PropertyChangeAdapter(listener));
 	}
 
 	/**
@@ -48,29 +175,346 @@ public abstract class ModelElement implements Serializable {
 	 *
 	 * @param listener the listener to remove
 	 */
-	public synchronized void removePropertyChangeListener(PropertyChangeListener listener) {
+	public void removePropertyChangeListener(PropertyChangeListener listener) {
 		if (listener != null) {
-			getPropertyChangeSupport().removePropertyChangeListener(listener);
+			removeModelChangeListener(new PropertyChangeAdapter(listener));
+		}
+	}
+
+	/**
+	 * Checks if any listener is registered on this element.
+	 *
+	 * @return true if there are listeners
+	 */
+	public boolean hasListeners() {
+		return listeners != null || treeListeners != null;
+	}
+
+	private static int indexOf(ModelChangeListener[] array, ModelChangeListener listener) {
+		if (array != null) {
+			for (int i = 0; i < array.length; i++) {
+				if (array[i].equals(listener)) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Starts a batch. Until the matching {@link #endBatch()}, property changes
+	 * of this element (and, for a screen, of all its widgets) are collected
+	 * instead of fired. When the outermost batch ends, a single
+	 * {@link #PROPERTY_BATCH} event carrying a {@link ModelChangeSet} is fired.
+	 * <p>
+	 * A batch started on an element whose owner is already batching joins the
+	 * owner's batch.
+	 * </p>
+	 *
+	 * @return a handle that ends the batch when closed
+	 */
+	public Batch beginBatch() {
+		ModelElement target = getActiveBatchElement();
+		if (target == null) {
+			target = this;
+		}
+		if (target.batchDepth++ == 0) {
+			target.pendingChanges = new ModelChangeSet();
+		}
+		return new Batch();
+	}
+
+	/**
+	 * Ends a batch started with {@link #beginBatch()}.
+	 */
+	public void endBatch() {
+		ModelElement target = getActiveBatchElement();
+		if (target == null) {
+			throw new IllegalStateException("endBatch() without matching beginBatch()");
+		}
+		if (--target.batchDepth == 0) {
+			ModelChangeSet changes = target.pendingChanges;
+			target.pendingChanges = null;
+			if (!changes.isEmpty()) {
+				target.firePropertyChange(ModelProperty.BATCH, null, changes);
+			}
+		}
+	}
+
+	/**
+	 * Checks if changes of this element are currently being batched.
+	 *
+	 * @return true if a batch is open on this element or its owner
+	 */
+	public boolean isBatching() {
+		return getActiveBatchElement() != null;
+	}
+
+	/**
+	 * Gets the element whose batches also collect changes of this element.
+	 *
+	 * @return the batch owner, or null if none
+	 */
+	protected ModelElement getBatchOwner() {
+		return null;
+	}
+
+	/**
+	 * Called for every change of this element, before the change is fired or
+	 * recorded in a batch. Subclasses use it to drop derived state.
+	 */
+	protected void modelChanged() {
+		// Nothing to invalidate by default
+	}
+
+	private ModelElement getActiveBatchElement() {
+		return getActiveBatchElement(getTreeOwner());
+	}
+
+	private ModelElement getActiveBatchElement(ModelElement owner) {
+		if (batchDepth > 0) {
+			return this;
 		}
+		return owner.batchDepth > 0 ? owner : null;
 	}
 
 	/**
-	 * Fires a property change event.
+	 * Gets the element whose tree listeners receive the changes of this element.
 	 *
-	 * @param property the property name
+	 * @return the batch owner, or this element if it has none
+	 */
+	private ModelElement getTreeOwner() {
+		ModelElement owner = getBatchOwner();
+		return owner != null ? owner : this;
+	}
+
+	/**
+	 * Fires a property change event, or records it if a batch is open. Nothing
+	 * is fired if both values are equal and non-null.
+	 *
+	 * @param property the property
 	 * @param oldValue the old value
 	 * @param newValue the new value
 	 */
-	protected void firePropertyChange(String property, Object oldValue, Object newValue) {
-		if (getPropertyChangeSupport().hasListeners(property)) {
-			getPropertyChangeSupport().firePropertyChange(property, oldValue, newValue);
+	protected void firePropertyChange(ModelProperty property, Object oldValue, Object newValue) {
+		if (oldValue != null && oldValue.equals(newValue)) {
+			return;
+		}
+		ModelElement owner = getTreeOwner();
+		if (property != ModelProperty.BATCH) {
+			modelChanged();
+			ModelElement batching = getActiveBatchElement(owner);
+			if (batching != null) {
+				batching.pendingChanges.record(this, property, oldValue, newValue);
+				return;
+			}
+		}
+		dispatch(listeners, property, oldValue, newValue);
+		dispatch(owner.treeListeners, property, oldValue, newValue);
+	}
+
+	private void dispatch(ModelChangeListener[] current, ModelProperty property, Object oldValue, Object newValue) {
+		if (current != null) {
+			for (ModelChangeListener listener : current) {
+				listener.propertyChanged(this, property, oldValue, newValue);
+			}
+		}
+	}
+
+	/**
+	 * Fires an int property change without boxing, or records it if a batch is
+	 * open. Nothing is fired if the value did not change.
+	 *
+	 * @param property the property
+	 * @param oldValue the old value
+	 * @param newValue the new value
+	 */
+	protected void fireIntPropertyChange(ModelProperty property, int oldValue, int newValue) {
+		if (oldValue == newValue) {
+			return;
+		}
+		modelChanged();
+		ModelElement owner = getTreeOwner();
+		ModelElement batching = getActiveBatchElement(owner);
+		if (batching != null) {
+			batching.pendingChanges.record(this, property, oldValue, newValue);
+			return;
+		}
+		dispatchInt(listeners, property, oldValue, newValue);
+		dispatchInt(owner.treeListeners, property, oldValue, newValue);
+	}
+
+	private void dispatchInt(ModelChangeListener[] current, ModelProperty property, int oldValue, int newValue) {
+		if (current != null) {
+			for (ModelChangeListener listener : current) {
+				listener.intPropertyChanged(this, property, oldValue, newValue);
+			}
+		}
+	}
+
+	/**
+	 * Fires a boolean property change without boxing, or records it if a batch
+	 * is open. Nothing is fired if the value did not change.
+	 *
+	 * @param property the property
+	 * @param oldValue the old value
+	 * @param newValue the new value
+	 */
+	protected void fireBooleanPropertyChange(ModelProperty property, boolean oldValue, boolean newValue) {
+		if (oldValue == newValue) {
+			return;
+		}
+		modelChanged();
+		ModelElement owner = getTreeOwner();
+		ModelElement batching = getActiveBatchElement(owner);
+		if (batching != null) {
+			batching.pendingChanges.record(this, property, oldValue, newValue);
+			return;
+		}
+		dispatchBoolean(listeners, property, oldValue, newValue);
+		dispatchBoolean(owner.treeListeners, property, oldValue, newValue);
+	}
+
+	private void dispatchBoolean(ModelChangeListener[] current, ModelProperty property, boolean oldValue,
+			boolean newValue) {
+		if (current != null) {
+			for (ModelChangeListener listener : current) {
+				listener.booleanPropertyChanged(this, property, oldValue, newValue);
+			}
+		}
+	}
+
+	/**
+	 * Fires a structural change (a child added to or removed from this
+	 * element), or records it if a batch is open.
+	 *
+	 * @param property {@link ModelProperty#ADD} or {@link ModelProperty#REMOVE}
+	 * @param child the added or removed child
+	 * @param index the index the child was added at or removed from
+	 */
+	protected void fireStructureChange(ModelProperty property, ModelElement child, int index) {
+		modelChanged();
+		ModelElement owner = getTreeOwner();
+		ModelElement batching = getActiveBatchElement(owner);
+		if (batching != null) {
+			batching.pendingChanges.recordStructural(this, property, child, index);
+			return;
+		}
+		dispatchStructure(listeners, property, child, index);
+		dispatchStructure(owner.treeListeners, property, child, index);
+	}
+
+	private void dispatchStructure(ModelChangeListener[] current, ModelProperty property, ModelElement child,
+			int index) {
+		if (current != null) {
+			for (ModelChangeListener listener : current) {
+				listener.structureChanged(this, property, child, index);
+			}
 		}
 	}
 
-	private PropertyChangeSupport getPropertyChangeSupport() {
-		if (pcsDelegate == null) {
-			pcsDelegate = new PropertyChangeSupport(this);
+	/**
+	 * Fires a move of a child to another index of this element, or records it
+	 * if a batch is open.
+	 *
+	 * @param child the moved child
+	 * @param oldIndex the index the child was moved from
+	 * @param newIndex the index the child was moved to
+	 */
+	protected void fireChildMoved(ModelElement child, int oldIndex, int newIndex) {
+		modelChanged();
+		ModelElement owner = getTreeOwner();
+		ModelElement batching = getActiveBatchElement(owner);
+		if (batching != null) {
+			batching.pendingChanges.recordMove(this, child, oldIndex, newIndex);
+			return;
+		}
+		dispatchMove(listeners, child, oldIndex, newIndex);
+		dispatchMove(owner.treeListeners, child, oldIndex, newIndex);
+	}
+
+	private void dispatchMove(ModelChangeListener[] current, ModelElement child, int oldIndex, int newIndex) {
+		if (current != null) {
+			for (ModelChangeListener listener : current) {
+				listener.childMoved(this, child, oldIndex, newIndex);
+			}
+		}
+	}
+
+	/**
+	 * Gets the value of a property by its identifier. Primitive values are
+	 * returned boxed.
+	 *
+	 * @param property the property
+	 * @return the value
+	 * @throws IllegalArgumentException if the element has no such property
+	 */
+	public abstract Object getPropertyValue(ModelProperty property);
+
+	/**
+	 * Sets the value of a property by its identifier, firing the same event as
+	 * the typed setter.
+	 *
+	 * @param property the property
+	 * @param value the new value, boxed for primitive properties
+	 * @throws IllegalArgumentException if the element has no such property
+	 */
+	public abstract void setPropertyValue(ModelProperty property, Object value);
+
+	/**
+	 * Converts a model name into a valid C identifier.
+	 *
+	 * @param name the model name
+	 * @param fallback the identifier to use for an empty name
+	 * @return the C identifier
+	 */
+	static String toVariableName(String name, String fallback) {
+		// Same as replaceAll("[^a-zA-Z0-9_]", "_") without compiling a pattern
+		char[] chars = name.toCharArray();
+		for (int i = 0; i < chars.length; i++) {
+			char c = chars[i];
+			if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_')) {
+				chars[i] = '_';
+			}
+		}
+		String varName = new String(chars);
+		// C identifiers cannot start with a digit
+		if (!varName.isEmpty() && Character.isDigit(varName.charAt(0))) {
+			varName = "_" + varName;
+		}
+		// Handle empty name
+		if (varName.isEmpty()) {
+			varName = fallback;
+		}
+		return varName;
+	}
+
+	/**
+	 * Adapts a {@link PropertyChangeListener} to a {@link ModelChangeListener}.
+	 * Adapters are equal when they wrap the same listener, so removal works
+	 * with a fresh adapter.
+	 */
+	private static final class PropertyChangeAdapter implements ModelChangeListener {
+
+		private final PropertyChangeListener delegate;
+
+		PropertyChangeAdapter(PropertyChangeListener delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void propertyChanged(ModelElement source, ModelProperty property, Object oldValue, Object newValue) {
+			delegate.propertyChange(new PropertyChangeEvent(source, property.getName(), oldValue, newValue));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof PropertyChangeAdapter other && other.delegate.equals(delegate);
+		}
+
+		@Override
+		public int hashCode() {
+			return delegate.hashCode();
 		}
-		return pcsDelegate;
 	}
 }
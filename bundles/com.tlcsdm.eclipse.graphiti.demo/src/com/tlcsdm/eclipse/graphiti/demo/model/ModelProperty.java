@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Typed identifiers for the observable properties of the model.
+ * <p>
+ * Each property keeps the legacy string name used by
+ * {@link java.beans.PropertyChangeEvent}s, so existing listeners continue to
+ * see the same names.
+ * </p>
+ */
+public enum ModelProperty {
+
+	NAME(ModelElement.PROPERTY_NAME, Kind.OBJECT),
+	WIDGET_TYPE("widgetType", Kind.OBJECT),
+	X("x", Kind.INT),
+	Y("y", Kind.INT),
+	WIDTH("width", Kind.INT),
+	HEIGHT("height", Kind.INT),
+	TEXT("text", Kind.OBJECT),
+	BG_COLOR("bgColor", Kind.INT),
+	TEXT_COLOR("textColor", Kind.INT),
+	BORDER_WIDTH("borderWidth", Kind.INT),
+	BORDER_COLOR("borderColor", Kind.INT),
+	RADIUS("radius", Kind.INT),
+	IMAGE_SOURCE("imageSource", Kind.OBJECT),
+	CHECKED("checked", Kind.BOOLEAN),
+	VALUE("value", Kind.INT),
+	MIN_VALUE("minValue", Kind.INT),
+	MAX_VALUE("maxValue", Kind.INT),
+	ROW_COUNT("rowCount", Kind.INT),
+	COLUMN_COUNT("columnCount", Kind.INT),
+	TABLE_DATA("tableData", Kind.OBJECT),
+	LAYOUT_TYPE("layoutType", Kind.OBJECT),
+	FLEX_FLOW("flexFlow", Kind.OBJECT),
+	FLEX_MAIN_ALIGN("flexMainAlign", Kind.OBJECT),
+	FLEX_CROSS_ALIGN("flexCrossAlign", Kind.OBJECT),
+	FLEX_TRACK_ALIGN("flexTrackAlign", Kind.OBJECT),
+	PAD_ROW("padRow", Kind.INT),
+	PAD_COLUMN("padColumn", Kind.INT),
+	LAYOUT(ModelElement.PROPERTY_LAYOUT, Kind.OBJECT),
+	CONNECTION(ModelElement.PROPERTY_CONNECTION, Kind.OBJECT),
+	ADD(ModelElement.PROPERTY_ADD, Kind.STRUCTURAL),
+	REMOVE(ModelElement.PROPERTY_REMOVE, Kind.STRUCTURAL),
+	MOVE(ModelElement.PROPERTY_MOVE, Kind.STRUCTURAL),
+	BATCH(ModelElement.PROPERTY_BATCH, Kind.OBJECT);
+
+	/**
+	 * Value kind of a property, selecting the listener callback it uses.
+	 */
+	public enum Kind {
+		INT, BOOLEAN, OBJECT, STRUCTURAL
+	}
+
+	private static final Map<String, ModelProperty> BY_NAME = new HashMap<>();
+
+	static {
+		for (ModelProperty property : values()) {
+			BY_NAME.put(property.name, property);
+		}
+	}
+
+	private final String name;
+	private final Kind kind;
+
+	ModelProperty(String name, Kind kind) {
+		this.name = name;
+		this.kind = kind;
+	}
+
+	/**
+	 * Gets the legacy property name.
+	 *
+	 * @return the name used in property change events
+	 */
+	public String getName() {
+		return name;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Checks if this is a structural (add/remove/move) property.
+	 *
+	 * @return true for add, remove and move
+	 */
+	public boolean isStructural() {
+		return kind == Kind.STRUCTURAL;
+	}
+
+	/**
+	 * Finds a property by its legacy name.
+	 *
+	 * @param name the property name
+	 * @return the property, or null if unknown
+	 */
+	public static ModelProperty fromName(String name) {
+		return BY_NAME.get(name);
+	}
+}
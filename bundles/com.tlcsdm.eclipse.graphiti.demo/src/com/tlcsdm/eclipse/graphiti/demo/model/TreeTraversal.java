@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Depth-first traversal of widget trees with an explicit stack, so deeply
+ * nested trees cannot overflow the Java stack. Works on any tree given its
+ * roots and a children function: {@link LvglWidget}, {@link LvglWidgetSnapshot}
+ * or DOM elements.
+ * <p>
+ * Each node is entered before its children (pre-order) and left after them
+ * (post-order). Siblings are visited in list order.
+ * </p>
+ */
+public final class TreeTraversal {
+
+	private TreeTraversal() {
+	}
+
+	/**
+	 * Callback for {@link TreeTraversal#walk}.
+	 *
+	 * @param <N> the node type
+	 */
+	@FunctionalInterface
+	public interface Visitor<N> {
+
+		/**
+		 * Called before the children of a node are visited.
+		 *
+		 * @param node the node
+		 * @param parent the parent node, or null for a root
+		 * @param index the index of the node among its siblings
+		 * @param depth the depth, 0 for a root
+		 * @return true to visit the children, false to skip them
+		 */
+		boolean enter(N node, N parent, int index, int depth);
+
+		/**
+		 * Called after the children of a node were visited or skipped.
+		 *
+		 * @param node the node
+		 * @param parent the parent node, or null for a root
+		 * @param index the index of the node among its siblings
+		 * @param depth the depth, 0 for a root
+		 */
+		default void leave(N node, N parent, int index, int depth) {
+			// Nothing to do by default
+		}
+	}
+
+	/**
+	 * Walks the trees below the given roots.
+	 *
+	 * @param roots the root nodes
+	 * @param children gets the children of a node, never null
+	 * @param visitor the visitor
+	 */
+	public static <N> void walk(List<? extends N> roots, Function<? super N, ? extends List<? extends N>> children,
+			Visitor<? super N> visitor) {
+		// One frame per level: the sibling list, the next index and the parent
+		@SuppressWarnings("unchecked")
+		List<? extends N>[] lists = (List<? extends N>[]) new List<?>[16];
+		int[] positions = new int[16];
+		Object[] parents = new Object[16];
+		lists[0] = roots;
+		int depth = 0;
+		while (true) {
+			List<? extends N> siblings = lists[depth];
+			@SuppressWarnings("unchecked")
+			N parent = (N) parents[depth];
+			if (positions[depth] < siblings.size()) {
+				int index = positions[depth]++;
+				N node = siblings.get(index);
+				if (visitor.enter(node, parent, index, depth)) {
+					List<? extends N> nodeChildren = children.apply(node);
+					if (!nodeChildren.isEmpty()) {
+						depth++;
+						if (depth == lists.length) {
+							lists = Arrays.copyOf(lists, depth * 2);
+							positions = Arrays.copyOf(positions, depth * 2);
+							parents = Arrays.copyOf(parents, depth * 2);
+						}
+						lists[depth] = nodeChildren;
+						positions[depth] = 0;
+						parents[depth] = node;
+						continue;
+					}
+				}
+				visitor.leave(node, parent, index, depth);
+			} else {
+				// All children of the parent are done
+				lists[depth] = null;
+				parents[depth] = null;
+				if (depth == 0) {
+					return;
+				}
+				depth--;
+				@SuppressWarnings("unchecked")
+				N grandparent = (N) parents[depth];
+				visitor.leave(parent, grandparent, positions[depth] - 1, depth);
+			}
+		}
+	}
+
+	/**
+	 * Visits all nodes in pre-order.
+	 *
+	 * @param roots the root nodes
+	 * @param children gets the children of a node, never null
+	 * @param action called for each node
+	 */
+	public static <N> void forEach(List<? extends N> roots, Function<? super N, ? extends List<? extends N>> children,
+			Consumer<? super N> action) {
+		walk(roots, children, (node, parent, index, depth) -> {
+			action.accept(node);
+			return true;
+		});
+	}
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+/**
+ * Widgets of a screen by identifier.
+ * <p>
+ * An open-addressing hash table with linear probing that stores only the
+ * widgets, as each widget carries its identifier. It needs no boxed keys or
+ * entry objects, so it costs a few bytes per widget instead of the 70 or so of
+ * a {@code HashMap<Long, LvglWidget>}. A widget must not change its
+ * identifier while it is in the index.
+ * </p>
+ */
+final class WidgetIdIndex {
+
+	private static final int MIN_CAPACITY = 16;
+
+	/** Each widget sits in the slot of its identifier or in the first free slot after it */
+	private LvglWidget[] table;
+	private int size;
+
+	WidgetIdIndex(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < expectedSize * 2) {
+			capacity *= 2;
+		}
+		table = new LvglWidget[capacity];
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Finds a widget by its identifier.
+	 *
+	 * @param id the identifier
+	 * @return the widget, or null if there is none with this identifier
+	 */
+	LvglWidget get(long id) {
+		int mask = table.length - 1;
+		for (int i = slotOf(id, mask);; i = (i + 1) & mask) {
+			LvglWidget widget = table[i];
+			if (widget == null || widget.getId() == id) {
+				return widget;
+			}
+		}
+	}
+
+	/**
+	 * Adds a widget, replacing the widget with the same identifier.
+	 *
+	 * @param widget the widget
+	 */
+	void put(LvglWidget widget) {
+		if ((size + 1) * 2 > table.length) {
+			resize(table.length * 2);
+		}
+		long id = widget.getId();
+		int mask = table.length - 1;
+		int i = slotOf(id, mask);
+		while (table[i] != null && table[i].getId() != id) {
+			i = (i + 1) & mask;
+		}
+		if (table[i] == null) {
+			size++;
+		}
+		table[i] = widget;
+	}
+
+	/**
+	 * Removes a widget if it is the one stored under its identifier.
+	 *
+	 * @param widget the widget
+	 */
+	void remove(LvglWidget widget) {
+		long id = widget.getId();
+		int mask = table.length - 1;
+		int i = slotOf(id, mask);
+		while (table[i] != widget) {
+			if (table[i] == null || table[i].getId() == id) {
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		size--;
+		// Move later widgets of the probe run back, so no lookup passes a gap
+		int gap = i;
+		for (int j = (i + 1) & mask; table[j] != null; j = (j + 1) & mask) {
+			int home = slotOf(table[j].getId(), mask);
+			boolean reachable = gap <= j ? gap < home && home <= j : gap < home || home <= j;
+			if (!reachable) {
+				table[gap] = table[j];
+				gap = j;
+			}
+		}
+		table[gap] = null;
+	}
+
+	private void resize(int capacity) {
+		LvglWidget[] old = table;
+		table = new LvglWidget[capacity];
+		int mask = capacity - 1;
+		for (LvglWidget widget : old) {
+			if (widget != null) {
+				int i = slotOf(widget.getId(), mask);
+				while (table[i] != null) {
+					i = (i + 1) & mask;
+				}
+				table[i] = widget;
+			}
+		}
+	}
+
+	private static int slotOf(long id, int mask) {
+		return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+	}
+}
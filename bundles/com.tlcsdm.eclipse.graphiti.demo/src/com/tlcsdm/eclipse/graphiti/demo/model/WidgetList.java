@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Child list of a screen or widget, read-only to callers outside the model.
+ * <p>
+ * Every widget remembers its slot in the list, so it is found without a
+ * search. Removing a widget leaves an empty slot instead of shifting its
+ * successors, and a Fenwick tree over the slots counts the widgets before
+ * any slot. Removing a widget and inserting at either end therefore take
+ * logarithmic time, and a widget removed from the middle is put back into
+ * its old slot on undo. Empty slots are compacted once they outnumber the
+ * widgets. Indexed access takes constant time while there are no empty
+ * slots, logarithmic time otherwise.
+ * </p>
+ */
+final class WidgetList extends AbstractList<LvglWidget> implements RandomAccess, Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int MIN_CAPACITY = 8;
+
+	/** Widget slots, used between head (inclusive) and tail (exclusive) */
+	private transient LvglWidget[] slots;
+	private transient int head;
+	private transient int tail;
+	/** Number of widgets */
+	private transient int size;
+	/** Fenwick tree counting the widgets in the slots, 1-based */
+	private transient int[] counts;
+
+	WidgetList() {
+		layout(new LvglWidget[0], 0);
+	}
+
+	@Override
+	public LvglWidget get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return slots[slotOf(index)];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return o instanceof LvglWidget widget && holds(widget);
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		return o instanceof LvglWidget widget && holds(widget) ? indexOfSlot(widget.slot) : -1;
+	}
+
+	@Override
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+
+	/**
+	 * Inserts a widget. Inserting at either end, or into the empty slot left
+	 * by the widget previously at that index, takes logarithmic time.
+	 */
+	void insert(int index, LvglWidget widget) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int slot;
+		if (index == size) {
+			if (tail == slots.length) {
+				relayout(-1, null);
+			}
+			slot = tail++;
+		} else if (index == 0 && head > 0) {
+			slot = --head;
+		} else {
+			slot = slotOf(index) - 1;
+			if (slot < head || slots[slot] != null) {
+				relayout(index, widget);
+				return;
+			}
+		}
+		slots[slot] = widget;
+		widget.slot = slot;
+		add(slot, 1);
+		size++;
+		modCount++;
+	}
+
+	/**
+	 * Removes a widget.
+	 *
+	 * @return the index the widget had, or -1 if it is not in the list
+	 */
+	int removeWidget(LvglWidget widget) {
+		if (!holds(widget)) {
+			return -1;
+		}
+		int slot = widget.slot;
+		int index = indexOfSlot(slot);
+		slots[slot] = null;
+		add(slot, -1);
+		size--;
+		modCount++;
+		// Empty slots at the ends become free space again
+		while (tail > head && slots[tail - 1] == null) {
+			tail--;
+		}
+		while (head < tail && slots[head] == null) {
+			head++;
+		}
+		int limit = Math.max(size, MIN_CAPACITY);
+		if (tail - head - size > limit || slots.length > 4 * limit) {
+			relayout(-1, null);
+		}
+		return index;
+	}
+
+	private boolean holds(LvglWidget widget) {
+		int slot = widget.slot;
+		return slot >= head && slot < tail && slots[slot] == widget;
+	}
+
+	private boolean isDense() {
+		return tail - head == size;
+	}
+
+	private int slotOf(int index) {
+		if (isDense()) {
+			return head + index;
+		}
+		// Descend the Fenwick tree to the slot holding widget number index + 1
+		int position = 0;
+		int remaining = index + 1;
+		for (int step = Integer.highestOneBit(slots.length); step > 0; step >>= 1) {
+			int next = position + step;
+			if (next <= slots.length && counts[next] < remaining) {
+				position = next;
+				remaining -= counts[next];
+			}
+		}
+		return position;
+	}
+
+	private int indexOfSlot(int slot) {
+		if (isDense()) {
+			return slot - head;
+		}
+		int count = 0;
+		for (int i = slot; i > 0; i -= i & -i) {
+			count += counts[i];
+		}
+		return count;
+	}
+
+	private void add(int slot, int delta) {
+		for (int i = slot + 1; i <= slots.length; i += i & -i) {
+			counts[i] += delta;
+		}
+	}
+
+	/**
+	 * Moves the widgets to a new, centered array without empty slots,
+	 * optionally inserting a widget.
+	 */
+	private void relayout(int insertIndex, LvglWidget inserted) {
+		int count = size + (inserted != null ? 1 : 0);
+		LvglWidget[] widgets = new LvglWidget[count];
+		int n = 0;
+		for (int slot = head; slot < tail; slot++) {
+			if (n == insertIndex) {
+				widgets[n++] = inserted;
+			}
+			if (slots[slot] != null) {
+				widgets[n++] = slots[slot];
+			}
+		}
+		if (n == insertIndex) {
+			widgets[n++] = inserted;
+		}
+		if (inserted != null) {
+			modCount++;
+		}
+		layout(widgets, count);
+	}
+
+	private void layout(LvglWidget[] widgets, int count) {
+		// Leave room at both ends, so appends and prepends are amortized
+		slots = new LvglWidget[Math.max(count * 2, MIN_CAPACITY)];
+		head = (slots.length - count) / 2;
+		tail = head + count;
+		size = count;
+		counts = new int[slots.length + 1];
+		for (int i = 0; i < count; i++) {
+			slots[head + i] = widgets[i];
+			widgets[i].slot = head + i;
+			counts[head + i + 1] = 1;
+		}
+		for (int i = 1; i <= slots.length; i++) {
+			int parent = i + (i & -i);
+			if (parent <= slots.length) {
+				counts[parent] += counts[i];
+			}
+		}
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(size);
+		for (LvglWidget widget : this) {
+			out.writeObject(widget);
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int count = in.readInt();
+		LvglWidget[] widgets = new LvglWidget[count];
+		for (int i = 0; i < count; i++) {
+			widgets[i] = (LvglWidget) in.readObject();
+		}
+		layout(widgets, count);
+	}
+}
@@ -21,6 +21,30 @@ public class LvglPreferenceConstants {
 			" * https://github.com/tlcsdm/eclipse-graphiti-example\n" +
 			" */";
 
+	/** Preference key for the undo history memory limit, in megabytes */
+	public static final String PREF_UNDO_MEMORY_LIMIT = "undoMemoryLimit";
+
+	/** Default undo history memory limit, in megabytes */
+	public static final int DEFAULT_UNDO_MEMORY_LIMIT = 16;
+
+	/** Preference key for the file size, in kilobytes, from which screens open read-only in summary mode */
+	public static final String PREF_SUMMARY_FILE_SIZE = "summaryFileSize";
+
+	/** Default file size from which screens open in summary mode, in kilobytes */
+	public static final int DEFAULT_SUMMARY_FILE_SIZE = 8192;
+
+	/** Preference key for the widget count from which screens open read-only in summary mode */
+	public static final String PREF_SUMMARY_WIDGET_COUNT = "summaryWidgetCount";
+
+	/** Default widget count from which screens open in summary mode */
+	public static final int DEFAULT_SUMMARY_WIDGET_COUNT = 20000;
+
+	/** Preference key for whether diagrams are cached to reopen unchanged screens faster */
+	public static final String PREF_DIAGRAM_CACHE = "diagramCache";
+
+	/** Default for caching diagrams */
+	public static final boolean DEFAULT_DIAGRAM_CACHE = true;
+
 	private LvglPreferenceConstants() {
 		// Prevent instantiation
 	}
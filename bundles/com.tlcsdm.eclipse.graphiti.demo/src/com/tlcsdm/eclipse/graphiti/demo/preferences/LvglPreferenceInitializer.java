@@ -21,5 +21,13 @@ public class LvglPreferenceInitializer extends AbstractPreferenceInitializer {
 		IPreferenceStore store = Activator.getDefault().getPreferenceStore();
 		store.setDefault(LvglPreferenceConstants.PREF_LICENSE_HEADER, 
 				LvglPreferenceConstants.DEFAULT_LICENSE_HEADER);
+		store.setDefault(LvglPreferenceConstants.PREF_UNDO_MEMORY_LIMIT,
+				LvglPreferenceConstants.DEFAULT_UNDO_MEMORY_LIMIT);
+		store.setDefault(LvglPreferenceConstants.PREF_SUMMARY_FILE_SIZE,
+				LvglPreferenceConstants.DEFAULT_SUMMARY_FILE_SIZE);
+		store.setDefault(LvglPreferenceConstants.PREF_SUMMARY_WIDGET_COUNT,
+				LvglPreferenceConstants.DEFAULT_SUMMARY_WIDGET_COUNT);
+		store.setDefault(LvglPreferenceConstants.PREF_DIAGRAM_CACHE,
+				LvglPreferenceConstants.DEFAULT_DIAGRAM_CACHE);
 	}
 }
@@ -6,7 +6,9 @@
  ******************************************************************************/
 package com.tlcsdm.eclipse.graphiti.demo.preferences;
 
+import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.preference.StringFieldEditor;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPreferencePage;
@@ -37,5 +39,31 @@ public class LvglPreferencePage extends FieldEditorPreferencePage implements IWo
 				getFieldEditorParent());
 		licenseEditor.setEmptyStringAllowed(true);
 		addField(licenseEditor);
+
+		IntegerFieldEditor undoLimitEditor = new IntegerFieldEditor(
+				LvglPreferenceConstants.PREF_UNDO_MEMORY_LIMIT,
+				"Undo history memory limit (MB):",
+				getFieldEditorParent());
+		undoLimitEditor.setValidRange(1, 1024);
+		addField(undoLimitEditor);
+
+		IntegerFieldEditor summarySizeEditor = new IntegerFieldEditor(
+				LvglPreferenceConstants.PREF_SUMMARY_FILE_SIZE,
+				"Open read-only summary from file size (KB):",
+				getFieldEditorParent());
+		summarySizeEditor.setValidRange(1, Integer.MAX_VALUE);
+		addField(summarySizeEditor);
+
+		IntegerFieldEditor summaryCountEditor = new IntegerFieldEditor(
+				LvglPreferenceConstants.PREF_SUMMARY_WIDGET_COUNT,
+				"Open read-only summary from widget count:",
+				getFieldEditorParent());
+		summaryCountEditor.setValidRange(1, Integer.MAX_VALUE);
+		addField(summaryCountEditor);
+
+		addField(new BooleanFieldEditor(
+				LvglPreferenceConstants.PREF_DIAGRAM_CACHE,
+				"Cache diagrams to reopen unchanged screens faster",
+				getFieldEditorParent()));
 	}
 }
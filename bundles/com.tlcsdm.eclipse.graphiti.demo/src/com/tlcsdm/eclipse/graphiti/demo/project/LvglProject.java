@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.project;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreenHeader;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreenSnapshot;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglXmlSerializer;
+import com.tlcsdm.eclipse.graphiti.demo.util.ConsoleUtil;
+import com.tlcsdm.eclipse.graphiti.demo.wizard.NewLvglDiagramWizard;
+
+/**
+ * All screens of an Eclipse project. The .graphxml files are discovered on
+ * first access and their headers are read eagerly; full widget trees are only
+ * loaded when asked for and are held softly, so the garbage collector can
+ * evict unused screens under memory pressure. A resource change listener
+ * keeps the screens in sync with the workspace.
+ * <p>
+ * Screens are handed out as immutable snapshots and may be used from any
+ * thread. Editors share one model per file through the
+ * {@code LvglModelManager}; this is the read-only view used by cross-screen
+ * features.
+ * </p>
+ */
+public final class LvglProject {
+
+	private static final Map<IProject, LvglProject> PROJECTS = new ConcurrentHashMap<>();
+
+	/**
+	 * A .graphxml file with its header and, if loaded, its screen.
+	 */
+	private static final class Entry {
+
+		final IFile file;
+		volatile LvglScreenHeader header;
+		volatile SoftReference<LvglScreenSnapshot> screen;
+
+		Entry(IFile file) {
+			this.file = file;
+		}
+	}
+
+	private final IProject project;
+	private final Map<IFile, Entry> entries = new ConcurrentHashMap<>();
+	private final IResourceChangeListener resourceListener = this::resourceChanged;
+	private volatile boolean discovered;
+
+	private LvglProject(IProject project) {
+		this.project = project;
+	}
+
+	/**
+	 * Gets the LVGL project of an Eclipse project, creating it on first use.
+	 *
+	 * @param project the Eclipse project
+	 * @return the LVGL project
+	 */
+	public static LvglProject get(IProject project) {
+		return PROJECTS.computeIfAbsent(project, LvglProject::new);
+	}
+
+	public IProject getProject() {
+		return project;
+	}
+
+	/**
+	 * Gets the .graphxml files of the project, sorted by path.
+	 *
+	 * @return the screen files
+	 */
+	public List<IFile> getScreenFiles() {
+		discover();
+		List<IFile> files = new ArrayList<>(entries.keySet());
+		files.sort((a, b) -> a.getFullPath().toString().compareTo(b.getFullPath().toString()));
+		return files;
+	}
+
+	/**
+	 * Gets the header of a screen without loading its widgets.
+	 *
+	 * @param file the .graphxml file
+	 * @return the header, or null if the file is not a readable screen of this
+	 *         project
+	 */
+	public LvglScreenHeader getHeader(IFile file) {
+		discover();
+		Entry entry = entries.get(file);
+		return entry != null ? entry.header : null;
+	}
+
+	/**
+	 * Gets a screen, loading it if it is not loaded or was evicted.
+	 *
+	 * @param file the .graphxml file
+	 * @return the screen snapshot, or null if the file is not a screen of this
+	 *         project
+	 * @throws IOException if the file cannot be read
+	 */
+	public LvglScreenSnapshot getScreen(IFile file) throws IOException {
+		discover();
+		Entry entry = entries.get(file);
+		if (entry == null) {
+			return null;
+		}
+		SoftReference<LvglScreenSnapshot> reference = entry.screen;
+		LvglScreenSnapshot screen = reference != null ? reference.get() : null;
+		if (screen == null) {
+			try (InputStream is = file.getContents()) {
+				screen = new LvglXmlSerializer().load(is).snapshot();
+			} catch (CoreException e) {
+				throw new IOException("Failed to read " + file.getFullPath(), e);
+			}
+			entry.screen = new SoftReference<>(screen);
+		}
+		return screen;
+	}
+
+	/**
+	 * Checks if a screen is currently loaded.
+	 *
+	 * @param file the .graphxml file
+	 * @return true if the widget tree is in memory
+	 */
+	public boolean isLoaded(IFile file) {
+		Entry entry = entries.get(file);
+		SoftReference<LvglScreenSnapshot> reference = entry != null ? entry.screen : null;
+		return reference != null && reference.get() != null;
+	}
+
+	/**
+	 * Stops tracking the project and drops all loaded screens.
+	 */
+	public void dispose() {
+		PROJECTS.remove(project, this);
+		ResourcesPlugin.getWorkspace().removeResourceChangeListener(resourceListener);
+		entries.clear();
+		discovered = false;
+	}
+
+	private void discover() {
+		if (discovered) {
+			return;
+		}
+		synchronized (this) {
+			if (discovered) {
+				return;
+			}
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(resourceListener,
+					IResourceChangeEvent.POST_CHANGE | IResourceChangeEvent.PRE_CLOSE
+							| IResourceChangeEvent.PRE_DELETE);
+			if (project.isAccessible()) {
+				try {
+					project.accept(proxy -> {
+						if (proxy.getType() == IResource.FILE && isScreenFile(proxy)) {
+							addEntry((IFile) proxy.requestResource());
+						}
+						return true;
+					}, IResource.NONE);
+				} catch (CoreException e) {
+					ConsoleUtil.printError("Failed to discover screens in " + project.getName() + ": " + e.getMessage());
+				}
+			}
+			discovered = true;
+		}
+	}
+
+	private static boolean isScreenFile(IResourceProxy proxy) {
+		return proxy.getName().endsWith("." + NewLvglDiagramWizard.FILE_EXTENSION);
+	}
+
+	private static boolean isScreenFile(IResource resource) {
+		return resource.getType() == IResource.FILE
+				&& NewLvglDiagramWizard.FILE_EXTENSION.equals(resource.getFileExtension());
+	}
+
+	private void addEntry(IFile file) {
+		Entry entry = new Entry(file);
+		entry.header = readHeader(file);
+		entries.put(file, entry);
+	}
+
+	private static LvglScreenHeader readHeader(IFile file) {
+		try (InputStream is = file.getContents()) {
+			return new LvglXmlSerializer().loadHeader(is);
+		} catch (IOException | CoreException e) {
+			ConsoleUtil.printError("Failed to read screen header of " + file.getFullPath() + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	private void resourceChanged(IResourceChangeEvent event) {
+		if (event.getType() != IResourceChangeEvent.POST_CHANGE) {
+			if (project.equals(event.getResource())) {
+				dispose();
+			}
+			return;
+		}
+		IResourceDelta delta = event.getDelta() != null ? event.getDelta().findMember(project.getFullPath()) : null;
+		if (delta == null) {
+			return;
+		}
+		try {
+			delta.accept(child -> {
+				IResource resource = child.getResource();
+				if (!isScreenFile(resource)) {
+					return true;
+				}
+				IFile file = (IFile) resource;
+				switch (child.getKind()) {
+					case IResourceDelta.ADDED -> addEntry(file);
+					case IResourceDelta.REMOVED -> entries.remove(file);
+					case IResourceDelta.CHANGED -> {
+						if ((child.getFlags() & IResourceDelta.CONTENT) != 0) {
+							// Re-read the header, the widgets are reloaded on demand
+							addEntry(file);
+						}
+					}
+					default -> {
+						// Nothing to update
+					}
+				}
+				return false;
+			});
+		} catch (CoreException e) {
+			ConsoleUtil.printError("Failed to update screens of " + project.getName() + ": " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,338 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.validation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.FlatWidgetTree;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreenSnapshot;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.LayoutType;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget.WidgetType;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidgetSnapshot;
+import com.tlcsdm.eclipse.graphiti.demo.validation.LvglValidationProblem.Check;
+
+/**
+ * Validates a screen snapshot. The checks are:
+ * <ul>
+ * <li>widgets whose C variable names collide,</li>
+ * <li>top-level widgets outside the screen bounds,</li>
+ * <li>children that do not fit their container,</li>
+ * <li>overlapping siblings,</li>
+ * <li>values outside the min..max range.</li>
+ * </ul>
+ * Children of flex and grid containers are positioned by the layout and are
+ * not checked for bounds or overlap.
+ * <p>
+ * The validator keeps the problems of the last run, so a later run only needs
+ * the ids of the widgets that changed since. Instances are not thread-safe but
+ * may be used from any single thread, since snapshots are immutable.
+ * </p>
+ */
+public class LvglModelValidator {
+
+	/** Id standing for the screen itself in a set of changed ids */
+	public static final long SCREEN_ID = 0;
+
+	private static final Set<WidgetType> VALUE_TYPES = Set.of(WidgetType.SLIDER, WidgetType.BAR, WidgetType.ARC,
+			WidgetType.SPINBOX, WidgetType.SCALE);
+
+	private final Map<Long, EnumMap<Check, LvglValidationProblem>> problems = new HashMap<>();
+	private final Map<Long, Long> parentIds = new HashMap<>();
+	private final Map<Long, String> variableNames = new HashMap<>();
+	private final Map<String, Set<Long>> idsByVariableName = new HashMap<>();
+
+	/**
+	 * Validates the whole screen, discarding the results of earlier runs.
+	 *
+	 * @param screen the screen to validate
+	 * @return all problems
+	 */
+	public List<LvglValidationProblem> validate(LvglScreenSnapshot screen) {
+		reset();
+		FlatWidgetTree<LvglWidgetSnapshot> tree = screen.getFlatTree();
+		List<Long> ids = new ArrayList<>(tree.size() + 1);
+		ids.add(SCREEN_ID);
+		for (int i = 0; i < tree.size(); i++) {
+			ids.add(tree.get(i).getId());
+		}
+		return validate(screen, ids);
+	}
+
+	/**
+	 * Re-validates the given widgets after they changed. A changed widget is
+	 * checked together with its siblings (overlap), its children (fit) and the
+	 * widgets sharing its old or new name. Ids that are no longer in the screen
+	 * drop their problems; for a removed subtree every id must be given.
+	 *
+	 * @param screen the screen after the changes
+	 * @param changedIds the ids of the added, removed or changed widgets, and
+	 *            {@link #SCREEN_ID} if the screen size changed
+	 * @return all problems
+	 */
+	public List<LvglValidationProblem> validate(LvglScreenSnapshot screen, Collection<Long> changedIds) {
+		FlatWidgetTree<LvglWidgetSnapshot> tree = screen.getFlatTree();
+		Map<Long, Integer> indexById = new HashMap<>(tree.size() * 2);
+		for (int i = 0; i < tree.size(); i++) {
+			indexById.put(tree.get(i).getId(), i);
+		}
+
+		Set<Long> widgetsToCheck = new HashSet<>();
+		Set<Long> groupsToCheck = new HashSet<>();
+		Set<String> namesToCheck = new HashSet<>();
+		for (long id : changedIds) {
+			if (id == SCREEN_ID) {
+				// Screen size affects the bounds of the top-level widgets
+				for (LvglWidgetSnapshot widget : screen.getWidgets()) {
+					widgetsToCheck.add(widget.getId());
+				}
+				continue;
+			}
+			Integer index = indexById.get(id);
+			if (index == null) {
+				forget(id, groupsToCheck, namesToCheck);
+				continue;
+			}
+			LvglWidgetSnapshot widget = tree.get(index);
+			int parentIndex = tree.getParentIndex(index);
+			long parentId = parentIndex < 0 ? SCREEN_ID : tree.get(parentIndex).getId();
+			Long oldParentId = parentIds.put(id, parentId);
+			if (oldParentId != null && oldParentId != parentId) {
+				groupsToCheck.add(oldParentId);
+			}
+			groupsToCheck.add(parentId);
+			widgetsToCheck.add(id);
+			// The size of a container affects whether its children fit
+			for (LvglWidgetSnapshot child : widget.getChildren()) {
+				widgetsToCheck.add(child.getId());
+			}
+			String name = widget.getVariableName();
+			String oldName = variableNames.put(id, name);
+			if (!name.equals(oldName)) {
+				if (oldName != null) {
+					removeName(oldName, id);
+					namesToCheck.add(oldName);
+				}
+				idsByVariableName.computeIfAbsent(name, k -> new HashSet<>()).add(id);
+				namesToCheck.add(name);
+			}
+		}
+
+		for (long id : widgetsToCheck) {
+			Integer index = indexById.get(id);
+			if (index != null) {
+				checkWidget(screen, tree, index);
+			}
+		}
+		for (long groupId : groupsToCheck) {
+			if (groupId == SCREEN_ID) {
+				checkOverlap(screen.getWidgets(), LayoutType.NONE);
+			} else {
+				Integer index = indexById.get(groupId);
+				if (index != null) {
+					LvglWidgetSnapshot container = tree.get(index);
+					checkOverlap(container.getChildren(), container.getLayoutType());
+				}
+			}
+		}
+		for (String name : namesToCheck) {
+			checkDuplicates(name, tree, indexById);
+		}
+		return getProblems();
+	}
+
+	/**
+	 * Gets the problems found by the last run.
+	 *
+	 * @return the problems
+	 */
+	public List<LvglValidationProblem> getProblems() {
+		List<LvglValidationProblem> result = new ArrayList<>();
+		for (EnumMap<Check, LvglValidationProblem> widgetProblems : problems.values()) {
+			result.addAll(widgetProblems.values());
+		}
+		return result;
+	}
+
+	/**
+	 * Discards the results of earlier runs.
+	 */
+	public void reset() {
+		problems.clear();
+		parentIds.clear();
+		variableNames.clear();
+		idsByVariableName.clear();
+	}
+
+	private void forget(long id, Set<Long> groupsToCheck, Set<String> namesToCheck) {
+		problems.remove(id);
+		Long parentId = parentIds.remove(id);
+		if (parentId != null) {
+			groupsToCheck.add(parentId);
+		}
+		String name = variableNames.remove(id);
+		if (name != null) {
+			removeName(name, id);
+			namesToCheck.add(name);
+		}
+	}
+
+	private void removeName(String name, long id) {
+		Set<Long> ids = idsByVariableName.get(name);
+		if (ids != null && ids.remove(id) && ids.isEmpty()) {
+			idsByVariableName.remove(name);
+		}
+	}
+
+	private void checkWidget(LvglScreenSnapshot screen, FlatWidgetTree<LvglWidgetSnapshot> tree, int index) {
+		LvglWidgetSnapshot widget = tree.get(index);
+		int parentIndex = tree.getParentIndex(index);
+		if (parentIndex < 0) {
+			report(widget, Check.OUTSIDE_SCREEN, fits(widget, screen.getWidth(), screen.getHeight()) ? null
+					: "Widget lies outside the screen bounds (" + screen.getWidth() + "x" + screen.getHeight() + ")");
+		} else {
+			LvglWidgetSnapshot parent = tree.get(parentIndex);
+			boolean fits = parent.getLayoutType() != LayoutType.NONE
+					|| fits(widget, parent.getWidth(), parent.getHeight());
+			report(widget, Check.OUTSIDE_PARENT,
+					fits ? null : "Widget does not fit its container '" + parent.getName() + "'");
+		}
+
+		String rangeMessage = null;
+		if (VALUE_TYPES.contains(widget.getWidgetType())) {
+			if (widget.getMinValue() > widget.getMaxValue()) {
+				rangeMessage = "Minimum value " + widget.getMinValue() + " is greater than maximum value "
+						+ widget.getMaxValue();
+			} else if (widget.getValue() < widget.getMinValue() || widget.getValue() > widget.getMaxValue()) {
+				rangeMessage = "Value " + widget.getValue() + " is outside the range " + widget.getMinValue() + ".."
+						+ widget.getMaxValue();
+			}
+		}
+		report(widget, Check.VALUE_RANGE, rangeMessage);
+	}
+
+	private static boolean fits(LvglWidgetSnapshot widget, int width, int height) {
+		return widget.getX() >= 0 && widget.getY() >= 0 && widget.getX() + widget.getWidth() <= width
+				&& widget.getY() + widget.getHeight() <= height;
+	}
+
+	/**
+	 * Checks siblings for overlap with a sweep along the x axis, so only
+	 * siblings whose horizontal extents intersect are compared. The bounds are
+	 * copied into primitive arrays sorted by x to keep the sweep cache-friendly.
+	 */
+	private void checkOverlap(List<LvglWidgetSnapshot> siblings, LayoutType layoutType) {
+		int count = siblings.size();
+		if (layoutType != LayoutType.NONE) {
+			for (LvglWidgetSnapshot sibling : siblings) {
+				report(sibling, Check.OVERLAP, null);
+			}
+			return;
+		}
+		// Sort by x: the high bits hold the (biased) x, the low bits the index
+		long[] keys = new long[count];
+		for (int i = 0; i < count; i++) {
+			keys[i] = ((long) siblings.get(i).getX() - Integer.MIN_VALUE) << 32 | i;
+		}
+		Arrays.sort(keys);
+		int[] order = new int[count];
+		int[] left = new int[count];
+		int[] right = new int[count];
+		int[] top = new int[count];
+		int[] bottom = new int[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = (int) keys[i];
+			LvglWidgetSnapshot widget = siblings.get(order[i]);
+			left[i] = widget.getX();
+			right[i] = widget.getX() + widget.getWidth();
+			top[i] = widget.getY();
+			bottom[i] = widget.getY() + widget.getHeight();
+		}
+
+		int[] overlaps = new int[count];
+		int[] firstOverlap = new int[count];
+		int[] active = new int[count];
+		int activeCount = 0;
+		for (int i = 0; i < count; i++) {
+			if (right[i] <= left[i] || bottom[i] <= top[i]) {
+				continue;
+			}
+			int kept = 0;
+			for (int a = 0; a < activeCount; a++) {
+				int j = active[a];
+				if (right[j] <= left[i]) {
+					// Ends before this one starts, and before all later ones
+					continue;
+				}
+				active[kept++] = j;
+				if (top[i] < bottom[j] && top[j] < bottom[i]) {
+					if (overlaps[i]++ == 0) {
+						firstOverlap[i] = j;
+					}
+					if (overlaps[j]++ == 0) {
+						firstOverlap[j] = i;
+					}
+				}
+			}
+			activeCount = kept;
+			active[activeCount++] = i;
+		}
+		for (int i = 0; i < count; i++) {
+			String message = null;
+			if (overlaps[i] > 0) {
+				message = "Widget overlaps '" + siblings.get(order[firstOverlap[i]]).getName() + "'";
+				if (overlaps[i] > 1) {
+					message += " and " + (overlaps[i] - 1) + " more sibling(s)";
+				}
+			}
+			report(siblings.get(order[i]), Check.OVERLAP, message);
+		}
+	}
+
+	private void checkDuplicates(String name, FlatWidgetTree<LvglWidgetSnapshot> tree,
+			Map<Long, Integer> indexById) {
+		Set<Long> ids = idsByVariableName.get(name);
+		if (ids == null) {
+			return;
+		}
+		for (long id : ids) {
+			Integer index = indexById.get(id);
+			if (index != null) {
+				report(tree.get(index), Check.DUPLICATE_NAME, ids.size() < 2 ? null
+						: "Variable name '" + name + "' is used by " + ids.size() + " widgets");
+			}
+		}
+	}
+
+	/**
+	 * Records or clears the problem of a widget for a check.
+	 *
+	 * @param message the problem message, or null if the check passed
+	 */
+	private void report(LvglWidgetSnapshot widget, Check check, String message) {
+		long id = widget.getId();
+		EnumMap<Check, LvglValidationProblem> widgetProblems = problems.get(id);
+		if (message == null) {
+			if (widgetProblems != null && widgetProblems.remove(check) != null && widgetProblems.isEmpty()) {
+				problems.remove(id);
+			}
+			return;
+		}
+		if (widgetProblems == null) {
+			widgetProblems = new EnumMap<>(Check.class);
+			problems.put(id, widgetProblems);
+		}
+		widgetProblems.put(check, new LvglValidationProblem(check, id, widget.getName(), message));
+	}
+}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import com.tlcsdm.eclipse.graphiti.demo.Activator;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglXmlProblem;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglXmlSerializer;
+import com.tlcsdm.eclipse.graphiti.demo.util.ConsoleUtil;
+
+/**
+ * Background job that parses the XML text of a Source page, shows the
+ * problems as markers on the .graphxml file, and keeps the parsed screen so
+ * the Design page can be updated without parsing again. Submissions made
+ * while the job is waiting or running are merged, so only the latest text is
+ * parsed.
+ */
+public class LvglSourceParseJob extends Job {
+
+	/** Marker type of the XML problems */
+	public static final String MARKER_TYPE = Activator.PLUGIN_ID + ".lvglSourceProblem";
+
+	private final IFile file;
+	private final LvglXmlSerializer serializer = new LvglXmlSerializer();
+
+	/** Problems currently shown as markers */
+	private List<LvglXmlProblem> shownProblems;
+
+	// Pending work, guarded by this
+	private String pendingText;
+	private long pendingStamp;
+	private boolean pendingClear;
+
+	// Latest result, guarded by this
+	private long parsedStamp = -1;
+	private LvglScreen parsedScreen;
+	private List<LvglXmlProblem> parsedProblems = List.of();
+
+	/**
+	 * Creates a parse job for a file.
+	 *
+	 * @param file the .graphxml file the markers are created on
+	 */
+	public LvglSourceParseJob(IFile file) {
+		super("Parse LVGL Screen Source");
+		this.file = file;
+		setSystem(true);
+		setPriority(DECORATE);
+	}
+
+	/**
+	 * Submits a text for parsing. Callers debounce their submissions, so the
+	 * job runs at once.
+	 *
+	 * @param text the XML text
+	 * @param stamp the modification stamp of the document holding the text
+	 */
+	public void submit(String text, long stamp) {
+		synchronized (this) {
+			pendingText = text;
+			pendingStamp = stamp;
+			pendingClear = false;
+		}
+		schedule();
+	}
+
+	/**
+	 * Removes the markers and forgets the parsed text, such as when the text
+	 * is discarded. A text submitted later is parsed as usual.
+	 */
+	public void clear() {
+		synchronized (this) {
+			pendingText = null;
+			pendingClear = true;
+			parsedStamp = -1;
+			parsedScreen = null;
+			parsedProblems = List.of();
+		}
+		schedule();
+	}
+
+	/**
+	 * Takes the screen parsed from the text with the given stamp. The screen
+	 * is handed out once, since the caller may adopt it as its model.
+	 *
+	 * @param stamp the modification stamp of the current text
+	 * @return the screen, or null if that text was not parsed yet or has
+	 *         errors
+	 */
+	public synchronized LvglScreen takeScreen(long stamp) {
+		if (stamp != parsedStamp) {
+			return null;
+		}
+		LvglScreen screen = parsedScreen;
+		parsedScreen = null;
+		return screen;
+	}
+
+	/**
+	 * Gets the errors found in the text with the given stamp.
+	 *
+	 * @param stamp the modification stamp of the current text
+	 * @return the errors, or null if that text was not parsed yet
+	 */
+	public synchronized List<LvglXmlProblem> getErrors(long stamp) {
+		if (stamp != parsedStamp) {
+			return null;
+		}
+		List<LvglXmlProblem> errors = new ArrayList<>();
+		for (LvglXmlProblem problem : parsedProblems) {
+			if (problem.getSeverity() == LvglXmlProblem.Severity.ERROR) {
+				errors.add(problem);
+			}
+		}
+		return errors;
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		String text;
+		long stamp;
+		boolean clear;
+		synchronized (this) {
+			text = pendingText;
+			stamp = pendingStamp;
+			clear = pendingClear;
+			pendingText = null;
+			pendingClear = false;
+		}
+		if (clear) {
+			return showProblems(List.of(), monitor);
+		}
+		if (text == null) {
+			return Status.OK_STATUS;
+		}
+		if (monitor.isCanceled()) {
+			return Status.CANCEL_STATUS;
+		}
+
+		List<LvglXmlProblem> problems = new ArrayList<>();
+		LvglScreen screen = serializer.load(text, problems);
+		synchronized (this) {
+			parsedStamp = stamp;
+			parsedScreen = screen;
+			parsedProblems = problems;
+		}
+		return showProblems(problems, monitor);
+	}
+
+	private IStatus showProblems(List<LvglXmlProblem> problems, IProgressMonitor monitor) {
+		if (problems.equals(shownProblems) || !file.exists()) {
+			return Status.OK_STATUS;
+		}
+		try {
+			updateMarkers(problems, monitor);
+			shownProblems = problems;
+		} catch (CoreException e) {
+			ConsoleUtil.printError("Failed to update XML problem markers: " + e.getMessage());
+		}
+		return Status.OK_STATUS;
+	}
+
+	private void updateMarkers(List<LvglXmlProblem> problems, IProgressMonitor monitor) throws CoreException {
+		// Replace all markers in one workspace operation, so listeners such as the
+		// Problems view and the Source page rulers are notified once
+		file.getWorkspace().run(m -> {
+			file.deleteMarkers(MARKER_TYPE, false, IResource.DEPTH_ZERO);
+			for (LvglXmlProblem problem : problems) {
+				IMarker marker = file.createMarker(MARKER_TYPE);
+				marker.setAttribute(IMarker.MESSAGE, problem.getMessage());
+				marker.setAttribute(IMarker.SEVERITY,
+						problem.getSeverity() == LvglXmlProblem.Severity.ERROR ? IMarker.SEVERITY_ERROR
+								: IMarker.SEVERITY_WARNING);
+				if (problem.getLine() > 0) {
+					marker.setAttribute(IMarker.LINE_NUMBER, problem.getLine());
+					marker.setAttribute(IMarker.LOCATION, "line " + problem.getLine());
+				}
+			}
+		}, file, IWorkspace.AVOID_UPDATE, monitor);
+	}
+}
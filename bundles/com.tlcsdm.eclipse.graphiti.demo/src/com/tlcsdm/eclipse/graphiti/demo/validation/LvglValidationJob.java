@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.validation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import com.tlcsdm.eclipse.graphiti.demo.Activator;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreenSnapshot;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglXmlSerializer;
+import com.tlcsdm.eclipse.graphiti.demo.util.ConsoleUtil;
+
+/**
+ * Background job that validates screen snapshots and shows the problems as
+ * markers on the .graphxml file. Submissions made while the job is waiting or
+ * running are merged, so only the latest snapshot is validated.
+ */
+public class LvglValidationJob extends Job {
+
+	/** Marker type of the validation problems */
+	public static final String MARKER_TYPE = Activator.PLUGIN_ID + ".lvglProblem";
+
+	/** Marker attribute holding the id of the widget with the problem */
+	public static final String ATTR_WIDGET_ID = "widgetId";
+
+	/** Delay before validating, so bursts of edits are validated once */
+	private static final long DELAY = 200;
+
+	private final IFile file;
+	private final LvglModelValidator validator = new LvglModelValidator();
+
+	/** Problems currently shown as markers */
+	private Set<LvglValidationProblem> shownProblems;
+
+	// Pending work, guarded by this
+	private LvglScreenSnapshot pendingScreen;
+	private Set<Long> pendingIds = new HashSet<>();
+	private boolean pendingFull;
+	private boolean pendingFileContent;
+
+	/**
+	 * Creates a validation job for a file.
+	 *
+	 * @param file the .graphxml file the markers are created on
+	 */
+	public LvglValidationJob(IFile file) {
+		super("Validate LVGL Screen");
+		this.file = file;
+		setSystem(true);
+		setPriority(DECORATE);
+	}
+
+	/**
+	 * Submits a snapshot for validation.
+	 *
+	 * @param screen the screen snapshot
+	 * @param changedIds the ids of the widgets changed since the last
+	 *            submission (see {@link LvglModelValidator#validate(LvglScreenSnapshot, java.util.Collection)}),
+	 *            or null to validate the whole screen
+	 */
+	public void submit(LvglScreenSnapshot screen, Set<Long> changedIds) {
+		synchronized (this) {
+			pendingScreen = screen;
+			pendingFileContent = false;
+			if (changedIds == null) {
+				pendingFull = true;
+			} else {
+				pendingIds.addAll(changedIds);
+			}
+		}
+		schedule(DELAY);
+	}
+
+	/**
+	 * Validates the content of the file instead of a snapshot, such as when
+	 * the unsaved edits the markers were computed from are discarded. The
+	 * markers are removed if the file cannot be read.
+	 */
+	public void submitFileContent() {
+		synchronized (this) {
+			pendingScreen = null;
+			pendingIds = new HashSet<>();
+			pendingFull = false;
+			pendingFileContent = true;
+		}
+		schedule(DELAY);
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		LvglScreenSnapshot screen;
+		Set<Long> changedIds;
+		boolean full;
+		boolean fileContent;
+		synchronized (this) {
+			screen = pendingScreen;
+			changedIds = pendingIds;
+			full = pendingFull;
+			fileContent = pendingFileContent;
+			pendingScreen = null;
+			pendingIds = new HashSet<>();
+			pendingFull = false;
+			pendingFileContent = false;
+		}
+		if (screen == null && !fileContent) {
+			return Status.OK_STATUS;
+		}
+		if (monitor.isCanceled()) {
+			return Status.CANCEL_STATUS;
+		}
+
+		List<LvglValidationProblem> problems;
+		if (fileContent) {
+			screen = loadFile();
+			problems = screen != null ? validator.validate(screen) : List.of();
+		} else {
+			problems = full ? validator.validate(screen) : validator.validate(screen, changedIds);
+		}
+		Set<LvglValidationProblem> problemSet = new HashSet<>(problems);
+		if (problemSet.equals(shownProblems) || !file.exists()) {
+			return Status.OK_STATUS;
+		}
+		try {
+			updateMarkers(problems, monitor);
+			shownProblems = problemSet;
+		} catch (CoreException e) {
+			ConsoleUtil.printError("Failed to update validation markers: " + e.getMessage());
+		}
+		return Status.OK_STATUS;
+	}
+
+	private LvglScreenSnapshot loadFile() {
+		if (!file.exists()) {
+			return null;
+		}
+		try (InputStream inputStream = file.getContents()) {
+			return new LvglXmlSerializer().load(inputStream).snapshot();
+		} catch (CoreException | IOException e) {
+			ConsoleUtil.printError("Failed to validate " + file.getName() + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	private void updateMarkers(List<LvglValidationProblem> problems, IProgressMonitor monitor) throws CoreException {
+		List<LvglValidationProblem> sorted = new ArrayList<>(problems);
+		sorted.sort((a, b) -> Long.compare(a.getWidgetId(), b.getWidgetId()));
+		// Replace all markers in one workspace operation, so listeners such as the
+		// Problems view are notified once
+		file.getWorkspace().run(m -> {
+			file.deleteMarkers(MARKER_TYPE, false, IResource.DEPTH_ZERO);
+			for (LvglValidationProblem problem : sorted) {
+				IMarker marker = file.createMarker(MARKER_TYPE);
+				marker.setAttribute(IMarker.MESSAGE, problem.getMessage());
+				marker.setAttribute(IMarker.SEVERITY,
+						problem.getSeverity() == LvglValidationProblem.Severity.ERROR ? IMarker.SEVERITY_ERROR
+								: IMarker.SEVERITY_WARNING);
+				marker.setAttribute(IMarker.LOCATION, problem.getWidgetName());
+				marker.setAttribute(ATTR_WIDGET_ID, Long.toString(problem.getWidgetId()));
+			}
+		}, file, IWorkspace.AVOID_UPDATE, monitor);
+	}
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.validation;
+
+import java.util.Objects;
+
+/**
+ * A problem found by the {@link LvglModelValidator} on a single widget.
+ */
+public final class LvglValidationProblem {
+
+	/**
+	 * Problem severity.
+	 */
+	public enum Severity {
+		WARNING, ERROR
+	}
+
+	/**
+	 * The check that reported a problem. A widget has at most one problem per
+	 * check.
+	 */
+	public enum Check {
+		DUPLICATE_NAME(Severity.ERROR),
+		OUTSIDE_SCREEN(Severity.WARNING),
+		OUTSIDE_PARENT(Severity.WARNING),
+		OVERLAP(Severity.WARNING),
+		VALUE_RANGE(Severity.WARNING);
+
+		private final Severity severity;
+
+		Check(Severity severity) {
+			this.severity = severity;
+		}
+
+		public Severity getSeverity() {
+			return severity;
+		}
+	}
+
+	private final Check check;
+	private final long widgetId;
+	private final String widgetName;
+	private final String message;
+
+	public LvglValidationProblem(Check check, long widgetId, String widgetName, String message) {
+		this.check = check;
+		this.widgetId = widgetId;
+		this.widgetName = widgetName;
+		this.message = message;
+	}
+
+	public Check getCheck() {
+		return check;
+	}
+
+	public Severity getSeverity() {
+		return check.getSeverity();
+	}
+
+	public long getWidgetId() {
+		return widgetId;
+	}
+
+	public String getWidgetName() {
+		return widgetName;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof LvglValidationProblem other && other.check == check && other.widgetId == widgetId
+				&& Objects.equals(other.widgetName, widgetName) && Objects.equals(other.message, message);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(check, widgetId, widgetName, message);
+	}
+
+	@Override
+	public String toString() {
+		return check.getSeverity() + " " + widgetName + ": " + message;
+	}
+}
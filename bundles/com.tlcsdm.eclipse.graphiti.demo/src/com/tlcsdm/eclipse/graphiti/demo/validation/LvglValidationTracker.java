@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2025 Tlcsdm. All rights reserved.
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v2.0 which accompanies this distribution,
+ * and is available at https://www.eclipse.org/legal/epl-v20.html
+ ******************************************************************************/
+package com.tlcsdm.eclipse.graphiti.demo.validation;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.swt.widgets.Display;
+
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreen;
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglWidget;
+import com.tlcsdm.eclipse.graphiti.demo.model.ModelChangeListener;
+import com.tlcsdm.eclipse.graphiti.demo.model.ModelChangeSet;
+import com.tlcsdm.eclipse.graphiti.demo.model.ModelElement;
+import com.tlcsdm.eclipse.graphiti.demo.model.ModelProperty;
+import com.tlcsdm.eclipse.graphiti.demo.model.TreeTraversal;
+
+/**
+ * Collects the ids of the widgets changed in a screen and submits them to a
+ * {@link LvglValidationJob}. Changes made during one turn of the UI event loop
+ * are submitted together with a single snapshot.
+ */
+public class LvglValidationTracker implements ModelChangeListener {
+
+	private final LvglValidationJob job;
+	private LvglScreen screen;
+	private final Set<Long> changedIds = new HashSet<>();
+	private boolean flushPending;
+
+	/**
+	 * Creates a tracker for a validation job.
+	 *
+	 * @param job the job to submit to
+	 */
+	public LvglValidationTracker(LvglValidationJob job) {
+		this.job = job;
+	}
+
+	/**
+	 * Starts tracking a screen and validates it completely. A previously
+	 * tracked screen is detached.
+	 *
+	 * @param newScreen the screen to track
+	 */
+	public void attach(LvglScreen newScreen) {
+		detach();
+		screen = newScreen;
+		screen.addTreeChangeListener(this);
+		job.submit(screen.snapshot(), null);
+	}
+
+	/**
+	 * Stops tracking the current screen.
+	 */
+	public void detach() {
+		if (screen != null) {
+			screen.removeTreeChangeListener(this);
+			screen = null;
+		}
+		changedIds.clear();
+	}
+
+	@Override
+	public void propertyChanged(ModelElement source, ModelProperty property, Object oldValue, Object newValue) {
+		if (newValue instanceof ModelChangeSet changes) {
+			for (ModelChangeSet.Change change : changes.getChanges()) {
+				addSource(change.getSource());
+				if (change.getProperty() == ModelProperty.MOVE) {
+					addSource(change.getChild());
+				} else if (change.getChild() != null) {
+					addSubtree(change.getChild());
+				}
+			}
+		} else {
+			addSource(source);
+		}
+		scheduleFlush();
+	}
+
+	@Override
+	public void intPropertyChanged(ModelElement source, ModelProperty property, int oldValue, int newValue) {
+		addSource(source);
+		scheduleFlush();
+	}
+
+	@Override
+	public void booleanPropertyChanged(ModelElement source, ModelProperty property, boolean oldValue,
+			boolean newValue) {
+		addSource(source);
+		scheduleFlush();
+	}
+
+	@Override
+	public void structureChanged(ModelElement source, ModelProperty property, ModelElement child, int index) {
+		addSource(source);
+		addSubtree(child);
+		scheduleFlush();
+	}
+
+	@Override
+	public void childMoved(ModelElement source, ModelElement child, int oldIndex, int newIndex) {
+		// The widgets stay in the screen, so only the container and the moved widget are checked again
+		addSource(source);
+		addSource(child);
+		scheduleFlush();
+	}
+
+	private void addSource(ModelElement source) {
+		changedIds.add(source instanceof LvglWidget widget ? widget.getId() : LvglModelValidator.SCREEN_ID);
+	}
+
+	/**
+	 * Adds an added or removed widget with all its descendants, since the
+	 * validator needs every id of a removed subtree.
+	 */
+	private void addSubtree(ModelElement root) {
+		if (!(root instanceof LvglWidget rootWidget)) {
+			return;
+		}
+		TreeTraversal.forEach(List.of(rootWidget), LvglWidget::getChildren, widget -> changedIds.add(widget.getId()));
+	}
+
+	private void scheduleFlush() {
+		if (flushPending) {
+			return;
+		}
+		flushPending = true;
+		Display.getDefault().asyncExec(this::flush);
+	}
+
+	private void flush() {
+		flushPending = false;
+		if (screen != null && !changedIds.isEmpty()) {
+			job.submit(screen.snapshot(), new HashSet<>(changedIds));
+			changedIds.clear();
+		}
+	}
+}
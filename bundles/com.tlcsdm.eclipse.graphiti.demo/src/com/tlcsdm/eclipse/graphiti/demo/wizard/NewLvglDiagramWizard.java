@@ -86,7 +86,13 @@ public class NewLvglDiagramWizard extends Wizard implements INewWizard {
 		}
 	}
 
-	private String getScreenName(String fileName) {
+	/**
+	 * Gets the name of the screen created in a file.
+	 *
+	 * @param fileName the name of the .graphxml file
+	 * @return the screen name
+	 */
+	static String getScreenName(String fileName) {
 		if (fileName.endsWith("." + FILE_EXTENSION)) {
 			return fileName.substring(0, fileName.length() - FILE_EXTENSION.length() - 1);
 		}
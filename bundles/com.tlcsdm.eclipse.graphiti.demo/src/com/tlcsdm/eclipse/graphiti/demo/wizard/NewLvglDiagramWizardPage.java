@@ -6,9 +6,17 @@
  ******************************************************************************/
 package com.tlcsdm.eclipse.graphiti.demo.wizard;
 
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.ui.dialogs.WizardNewFileCreationPage;
 
+import com.tlcsdm.eclipse.graphiti.demo.model.LvglScreenHeader;
+import com.tlcsdm.eclipse.graphiti.demo.project.LvglProject;
+
 /**
  * Wizard page for creating a new LVGL UI diagram file.
  */
@@ -30,8 +38,35 @@ public class NewLvglDiagramWizardPage extends WizardNewFileCreationPage {
 			if (!fileName.endsWith("." + NewLvglDiagramWizard.FILE_EXTENSION)) {
 				setFileName(fileName + "." + NewLvglDiagramWizard.FILE_EXTENSION);
 			}
+			checkScreenName();
 			return true;
 		}
 		return false;
 	}
+
+	/**
+	 * Warns if another screen of the project has the same variable name, as the
+	 * generated code of both screens would define it.
+	 */
+	private void checkScreenName() {
+		IPath containerPath = getContainerFullPath();
+		IResource container = containerPath != null
+				? ResourcesPlugin.getWorkspace().getRoot().findMember(containerPath)
+				: null;
+		IProject eclipseProject = container != null ? container.getProject() : null;
+		if (eclipseProject == null || !eclipseProject.isAccessible()) {
+			return;
+		}
+		String screenName = NewLvglDiagramWizard.getScreenName(getFileName());
+		String variableName = new LvglScreenHeader(screenName, 0, 0, 0).getVariableName();
+		LvglProject project = LvglProject.get(eclipseProject);
+		for (IFile file : project.getScreenFiles()) {
+			LvglScreenHeader header = project.getHeader(file);
+			if (header != null && header.getVariableName().equals(variableName)) {
+				setMessage("The screen in " + file.getProjectRelativePath() + " already uses the variable name "
+						+ variableName, WARNING);
+				return;
+			}
+		}
+	}
 }